@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.benchmark;
+
+import com.alibaba.hologres.client.model.Column;
+import com.alibaba.hologres.client.model.Record;
+import com.alibaba.hologres.client.model.TableName;
+import com.alibaba.hologres.client.model.TableSchema;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 各个benchmark共用的表结构和数据.
+ */
+public class BenchmarkData {
+
+	/**
+	 * 宽表的列类型，按顺序循环.
+	 */
+	private static final int[] WIDE_TYPES = new int[]{Types.INTEGER, Types.BIGINT, Types.VARCHAR, Types.DOUBLE, Types.NUMERIC, Types.TIMESTAMP, Types.BIT, Types.OTHER};
+	private static final String[] WIDE_TYPE_NAMES = new String[]{"int4", "int8", "text", "float8", "numeric", "timestamptz", "bool", "json"};
+
+	/**
+	 * 不依赖TimestampUtils的列类型，按顺序循环；用于csv解析和写入sql这些没有连接就无法处理时间类型的场景.
+	 */
+	private static final int[] SIMPLE_TYPES = new int[]{Types.BIGINT, Types.VARCHAR, Types.INTEGER, Types.DOUBLE, Types.NUMERIC, Types.BIT};
+	private static final String[] SIMPLE_TYPE_NAMES = new String[]{"int8", "text", "int4", "float8", "numeric", "bool"};
+
+	/**
+	 * 第0列为主键，列类型按int4, int8, text, float8, numeric, timestamptz, bool, json循环.
+	 */
+	public static TableSchema buildWideSchema(int columnCount) {
+		return buildSchema("benchmark_wide_" + columnCount, columnCount, WIDE_TYPES, WIDE_TYPE_NAMES, 1);
+	}
+
+	/**
+	 * 前keyCount列为主键，同时也是distribution key，列类型按int8, text, int4, float8, numeric, bool循环.
+	 */
+	public static TableSchema buildSimpleSchema(int columnCount, int keyCount) {
+		return buildSchema("benchmark_simple_" + columnCount, columnCount, SIMPLE_TYPES, SIMPLE_TYPE_NAMES, keyCount);
+	}
+
+	private static TableSchema buildSchema(String tableName, int columnCount, int[] types, String[] typeNames, int keyCount) {
+		List<Column> columns = new ArrayList<>();
+		String[] keys = new String[keyCount];
+		for (int i = 0; i < columnCount; ++i) {
+			Column column = new Column();
+			column.setName("c" + i);
+			column.setType(types[i % types.length]);
+			column.setTypeName(typeNames[i % types.length]);
+			column.setPrecision(38);
+			column.setScale(2);
+			column.setPrimaryKey(i < keyCount);
+			column.setAllowNull(i >= keyCount);
+			if (i < keyCount) {
+				keys[i] = column.getName();
+			}
+			columns.add(column);
+		}
+		TableSchema.Builder builder = new TableSchema.Builder();
+		builder.setTableName(TableName.valueOf(tableName));
+		builder.setColumns(columns);
+		builder.setDistributionKeys(keys);
+		TableSchema schema = builder.build();
+		schema.calculateProperties();
+		return schema;
+	}
+
+	/**
+	 * 按列类型生成随机值，主键列的值由id决定.
+	 */
+	public static Record buildRecord(TableSchema schema, Random random, int id) {
+		Record record = Record.build(schema);
+		Column[] columns = schema.getColumnSchema();
+		for (int i = 0; i < columns.length; ++i) {
+			record.setObject(i, buildValue(columns[i], random, id));
+		}
+		return record;
+	}
+
+	private static Object buildValue(Column column, Random random, int id) {
+		boolean key = Boolean.TRUE.equals(column.getPrimaryKey());
+		switch (column.getType()) {
+			case Types.INTEGER:
+				return key ? id : random.nextInt();
+			case Types.BIGINT:
+				return key ? (long) id : random.nextLong();
+			case Types.VARCHAR:
+				return key ? "key_" + id : "name_" + random.nextInt(1000000);
+			case Types.DOUBLE:
+				return random.nextDouble();
+			case Types.NUMERIC:
+				return BigDecimal.valueOf(random.nextInt(100000000), 2);
+			case Types.TIMESTAMP:
+				return new Timestamp(1700000000000L + random.nextInt(1000000000));
+			case Types.BIT:
+				return random.nextBoolean();
+			default:
+				return "{\"k\":" + random.nextInt(1000) + ",\"v\":\"value\"}";
+		}
+	}
+
+	/**
+	 * 只统计写入字节数的OutputStream，避免benchmark测到内存拷贝.
+	 */
+	public static class CountingOutputStream extends OutputStream {
+		long count;
+
+		@Override
+		public void write(int b) {
+			++count;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+
+		public long getCount() {
+			return count;
+		}
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.benchmark;
+
+import com.alibaba.hologres.client.HoloClient;
+import com.alibaba.hologres.client.HoloConfig;
+import com.alibaba.hologres.client.model.TableSchema;
+import org.postgresql.PGProperty;
+import org.postgresql.jdbc.PgConnection;
+import org.postgresql.replication.PGReplicationStream;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 从Hologres抓取一个shard的原始binlog数据，保存到目录中供HoloBinlogDecoderBenchmark离线使用.
+ * 目录中schema.ser为java序列化的TableSchema，payload-{shardId}-{seq}.bin为每次readPending得到的原始数据.
+ * 用法：java -cp benchmarks.jar com.alibaba.hologres.client.benchmark.BinlogPayloadCapture jdbcUrl username password tableName slotName shardId payloadCount outputDir
+ */
+public class BinlogPayloadCapture {
+
+	static final String SCHEMA_FILE = "schema.ser";
+	static final String PAYLOAD_PREFIX = "payload-";
+	static final String PAYLOAD_SUFFIX = ".bin";
+
+	public static void main(String[] args) throws Exception {
+		if (args.length != 8) {
+			System.err.println("usage: BinlogPayloadCapture jdbcUrl username password tableName slotName shardId payloadCount outputDir");
+			System.exit(1);
+		}
+		String jdbcUrl = args[0];
+		String username = args[1];
+		String password = args[2];
+		String tableName = args[3];
+		String slotName = args[4];
+		int shardId = Integer.parseInt(args[5]);
+		int payloadCount = Integer.parseInt(args[6]);
+		File dir = new File(args[7]);
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("create directory " + dir + " fail");
+		}
+
+		HoloConfig config = new HoloConfig();
+		config.setJdbcUrl(jdbcUrl);
+		config.setUsername(username);
+		config.setPassword(password);
+		TableSchema schema;
+		try (HoloClient client = new HoloClient(config)) {
+			schema = client.getTableSchema(tableName, true);
+		}
+		try (ObjectOutputStream os = new ObjectOutputStream(new FileOutputStream(new File(dir, SCHEMA_FILE)))) {
+			os.writeObject(schema);
+		}
+
+		Properties info = new Properties();
+		PGProperty.USER.set(info, username);
+		PGProperty.PASSWORD.set(info, password);
+		PGProperty.ASSUME_MIN_SERVER_VERSION.set(info, "9.4");
+		PGProperty.REPLICATION.set(info, "database");
+		try (PgConnection conn = DriverManager.getConnection(jdbcUrl, info).unwrap(PgConnection.class)) {
+			PGReplicationStream stream = conn.getReplicationAPI()
+					.replicationStream()
+					.logical()
+					.withSlotName(slotName)
+					.withSlotOption("parallel_index", shardId)
+					.withSlotOption("batch_size", 1024)
+					.withStatusInterval(5, TimeUnit.SECONDS)
+					.start();
+			int seq = 0;
+			while (seq < payloadCount) {
+				ByteBuffer buffer = stream.readPending();
+				if (buffer == null) {
+					Thread.sleep(100L);
+					continue;
+				}
+				//和HoloBinlogDecoder.decode读取的范围一致
+				try (OutputStream os = new FileOutputStream(new File(dir, PAYLOAD_PREFIX + shardId + "-" + seq + PAYLOAD_SUFFIX))) {
+					os.write(buffer.array(), buffer.arrayOffset(), buffer.limit());
+				}
+				++seq;
+			}
+			stream.close();
+		}
+		System.out.println("captured " + payloadCount + " payloads of " + tableName + " shard " + shardId + " to " + dir);
+	}
+
+	/**
+	 * 读取BinlogPayloadCapture保存的TableSchema.
+	 */
+	static TableSchema loadSchema(File dir) throws IOException, ClassNotFoundException {
+		try (ObjectInputStream is = new ObjectInputStream(Files.newInputStream(new File(dir, SCHEMA_FILE).toPath()))) {
+			return (TableSchema) is.readObject();
+		}
+	}
+
+	/**
+	 * 读取BinlogPayloadCapture保存的原始binlog数据，按文件名排序.
+	 */
+	static List<File> listPayloads(File dir) {
+		File[] files = dir.listFiles((d, name) -> name.startsWith(PAYLOAD_PREFIX) && name.endsWith(PAYLOAD_SUFFIX));
+		List<File> ret = new ArrayList<>();
+		if (files != null) {
+			Arrays.sort(files);
+			ret.addAll(Arrays.asList(files));
+		}
+		return ret;
+	}
+
+	/**
+	 * 从文件名payload-{shardId}-{seq}.bin中解析shardId.
+	 */
+	static int parseShardId(File file) {
+		String name = file.getName();
+		return Integer.parseInt(name.substring(PAYLOAD_PREFIX.length(), name.indexOf('-', PAYLOAD_PREFIX.length())));
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.benchmark;
+
+import com.alibaba.hologres.client.exception.HoloClientException;
+import com.alibaba.hologres.client.impl.binlog.ArrayBuffer;
+import com.alibaba.hologres.client.impl.binlog.HoloBinlogDecoder;
+import com.alibaba.hologres.client.model.TableSchema;
+import com.alibaba.hologres.client.model.binlog.BinlogRecord;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HoloBinlogDecoder.decode解析原始binlog数据的吞吐，数据由BinlogPayloadCapture事先从Hologres抓取.
+ * 运行：java -jar benchmarks.jar HoloBinlogDecoderBenchmark -p captureDir=/path/to/capture
+ * 结果中decode为每秒解析的payload数，rows为每秒解析的行数.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HoloBinlogDecoderBenchmark {
+
+	/**
+	 * BinlogPayloadCapture的输出目录.
+	 */
+	@Param({""})
+	String captureDir;
+
+	private HoloBinlogDecoder decoder;
+	private byte[][] payloads;
+	private int[] shardIds;
+	private int index;
+	private final ArrayBuffer<BinlogRecord> array = new ArrayBuffer<>(1024, BinlogRecord[].class);
+
+	/**
+	 * 解析出的行数.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class RowCounter {
+		public long rows;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			rows = 0;
+		}
+	}
+
+	@Setup
+	public void setup() throws IOException, ClassNotFoundException, HoloClientException {
+		if (captureDir == null || captureDir.isEmpty()) {
+			throw new IllegalStateException("captureDir is required, capture binlog payloads with BinlogPayloadCapture first and run with -p captureDir=<dir>");
+		}
+		File dir = new File(captureDir);
+		TableSchema schema = BinlogPayloadCapture.loadSchema(dir);
+		List<File> files = BinlogPayloadCapture.listPayloads(dir);
+		if (files.isEmpty()) {
+			throw new IllegalStateException("no binlog payload in " + dir);
+		}
+		payloads = new byte[files.size()][];
+		shardIds = new int[files.size()];
+		for (int i = 0; i < files.size(); ++i) {
+			payloads[i] = Files.readAllBytes(files.get(i).toPath());
+			shardIds[i] = BinlogPayloadCapture.parseShardId(files.get(i));
+		}
+		decoder = new HoloBinlogDecoder(schema);
+	}
+
+	@Benchmark
+	public int decode(RowCounter counter) throws HoloClientException {
+		int i = index;
+		index = i + 1 == payloads.length ? 0 : i + 1;
+		array.beginWrite();
+		decoder.decode(shardIds[i], ByteBuffer.wrap(payloads[i]), array);
+		array.beginRead();
+		int rows = array.remain();
+		counter.rows += rows;
+		return rows;
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(HoloBinlogDecoderBenchmark.class.getSimpleName()).build()).run();
+	}
+}
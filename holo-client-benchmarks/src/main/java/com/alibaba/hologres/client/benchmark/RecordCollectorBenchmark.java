@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.benchmark;
+
+import com.alibaba.hologres.client.HoloConfig;
+import com.alibaba.hologres.client.impl.ExecutionPool;
+import com.alibaba.hologres.client.impl.collector.RecordCollector;
+import com.alibaba.hologres.client.model.Record;
+import com.alibaba.hologres.client.model.TableSchema;
+import com.alibaba.hologres.client.model.WriteMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RecordCollector.append按主键攒批的吞吐，包括RecordKey的hash和相同主键的合并.
+ * ExecutionPool只用于提供可用的内存额度，不会建立连接.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordCollectorBenchmark {
+
+	static final int BATCH = 1024;
+
+	/**
+	 * 不同主键的个数，小于BATCH时会触发相同主键的合并.
+	 */
+	@Param({"1024", "128"})
+	int distinctKeys;
+
+	@Param({"INSERT_OR_REPLACE", "INSERT_OR_UPDATE"})
+	WriteMode mode;
+
+	private Record[] records;
+	private ExecutionPool pool;
+	private RecordCollector collector;
+
+	@Setup
+	public void setup() {
+		TableSchema schema = BenchmarkData.buildSimpleSchema(16, 1);
+		Random random = new Random(0);
+		records = new Record[BATCH];
+		for (int i = 0; i < BATCH; ++i) {
+			records[i] = BenchmarkData.buildRecord(schema, random, i % distinctKeys);
+		}
+		HoloConfig config = new HoloConfig();
+		config.setWriteMode(mode);
+		//只由条数触发提交
+		config.setWriteBatchSize(BATCH);
+		config.setWriteBatchByteSize(Long.MAX_VALUE / 8);
+		config.setWriteMaxIntervalMs(Long.MAX_VALUE / 8);
+		config.setWriteBatchTotalByteSize(Long.MAX_VALUE / 8);
+		pool = new ExecutionPool("benchmark-collector", config, false, false);
+		collector = new RecordCollector(config, pool, 1);
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int append() {
+		collector.clear();
+		int full = 0;
+		for (Record record : records) {
+			if (collector.append(record)) {
+				++full;
+			}
+		}
+		return full + collector.size();
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(RecordCollectorBenchmark.class.getSimpleName()).build()).run();
+	}
+}
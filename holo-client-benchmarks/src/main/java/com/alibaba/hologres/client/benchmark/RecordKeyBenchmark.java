@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.benchmark;
+
+import com.alibaba.hologres.client.impl.util.ShardUtil;
+import com.alibaba.hologres.client.model.Record;
+import com.alibaba.hologres.client.model.RecordKey;
+import com.alibaba.hologres.client.model.TableSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ShardUtil.hash和RecordKey的构造、equals的吞吐.
+ * 主键按int8, text, int4循环，keyCount控制联合主键的列数.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordKeyBenchmark {
+
+	static final int BATCH = 1024;
+
+	@Param({"1", "3"})
+	int keyCount;
+
+	private Record[] records;
+	private Record[] copies;
+	private RecordKey[] keys;
+	private int[] keyIndex;
+
+	@Setup
+	public void setup() {
+		TableSchema schema = BenchmarkData.buildSimpleSchema(8, keyCount);
+		keyIndex = schema.getKeyIndex();
+		records = new Record[BATCH];
+		copies = new Record[BATCH];
+		keys = new RecordKey[BATCH];
+		Random random = new Random(0);
+		for (int i = 0; i < BATCH; ++i) {
+			records[i] = BenchmarkData.buildRecord(schema, random, i);
+			//主键相同但不是同一个对象，equals需要逐列比较
+			copies[i] = BenchmarkData.buildRecord(schema, random, i);
+			keys[i] = new RecordKey(records[i]);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int hash() {
+		int ret = 0;
+		for (Record record : records) {
+			ret += ShardUtil.hash(record, keyIndex);
+		}
+		return ret;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int newKey() {
+		int ret = 0;
+		for (Record record : records) {
+			ret += new RecordKey(record).hashCode();
+		}
+		return ret;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int equalsKey() {
+		int ret = 0;
+		for (int i = 0; i < BATCH; ++i) {
+			if (keys[i].equals(new RecordKey(copies[i]))) {
+				++ret;
+			}
+		}
+		return ret;
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(RecordKeyBenchmark.class.getSimpleName()).build()).run();
+	}
+}
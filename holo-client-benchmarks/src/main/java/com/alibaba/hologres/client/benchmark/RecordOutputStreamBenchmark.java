@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.benchmark;
+
+import com.alibaba.hologres.client.copy.RecordBinaryOutputStream;
+import com.alibaba.hologres.client.copy.RecordOutputStream;
+import com.alibaba.hologres.client.copy.RecordTextOutputStream;
+import com.alibaba.hologres.client.model.Record;
+import com.alibaba.hologres.client.model.TableSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RecordBinaryOutputStream和RecordTextOutputStream编码宽表的吞吐.
+ * text格式没有连接时无法编码时间类型，因此text格式使用不含时间类型的表.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordOutputStreamBenchmark {
+
+	static final int BATCH = 1024;
+
+	/**
+	 * 列数.
+	 */
+	@Param({"16", "64", "256"})
+	int columnCount;
+
+	/**
+	 * binary或text.
+	 */
+	@Param({"binary", "text"})
+	String format;
+
+	private Record[] records;
+	private TableSchema schema;
+
+	@Setup
+	public void setup() {
+		schema = "binary".equals(format) ? BenchmarkData.buildWideSchema(columnCount) : BenchmarkData.buildSimpleSchema(columnCount, 1);
+		Random random = new Random(0);
+		records = new Record[BATCH];
+		for (int i = 0; i < BATCH; ++i) {
+			records[i] = BenchmarkData.buildRecord(schema, random, i);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public long encode() throws IOException {
+		BenchmarkData.CountingOutputStream os = new BenchmarkData.CountingOutputStream();
+		try (RecordOutputStream stream = "binary".equals(format)
+				? new RecordBinaryOutputStream(os, schema, null, 1024 * 1024 * 10)
+				: new RecordTextOutputStream(os, schema, null, 1024 * 1024 * 10)) {
+			for (Record record : records) {
+				stream.putRecord(record);
+			}
+		}
+		return os.getCount();
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(RecordOutputStreamBenchmark.class.getSimpleName()).build()).run();
+	}
+}
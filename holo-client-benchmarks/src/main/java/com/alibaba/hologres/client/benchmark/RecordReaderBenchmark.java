@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.benchmark;
+
+import com.alibaba.hologres.client.copy.RecordTextOutputStream;
+import com.alibaba.hologres.client.impl.RecordReader;
+import com.alibaba.hologres.client.model.Record;
+import com.alibaba.hologres.client.model.TableSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RecordReader解析copy out的csv数据的吞吐，数据由RecordTextOutputStream生成.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordReaderBenchmark {
+
+	static final int BATCH = 1024;
+
+	@Param({"16", "64"})
+	int columnCount;
+
+	private TableSchema schema;
+	private byte[] csv;
+
+	@Setup
+	public void setup() throws IOException {
+		schema = BenchmarkData.buildSimpleSchema(columnCount, 1);
+		Random random = new Random(0);
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		try (RecordTextOutputStream stream = new RecordTextOutputStream(os, schema, null, 1024 * 1024)) {
+			for (int i = 0; i < BATCH; ++i) {
+				stream.putRecord(BenchmarkData.buildRecord(schema, random, i));
+			}
+		}
+		csv = os.toByteArray();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int read() throws IOException {
+		RecordReader reader = new RecordReader(new ByteArrayInputStream(csv), schema, null, new AtomicInteger(1), null);
+		int count = 0;
+		Record record;
+		while ((record = reader.getRecord()) != null) {
+			count += record.getSize();
+		}
+		return count;
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(RecordReaderBenchmark.class.getSimpleName()).build()).run();
+	}
+}
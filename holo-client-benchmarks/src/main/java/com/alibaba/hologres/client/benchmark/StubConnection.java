@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.benchmark;
+
+import org.postgresql.core.BaseConnection;
+import org.postgresql.jdbc.TimestampUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.TimeZone;
+
+/**
+ * 不连接数据库的Connection，用于测量构造PreparedStatement本身的开销.
+ * prepareStatement返回的PreparedStatement接受所有set和addBatch调用但不做任何事，createArrayOf返回空的Array.
+ * unwrap(BaseConnection.class)返回同一个代理，只实现了getTimestampUtils，其他方法返回默认值.
+ */
+public class StubConnection {
+
+	private static final TimestampUtils TIMESTAMP_UTILS = new TimestampUtils(false, TimeZone::getDefault);
+
+	private static final InvocationHandler STATEMENT_HANDLER = (proxy, method, args) -> {
+		switch (method.getName()) {
+			case "executeBatch":
+				return new int[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "equals":
+				return proxy == args[0];
+			default:
+				return defaultValue(method.getReturnType());
+		}
+	};
+
+	private static final InvocationHandler CONNECTION_HANDLER = (proxy, method, args) -> {
+		switch (method.getName()) {
+			case "prepareStatement":
+				return Proxy.newProxyInstance(StubConnection.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, STATEMENT_HANDLER);
+			case "createArrayOf":
+				return Proxy.newProxyInstance(StubConnection.class.getClassLoader(), new Class<?>[]{Array.class}, STATEMENT_HANDLER);
+			case "getTimestampUtils":
+				return TIMESTAMP_UTILS;
+			case "unwrap":
+				if (((Class<?>) args[0]).isInstance(proxy)) {
+					return proxy;
+				}
+				throw new SQLException("StubConnection cannot unwrap to " + args[0]);
+			case "isWrapperFor":
+				return ((Class<?>) args[0]).isInstance(proxy);
+			default:
+				return defaultValue(method.getReturnType());
+		}
+	};
+
+	public static Connection create() {
+		return (Connection) Proxy.newProxyInstance(StubConnection.class.getClassLoader(), new Class<?>[]{BaseConnection.class}, CONNECTION_HANDLER);
+	}
+
+	private static Object defaultValue(Class<?> type) {
+		if (!type.isPrimitive() || type == void.class) {
+			return null;
+		} else if (type == boolean.class) {
+			return false;
+		} else if (type == long.class) {
+			return 0L;
+		} else if (type == int.class) {
+			return 0;
+		} else if (type == short.class) {
+			return (short) 0;
+		} else if (type == byte.class) {
+			return (byte) 0;
+		} else if (type == float.class) {
+			return 0f;
+		} else if (type == double.class) {
+			return 0d;
+		} else {
+			return (char) 0;
+		}
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.benchmark;
+
+import com.alibaba.hologres.client.HoloConfig;
+import com.alibaba.hologres.client.impl.PreparedStatementWithBatchInfo;
+import com.alibaba.hologres.client.impl.UnnestUpsertStatementBuilder;
+import com.alibaba.hologres.client.impl.UpsertStatementBuilder;
+import com.alibaba.hologres.client.model.HoloVersion;
+import com.alibaba.hologres.client.model.Record;
+import com.alibaba.hologres.client.model.TableSchema;
+import com.alibaba.hologres.client.model.WriteMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UpsertStatementBuilder和UnnestUpsertStatementBuilder的buildStatements吞吐，使用StubConnection，不包括执行sql.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UpsertStatementBuilderBenchmark {
+
+	static final int BATCH = 512;
+	static final HoloVersion VERSION = new HoloVersion(2, 1, 0);
+
+	/**
+	 * multi_values为UpsertStatementBuilder，unnest为UnnestUpsertStatementBuilder.
+	 */
+	@Param({"multi_values", "unnest"})
+	String builderType;
+
+	@Param({"16", "64"})
+	int columnCount;
+
+	private TableSchema schema;
+	private List<Record> records;
+	private Connection conn;
+	private UpsertStatementBuilder builder;
+
+	@Setup
+	public void setup() {
+		schema = BenchmarkData.buildSimpleSchema(columnCount, 1);
+		Random random = new Random(0);
+		records = new ArrayList<>(BATCH);
+		for (int i = 0; i < BATCH; ++i) {
+			records.add(BenchmarkData.buildRecord(schema, random, i));
+		}
+		conn = StubConnection.create();
+		HoloConfig config = new HoloConfig();
+		builder = "unnest".equals(builderType) ? new UnnestUpsertStatementBuilder(config) : new UpsertStatementBuilder(config);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int buildStatements() throws SQLException {
+		List<PreparedStatementWithBatchInfo> list = builder.buildStatements(conn, VERSION, schema, schema.getTableNameObj(), records, WriteMode.INSERT_OR_UPDATE);
+		return list.size();
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(UpsertStatementBuilderBenchmark.class.getSimpleName()).build()).run();
+	}
+}
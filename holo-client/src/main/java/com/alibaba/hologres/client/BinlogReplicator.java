@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client;
+
+import com.alibaba.hologres.client.exception.ExceptionCode;
+import com.alibaba.hologres.client.exception.HoloClientException;
+import com.alibaba.hologres.client.impl.binlog.BinlogEventType;
+import com.alibaba.hologres.client.impl.util.ShardUtil;
+import com.alibaba.hologres.client.model.Record;
+import com.alibaba.hologres.client.model.RecordKey;
+import com.alibaba.hologres.client.model.TableName;
+import com.alibaba.hologres.client.model.TableSchema;
+import com.alibaba.hologres.client.model.binlog.BinlogRecord;
+import com.alibaba.hologres.client.utils.Metrics;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 把BinlogShardGroupReader消费到的binlog同步到另一张表(或者自定义的Sink).
+ * 每个窗口(windowSize条或windowMs毫秒)内，同一个主键的BEFORE_UPDATE/AFTER_UPDATE/INSERT/DELETE被合并成最终的一次INSERT或DELETE，
+ * 窗口结束时把合并后的变更交给Sink写入，Sink.flush成功之后才提交源表的lsn，因此失败重启只会重放、不会丢数据.
+ */
+public class BinlogReplicator implements Closeable {
+	public static final Logger LOGGER = LoggerFactory.getLogger(BinlogReplicator.class);
+
+	/**
+	 * 合并后的变更的写入目标.
+	 */
+	public interface Sink {
+		/**
+		 * 写入一个窗口内合并后的变更.
+		 *
+		 * @param records 源表schema的record，type为INSERT(整行)或DELETE，同一个窗口内每个主键最多出现一次
+		 * @throws HoloClientException 写入失败
+		 */
+		void apply(List<Record> records) throws HoloClientException;
+
+		/**
+		 * 等待之前apply的所有变更写入成功.
+		 *
+		 * @throws HoloClientException 写入失败
+		 */
+		void flush() throws HoloClientException;
+	}
+
+	/**
+	 * 通过HoloClient的攒批写入路径把变更写入Hologres表.
+	 * 按列名把源表的列映射到目标表，目标表中不存在的列会被忽略；目标client的writeMode不能是INSERT_OR_IGNORE.
+	 */
+	public static class HoloTableSink implements Sink {
+		private final HoloClient client;
+		//源表 -> 目标表
+		private final Map<TableName, String> tableMapping;
+		private final Map<TableName, TableSchema> targetSchemaMap = new HashMap<>();
+
+		public HoloTableSink(HoloClient client, Map<String, String> tableMapping) {
+			this.client = client;
+			this.tableMapping = new HashMap<>();
+			for (Map.Entry<String, String> entry : tableMapping.entrySet()) {
+				this.tableMapping.put(TableName.valueOf(entry.getKey()), entry.getValue());
+			}
+		}
+
+		@Override
+		public void apply(List<Record> records) throws HoloClientException {
+			List<Record> targetRecords = new ArrayList<>(records.size());
+			for (Record record : records) {
+				targetRecords.add(toTarget(record));
+			}
+			//按目标表的distribution key排序，让同一个shard的数据连续进入同一个TableShardCollector
+			targetRecords.sort(Comparator.comparing((Record r) -> r.getSchema().getTableNameObj().getFullName())
+					.thenComparingInt(r -> Integer.remainderUnsigned(ShardUtil.hash(r, r.getSchema().getDistributionKeyIndex()), ShardUtil.RANGE_END)));
+			List<Put> puts = new ArrayList<>(targetRecords.size());
+			for (Record record : targetRecords) {
+				puts.add(new Put(record));
+			}
+			client.put(puts);
+		}
+
+		@Override
+		public void flush() throws HoloClientException {
+			client.flush();
+		}
+
+		private Record toTarget(Record source) throws HoloClientException {
+			TableName sourceTable = source.getSchema().getTableNameObj();
+			TableSchema targetSchema = targetSchemaMap.get(sourceTable);
+			if (targetSchema == null) {
+				String targetTable = tableMapping.get(sourceTable);
+				if (targetTable == null) {
+					throw new HoloClientException(ExceptionCode.INVALID_REQUEST, "no target table for " + sourceTable.getFullName());
+				}
+				targetSchema = client.getTableSchema(targetTable);
+				if (targetSchema.getPrimaryKeys().length == 0) {
+					throw new HoloClientException(ExceptionCode.INVALID_REQUEST, "target table " + targetTable + " has no primary key");
+				}
+				targetSchemaMap.put(sourceTable, targetSchema);
+			}
+			Record target = Record.build(targetSchema);
+			target.setType(source.getType());
+			for (int i = 0; i < targetSchema.getColumnSchema().length; ++i) {
+				Integer sourceIndex = source.getSchema().getColumnIndex(targetSchema.getColumn(i).getName());
+				if (sourceIndex != null && source.isSet(sourceIndex)) {
+					target.setObject(i, source.getObject(sourceIndex));
+				}
+			}
+			return target;
+		}
+	}
+
+	private final BinlogShardGroupReader reader;
+	private final Sink sink;
+	private final int windowSize;
+	private final long windowMs;
+	private final String metricsName;
+
+	private volatile boolean stopped = false;
+	//最后一次写入成功的窗口中最大的hg_binlog_timestamp_us
+	private volatile long appliedTimestampUs = -1L;
+	private CompletableFuture<Void> lastCommitFuture = null;
+
+	BinlogReplicator(BinlogShardGroupReader reader, Sink sink, int windowSize, long windowMs) {
+		this.reader = reader;
+		this.sink = sink;
+		this.windowSize = windowSize;
+		this.windowMs = windowMs;
+		StringBuilder sb = new StringBuilder();
+		for (Subscribe subscribe : reader.getSubscribes()) {
+			if (sb.length() > 0) {
+				sb.append(",");
+			}
+			sb.append(subscribe.getTableName());
+		}
+		this.metricsName = sb.toString();
+	}
+
+	/**
+	 * 消费延迟，当前时间减去最后一次写入成功的binlog时间.
+	 *
+	 * @return 毫秒，还没有写入过时返回-1
+	 */
+	public long getLagMs() {
+		long ts = appliedTimestampUs;
+		return ts < 0 ? -1L : Math.max(0L, System.currentTimeMillis() - ts / 1000L);
+	}
+
+	/**
+	 * 在当前线程持续同步，直到stop()被调用或者reader被cancel.
+	 *
+	 * @throws HoloClientException 读取、写入或者提交lsn失败
+	 */
+	public void replicate() throws HoloClientException, InterruptedException {
+		MetricRegistry registry = Metrics.registry();
+		Meter rps = registry.meter(Metrics.METRICS_BINLOG_REPLICATE_RPS + metricsName);
+		Meter applyRps = registry.meter(Metrics.METRICS_BINLOG_REPLICATE_APPLY_RPS + metricsName);
+		Histogram applyLatency = registry.histogram(Metrics.METRICS_BINLOG_REPLICATE_APPLY_LATENCY + metricsName);
+		registry.remove(Metrics.METRICS_BINLOG_REPLICATE_LAG_MS + metricsName);
+		registry.register(Metrics.METRICS_BINLOG_REPLICATE_LAG_MS + metricsName, (Gauge<Long>) this::getLagMs);
+
+		reader.setDeferOffsetStore(true);
+		List<BinlogRecord> window = new ArrayList<>(windowSize);
+		boolean dirty = false;
+		long windowTimestampUs = -1L;
+		long windowStart = System.currentTimeMillis();
+		while (!stopped && !reader.isCanceled()) {
+			long remainMs = windowMs - (System.currentTimeMillis() - windowStart);
+			if (remainMs > 0) {
+				BinlogRecord r = null;
+				try {
+					r = reader.getBinlogRecord(remainMs);
+				} catch (TimeoutException ignore) {
+				}
+				if (r != null) {
+					rps.mark();
+					dirty = true;
+					windowTimestampUs = Math.max(windowTimestampUs, r.getBinlogTimestamp());
+					if (!r.isHeartBeat()) {
+						window.add(r);
+					}
+				}
+			}
+			if (window.size() >= windowSize || System.currentTimeMillis() - windowStart >= windowMs) {
+				if (dirty) {
+					long start = System.currentTimeMillis();
+					List<Record> changes = collapse(window);
+					if (!changes.isEmpty()) {
+						sink.apply(changes);
+					}
+					sink.flush();
+					applyRps.mark(changes.size());
+					applyLatency.update(System.currentTimeMillis() - start);
+					commit();
+					appliedTimestampUs = Math.max(appliedTimestampUs, windowTimestampUs);
+				}
+				window.clear();
+				dirty = false;
+				windowStart = System.currentTimeMillis();
+			}
+		}
+	}
+
+	private void commit() throws HoloClientException, InterruptedException {
+		//上一次提交的结果在这里检查，不阻塞当前窗口
+		CompletableFuture<Void> previous = lastCommitFuture;
+		if (previous != null && previous.isDone()) {
+			checkCommit(previous);
+			previous = null;
+		}
+		reader.storeOffsets();
+		CompletableFuture<Void> current = reader.commitAsync();
+		//上一次还没完成时合并两次提交，保证之前的失败不会被覆盖掉
+		lastCommitFuture = previous == null ? current : CompletableFuture.allOf(previous, current);
+	}
+
+	private static void checkCommit(CompletableFuture<Void> future) throws HoloClientException, InterruptedException {
+		try {
+			future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof HoloClientException) {
+				throw (HoloClientException) cause;
+			} else {
+				throw new HoloClientException(ExceptionCode.INTERNAL_ERROR, "commit fail", cause);
+			}
+		}
+	}
+
+	/**
+	 * 按(表, 主键)合并一个窗口内的binlog，只保留每个主键最终的状态.
+	 * BEFORE_UPDATE按删除旧主键处理，如果随后的AFTER_UPDATE主键不变会被覆盖为INSERT.
+	 *
+	 * @param window 按消费顺序排列的binlog
+	 * @return 合并后的变更
+	 */
+	static List<Record> collapse(List<BinlogRecord> window) {
+		// RecordKey只比较主键值，不同表主键相同的行需要按表区分
+		Map<Map.Entry<TableName, RecordKey>, Record> changes = new LinkedHashMap<>();
+		for (BinlogRecord r : window) {
+			Record change = r.clone();
+			if (r.getBinlogEventType() == BinlogEventType.DELETE || r.getBinlogEventType() == BinlogEventType.BEFORE_UPDATE) {
+				change.setType(Put.MutationType.DELETE);
+			} else {
+				change.setType(Put.MutationType.INSERT);
+			}
+			changes.put(new AbstractMap.SimpleImmutableEntry<>(change.getTableName(), new RecordKey(change)), change);
+		}
+		return new ArrayList<>(changes.values());
+	}
+
+	public void stop() {
+		stopped = true;
+	}
+
+	@Override
+	public void close() {
+		stop();
+		Metrics.registry().remove(Metrics.METRICS_BINLOG_REPLICATE_LAG_MS + metricsName);
+	}
+
+	public static Builder newBuilder(BinlogShardGroupReader reader) {
+		return new Builder(reader);
+	}
+
+	/**
+	 * builder.
+	 */
+	public static class Builder {
+		private final BinlogShardGroupReader reader;
+		private Sink sink;
+		private int windowSize = 1024;
+		private long windowMs = 1000L;
+
+		public Builder(BinlogShardGroupReader reader) {
+			this.reader = reader;
+		}
+
+		public Builder setSink(Sink sink) {
+			this.sink = sink;
+			return this;
+		}
+
+		/**
+		 * 同步到Hologres表.
+		 *
+		 * @param client       写入目标表使用的client
+		 * @param tableMapping 源表 -> 目标表
+		 * @return builder
+		 */
+		public Builder setTargetTables(HoloClient client, Map<String, String> tableMapping) {
+			this.sink = new HoloTableSink(client, tableMapping);
+			return this;
+		}
+
+		/**
+		 * 窗口最多包含的binlog条数，默认1024.
+		 */
+		public Builder setWindowSize(int windowSize) {
+			this.windowSize = windowSize;
+			return this;
+		}
+
+		/**
+		 * 窗口最长持续时间，默认1000ms.
+		 */
+		public Builder setWindowMs(long windowMs) {
+			this.windowMs = windowMs;
+			return this;
+		}
+
+		public BinlogReplicator build() throws HoloClientException {
+			if (sink == null) {
+				throw new HoloClientException(ExceptionCode.INVALID_REQUEST, "sink or target tables must be set");
+			}
+			if (windowSize <= 0 || windowMs <= 0) {
+				throw new HoloClientException(ExceptionCode.INVALID_REQUEST, "windowSize and windowMs must be positive");
+			}
+			return new BinlogReplicator(reader, sink, windowSize, windowMs);
+		}
+	}
+}
@@ -4,14 +4,21 @@ import com.alibaba.hologres.client.exception.ExceptionCode;
 import com.alibaba.hologres.client.exception.HoloClientException;
 import com.alibaba.hologres.client.impl.binlog.ArrayBuffer;
 import com.alibaba.hologres.client.impl.binlog.BinlogEventType;
+import com.alibaba.hologres.client.impl.binlog.BinlogOffsetStore;
 import com.alibaba.hologres.client.impl.binlog.BinlogRecordCollector;
 import com.alibaba.hologres.client.impl.binlog.Committer;
+import com.alibaba.hologres.client.model.TableName;
 import com.alibaba.hologres.client.model.binlog.BinlogRecord;
+import com.alibaba.hologres.client.utils.Metrics;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
@@ -24,13 +31,15 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * BinlogShardGroupReader 为一个范围的shard创建BinlogShardReader，并将各个reader返回的BinlogRecord放入queue.
+ * 可以同时订阅多张表，所有表的所有shard共用同一个queue，消费者通过BinlogRecord.getSchema()区分来源表.
  */
 public class BinlogShardGroupReader implements Closeable {
 	public static final Logger LOGGER = LoggerFactory.getLogger(BinlogShardGroupReader.class);
 
 	private final HoloConfig config;
-	private final Subscribe subscribe;
-	private final Map<Integer, Committer> committerMap;
+	private final List<Subscribe> subscribes;
+	//TableName -> shardId -> Committer
+	private final Map<TableName, Map<Integer, Committer>> committerMap;
 	private final AtomicBoolean started;
 
 	BlockingQueue<BinlogRecord> queue;
@@ -39,15 +48,151 @@ public class BinlogShardGroupReader implements Closeable {
 
 	List<Thread> threadList = new ArrayList<Thread>();
 
-	public BinlogShardGroupReader(HoloConfig config, Subscribe subscribe, int shardCount, Map<Integer, Committer> committerMap, AtomicBoolean started) {
+	//消费位点本地存储，为null表示不开启
+	private BinlogOffsetStore offsetStore = null;
+	private Map<TableName, String> slotNameMap = null;
+	private boolean ownOffsetStore = false;
+	//上一次getBinlogRecord返回给调用方的record，下一次调用getBinlogRecord时视为已经处理完成写入offsetStore
+	private BinlogRecord pendingStoreRecord = null;
+	//为true时已处理完的位点先暂存在deferredOffsets中，由storeOffsets统一写入offsetStore
+	private boolean deferOffsetStore = false;
+	private final Map<TableName, Map<Integer, BinlogRecord>> deferredOffsets = new HashMap<>();
+
+	/**
+	 * @param config        配置
+	 * @param subscribes    订阅的所有表
+	 * @param shardCount    所有表需要消费的shard总数，用于估算queue大小
+	 * @param committerMap  每张表每个shard的Committer，由调用方在构造后填充
+	 * @param started       所有消费线程共享的运行状态
+	 */
+	public BinlogShardGroupReader(HoloConfig config, List<Subscribe> subscribes, int shardCount, Map<TableName, Map<Integer, Committer>> committerMap, AtomicBoolean started) {
 		this.config = config;
-		this.subscribe = subscribe;
+		this.subscribes = subscribes;
 		this.committerMap = committerMap;
-		this.queue = new ArrayBlockingQueue<>(Math.max(1024, committerMap.size() * config.getBinlogReadBatchSize() / 2));
+		this.queue = new ArrayBlockingQueue<>(Math.max(1024, shardCount * config.getBinlogReadBatchSize() / 2));
 		this.started = started;
 		collector = new Collector();
 	}
 
+	public List<Subscribe> getSubscribes() {
+		return subscribes;
+	}
+
+	/**
+	 * @param offsetStore    消费位点存储
+	 * @param slotNameMap    每张表订阅的slot
+	 * @param ownOffsetStore 为true时reader cancel时关闭offsetStore
+	 */
+	void setOffsetStore(BinlogOffsetStore offsetStore, Map<TableName, String> slotNameMap, boolean ownOffsetStore) {
+		this.offsetStore = offsetStore;
+		this.slotNameMap = slotNameMap;
+		this.ownOffsetStore = ownOffsetStore;
+	}
+
+	/**
+	 * 调用方在getBinlogRecord之后还需要异步处理record时(例如BinlogReplicator攒批写入)，record返回后并不代表处理完成.
+	 * 开启后位点只在调用storeOffsets时才写入offsetStore.
+	 */
+	void setDeferOffsetStore(boolean deferOffsetStore) {
+		this.deferOffsetStore = deferOffsetStore;
+	}
+
+	/**
+	 * 把截止到目前getBinlogRecord返回的所有record视为处理完成，将位点写入offsetStore.
+	 */
+	void storeOffsets() throws HoloClientException {
+		if (offsetStore == null) {
+			return;
+		}
+		boolean defer = deferOffsetStore;
+		deferOffsetStore = false;
+		try {
+			storePendingOffset();
+			for (Map<Integer, BinlogRecord> shardOffsets : deferredOffsets.values()) {
+				for (BinlogRecord r : shardOffsets.values()) {
+					storeOffset(r);
+				}
+			}
+			deferredOffsets.clear();
+		} finally {
+			deferOffsetStore = defer;
+		}
+	}
+
+	private List<String> metricsNames = new ArrayList<>();
+
+	/**
+	 * 注册每张表每个shard的消费位点、提交位点、延迟、吞吐，以及queue的占用，在committerMap填充完成后调用.
+	 * 同名指标已经被其他reader注册时加上#n后缀，close时只删除自己注册的指标.
+	 *
+	 * @param slotNameMap 每张表订阅的slot
+	 */
+	void registerMetrics(Map<TableName, String> slotNameMap) {
+		MetricRegistry registry = Metrics.registry();
+		StringBuilder readerName = new StringBuilder();
+		for (Map.Entry<TableName, Map<Integer, Committer>> tableEntry : committerMap.entrySet()) {
+			String prefix = tableEntry.getKey().getFullName() + "_" + slotNameMap.get(tableEntry.getKey());
+			if (readerName.length() > 0) {
+				readerName.append(",");
+			}
+			readerName.append(prefix);
+			for (Map.Entry<Integer, Committer> entry : tableEntry.getValue().entrySet()) {
+				Committer committer = entry.getValue();
+				String suffix = prefix + "_" + entry.getKey();
+				registerGauge(registry, Metrics.METRICS_BINLOG_READ_LSN + suffix, committer::getLastReadLsn);
+				registerGauge(registry, Metrics.METRICS_BINLOG_COMMITTED_LSN + suffix, committer::getCommittedLsn);
+				registerGauge(registry, Metrics.METRICS_BINLOG_LAG_MS + suffix, committer::getLagMs);
+				registerMetric(registry, Metrics.METRICS_BINLOG_DECODE_RPS + suffix, committer.getDecodeRps());
+				registerMetric(registry, Metrics.METRICS_BINLOG_READ_BPS + suffix, committer.getReadBps());
+			}
+		}
+		registerGauge(registry, Metrics.METRICS_BINLOG_QUEUE_SIZE + readerName, () -> (long) queue.size());
+	}
+
+	private void registerGauge(MetricRegistry registry, String name, Gauge<Long> gauge) {
+		registerMetric(registry, name, gauge);
+	}
+
+	private void registerMetric(MetricRegistry registry, String name, Metric metric) {
+		String actualName = name;
+		for (int i = 1; ; ++i) {
+			try {
+				registry.register(actualName, metric);
+				break;
+			} catch (IllegalArgumentException e) {
+				//同一张表同一个slot被多个reader订阅
+				actualName = name + "#" + i;
+			}
+		}
+		metricsNames.add(actualName);
+	}
+
+	private void unregisterMetrics() {
+		MetricRegistry registry = Metrics.registry();
+		for (String name : metricsNames) {
+			registry.remove(name);
+		}
+		metricsNames.clear();
+	}
+
+	private void storeOffset(BinlogRecord r) throws HoloClientException {
+		if (offsetStore != null && r.getBinlogLsn() >= 0) {
+			TableName tableName = r.getSchema().getTableNameObj();
+			if (deferOffsetStore) {
+				deferredOffsets.computeIfAbsent(tableName, k -> new HashMap<>()).put(r.getShardId(), r);
+			} else {
+				offsetStore.update(tableName, slotNameMap.get(tableName), r.getShardId(), r.getBinlogLsn(), r.getBinlogTimestamp());
+			}
+		}
+	}
+
+	private void storePendingOffset() throws HoloClientException {
+		if (pendingStoreRecord != null) {
+			storeOffset(pendingStoreRecord);
+			pendingStoreRecord = null;
+		}
+	}
+
 	int bufferPosition = 0;
 	List<BinlogRecord> buffer = new ArrayList<>();
 
@@ -93,6 +238,7 @@ public class BinlogShardGroupReader implements Closeable {
 		if (null != exception) {
 			throw exception;
 		}
+		storePendingOffset();
 		BinlogRecord r = null;
 
 		long target = timeout > 0 ? (System.nanoTime() + timeout * 1000000L) : Long.MAX_VALUE;
@@ -102,16 +248,19 @@ public class BinlogShardGroupReader implements Closeable {
 				r = buffer.get(bufferPosition++);
 			}
 			if (r != null) {
-				Committer committer = committerMap.get(r.getShardId());
+				Map<Integer, Committer> tableCommitterMap = committerMap.get(r.getSchema().getTableNameObj());
+				Committer committer = tableCommitterMap == null ? null : tableCommitterMap.get(r.getShardId());
 				if (committer == null) {
-					throw new HoloClientException(ExceptionCode.INTERNAL_ERROR, "reader for shard " + r.getShardId() + " is not exists!");
+					throw new HoloClientException(ExceptionCode.INTERNAL_ERROR, "reader for table " + r.getSchema().getTableNameObj().getFullName() + " shard " + r.getShardId() + " is not exists!");
 				}
-				committer.updateLastReadLsn(r.getBinlogLsn());
+				committer.updateLastRead(r.getBinlogLsn(), r.getBinlogTimestamp());
 				if ((r.getBinlogEventType() == BinlogEventType.DELETE && config.getBinlogIgnoreDelete()) || (r.getBinlogEventType() == BinlogEventType.BEFORE_UPDATE && config.getBinlogIgnoreBeforeUpdate())) {
+					storeOffset(r);
 					r = null;
 				}
 			}
 		}
+		pendingStoreRecord = r;
 		return r;
 	}
 
@@ -151,13 +300,73 @@ public class BinlogShardGroupReader implements Closeable {
 		}
 	}
 
+	/**
+	 * 提交所有表所有shard最后读取到的lsn.
+	 */
 	public void commit(long timeoutMs) throws HoloClientException, TimeoutException, InterruptedException {
+		flushOffsetStore();
+		List<CompletableFuture<Void>> futureList = new ArrayList<>();
+		for (Map.Entry<TableName, Map<Integer, Committer>> tableEntry : committerMap.entrySet()) {
+			for (Map.Entry<Integer, Committer> entry : tableEntry.getValue().entrySet()) {
+				futureList.add(commitFlushedLsn(tableEntry.getKey(), entry.getValue(), entry.getKey(), entry.getValue().getLastReadLsn()));
+			}
+		}
+		waitCommit(futureList, System.currentTimeMillis() + timeoutMs);
+	}
+
+	/**
+	 * 提交某一张表所有shard最后读取到的lsn，所有shard都提交成功才返回.
+	 */
+	public void commit(String tableName, long timeoutMs) throws HoloClientException, TimeoutException, InterruptedException {
+		TableName tn = TableName.valueOf(tableName);
+		Map<Integer, Committer> tableCommitterMap = getTableCommitterMap(tn);
+		flushOffsetStore();
+		List<CompletableFuture<Void>> futureList = new ArrayList<>();
+		for (Map.Entry<Integer, Committer> entry : tableCommitterMap.entrySet()) {
+			futureList.add(commitFlushedLsn(tn, entry.getValue(), entry.getKey(), entry.getValue().getLastReadLsn()));
+		}
+		waitCommit(futureList, System.currentTimeMillis() + timeoutMs);
+	}
+
+	/**
+	 * 异步提交所有表所有shard最后读取到的lsn，不会阻塞调用线程.
+	 * 同一个shard在worker处理之前的多次提交会被合并，只flush最新的lsn.
+	 * 返回的future在所有shard setFlushedLSN成功后complete，lsn由后台按binlogStatusUpdateIntervalMs定时同步到服务端.
+	 */
+	public CompletableFuture<Void> commitAsync() {
+		List<CompletableFuture<Void>> futureList = new ArrayList<>();
+		for (Map<Integer, Committer> tableCommitterMap : committerMap.values()) {
+			for (Committer committer : tableCommitterMap.values()) {
+				futureList.add(committer.commitLsnAsync(committer.getLastReadLsn()));
+			}
+		}
+		return CompletableFuture.allOf(futureList.toArray(new CompletableFuture<?>[0]));
+	}
+
+	/**
+	 * 异步提交某一张表所有shard最后读取到的lsn，语义同commitAsync().
+	 */
+	public CompletableFuture<Void> commitAsync(String tableName) throws HoloClientException {
+		Map<Integer, Committer> tableCommitterMap = getTableCommitterMap(TableName.valueOf(tableName));
 		List<CompletableFuture<Void>> futureList = new ArrayList<>();
-		for (Map.Entry<Integer, Committer> entry : committerMap.entrySet()) {
-			futureList.add(commitFlushedLsn(entry.getValue(), entry.getKey(), entry.getValue().getLastReadLsn(), timeoutMs));
+		for (Committer committer : tableCommitterMap.values()) {
+			futureList.add(committer.commitLsnAsync(committer.getLastReadLsn()));
 		}
-		long targetMs = System.currentTimeMillis() + timeoutMs;
-		int index = 0;
+		return CompletableFuture.allOf(futureList.toArray(new CompletableFuture<?>[0]));
+	}
+
+	/**
+	 * 把已经处理完的record的位点持久化到offsetStore.
+	 * commit时调用方已经处理完上一次getBinlogRecord返回的record.
+	 */
+	private void flushOffsetStore() throws HoloClientException {
+		if (offsetStore != null) {
+			storeOffsets();
+			offsetStore.flush();
+		}
+	}
+
+	private void waitCommit(List<CompletableFuture<Void>> futureList, long targetMs) throws HoloClientException, TimeoutException, InterruptedException {
 		for (CompletableFuture<Void> future : futureList) {
 			long currentMs = System.currentTimeMillis();
 			if (currentMs < targetMs) {
@@ -179,19 +388,37 @@ public class BinlogShardGroupReader implements Closeable {
 		}
 	}
 
-	public CompletableFuture<Void> commitFlushedLsn(Committer committer, int shardId, long lsn, long timeoutMs) throws
-			TimeoutException, InterruptedException {
-		LOGGER.info("begin commit {} shardId {} flushedLsn to {}", subscribe.getTableName(), shardId, lsn);
-		return committer.commit(lsn, timeoutMs).thenRun(() -> {
-			LOGGER.info("done commit {} shardId {} flushedLsn to {}", subscribe.getTableName(), shardId, lsn);
+	/**
+	 * 提交某个shard的lsn，返回的future在lsn同步到服务端后complete，等待的超时由调用方控制.
+	 */
+	public CompletableFuture<Void> commitFlushedLsn(TableName tableName, Committer committer, int shardId, long lsn) {
+		LOGGER.info("begin commit {} shardId {} flushedLsn to {}", tableName.getFullName(), shardId, lsn);
+		return committer.commitLsn(lsn).thenRun(() -> {
+			LOGGER.info("done commit {} shardId {} flushedLsn to {}", tableName.getFullName(), shardId, lsn);
 		});
 	}
 
+	/**
+	 * 仅订阅了一张表时可用，订阅多张表时请使用commitFlushedLsn(String, int, long, long).
+	 */
 	public void commitFlushedLsn(int shardId, long lsn, long timeoutMs) throws
 			HoloClientException, TimeoutException, InterruptedException {
-		Committer committer = committerMap.get(shardId);
+		if (committerMap.size() != 1) {
+			throw new HoloClientException(ExceptionCode.INVALID_REQUEST, "reader subscribes " + committerMap.size() + " tables, tableName is required for commitFlushedLsn");
+		}
+		doCommitFlushedLsn(committerMap.keySet().iterator().next(), shardId, lsn, timeoutMs);
+	}
+
+	public void commitFlushedLsn(String tableName, int shardId, long lsn, long timeoutMs) throws
+			HoloClientException, TimeoutException, InterruptedException {
+		doCommitFlushedLsn(TableName.valueOf(tableName), shardId, lsn, timeoutMs);
+	}
+
+	private void doCommitFlushedLsn(TableName tableName, int shardId, long lsn, long timeoutMs) throws
+			HoloClientException, TimeoutException, InterruptedException {
+		Committer committer = getTableCommitterMap(tableName).get(shardId);
 		if (committer != null) {
-			CompletableFuture<Void> future = commitFlushedLsn(committer, shardId, lsn, timeoutMs);
+			CompletableFuture<Void> future = commitFlushedLsn(tableName, committer, shardId, lsn);
 			try {
 				future.get(timeoutMs, TimeUnit.MILLISECONDS);
 			} catch (ExecutionException e) {
@@ -203,10 +430,18 @@ public class BinlogShardGroupReader implements Closeable {
 				}
 			}
 		} else {
-			throw new HoloClientException(ExceptionCode.INVALID_REQUEST, "unknown shard " + shardId);
+			throw new HoloClientException(ExceptionCode.INVALID_REQUEST, "unknown shard " + shardId + " for table " + tableName.getFullName());
 		}
 	}
 
+	private Map<Integer, Committer> getTableCommitterMap(TableName tableName) throws HoloClientException {
+		Map<Integer, Committer> tableCommitterMap = committerMap.get(tableName);
+		if (tableCommitterMap == null) {
+			throw new HoloClientException(ExceptionCode.INVALID_REQUEST, "table " + tableName.getFullName() + " is not subscribed by this reader");
+		}
+		return tableCommitterMap;
+	}
+
 	//主要是为了在close的时候，确保thread都停了.
 	public void addThread(Thread thread) {
 		threadList.add(thread);
@@ -232,6 +467,10 @@ public class BinlogShardGroupReader implements Closeable {
 				thread.interrupt();
 			}
 		}
+		if (offsetStore != null && ownOffsetStore) {
+			offsetStore.close();
+		}
+		unregisterMetrics();
 	}
 
 	public boolean isCanceled() {
@@ -9,12 +9,15 @@ import com.alibaba.hologres.client.exception.HoloClientException;
 import com.alibaba.hologres.client.exception.HoloClientWithDetailsException;
 import com.alibaba.hologres.client.function.FunctionWithSQLException;
 import com.alibaba.hologres.client.impl.ExecutionPool;
+import com.alibaba.hologres.client.impl.PartitionRouter;
 import com.alibaba.hologres.client.impl.action.CopyAction;
 import com.alibaba.hologres.client.impl.action.PutAction;
 import com.alibaba.hologres.client.impl.action.ScanAction;
 import com.alibaba.hologres.client.impl.action.SqlAction;
 import com.alibaba.hologres.client.impl.binlog.BinlogOffset;
+import com.alibaba.hologres.client.impl.binlog.BinlogOffsetStore;
 import com.alibaba.hologres.client.impl.binlog.Committer;
+import com.alibaba.hologres.client.impl.binlog.MappedFileBinlogOffsetStore;
 import com.alibaba.hologres.client.impl.binlog.TableSchemaSupplier;
 import com.alibaba.hologres.client.impl.binlog.action.BinlogAction;
 import com.alibaba.hologres.client.impl.collector.ActionCollector;
@@ -23,13 +26,11 @@ import com.alibaba.hologres.client.impl.copy.CopyContext;
 import com.alibaba.hologres.client.impl.copy.InternalPipedOutputStream;
 import com.alibaba.hologres.client.model.ExportContext;
 import com.alibaba.hologres.client.model.ImportContext;
-import com.alibaba.hologres.client.model.Partition;
 import com.alibaba.hologres.client.model.Record;
 import com.alibaba.hologres.client.model.RecordScanner;
 import com.alibaba.hologres.client.model.TableName;
 import com.alibaba.hologres.client.model.TableSchema;
-import com.alibaba.hologres.client.utils.IdentifierUtil;
-import com.alibaba.hologres.client.utils.Tuple;
+import com.alibaba.hologres.client.utils.Tuple3;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,16 +42,14 @@ import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
 import java.sql.Connection;
 import java.sql.DriverManager;
-import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.TreeMap;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -94,6 +93,11 @@ public class HoloClient implements Closeable {
 	private ExecutionPool pool = null;
 	private final HoloConfig config;
 
+	/**
+	 * 分区父表写入时的 分区值 -> 分区子表 路由.
+	 */
+	private final PartitionRouter partitionRouter;
+
 	/**
 	 * 在AsyncCommit为true，调用put方法时，当记录数>=writeBatchSize 或 总记录字节数数>=writeBatchByteSize 调用flush进行提交.
 	 * 否则每次调用put都会调用flush.
@@ -130,6 +134,7 @@ public class HoloClient implements Closeable {
 		checkConfig(config);
 		this.config = config;
 		this.useFixedFe = config.isUseFixedFe();
+		this.partitionRouter = new PartitionRouter(config.getMetaCacheTTL());
 	}
 
 	private void checkConfig(HoloConfig config) throws HoloClientException {
@@ -315,6 +320,20 @@ public class HoloClient implements Closeable {
 		}
 	}
 
+	/**
+	 * 等待连接池就绪，配合connectionWarmUp使用.
+	 *
+	 * @return 所有连接建立完成后complete的future
+	 * @throws HoloClientException client已经关闭
+	 */
+	public CompletableFuture<Void> getPoolReadyFuture() throws HoloClientException {
+		ensurePoolOpen();
+		if (useFixedFe) {
+			return CompletableFuture.allOf(pool.getReadyFuture(), fixedPool.getReadyFuture());
+		}
+		return pool.getReadyFuture();
+	}
+
 	public synchronized void setPool(ExecutionPool pool) throws HoloClientException {
 		if (pool.isFixedPool()) {
 			throw new HoloClientException(ExceptionCode.INTERNAL_ERROR, "fixed pool recived, require is not fixed");
@@ -359,11 +378,12 @@ public class HoloClient implements Closeable {
 	private boolean rewriteForPartitionTable(Record record, boolean createIfNotExists, boolean exceptionIfNotExists) throws HoloClientException {
 		TableSchema schema = record.getSchema();
 		if (schema.isPartitionParentTable()) {
-			boolean isStr = Types.VARCHAR == schema.getColumn(schema.getPartitionIndex()).getType();
-			String value = String.valueOf(record.getObject(schema.getPartitionIndex()));
-			Partition partition = pool.getOrSubmitPartition(schema.getTableNameObj(), value, isStr, createIfNotExists);
-			if (partition != null) {
-				TableSchema newSchema = pool.getOrSubmitTableSchema(TableName.valueOf(IdentifierUtil.quoteIdentifier(partition.getSchemaName(), true), IdentifierUtil.quoteIdentifier(partition.getTableName(), true)), false);
+			Object value = record.getObject(schema.getPartitionIndex());
+			TableSchema newSchema = partitionRouter.route(schema, value);
+			if (newSchema == null) {
+				newSchema = partitionRouter.resolve(pool, schema, Collections.singletonList(value), createIfNotExists).get(value);
+			}
+			if (newSchema != null) {
 				record.changeToChildSchema(newSchema);
 			} else if (exceptionIfNotExists) {
 				throw new HoloClientWithDetailsException(ExceptionCode.TABLE_NOT_FOUND, "child table is not found", record);
@@ -412,19 +432,31 @@ public class HoloClient implements Closeable {
 		ensurePoolOpen();
 		tryThrowException();
 		HoloClientWithDetailsException detailException = null;
-		List<Put> putList = new ArrayList<>();
+		List<Put> checkedList = new ArrayList<>(puts.size());
 		for (Put put : puts) {
 			try {
 				checkPut(put);
+				checkedList.add(put);
+			} catch (HoloClientWithDetailsException e) {
+				detailException = mergeDetails(detailException, e);
+			}
+		}
+		//未命中路由缓存的分区按父表批量查询和创建，避免逐条创建分区；批量失败时退回逐条处理，只有出错的Put失败
+		try {
+			partitionRouter.prefetch(pool, checkedList, config.isDynamicPartition());
+		} catch (HoloClientException e) {
+			LOGGER.warn("prefetch partitions fail, fall back to resolve partitions one by one", e);
+		}
+		List<Put> putList = new ArrayList<>(checkedList.size());
+		for (Put put : checkedList) {
+			try {
 				if (!rewriteForPartitionTable(put.getRecord(), config.isDynamicPartition() && !Put.MutationType.DELETE.equals(put.getRecord().getType()), !Put.MutationType.DELETE.equals(put.getRecord().getType()))) {
 					putList.add(put);
 				}
 			} catch (HoloClientWithDetailsException e) {
-				if (detailException == null) {
-					detailException = e;
-				} else {
-					detailException.merge(e);
-				}
+				detailException = mergeDetails(detailException, e);
+			} catch (HoloClientException e) {
+				detailException = mergeDetails(detailException, new HoloClientWithDetailsException(e.getCode(), e.getMessage(), put.getRecord()));
 			}
 		}
 		for (Put put : putList) {
@@ -438,6 +470,13 @@ public class HoloClient implements Closeable {
 		}
 	}
 
+	private static HoloClientWithDetailsException mergeDetails(HoloClientWithDetailsException detailException, HoloClientWithDetailsException e) {
+		if (detailException == null) {
+			return e;
+		}
+		return detailException.merge(e);
+	}
+
 	public ExportContext exportData(Exporter exporter) throws HoloClientException {
 		ensurePoolOpen();
 		tryThrowException();
@@ -564,6 +603,7 @@ public class HoloClient implements Closeable {
 			}
 			CopyAction action = new CopyAction(importer.getSchema(), null, istreams[t], startShard, end, CopyAction.Mode.IN);
 			action.setBufferSize(importer.getBufferSize());
+			action.setBinary(importer.isBinary());
 			shardMap.put(startShard, t);
 			startShard = end;
 			actions[t] = action;
@@ -580,7 +620,7 @@ public class HoloClient implements Closeable {
 				copyContexts[t] = actions[t].getReadyToStart().get();
 				futures[t] = actions[t].getFuture();
 			}
-			return new ImportContext(shardMap, futures, copyContexts, ostreams, shardCount);
+			return new ImportContext(shardMap, futures, copyContexts, ostreams, shardCount, importer.isBinary());
 		} catch (InterruptedException e) {
 			throw new HoloClientException(ExceptionCode.INTERNAL_ERROR, "interrupt", e);
 		} catch (ExecutionException e) {
@@ -594,44 +634,112 @@ public class HoloClient implements Closeable {
 	}
 
 	public BinlogShardGroupReader binlogSubscribe(Subscribe subscribe) throws HoloClientException {
+		return binlogSubscribe(Collections.singletonList(subscribe));
+	}
+
+	/**
+	 * 在一个BinlogShardGroupReader中同时消费多张表的binlog.
+	 * 所有表共用一个reader的queue和提交逻辑，每张表有自己的TableSchemaSupplier，commit可以按表进行.
+	 *
+	 * @param subscribes 每张表的消费请求，同一张表不能出现多次
+	 * @return BinlogShardGroupReader
+	 * @throws HoloClientException 表不存在、slot不存在或者shard id不合法
+	 */
+	public BinlogShardGroupReader binlogSubscribe(List<Subscribe> subscribes) throws HoloClientException {
+		if (config.getBinlogOffsetStorePath() == null) {
+			return binlogSubscribe(subscribes, null, false);
+		}
 		ensurePoolOpen();
-		TableSchemaSupplier supplier = new TableSchemaSupplier() {
-			@Override
-			public TableSchema apply() throws HoloClientException {
-				return HoloClient.this.getTableSchema(subscribe.getTableName(), true);
-			}
-		};
-		TableSchema schema = supplier.apply();
-		int shardCount = Command.getShardCount(this, schema);
-		if (!Command.getSlotNames(this, schema).contains(subscribe.getSlotName())) {
-			throw new HoloClientException(ExceptionCode.INVALID_REQUEST, String.format("The table %s has no slot named %s", schema.getTableNameObj().getFullName(), subscribe.getSlotName()));
-		}
-		Map<Integer, BinlogOffset> offsetMap = subscribe.getOffsetMap();
-		if (null != offsetMap) {
-			for (Integer shardId : offsetMap.keySet()) {
-				if (shardId < 0 || shardId >= shardCount) {
-					throw new HoloClientException(ExceptionCode.INVALID_REQUEST, String.format("invalid shard id [%s] for table %s", shardId, subscribe.getTableName()));
+		BinlogOffsetStore offsetStore = new MappedFileBinlogOffsetStore(config.getBinlogOffsetStorePath(), config.getBinlogOffsetStoreFlushIntervalMs());
+		try {
+			return binlogSubscribe(subscribes, offsetStore, true);
+		} catch (HoloClientException e) {
+			offsetStore.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * 使用指定的BinlogOffsetStore消费binlog.
+	 * 对于newStartTimeBuilder创建的Subscribe，store中保存过位点的shard从保存的位点之后继续消费，其余shard从binlogReadStartTime开始；
+	 * newOffsetBuilder显式指定的位点优先于store中保存的位点.
+	 * reader会把每个shard处理完的最后一条record的位点写入store，store的生命周期由调用方管理.
+	 *
+	 * @param subscribes  每张表的消费请求，同一张表不能出现多次
+	 * @param offsetStore 消费位点存储
+	 * @return BinlogShardGroupReader
+	 * @throws HoloClientException 表不存在、slot不存在、shard id不合法或者读取位点失败
+	 */
+	public BinlogShardGroupReader binlogSubscribe(List<Subscribe> subscribes, BinlogOffsetStore offsetStore) throws HoloClientException {
+		return binlogSubscribe(subscribes, offsetStore, false);
+	}
+
+	private BinlogShardGroupReader binlogSubscribe(List<Subscribe> subscribes, BinlogOffsetStore offsetStore, boolean ownOffsetStore) throws HoloClientException {
+		ensurePoolOpen();
+		if (subscribes == null || subscribes.isEmpty()) {
+			throw new HoloClientException(ExceptionCode.INVALID_REQUEST, "subscribes cannot be empty");
+		}
+		Map<TableName, Tuple3<Subscribe, TableSchemaSupplier, Map<Integer, BinlogOffset>>> tableOffsetMap = new LinkedHashMap<>();
+		int totalShardCount = 0;
+		for (Subscribe subscribe : subscribes) {
+			TableSchemaSupplier supplier = new TableSchemaSupplier() {
+				@Override
+				public TableSchema apply() throws HoloClientException {
+					return HoloClient.this.getTableSchema(subscribe.getTableName(), true);
 				}
+			};
+			TableSchema schema = supplier.apply();
+			if (tableOffsetMap.containsKey(schema.getTableNameObj())) {
+				throw new HoloClientException(ExceptionCode.INVALID_REQUEST, String.format("The table %s is subscribed more than once", schema.getTableNameObj().getFullName()));
 			}
-		} else {
-			offsetMap = new HashMap<>();
-			for (int i = 0; i < shardCount; i++) {
-				offsetMap.put(i, new BinlogOffset().setTimestamp(subscribe.getBinlogReadStartTime()));
+			int shardCount = Command.getShardCount(this, schema);
+			if (!Command.getSlotNames(this, schema).contains(subscribe.getSlotName())) {
+				throw new HoloClientException(ExceptionCode.INVALID_REQUEST, String.format("The table %s has no slot named %s", schema.getTableNameObj().getFullName(), subscribe.getSlotName()));
+			}
+			Map<Integer, BinlogOffset> offsetMap = subscribe.getOffsetMap();
+			if (null != offsetMap) {
+				for (Integer shardId : offsetMap.keySet()) {
+					if (shardId < 0 || shardId >= shardCount) {
+						throw new HoloClientException(ExceptionCode.INVALID_REQUEST, String.format("invalid shard id [%s] for table %s", shardId, subscribe.getTableName()));
+					}
+				}
+			} else {
+				Map<Integer, BinlogOffset> storedOffsetMap = offsetStore == null ? Collections.emptyMap() : offsetStore.load(schema.getTableNameObj(), subscribe.getSlotName(), shardCount);
+				offsetMap = new HashMap<>();
+				for (int i = 0; i < shardCount; i++) {
+					BinlogOffset storedOffset = storedOffsetMap.get(i);
+					offsetMap.put(i, storedOffset != null ? storedOffset : new BinlogOffset().setTimestamp(subscribe.getBinlogReadStartTime()));
+				}
 			}
+			totalShardCount += offsetMap.size();
+			tableOffsetMap.put(schema.getTableNameObj(), new Tuple3<>(subscribe, supplier, offsetMap));
 		}
 
 		BinlogShardGroupReader reader = null;
 		try {
 			AtomicBoolean started = new AtomicBoolean(true);
-			Map<Integer, Committer> committerMap = new HashMap<>();
-			reader = new BinlogShardGroupReader(config, subscribe, offsetMap.size(), committerMap, started);
-			for (Map.Entry<Integer, BinlogOffset> entry : offsetMap.entrySet()) {
-				BlockingQueue<Tuple<CompletableFuture<Void>, Long>> queue = new ArrayBlockingQueue<>(1);
-				Committer committer = new Committer(queue);
-				committerMap.put(entry.getKey(), committer);
-				BinlogAction action = new BinlogAction(subscribe.getTableName(), subscribe.getSlotName(), entry.getKey(), entry.getValue().getSequence(), entry.getValue().getStartTimeText(), reader.getCollector(), supplier, queue);
-				reader.addThread(pool.submitOneShotAction(started, entry.getKey(), action));
+			Map<TableName, Map<Integer, Committer>> committerMap = new HashMap<>();
+			reader = new BinlogShardGroupReader(config, subscribes, totalShardCount, committerMap, started);
+			Map<TableName, String> slotNameMap = new HashMap<>();
+			for (Map.Entry<TableName, Tuple3<Subscribe, TableSchemaSupplier, Map<Integer, BinlogOffset>>> tableEntry : tableOffsetMap.entrySet()) {
+				slotNameMap.put(tableEntry.getKey(), tableEntry.getValue().l.getSlotName());
+			}
+			if (offsetStore != null) {
+				reader.setOffsetStore(offsetStore, slotNameMap, ownOffsetStore);
+			}
+			int threadIndex = 0;
+			for (Map.Entry<TableName, Tuple3<Subscribe, TableSchemaSupplier, Map<Integer, BinlogOffset>>> tableEntry : tableOffsetMap.entrySet()) {
+				Subscribe subscribe = tableEntry.getValue().l;
+				Map<Integer, Committer> tableCommitterMap = new HashMap<>();
+				committerMap.put(tableEntry.getKey(), tableCommitterMap);
+				for (Map.Entry<Integer, BinlogOffset> entry : tableEntry.getValue().r.entrySet()) {
+					Committer committer = new Committer();
+					tableCommitterMap.put(entry.getKey(), committer);
+					BinlogAction action = new BinlogAction(subscribe.getTableName(), subscribe.getSlotName(), entry.getKey(), entry.getValue().getSequence(), entry.getValue().getStartTimeText(), reader.getCollector(), tableEntry.getValue().m, committer);
+					reader.addThread(pool.submitOneShotAction(started, threadIndex++, action));
+				}
 			}
+			reader.registerMetrics(slotNameMap);
 
 		} catch (HoloClientException e) {
 			if (null != reader) {
@@ -675,6 +783,7 @@ public class HoloClient implements Closeable {
 				fixedPool.close();
 			}
 		}
+		partitionRouter.clear();
 	}
 
 	@Override
@@ -4,6 +4,7 @@
 
 package com.alibaba.hologres.client;
 
+import com.alibaba.hologres.client.impl.retry.RetryPolicy;
 import com.alibaba.hologres.client.model.WriteFailStrategy;
 import com.alibaba.hologres.client.model.WriteMode;
 
@@ -53,6 +54,31 @@ public class HoloConfig implements Serializable {
 	 */
 	long writeBatchTotalByteSize = DEFAULT_BATCH_BYTE_SIZE * 10;
 
+	/**
+	 * 同一个ExecutionPool内所有攒批(包括提交了还没写完的)最多占用的内存，超过后put阻塞，小于1表示不限制.
+	 *
+	 * @HasGetter
+	 * @HasSetter
+	 */
+	long writeMaxBufferedByteSize = -1L;
+
+	/**
+	 * 超过writeMaxBufferedByteSize时put最长的阻塞时间，超时抛出BUSY异常，0表示不等待直接失败.
+	 *
+	 * @HasGetter
+	 * @HasSetter
+	 */
+	long writeBackPressureTimeoutMs = 60000L;
+
+	/**
+	 * 写入延迟的目标值，大于0时按每个表观测到的写入延迟和吞吐自动调整攒批条数和shard数(AdaptiveResizePolicy).
+	 * 小于1表示使用固定的writeBatchSize和默认的resize策略.
+	 *
+	 * @HasGetter
+	 * @HasSetter
+	 */
+	long writeLatencySloMs = -1L;
+
 	/**
 	 * 当INSERT目标表为有主键的表时采用不同策略.
 	 * INSERT_OR_IGNORE 当主键冲突时，不写入
@@ -83,6 +109,7 @@ public class HoloConfig implements Serializable {
 	/**
 	 * 当INSERT失败采取的策略.
 	 * TRY_ONE_BY_NE
+	 * TRY_BISECT
 	 * NONE
 	 *
 	 * @HasGetter
@@ -318,6 +345,32 @@ public class HoloConfig implements Serializable {
 	 */
 	boolean binlogIgnoreBeforeUpdate = false;
 
+	/**
+	 * binlog消费时向服务端上报消费位点(flushed lsn)的间隔.
+	 * BinlogShardGroupReader.commitAsync提交的lsn在下一次上报时才会同步到服务端.
+	 *
+	 * @HasGetter
+	 * @HasSetter
+	 */
+	long binlogStatusUpdateIntervalMs = 10000L;
+
+	/**
+	 * binlog消费位点本地存储的目录，默认null表示不开启.
+	 * 开启后BinlogShardGroupReader会把每个shard处理完的最后一条record的位点写入该目录，重启后binlogSubscribe自动从保存的位点继续消费.
+	 *
+	 * @HasGetter
+	 * @HasSetter
+	 */
+	String binlogOffsetStorePath = null;
+
+	/**
+	 * binlog消费位点本地存储fsync的间隔.
+	 *
+	 * @HasGetter
+	 * @HasSetter
+	 */
+	long binlogOffsetStoreFlushIntervalMs = 1000L;
+
 	//---------------------------conn conf------------------------------------------
 	/**
 	 * 请求重试次数，默认3.
@@ -329,7 +382,7 @@ public class HoloConfig implements Serializable {
 	int retryCount = 3;
 
 	/**
-	 * 每次重试等待时间为  当前重试次数*retrySleepMs + retrySleepInitMs.
+	 * 每次重试最长等待时间为  当前重试次数*retrySleepMs + retrySleepInitMs，实际等待时间在指数退避的下限和这个值之间随机.
 	 *
 	 * @HasGetter
 	 * @HasSetter
@@ -337,13 +390,45 @@ public class HoloConfig implements Serializable {
 	long retrySleepStepMs = 10000L;
 
 	/**
-	 * 每次重试等待时间为  当前重试次数*retrySleepMs + retrySleepInitMs.
+	 * 每次重试最长等待时间为  当前重试次数*retrySleepMs + retrySleepInitMs，实际等待时间在指数退避的下限和这个值之间随机.
 	 *
 	 * @HasGetter
 	 * @HasSetter
 	 */
 	long retrySleepInitMs = 1000L;
 
+	/**
+	 * 重试预算，每个endpoint的重试次数不超过成功次数的retryBudgetPercent%(另有100次的初始额度)，小于0表示不限制.
+	 *
+	 * @HasGetter
+	 * @HasSetter
+	 */
+	int retryBudgetPercent = -1;
+
+	/**
+	 * 自定义重试策略，为null时使用ExponentialBackoffRetryPolicy(retrySleepInitMs, retrySleepStepMs, retryBudgetPercent).
+	 *
+	 * @HasGetter
+	 * @HasSetter
+	 */
+	RetryPolicy retryPolicy = null;
+
+	/**
+	 * 同一个endpoint连续失败多少次后熔断，熔断期间请求直接失败，小于1表示不开启.
+	 *
+	 * @HasGetter
+	 * @HasSetter
+	 */
+	int circuitBreakerFailureThreshold = -1;
+
+	/**
+	 * 熔断持续时间，之后放行一个探测请求，成功则恢复.
+	 *
+	 * @HasGetter
+	 * @HasSetter
+	 */
+	long circuitBreakerOpenMs = 10000L;
+
 	/**
 	 * 每个get和put的后台连接在空闲超过connectionMaxIdleMs后将被释放(再次使用时会自动重新连接).
 	 *
@@ -352,6 +437,49 @@ public class HoloConfig implements Serializable {
 	 */
 	long connectionMaxIdleMs = 60000L;
 
+	/**
+	 * 空闲连接的后台校验间隔，小于1表示只在出现无法判断连接状态的异常后校验.
+	 *
+	 * @HasGetter
+	 * @HasSetter
+	 */
+	long connectionValidateIntervalMs = 30000L;
+
+	/**
+	 * ExecutionPool启动时是否并行地提前建立所有worker的连接，默认false(第一次使用时才建立连接).
+	 *
+	 * @HasGetter
+	 * @HasSetter
+	 */
+	boolean connectionWarmUp = false;
+
+	/**
+	 * 提前建立连接时的最大并发.
+	 *
+	 * @HasGetter
+	 * @HasSetter
+	 */
+	int connectionWarmUpParallelism = 8;
+
+	/**
+	 * JVM内同一个(jdbcUrl, username)所有HoloClient共享的最大物理连接数，默认-1表示不限制.
+	 * 开启后worker在需要时才向共享的配额申请连接，配额不足时回收空闲超过1s的连接并公平等待.
+	 * 所有连接都在使用中时不等待，直接以BUSY失败并按retryCount重试，重试耗尽后这次写入/查询以BUSY失败.
+	 * 同一个(jdbcUrl, username)以第一个建立连接的client的配置为准，之后不一致的配置会打印warn日志.
+	 *
+	 * @HasGetter
+	 * @HasSetter
+	 */
+	int connectionBrokerMaxConnections = -1;
+
+	/**
+	 * 开启connectionBrokerMaxConnections时，等待空闲连接被释放的最长时间.
+	 *
+	 * @HasGetter
+	 * @HasSetter
+	 */
+	long connectionBrokerAcquireTimeoutMs = 60000L;
+
 	/**
 	 * meta信息缓存时间(ms).
 	 *
@@ -527,6 +655,46 @@ public class HoloConfig implements Serializable {
 		this.readBatchQueueSize = readBatchQueueSize;
 	}
 
+	public long getConnectionValidateIntervalMs() {
+		return connectionValidateIntervalMs;
+	}
+
+	public void setConnectionValidateIntervalMs(long connectionValidateIntervalMs) {
+		this.connectionValidateIntervalMs = connectionValidateIntervalMs;
+	}
+
+	public int getRetryBudgetPercent() {
+		return retryBudgetPercent;
+	}
+
+	public void setRetryBudgetPercent(int retryBudgetPercent) {
+		this.retryBudgetPercent = retryBudgetPercent;
+	}
+
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	public void setRetryPolicy(RetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+	}
+
+	public int getCircuitBreakerFailureThreshold() {
+		return circuitBreakerFailureThreshold;
+	}
+
+	public void setCircuitBreakerFailureThreshold(int circuitBreakerFailureThreshold) {
+		this.circuitBreakerFailureThreshold = circuitBreakerFailureThreshold;
+	}
+
+	public long getCircuitBreakerOpenMs() {
+		return circuitBreakerOpenMs;
+	}
+
+	public void setCircuitBreakerOpenMs(long circuitBreakerOpenMs) {
+		this.circuitBreakerOpenMs = circuitBreakerOpenMs;
+	}
+
 	public int getRetryCount() {
 		return retryCount;
 	}
@@ -609,6 +777,38 @@ public class HoloConfig implements Serializable {
 		this.connectionMaxIdleMs = connectionMaxIdleMs;
 	}
 
+	public boolean isConnectionWarmUp() {
+		return connectionWarmUp;
+	}
+
+	public void setConnectionWarmUp(boolean connectionWarmUp) {
+		this.connectionWarmUp = connectionWarmUp;
+	}
+
+	public int getConnectionWarmUpParallelism() {
+		return connectionWarmUpParallelism;
+	}
+
+	public void setConnectionWarmUpParallelism(int connectionWarmUpParallelism) {
+		this.connectionWarmUpParallelism = connectionWarmUpParallelism;
+	}
+
+	public int getConnectionBrokerMaxConnections() {
+		return connectionBrokerMaxConnections;
+	}
+
+	public void setConnectionBrokerMaxConnections(int connectionBrokerMaxConnections) {
+		this.connectionBrokerMaxConnections = connectionBrokerMaxConnections;
+	}
+
+	public long getConnectionBrokerAcquireTimeoutMs() {
+		return connectionBrokerAcquireTimeoutMs;
+	}
+
+	public void setConnectionBrokerAcquireTimeoutMs(long connectionBrokerAcquireTimeoutMs) {
+		this.connectionBrokerAcquireTimeoutMs = connectionBrokerAcquireTimeoutMs;
+	}
+
 	public int getWriteThreadSize() {
 		return writeThreadSize;
 	}
@@ -665,6 +865,30 @@ public class HoloConfig implements Serializable {
 		this.defaultTimestampText = defaultTimestampText;
 	}
 
+	public long getWriteMaxBufferedByteSize() {
+		return writeMaxBufferedByteSize;
+	}
+
+	public void setWriteMaxBufferedByteSize(long writeMaxBufferedByteSize) {
+		this.writeMaxBufferedByteSize = writeMaxBufferedByteSize;
+	}
+
+	public long getWriteBackPressureTimeoutMs() {
+		return writeBackPressureTimeoutMs;
+	}
+
+	public void setWriteBackPressureTimeoutMs(long writeBackPressureTimeoutMs) {
+		this.writeBackPressureTimeoutMs = writeBackPressureTimeoutMs;
+	}
+
+	public long getWriteLatencySloMs() {
+		return writeLatencySloMs;
+	}
+
+	public void setWriteLatencySloMs(long writeLatencySloMs) {
+		this.writeLatencySloMs = writeLatencySloMs;
+	}
+
 	public long getWriteBatchTotalByteSize() {
 		return writeBatchTotalByteSize;
 	}
@@ -817,6 +1041,30 @@ public class HoloConfig implements Serializable {
 		this.binlogIgnoreBeforeUpdate = binlogIgnoreBeforeUpdate;
 	}
 
+	public long getBinlogStatusUpdateIntervalMs() {
+		return binlogStatusUpdateIntervalMs;
+	}
+
+	public void setBinlogStatusUpdateIntervalMs(long binlogStatusUpdateIntervalMs) {
+		this.binlogStatusUpdateIntervalMs = binlogStatusUpdateIntervalMs;
+	}
+
+	public String getBinlogOffsetStorePath() {
+		return binlogOffsetStorePath;
+	}
+
+	public void setBinlogOffsetStorePath(String binlogOffsetStorePath) {
+		this.binlogOffsetStorePath = binlogOffsetStorePath;
+	}
+
+	public long getBinlogOffsetStoreFlushIntervalMs() {
+		return binlogOffsetStoreFlushIntervalMs;
+	}
+
+	public void setBinlogOffsetStoreFlushIntervalMs(long binlogOffsetStoreFlushIntervalMs) {
+		this.binlogOffsetStoreFlushIntervalMs = binlogOffsetStoreFlushIntervalMs;
+	}
+
 	public boolean isEnableShutdownHook() {
 		return enableShutdownHook;
 	}
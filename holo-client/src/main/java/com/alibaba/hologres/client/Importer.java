@@ -19,14 +19,16 @@ public class Importer {
 	private InputStream is;
 	private int bufferSize = -1;
 	private int threadSize = 1;
+	private boolean binary = false;
 
-	Importer(TableSchema schema, int startShardId, int endShardId, InputStream is, int threadSize, int bufferSize) {
+	Importer(TableSchema schema, int startShardId, int endShardId, InputStream is, int threadSize, int bufferSize, boolean binary) {
 		this.schema = schema;
 		this.startShardId = startShardId;
 		this.endShardId = endShardId;
 		this.is = is;
 		this.threadSize = threadSize;
 		this.bufferSize = bufferSize;
+		this.binary = binary;
 	}
 
 	public TableSchema getSchema() {
@@ -53,6 +55,10 @@ public class Importer {
 		return threadSize;
 	}
 
+	public boolean isBinary() {
+		return binary;
+	}
+
 	public static Importer.Builder newBuilder(TableSchema schema) {
 		return new Importer.Builder(schema);
 	}
@@ -67,6 +73,7 @@ public class Importer {
 		private InputStream is;
 		private int bufferSize = -1;
 		private int threadSize = 1;
+		private boolean binary = false;
 
 		public Builder(TableSchema schema) {
 			this.schema = schema;
@@ -111,8 +118,19 @@ public class Importer {
 			return this;
 		}
 
+		/**
+		 * 使用binary格式的copy，数据通过ImportContext.writeSegment写入CopySegmentEncoder编码好的CopySegment.
+		 *
+		 * @param binary 默认false，使用csv格式
+		 * @return
+		 */
+		public Builder setBinary(boolean binary) {
+			this.binary = binary;
+			return this;
+		}
+
 		public Importer build() {
-			return new Importer(schema, startShardId, endShardId, is, threadSize, bufferSize);
+			return new Importer(schema, startShardId, endShardId, is, threadSize, bufferSize, binary);
 		}
 	}
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.copy;
+
+import org.postgresql.core.Oid;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 一维数组列的binary copy编码器，直接按PG的array格式写入buffer，不需要BaseConnection.
+ * 支持int[], long[], float[], double[], boolean[], Object[]和List；多维数组交给driver处理，需要BaseConnection.
+ */
+final class ArrayEncoder implements ColumnEncoder {
+
+	/**
+	 * ndim, hasnull, elemtype, 一维的长度和下界.
+	 */
+	private static final int HEADER_SIZE = 20;
+
+	private final RecordOutputStream out;
+	private final String typeName;
+	private final int elementOid;
+	/**
+	 * 定长元素的字节数，text/varchar为-1.
+	 */
+	private final int elementSize;
+	private final ColumnEncoder multiDimensionEncoder;
+
+	private ArrayEncoder(RecordOutputStream out, String typeName, int elementOid, int elementSize, ColumnEncoder multiDimensionEncoder) {
+		this.out = out;
+		this.typeName = typeName;
+		this.elementOid = elementOid;
+		this.elementSize = elementSize;
+		this.multiDimensionEncoder = multiDimensionEncoder;
+	}
+
+	/**
+	 * @param multiDimensionEncoder 多维数组的编码器，可以为null
+	 * @return 不支持的数组类型返回null
+	 */
+	static ArrayEncoder compile(RecordOutputStream out, String typeName, ColumnEncoder multiDimensionEncoder) {
+		switch (typeName) {
+			case "_int4":
+				return new ArrayEncoder(out, typeName, Oid.INT4, 4, multiDimensionEncoder);
+			case "_int8":
+				return new ArrayEncoder(out, typeName, Oid.INT8, 8, multiDimensionEncoder);
+			case "_float4":
+				return new ArrayEncoder(out, typeName, Oid.FLOAT4, 4, multiDimensionEncoder);
+			case "_float8":
+				return new ArrayEncoder(out, typeName, Oid.FLOAT8, 8, multiDimensionEncoder);
+			case "_bool":
+				return new ArrayEncoder(out, typeName, Oid.BOOL, 1, multiDimensionEncoder);
+			case "_text":
+				return new ArrayEncoder(out, typeName, Oid.TEXT, -1, multiDimensionEncoder);
+			case "_varchar":
+				return new ArrayEncoder(out, typeName, Oid.VARCHAR, -1, multiDimensionEncoder);
+			default:
+				return null;
+		}
+	}
+
+	@Override
+	public void encode(Object obj) throws IOException {
+		if (obj instanceof int[] && elementOid == Oid.INT4) {
+			int[] array = (int[]) obj;
+			ByteBuffer buffer = beginFixed(array.length);
+			for (int value : array) {
+				buffer.putInt(4).putInt(value);
+			}
+		} else if (obj instanceof long[] && elementOid == Oid.INT8) {
+			long[] array = (long[]) obj;
+			ByteBuffer buffer = beginFixed(array.length);
+			for (long value : array) {
+				buffer.putInt(8).putLong(value);
+			}
+		} else if (obj instanceof float[] && elementOid == Oid.FLOAT4) {
+			float[] array = (float[]) obj;
+			ByteBuffer buffer = beginFixed(array.length);
+			for (float value : array) {
+				buffer.putInt(4).putFloat(value);
+			}
+		} else if (obj instanceof double[] && elementOid == Oid.FLOAT8) {
+			double[] array = (double[]) obj;
+			ByteBuffer buffer = beginFixed(array.length);
+			for (double value : array) {
+				buffer.putInt(8).putDouble(value);
+			}
+		} else if (obj instanceof boolean[] && elementOid == Oid.BOOL) {
+			boolean[] array = (boolean[]) obj;
+			ByteBuffer buffer = beginFixed(array.length);
+			for (boolean value : array) {
+				buffer.putInt(1).put((byte) (value ? 1 : 0));
+			}
+		} else if (obj instanceof Object[]) {
+			encodeElements(obj, Arrays.asList((Object[]) obj));
+		} else if (obj instanceof List) {
+			encodeElements(obj, (List<?>) obj);
+		} else if (obj.getClass().isArray()) {
+			//元素类型和列类型不一致的基本类型数组，比如int[]写入int8[]
+			int length = Array.getLength(obj);
+			Object[] elements = new Object[length];
+			for (int i = 0; i < length; ++i) {
+				elements[i] = Array.get(obj, i);
+			}
+			encodeElements(obj, Arrays.asList(elements));
+		} else {
+			throw new IOException("unsupported class for " + typeName + " : " + obj.getClass().getName());
+		}
+	}
+
+	/**
+	 * 写入总长度和header，并保证buffer放得下所有的定长元素.
+	 */
+	private ByteBuffer beginFixed(int length) throws IOException {
+		long size = HEADER_SIZE + (long) length * (4 + elementSize);
+		if (size > Integer.MAX_VALUE - 4) {
+			throw new IOException("array too large for " + typeName + " : " + length + " elements");
+		}
+		out.mayIncBuffer(4 + (int) size);
+		ByteBuffer buffer = out.cellBuffer;
+		buffer.putInt((int) size);
+		putHeader(buffer, length, false);
+		return buffer;
+	}
+
+	private void putHeader(ByteBuffer buffer, int length, boolean hasNull) {
+		buffer.putInt(1).putInt(hasNull ? 1 : 0).putInt(elementOid).putInt(length).putInt(1);
+	}
+
+	private void encodeElements(Object obj, List<?> elements) throws IOException {
+		boolean hasNull = false;
+		for (Object element : elements) {
+			if (element == null) {
+				hasNull = true;
+			} else if (element instanceof List || element.getClass().isArray()) {
+				if (multiDimensionEncoder == null) {
+					throw new IOException("multi-dimensional array for " + typeName + " requires RecordBinaryOutputSteam constructed with BaseConnection");
+				}
+				multiDimensionEncoder.encode(obj);
+				return;
+			}
+		}
+		int offsetInRow = out.beginLengthPrefixed();
+		out.mayIncBuffer(HEADER_SIZE);
+		putHeader(out.cellBuffer, elements.size(), hasNull);
+		for (Object element : elements) {
+			if (element == null) {
+				out.writeInt(-1);
+			} else {
+				writeElement(element);
+			}
+		}
+		out.endLengthPrefixed(offsetInRow);
+	}
+
+	private void writeElement(Object element) throws IOException {
+		switch (elementOid) {
+			case Oid.INT4:
+				out.writeInt(4);
+				out.writeInt(toNumber(element).intValue());
+				break;
+			case Oid.INT8:
+				out.writeInt(8);
+				out.writeLong(toNumber(element).longValue());
+				break;
+			case Oid.FLOAT4:
+				out.writeInt(4);
+				out.writeFloat(toNumber(element).floatValue());
+				break;
+			case Oid.FLOAT8:
+				out.writeInt(8);
+				out.writeDouble(toNumber(element).doubleValue());
+				break;
+			case Oid.BOOL:
+				out.writeInt(1);
+				if (element instanceof Boolean) {
+					out.write((Boolean) element ? 1 : 0);
+				} else {
+					out.write(toNumber(element).intValue() > 0 ? 1 : 0);
+				}
+				break;
+			default:
+				out.writeLengthPrefixedUtf8(element instanceof String ? (String) element : element.toString(), -1);
+		}
+	}
+
+	private Number toNumber(Object element) throws IOException {
+		if (element instanceof Number) {
+			return (Number) element;
+		}
+		throw new IOException("unsupported element class for " + typeName + " : " + element.getClass().getName());
+	}
+}
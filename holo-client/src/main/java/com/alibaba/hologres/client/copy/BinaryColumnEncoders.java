@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.copy;
+
+import com.alibaba.hologres.client.model.Column;
+import com.alibaba.hologres.client.model.TableSchema;
+import org.postgresql.jdbc.ArrayUtil;
+
+import java.io.IOException;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把TableSchema编译成每一列的binary copy编码器.
+ * 每个编码器先判断该列最常见的java类型，再退化到通用的处理.
+ */
+final class BinaryColumnEncoders {
+
+	/**
+	 * 2000-01-01距1970-01-01的天数.
+	 */
+	private static final long PG_EPOCH_DAYS = LocalDate.of(2000, 1, 1).toEpochDay();
+
+	private BinaryColumnEncoders() {
+	}
+
+	static ColumnEncoder[] compile(RecordBinaryOutputStream out, TableSchema schema) {
+		Column[] columns = schema.getColumnSchema();
+		ColumnEncoder[] encoders = new ColumnEncoder[columns.length];
+		for (int i = 0; i < columns.length; ++i) {
+			encoders[i] = compile(out, columns[i]);
+		}
+		return encoders;
+	}
+
+	static ColumnEncoder compile(RecordBinaryOutputStream out, Column column) {
+		int type = column.getType();
+		String typeName = column.getTypeName();
+		switch (type) {
+			case Types.SMALLINT:
+				return obj -> {
+					if (obj instanceof Number) {
+						out.writeInt(2);
+						out.writeShort(((Number) obj).shortValue());
+					} else {
+						throw unsupportedClass("int2", obj);
+					}
+				};
+			case Types.INTEGER:
+				return obj -> {
+					if (obj instanceof Integer) {
+						out.writeInt(4);
+						out.writeInt((Integer) obj);
+					} else if (obj instanceof Number) {
+						out.writeInt(4);
+						out.writeInt(((Number) obj).intValue());
+					} else {
+						throw unsupportedClass("int4", obj);
+					}
+				};
+			case Types.BIGINT:
+				return obj -> {
+					if (obj instanceof Long) {
+						out.writeInt(8);
+						out.writeLong((Long) obj);
+					} else if (obj instanceof Number) {
+						out.writeInt(8);
+						out.writeLong(((Number) obj).longValue());
+					} else {
+						throw unsupportedClass("int8", obj);
+					}
+				};
+			case Types.VARCHAR:
+			case Types.CHAR:
+				return obj -> out.writeLengthPrefixedUtf8(obj instanceof String ? (String) obj : obj.toString(), -1);
+			case Types.BIT:
+				if (!"bool".equals(typeName)) {
+					return unsupported("unsupported type:" + typeName);
+				}
+				return obj -> {
+					if (obj instanceof Boolean) {
+						out.writeInt(1);
+						out.write((Boolean) obj ? 1 : 0);
+					} else if (obj instanceof Number) {
+						out.writeInt(1);
+						out.write(((Number) obj).intValue() > 0 ? 1 : 0);
+					} else {
+						throw unsupportedClass("bool", obj);
+					}
+				};
+			case Types.REAL:
+				if (!"float4".equals(typeName)) {
+					return unsupported("unsupported type:" + typeName);
+				}
+				return obj -> {
+					if (obj instanceof Float) {
+						out.writeInt(4);
+						out.writeFloat((Float) obj);
+					} else if (obj instanceof Number) {
+						out.writeInt(4);
+						out.writeFloat(((Number) obj).floatValue());
+					} else {
+						throw unsupportedClass("float4", obj);
+					}
+				};
+			case Types.DOUBLE:
+				if (!"float8".equals(typeName)) {
+					return unsupported("unsupported type:" + typeName);
+				}
+				return obj -> {
+					if (obj instanceof Double) {
+						out.writeInt(8);
+						out.writeDouble((Double) obj);
+					} else if (obj instanceof Number) {
+						out.writeInt(8);
+						out.writeDouble(((Number) obj).doubleValue());
+					} else {
+						throw unsupportedClass("float8", obj);
+					}
+				};
+			case Types.DATE:
+				if (out.timestampUtils == null) {
+					return compileLocalDate(out);
+				}
+				return obj -> {
+					byte[] val = new byte[4];
+					try {
+						if (obj instanceof Date) {
+							out.timestampUtils.toBinDate(null, val, (Date) obj);
+						} else if (obj instanceof java.util.Date) {
+							out.timestampUtils.toBinDate(null, val, new Date(((java.util.Date) obj).getTime()));
+						} else if (obj instanceof String) {
+							out.timestampUtils.toBinDate(null, val, out.timestampUtils.toDate(null, (String) obj));
+						} else {
+							throw unsupportedClass("date", obj);
+						}
+					} catch (SQLException e) {
+						throw new IOException(e);
+					}
+					out.writeInt(4);
+					out.write(val);
+				};
+			case Types.TIMESTAMP:
+				return compileTimestamp(out, "timestamp".equals(typeName));
+			case Types.BINARY:
+				return obj -> {
+					if (obj instanceof byte[]) {
+						byte[] binary = (byte[]) obj;
+						out.writeInt(binary.length);
+						out.write(binary);
+					} else {
+						throw unsupportedClass("bytea", obj);
+					}
+				};
+			case Types.NUMERIC:
+				return new NumericEncoder(out, column.getScale());
+			case Types.OTHER:
+				if ("jsonb".equals(typeName)) {
+					return obj -> out.writeLengthPrefixedUtf8(String.valueOf(obj), 1);
+				} else if ("json".equals(typeName)) {
+					return obj -> out.writeLengthPrefixedUtf8(String.valueOf(obj), -1);
+				} else if ("roaringbitmap".equals(typeName)) {
+					return obj -> {
+						if (obj instanceof byte[]) {
+							byte[] rbBytes = (byte[]) obj;
+							out.writeInt(rbBytes.length);
+							out.write(rbBytes);
+						} else {
+							throw unsupportedClass("roaringbitmap", obj);
+						}
+					};
+				} else {
+					return unsupported("unsupported type:" + typeName + "(" + type + ")");
+				}
+			case Types.ARRAY:
+				ColumnEncoder driverEncoder = out.conn == null ? null : compileDriverArray(out, typeName);
+				ArrayEncoder arrayEncoder = ArrayEncoder.compile(out, typeName, driverEncoder);
+				if (arrayEncoder != null) {
+					return arrayEncoder;
+				}
+				if (driverEncoder == null) {
+					return unsupported("unsupported type:" + typeName + "(" + type + "). Please call RecordBinaryOutputSteam constructor with BaseConnection Param");
+				}
+				return driverEncoder;
+			default:
+				return unsupported("unsupported type:" + typeName + "(" + type + ")");
+		}
+	}
+
+	/**
+	 * 没有BaseConnection时按本地时区的日期计算距2000-01-01的天数，String只支持yyyy-MM-dd.
+	 */
+	private static ColumnEncoder compileLocalDate(RecordBinaryOutputStream out) {
+		return obj -> {
+			LocalDate date;
+			if (obj instanceof Date) {
+				date = ((Date) obj).toLocalDate();
+			} else if (obj instanceof java.util.Date) {
+				date = new Date(((java.util.Date) obj).getTime()).toLocalDate();
+			} else if (obj instanceof String) {
+				date = LocalDate.parse((String) obj);
+			} else {
+				throw unsupportedClass("date", obj);
+			}
+			out.writeInt(4);
+			out.writeInt((int) (date.toEpochDay() - PG_EPOCH_DAYS));
+		};
+	}
+
+	/**
+	 * timestamp列的java.sql.Timestamp按本地时区处理，时区偏移在编译时确定.
+	 */
+	private static ColumnEncoder compileTimestamp(RecordBinaryOutputStream out, boolean withoutTimeZone) {
+		final long localOffsetMicros = withoutTimeZone ? TimeZone.getDefault().getRawOffset() * 1000L : 0L;
+		return obj -> {
+			long micros;
+			if (obj instanceof Timestamp) {
+				Timestamp ts = (Timestamp) obj;
+				long seconds = RecordBinaryOutputStream.javaEpochToPg(ts.getTime() / 1000, TimeUnit.SECONDS);
+				// Convert to micros rounding nanoseconds
+				micros = TimeUnit.SECONDS.toMicros(seconds) + TimeUnit.NANOSECONDS.toMicros(ts.getNanos() + 500) + localOffsetMicros;
+			} else if (obj instanceof String) {
+				OffsetDateTime dateTime = OffsetDateTime.parse((String) obj, RecordBinaryOutputStream.DATE_TIME_FORMATTER);
+				long seconds = RecordBinaryOutputStream.javaEpochToPg(dateTime.toEpochSecond(), TimeUnit.SECONDS);
+				micros = TimeUnit.SECONDS.toMicros(seconds) + TimeUnit.NANOSECONDS.toMicros(dateTime.getNano() + 500);
+			} else if (obj instanceof Number || obj instanceof java.util.Date) {
+				long ms = obj instanceof Number ? ((Number) obj).longValue() : ((java.util.Date) obj).getTime();
+				long seconds = RecordBinaryOutputStream.javaEpochToPg(ms / 1000L, TimeUnit.SECONDS);
+				micros = TimeUnit.SECONDS.toMicros(seconds) + TimeUnit.NANOSECONDS.toMicros((ms % 1000) * 1000000L + 500);
+			} else {
+				throw new RuntimeException("unsupported type for timestamp " + obj.getClass().getName());
+			}
+			out.writeInt(8);
+			out.writeLong(micros);
+		};
+	}
+
+	/**
+	 * 通过driver的array实现编码，需要BaseConnection.
+	 */
+	private static ColumnEncoder compileDriverArray(RecordBinaryOutputStream out, String typeName) {
+		return obj -> {
+			try {
+				byte[] arrayBytes = ArrayUtil.arrayToBinary(out.conn, obj, typeName);
+				out.writeInt(arrayBytes.length);
+				out.write(arrayBytes);
+			} catch (SQLException e) {
+				throw new IOException(e);
+			}
+		};
+	}
+
+	private static ColumnEncoder unsupported(String message) {
+		return obj -> {
+			throw new IOException(message);
+		};
+	}
+
+	private static IOException unsupportedClass(String type, Object obj) {
+		return new IOException("unsupported class for " + type + " : " + obj.getClass().getName());
+	}
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.copy;
+
+import java.io.IOException;
+
+/**
+ * 一列的copy编码器.
+ * 由RecordBinaryOutputStream按TableSchema为每一列编译一次，列类型相关的判断都在编译时完成.
+ */
+public interface ColumnEncoder {
+
+	/**
+	 * 把一个非null的列值编码写入流中，包括长度.
+	 *
+	 * @param obj 列值，不为null
+	 * @throws IOException 不支持的类型或者写入失败
+	 */
+	void encode(Object obj) throws IOException;
+}
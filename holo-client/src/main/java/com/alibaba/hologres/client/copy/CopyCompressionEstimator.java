@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.copy;
+
+import com.alibaba.hologres.client.model.Record;
+import com.alibaba.hologres.client.model.TableSchema;
+import org.postgresql.core.BaseConnection;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * 在本地评估一批Record按copy格式编码后再压缩的耗时和能节省的字节数，用于按表决定跨地域写入时是否值得压缩.
+ * 只测量客户端的编码和deflate压缩，不包括服务端解压的耗时.
+ */
+public class CopyCompressionEstimator {
+
+	private static final int DEFAULT_MAX_CELL_BUFFER_SIZE = 2 * 1024 * 1024;
+
+	/**
+	 * 评估结果.
+	 */
+	public static class Result {
+		private final int rowCount;
+		private final int level;
+		private final long rawBytes;
+		private final long compressedBytes;
+		private final long encodeNanos;
+		private final long compressNanos;
+
+		Result(int rowCount, int level, long rawBytes, long compressedBytes, long encodeNanos, long compressNanos) {
+			this.rowCount = rowCount;
+			this.level = level;
+			this.rawBytes = rawBytes;
+			this.compressedBytes = compressedBytes;
+			this.encodeNanos = encodeNanos;
+			this.compressNanos = compressNanos;
+		}
+
+		public int getRowCount() {
+			return rowCount;
+		}
+
+		public int getLevel() {
+			return level;
+		}
+
+		public long getRawBytes() {
+			return rawBytes;
+		}
+
+		public long getCompressedBytes() {
+			return compressedBytes;
+		}
+
+		public long getEncodeNanos() {
+			return encodeNanos;
+		}
+
+		public long getCompressNanos() {
+			return compressNanos;
+		}
+
+		/**
+		 * @return 压缩后大小/原始大小
+		 */
+		public double getCompressionRatio() {
+			return rawBytes == 0 ? 1.0 : (double) compressedBytes / rawBytes;
+		}
+
+		/**
+		 * 压缩节省的传输时间是否超过压缩本身的耗时.
+		 *
+		 * @param linkBytesPerSecond 客户端到Hologres的可用带宽
+		 */
+		public boolean isWorthCompressing(long linkBytesPerSecond) {
+			double savedNanos = (rawBytes - compressedBytes) * 1_000_000_000.0 / linkBytesPerSecond;
+			return savedNanos > compressNanos;
+		}
+
+		@Override
+		public String toString() {
+			return "CopyCompressionEstimator.Result{"
+					+ "rowCount=" + rowCount
+					+ ", level=" + level
+					+ ", rawBytes=" + rawBytes
+					+ ", compressedBytes=" + compressedBytes
+					+ ", ratio=" + String.format("%.3f", getCompressionRatio())
+					+ ", encodeMs=" + String.format("%.3f", encodeNanos / 1_000_000.0)
+					+ ", compressMs=" + String.format("%.3f", compressNanos / 1_000_000.0)
+					+ '}';
+		}
+	}
+
+	/**
+	 * 编码并压缩records，重复iterations次，耗时取最小值.
+	 *
+	 * @param conn       用于text格式的时间类型和binary格式的多维数组，可以为null
+	 * @param binary     true为binary格式，false为csv格式
+	 * @param level      Deflater的压缩级别，0-9
+	 * @param iterations 重复次数，第一次通常包含JIT预热
+	 */
+	public static Result estimate(TableSchema schema, List<Record> records, BaseConnection conn, boolean binary, int level, int iterations) throws IOException {
+		if (iterations < 1) {
+			throw new IllegalArgumentException("iterations must be positive");
+		}
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		byte[] out = new byte[64 * 1024];
+		long encodeNanos = Long.MAX_VALUE;
+		long compressNanos = Long.MAX_VALUE;
+		long compressedBytes = 0;
+		byte[] raw = null;
+		Deflater deflater = new Deflater(level);
+		try {
+			for (int i = 0; i < iterations; ++i) {
+				os.reset();
+				long start = System.nanoTime();
+				try (RecordOutputStream stream = binary
+						? new RecordBinaryOutputStream(os, schema, conn, DEFAULT_MAX_CELL_BUFFER_SIZE)
+						: new RecordTextOutputStream(os, schema, conn, DEFAULT_MAX_CELL_BUFFER_SIZE)) {
+					for (Record record : records) {
+						stream.putRecord(record);
+					}
+				}
+				encodeNanos = Math.min(encodeNanos, System.nanoTime() - start);
+				raw = os.toByteArray();
+
+				start = System.nanoTime();
+				deflater.reset();
+				deflater.setInput(raw);
+				deflater.finish();
+				compressedBytes = 0;
+				while (!deflater.finished()) {
+					compressedBytes += deflater.deflate(out);
+				}
+				compressNanos = Math.min(compressNanos, System.nanoTime() - start);
+			}
+		} finally {
+			deflater.end();
+		}
+		return new Result(records.size(), level, raw.length, compressedBytes, encodeNanos, compressNanos);
+	}
+}
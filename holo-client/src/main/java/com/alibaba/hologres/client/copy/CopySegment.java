@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.copy;
+
+/**
+ * 编码好的一段binary copy数据，只包含完整的行，不包含header，所有行属于同一个shard.
+ * 由CopySegmentEncoder在生产者线程中生成，发送端只需要把bytes原样写入对应shard的copy连接.
+ */
+public final class CopySegment {
+
+	private final int shardId;
+	private final byte[] bytes;
+	private final int rowCount;
+
+	public CopySegment(int shardId, byte[] bytes, int rowCount) {
+		this.shardId = shardId;
+		this.bytes = bytes;
+		this.rowCount = rowCount;
+	}
+
+	public int getShardId() {
+		return shardId;
+	}
+
+	public byte[] getBytes() {
+		return bytes;
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.copy;
+
+import com.alibaba.hologres.client.impl.collector.shard.DistributionKeyShardPolicy;
+import com.alibaba.hologres.client.impl.collector.shard.ShardPolicy;
+import com.alibaba.hologres.client.model.Record;
+import com.alibaba.hologres.client.model.TableSchema;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * 在生产者线程中把Record编码成按shard分组的CopySegment，编码不占用发送copy数据的线程.
+ * 每一行都包含所有列，没有set的列写null；不依赖BaseConnection，多维数组等需要driver的类型不支持.
+ * 非线程安全，每个生产者线程一个实例；每个shard最多缓存segmentSize字节.
+ * 用法：
+ * <pre>
+ * ImportContext ctx = client.importData(Importer.newBuilder(schema).setBinary(true).build());
+ * try (CopySegmentEncoder encoder = new CopySegmentEncoder(schema, ctx.getShardCount(), 64 * 1024, ctx::writeSegment)) {
+ *     encoder.putRecord(record);
+ * }
+ * </pre>
+ */
+public class CopySegmentEncoder implements Closeable {
+
+	private static final int DEFAULT_MAX_CELL_BUFFER_SIZE = 2 * 1024 * 1024;
+
+	/**
+	 * 接收编码好的CopySegment.
+	 */
+	public interface SegmentConsumer {
+		void accept(CopySegment segment) throws IOException;
+	}
+
+	/**
+	 * 一个shard还没有凑满的数据.
+	 */
+	private static class ShardBuffer {
+		byte[] bytes;
+		int length;
+		int rowCount;
+	}
+
+	private final ShardPolicy policy;
+	private final int segmentSize;
+	private final SegmentConsumer consumer;
+	private final ShardBuffer[] buffers;
+	private final RecordBinaryOutputStream stream;
+	private ShardBuffer current;
+	private boolean closed = false;
+
+	public CopySegmentEncoder(TableSchema schema, int shardCount, int segmentSize, SegmentConsumer consumer) {
+		this.policy = new DistributionKeyShardPolicy();
+		policy.init(shardCount);
+		this.segmentSize = segmentSize;
+		this.consumer = consumer;
+		this.buffers = new ShardBuffer[shardCount];
+		this.stream = new RecordBinaryOutputStream(new OutputStream() {
+			@Override
+			public void write(int b) {
+				write(new byte[]{(byte) b}, 0, 1);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+				append(b, off, len);
+			}
+		}, schema, null, DEFAULT_MAX_CELL_BUFFER_SIZE, false, true);
+	}
+
+	/**
+	 * 编码一条record，所在shard的数据超过segmentSize时交给consumer.
+	 */
+	public void putRecord(Record record) throws IOException {
+		if (closed) {
+			throw new IOException("CopySegmentEncoder already closed");
+		}
+		int shardId = policy.locate(record);
+		ShardBuffer buffer = buffers[shardId];
+		if (buffer == null) {
+			buffer = new ShardBuffer();
+			buffer.bytes = new byte[Math.min(segmentSize, 1024)];
+			buffers[shardId] = buffer;
+		}
+		current = buffer;
+		stream.putRecord(record);
+		//每一行都立即写到当前shard的buffer中
+		stream.flush();
+		++buffer.rowCount;
+		if (buffer.length >= segmentSize) {
+			emit(shardId, buffer);
+		}
+	}
+
+	/**
+	 * 把所有shard中没有凑满的数据交给consumer.
+	 */
+	public void flush() throws IOException {
+		for (int i = 0; i < buffers.length; ++i) {
+			ShardBuffer buffer = buffers[i];
+			if (buffer != null && buffer.rowCount > 0) {
+				emit(i, buffer);
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!closed) {
+			try {
+				flush();
+			} finally {
+				closed = true;
+				stream.close();
+			}
+		}
+	}
+
+	private void append(byte[] b, int off, int len) {
+		ShardBuffer buffer = current;
+		if (buffer.bytes.length - buffer.length < len) {
+			buffer.bytes = Arrays.copyOf(buffer.bytes, Math.max(buffer.length + len, buffer.bytes.length * 2));
+		}
+		System.arraycopy(b, off, buffer.bytes, buffer.length, len);
+		buffer.length += len;
+	}
+
+	private void emit(int shardId, ShardBuffer buffer) throws IOException {
+		CopySegment segment = new CopySegment(shardId, Arrays.copyOf(buffer.bytes, buffer.length), buffer.rowCount);
+		buffer.length = 0;
+		buffer.rowCount = 0;
+		consumer.accept(segment);
+	}
+}
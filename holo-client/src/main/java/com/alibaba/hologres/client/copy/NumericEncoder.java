@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.copy;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * numeric列的binary copy编码器.
+ * 直接从unscaledValue和scale拆分成NBASE(10000)的digit，不经过toPlainString；unscaledValue在long范围内时全程用long计算.
+ * 输出和PG的numeric_send一致：去掉首尾为0的digit，0编码成0个digit.
+ * 每个实例持有digit的缓冲区，只能在一个RecordBinaryOutputStream中使用.
+ */
+final class NumericEncoder implements ColumnEncoder {
+
+	private static final short NUMERIC_POS = (short) 0x0000;
+	private static final short NUMERIC_NEG = (short) 0x4000;
+	private static final int DEC_DIGITS = 4;
+	private static final int NBASE = 10000;
+
+	private static final int[] POW10 = new int[]{1, 10, 100, 1000, 10000};
+	/**
+	 * 一次从BigInteger中取出4个digit.
+	 */
+	private static final BigInteger NBASE_POW4 = BigInteger.valueOf((long) NBASE * NBASE * NBASE * NBASE);
+	/**
+	 * LONG_LIMIT[i] * 10^i不会超过long的范围.
+	 */
+	private static final long[] LONG_LIMIT = new long[19];
+
+	static {
+		long pow = 1L;
+		for (int i = 0; i < LONG_LIMIT.length; ++i) {
+			LONG_LIMIT[i] = Long.MAX_VALUE / pow;
+			pow *= 10L;
+		}
+	}
+
+	private final RecordOutputStream out;
+	private final int scale;
+	/**
+	 * 低位在前的digit.
+	 */
+	private short[] digits = new short[16];
+
+	NumericEncoder(RecordOutputStream out, int scale) {
+		this.out = out;
+		this.scale = scale;
+	}
+
+	@Override
+	public void encode(Object obj) throws IOException {
+		if (obj instanceof BigDecimal) {
+			encode((BigDecimal) obj);
+		} else if (obj instanceof Integer || obj instanceof Long) {
+			long value = ((Number) obj).longValue();
+			if (scale >= 0 && scale < LONG_LIMIT.length && value != Long.MIN_VALUE && Math.abs(value) <= LONG_LIMIT[scale]) {
+				long unscaled = value;
+				for (int i = 0; i < scale; ++i) {
+					unscaled *= 10L;
+				}
+				encode(unscaled, scale);
+			} else {
+				encode(BigDecimal.valueOf(value));
+			}
+		} else if (obj instanceof String) {
+			encode(new BigDecimal((String) obj));
+		} else {
+			throw new RuntimeException("unsupported type for numeric " + obj.getClass().getName());
+		}
+	}
+
+	private void encode(BigDecimal decimal) throws IOException {
+		decimal = decimal.setScale(scale, RoundingMode.HALF_UP);
+		int dscale = decimal.scale();
+		if (dscale < 0) {
+			decimal = decimal.setScale(0);
+			dscale = 0;
+		}
+		BigInteger unscaled = decimal.unscaledValue();
+		if (unscaled.bitLength() < Long.SIZE - 1) {
+			encode(unscaled.longValue(), dscale);
+		} else {
+			encode(unscaled, dscale);
+		}
+	}
+
+	private void encode(long unscaled, int dscale) throws IOException {
+		short sign = unscaled < 0 ? NUMERIC_NEG : NUMERIC_POS;
+		long v = Math.abs(unscaled);
+		int pad = (DEC_DIGITS - dscale % DEC_DIGITS) % DEC_DIGITS;
+		int count = 0;
+		if (v != 0 && pad != 0) {
+			//小数部分补0到4位对齐，拆开计算避免乘法溢出
+			int div = POW10[DEC_DIGITS - pad];
+			ensureCapacity(1);
+			digits[count++] = (short) ((v % div) * POW10[pad]);
+			v /= div;
+		}
+		while (v != 0) {
+			ensureCapacity(count + 1);
+			digits[count++] = (short) (v % NBASE);
+			v /= NBASE;
+		}
+		write(count, (dscale + pad) / DEC_DIGITS, sign, dscale);
+	}
+
+	private void encode(BigInteger unscaled, int dscale) throws IOException {
+		short sign = unscaled.signum() < 0 ? NUMERIC_NEG : NUMERIC_POS;
+		int pad = (DEC_DIGITS - dscale % DEC_DIGITS) % DEC_DIGITS;
+		BigInteger v = unscaled.abs().multiply(BigInteger.valueOf(POW10[pad]));
+		int count = 0;
+		while (v.signum() != 0) {
+			BigInteger[] qr = v.divideAndRemainder(NBASE_POW4);
+			v = qr[0];
+			long chunk = qr[1].longValue();
+			ensureCapacity(count + 4);
+			//不是最高的一段时必须写满4个digit
+			for (int i = 0; i < 4 && (chunk != 0 || v.signum() != 0); ++i) {
+				digits[count++] = (short) (chunk % NBASE);
+				chunk /= NBASE;
+			}
+		}
+		write(count, (dscale + pad) / DEC_DIGITS, sign, dscale);
+	}
+
+	/**
+	 * @param count          digits中有效的digit数，最高位不为0
+	 * @param fractionDigits 小数部分的digit数
+	 */
+	private void write(int count, int fractionDigits, short sign, int dscale) throws IOException {
+		int low = 0;
+		while (low < count && digits[low] == 0) {
+			++low;
+		}
+		int ndigits = count - low;
+		short weight = ndigits == 0 ? 0 : (short) (count - 1 - fractionDigits);
+		if (ndigits == 0) {
+			sign = NUMERIC_POS;
+		}
+		out.writeInt((4 + ndigits) * 2);
+		out.writeShort((short) ndigits);
+		out.writeShort(weight);
+		out.writeShort(sign);
+		out.writeShort((short) dscale);
+		for (int i = count - 1; i >= low; --i) {
+			out.writeShort(digits[i]);
+		}
+	}
+
+	private void ensureCapacity(int size) {
+		if (digits.length < size) {
+			short[] temp = new short[Math.max(size, digits.length * 2)];
+			System.arraycopy(digits, 0, temp, 0, digits.length);
+			digits = temp;
+		}
+	}
+}
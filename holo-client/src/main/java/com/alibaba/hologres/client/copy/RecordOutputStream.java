@@ -2,6 +2,7 @@ package com.alibaba.hologres.client.copy;
 
 import com.alibaba.hologres.client.model.Record;
 import com.alibaba.hologres.client.model.TableSchema;
+import com.alibaba.hologres.client.utils.MemorySizeUtil;
 import org.postgresql.core.BaseConnection;
 import org.postgresql.jdbc.TimestampUtils;
 
@@ -10,6 +11,8 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * Record转成copy流.
@@ -34,15 +37,43 @@ public abstract class RecordOutputStream implements Closeable {
 		this.os = os;
 		this.maxCellBufferSize = maxCellBufferSize;
 		this.conn = conn;
-		this.timestampUtils = conn.getTimestampUtils();
+		this.timestampUtils = conn == null ? null : conn.getTimestampUtils();
 
 	}
 
+	/**
+	 * 攒够这么多字节再写入os，减少CopyData消息和系统调用的次数.
+	 */
+	static final int SEGMENT_SIZE = 64 * 1024;
+	private static final int INITIAL_BUFFER_SIZE = SEGMENT_SIZE * 2;
+	private static final int MAX_POOLED_BUFFER_SIZE = SEGMENT_SIZE * 8;
+
+	/**
+	 * 所有RecordOutputStream共享的buffer池，close时归还，避免每次copy都重新申请.
+	 */
+	private static final BlockingQueue<ByteBuffer> BUFFER_POOL = new ArrayBlockingQueue<>(32);
+
 	boolean closed = false;
-	ByteBuffer cellBuffer = ByteBuffer.allocate(10);
+	ByteBuffer cellBuffer = borrowBuffer();
+	/**
+	 * 当前行在cellBuffer中的起始位置，之前的都是已经完成的行.
+	 */
+	int rowStart = 0;
 	Record currentRecord = null;
 	int currentColumnIndex;
 
+	private static ByteBuffer borrowBuffer() {
+		ByteBuffer buffer = BUFFER_POOL.poll();
+		return buffer != null ? buffer : ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+	}
+
+	private static void returnBuffer(ByteBuffer buffer) {
+		if (buffer.capacity() <= MAX_POOLED_BUFFER_SIZE) {
+			buffer.clear();
+			BUFFER_POOL.offer(buffer);
+		}
+	}
+
 	public long getResult() {
 		if (os instanceof WithCopyResult) {
 			return ((WithCopyResult) os).getResult();
@@ -55,39 +86,84 @@ public abstract class RecordOutputStream implements Closeable {
 	public void close() throws IOException {
 		if (!closed) {
 			closed = true;
+			try {
+				flushBuffer();
+			} finally {
+				returnBuffer(cellBuffer);
+				cellBuffer = null;
+			}
 			os.close();
 		}
 	}
 
+	/**
+	 * 把已经完成的行全部写入os.
+	 */
+	public void flush() throws IOException {
+		if (closed) {
+			throw new IOException("RecordOutputFormat already closed");
+		}
+		flushBuffer();
+		os.flush();
+	}
+
 	public void putRecord(Record record) throws IOException {
 		if (closed) {
 			throw new IOException("RecordOutputFormat already closed");
 		}
-		fillByteBuffer(record);
-		cellBuffer.flip();
-		os.write(cellBuffer.array(), cellBuffer.position(), cellBuffer.remaining());
+		rowStart = cellBuffer.position();
+		try {
+			fillByteBuffer(record);
+		} catch (IOException | RuntimeException e) {
+			//丢弃写了一半的行
+			cellBuffer.position(rowStart);
+			throw e;
+		}
+		rowStart = cellBuffer.position();
+		if (rowStart >= SEGMENT_SIZE) {
+			flushBuffer();
+		}
+	}
 
-		cellBuffer.clear();
+	private void flushBuffer() throws IOException {
+		if (cellBuffer.position() > 0) {
+			os.write(cellBuffer.array(), cellBuffer.arrayOffset(), cellBuffer.position());
+			cellBuffer.clear();
+		}
+		rowStart = 0;
 	}
 
 	protected abstract void fillByteBuffer(Record record) throws IOException;
 
-	private void mayIncBuffer(int size) throws IOException {
+	/**
+	 * 保证cellBuffer至少还有size字节的空间.
+	 * 单行不能超过maxCellBufferSize；空间不足时先把已经完成的行写入os，并把当前行移到buffer开头，单行放不下时才扩容.
+	 */
+	protected void mayIncBuffer(int size) throws IOException {
+		int rowLength = cellBuffer.position() - rowStart;
+		if (rowLength + size >= maxCellBufferSize) {
+			throw new IOException(
+					"RecordInputStream cellBuffer exceed max cell size "
+							+ maxCellBufferSize
+							+ " for column "
+							+ schema.getColumn(currentColumnIndex).getName());
+		}
+		if (cellBuffer.remaining() >= size) {
+			return;
+		}
+		byte[] array = cellBuffer.array();
+		int offset = cellBuffer.arrayOffset();
+		if (rowStart > 0) {
+			os.write(array, offset, rowStart);
+			System.arraycopy(array, offset + rowStart, array, offset, rowLength);
+			cellBuffer.position(rowLength);
+			rowStart = 0;
+		}
 		if (cellBuffer.remaining() < size) {
-			if (cellBuffer.position() + size < maxCellBufferSize) {
-				int target = Math.min(Math.max(cellBuffer.position() + size, cellBuffer.position() * 2), maxCellBufferSize);
-				ByteBuffer temp = ByteBuffer.allocate(target);
-				cellBuffer.flip();
-				temp.put(cellBuffer);
-				cellBuffer.clear();
-				cellBuffer = temp;
-			} else {
-				throw new IOException(
-						"RecordInputStream cellBuffer exceed max cell size "
-								+ maxCellBufferSize
-								+ " for column "
-								+ schema.getColumn(currentColumnIndex).getName());
-			}
+			int target = Math.min(Math.max(rowLength + size, cellBuffer.capacity() * 2), maxCellBufferSize);
+			ByteBuffer temp = ByteBuffer.allocate(target);
+			temp.put(array, offset, rowLength);
+			cellBuffer = temp;
 		}
 	}
 
@@ -131,4 +207,95 @@ public abstract class RecordOutputStream implements Closeable {
 		mayIncBuffer(bytes.length);
 		cellBuffer.put(bytes);
 	}
+
+	/**
+	 * 写入4字节长度和UTF-8编码的字符串，长度在写完之后回填，不产生中间的byte[].
+	 *
+	 * @param s      字符串
+	 * @param prefix 字符串之前额外写入的一个字节(计入长度)，比如jsonb的版本号，-1表示没有
+	 */
+	protected void writeLengthPrefixedUtf8(String s, int prefix) throws IOException {
+		int offsetInRow = beginLengthPrefixed();
+		if (prefix >= 0) {
+			write(prefix);
+		}
+		writeUtf8(s);
+		endLengthPrefixed(offsetInRow);
+	}
+
+	/**
+	 * 写入4字节长度的占位，写完内容后调用endLengthPrefixed回填.
+	 *
+	 * @return 内容相对于行首的位置，写入过程中当前行可能被移动到buffer开头
+	 */
+	protected int beginLengthPrefixed() throws IOException {
+		writeInt(0);
+		return cellBuffer.position() - rowStart;
+	}
+
+	/**
+	 * 回填beginLengthPrefixed之后写入的字节数.
+	 */
+	protected void endLengthPrefixed(int offsetInRow) {
+		int start = rowStart + offsetInRow;
+		cellBuffer.putInt(start - 4, cellBuffer.position() - start);
+	}
+
+	/**
+	 * 把字符串按UTF-8直接写入cellBuffer，不产生中间的byte[].
+	 */
+	protected void writeUtf8(String s) throws IOException {
+		writeUtf8(s, -1, -1, 0);
+	}
+
+	/**
+	 * 把字符串按UTF-8直接写入cellBuffer，special1和special2(必须是ASCII)之前额外写入一个escape，-1表示不转义.
+	 * 先按ASCII快速处理，遇到非ASCII字符再按码点编码；不成对的代理字符写'?'，和String.getBytes一致.
+	 */
+	protected void writeUtf8(String s, int special1, int special2, int escape) throws IOException {
+		int len = s.length();
+		//每个char最多3个字节，转义的字符2个字节；接近上限时再按精确的长度申请
+		long reserve = len * 3L;
+		if (cellBuffer.position() - rowStart + reserve >= maxCellBufferSize) {
+			reserve = MemorySizeUtil.utf8Length(s);
+			if (special1 >= 0) {
+				for (int i = 0; i < len; ++i) {
+					char c = s.charAt(i);
+					if (c == special1 || c == special2) {
+						++reserve;
+					}
+				}
+			}
+		}
+		mayIncBuffer((int) Math.min(reserve, Integer.MAX_VALUE));
+		byte[] array = cellBuffer.array();
+		int pos = cellBuffer.arrayOffset() + cellBuffer.position();
+		for (int i = 0; i < len; ++i) {
+			char c = s.charAt(i);
+			if (c < 0x80) {
+				if (c == special1 || c == special2) {
+					array[pos++] = (byte) escape;
+				}
+				array[pos++] = (byte) c;
+			} else if (c < 0x800) {
+				array[pos++] = (byte) (0xC0 | (c >> 6));
+				array[pos++] = (byte) (0x80 | (c & 0x3F));
+			} else if (Character.isSurrogate(c)) {
+				if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+					int cp = Character.toCodePoint(c, s.charAt(++i));
+					array[pos++] = (byte) (0xF0 | (cp >> 18));
+					array[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+					array[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+					array[pos++] = (byte) (0x80 | (cp & 0x3F));
+				} else {
+					array[pos++] = '?';
+				}
+			} else {
+				array[pos++] = (byte) (0xE0 | (c >> 12));
+				array[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				array[pos++] = (byte) (0x80 | (c & 0x3F));
+			}
+		}
+		cellBuffer.position(pos - cellBuffer.arrayOffset());
+	}
 }
@@ -29,26 +29,34 @@ public class RecordTextOutputStream extends RecordOutputStream {
 	public static final int DELIMITER = ',';
 	public static final int NEWLINE = '\n';
 
-	private static final String ESCAPE_STR;
-	private static final String ESCAPE_REPLACE_STR;
-
-	private static final String QUOTE_STR;
-	private static final String QUOTE_REPLACE_STR;
-
-	static {
-		ESCAPE_STR = '\\' + String.valueOf((char) ESCAPE);
-		ESCAPE_REPLACE_STR = ESCAPE_STR + ESCAPE_STR;
-		QUOTE_STR = String.valueOf((char) QUOTE);
-		QUOTE_REPLACE_STR = ESCAPE_STR + QUOTE_STR;
-	}
+	private static final byte[] HEX = "0123456789abcdef".getBytes(UTF8);
 
 	public RecordTextOutputStream(OutputStream os, TableSchema schema, BaseConnection baseConnection, int maxCellBufferSize) {
 		super(os, schema, baseConnection, maxCellBufferSize);
 	}
 
-	private String formatString(String input) {
-		return input.replaceAll(ESCAPE_STR, ESCAPE_REPLACE_STR)
-				.replaceAll(QUOTE_STR, QUOTE_REPLACE_STR);
+	/**
+	 * 写入加引号的字符串，其中的'\\'和'"'前加'\\'.
+	 * 大部分字符串不需要转义，先用String.indexOf(JVM内建的向量化实现)检查，再一次遍历编码写入.
+	 */
+	private void writeQuoted(String text) throws IOException {
+		write(QUOTE);
+		if (text.indexOf(ESCAPE) < 0 && text.indexOf(QUOTE) < 0) {
+			writeUtf8(text);
+		} else {
+			writeUtf8(text, ESCAPE, QUOTE, ESCAPE);
+		}
+		write(QUOTE);
+	}
+
+	private void writeHex(byte[] bytes) throws IOException {
+		mayIncBuffer(2 + bytes.length * 2);
+		cellBuffer.put((byte) ESCAPE);
+		cellBuffer.put((byte) 'x');
+		for (byte b : bytes) {
+			cellBuffer.put(HEX[(b >> 4) & 0xF]);
+			cellBuffer.put(HEX[b & 0xF]);
+		}
 	}
 
 	@Override
@@ -83,7 +91,6 @@ public class RecordTextOutputStream extends RecordOutputStream {
 						case Types.LONGNVARCHAR:
 							text = String.valueOf(obj);
 							quote = true;
-							text = formatString(text);
 							break;
 						case Types.TIME:
 						case Types.TIME_WITH_TIMEZONE:
@@ -111,9 +118,6 @@ public class RecordTextOutputStream extends RecordOutputStream {
 							} else {
 								text = String.valueOf(obj);
 							}
-							text =
-									text.replaceAll(ESCAPE_STR, ESCAPE_REPLACE_STR)
-											.replaceAll(QUOTE_STR, QUOTE_REPLACE_STR);
 							quote = true;
 							break;
 						case Types.SMALLINT:
@@ -132,20 +136,9 @@ public class RecordTextOutputStream extends RecordOutputStream {
 						case Types.LONGVARBINARY:
 						case Types.OTHER:
 							if (obj instanceof byte[]) {
-								byte[] bytes = (byte[]) obj;
-								StringBuffer sb = new StringBuffer(2 + bytes.length);
-								sb.append("\\x");
-								for (int j = 0; j < bytes.length; j++) {
-									String hex = Integer.toHexString(bytes[j] & 0xFF);
-									if (hex.length() < 2) {
-										sb.append(0);
-									}
-									sb.append(hex);
-								}
-								text = sb.toString();
+								temp = (byte[]) obj;
 							} else {
 								text = String.valueOf(obj);
-								text = formatString(text);
 								quote = true;
 							}
 							break;
@@ -174,12 +167,12 @@ public class RecordTextOutputStream extends RecordOutputStream {
 									+ text,
 							e);
 				}
-				if (quote) {
-					write(QUOTE);
-					write(text.getBytes(UTF8));
-					write(QUOTE);
+				if (temp != null) {
+					writeHex(temp);
+				} else if (quote) {
+					writeQuoted(text);
 				} else {
-					write(text.getBytes(UTF8));
+					writeUtf8(text);
 				}
 			}
 		}
@@ -8,9 +8,15 @@ import com.alibaba.hologres.client.function.FunctionWithSQLException;
 import com.alibaba.hologres.client.utils.Tuple;
 
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -24,14 +30,11 @@ public class Cache<K, V> {
 	public static final int MODE_ONLY_CACHE = 2;
 	public static final int MODE_LOCAL_THEN_REMOTE = 0;
 
-	static class FunctionRuntimeException extends RuntimeException {
-		FunctionRuntimeException(Throwable cause) {
-			super(cause);
-		}
-	}
-
 	Map<K, Item> cache = new ConcurrentHashMap<>();
 
+	//正在加载的key，同一个key只有一个加载任务
+	Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
 	FunctionWithSQLException<K, V> builder;
 
 	private long ttl;
@@ -157,6 +160,7 @@ public class Cache<K, V> {
 
 	/**
 	 * get.
+	 * 同一个key同时只会有一个线程调用builder，其他线程等待同一个结果；builder在map锁之外执行，不会阻塞其他key.
 	 *
 	 * @param key     主键
 	 * @param builder value生成函数
@@ -168,47 +172,158 @@ public class Cache<K, V> {
 	 */
 	public V get(K key, FunctionWithSQLException<K, V> builder, final int mode) throws SQLException {
 		final FunctionWithSQLException<K, V> internalBuilder = builder == null ? this.builder : builder;
-		Item item = null;
-		if (mode == MODE_ONLY_CACHE) {
-			item = cache.get(key);
-			if (item != null && !item.isExpire()) {
-				item.setAccessed(true);
-			} else {
-				item = null;
+		CompletableFuture<V> future = getAsync(key, k -> {
+			CompletableFuture<V> ret = new CompletableFuture<>();
+			try {
+				ret.complete(internalBuilder.apply(k));
+			} catch (Throwable e) {
+				ret.completeExceptionally(e);
+			}
+			return ret;
+		}, mode);
+		return waitResult(future);
+	}
+
+	/**
+	 * 异步get，语义同get(K, FunctionWithSQLException, int).
+	 * loader返回的future完成之前，其他线程对同一个key的get都会等待这个future，不会重复加载.
+	 * MODE_NO_CACHE总是发起新的加载，之后的get会等待这次新的加载.
+	 *
+	 * @param key    主键
+	 * @param loader 异步的value生成函数，返回null表示不存在，不会被缓存
+	 * @param mode   见get
+	 * @return 结果
+	 */
+	public CompletableFuture<V> getAsync(K key, Function<K, CompletableFuture<V>> loader, final int mode) {
+		if (mode != MODE_NO_CACHE) {
+			V value = getIfPresent(key);
+			if (value != null || mode == MODE_ONLY_CACHE) {
+				return CompletableFuture.completedFuture(value);
+			}
+			CompletableFuture<V> inflight = loading.get(key);
+			if (inflight != null) {
+				return inflight;
 			}
+		}
+		CompletableFuture<V> flight = new CompletableFuture<>();
+		if (mode == MODE_NO_CACHE) {
+			loading.put(key, flight);
 		} else {
+			CompletableFuture<V> inflight = loading.putIfAbsent(key, flight);
+			if (inflight != null) {
+				return inflight;
+			}
+			//拿到加载权之前，别的线程可能刚刚加载完成
+			V value = getIfPresent(key);
+			if (value != null) {
+				loading.remove(key, flight);
+				flight.complete(value);
+				return flight;
+			}
+		}
+		CompletableFuture<V> loaded;
+		try {
+			loaded = loader.apply(key);
+		} catch (Throwable e) {
+			loaded = new CompletableFuture<>();
+			loaded.completeExceptionally(e);
+		}
+		loaded.whenComplete((value, e) -> {
+			if (e == null && value != null) {
+				cache.put(key, new Item(value));
+			}
+			loading.remove(key, flight);
+			if (e != null) {
+				flight.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+			} else {
+				flight.complete(value);
+			}
+		});
+		return flight;
+	}
+
+	/**
+	 * 批量get，只有缓存没有命中并且没有正在加载的key会交给batchBuilder，一次加载.
+	 *
+	 * @param keys         主键
+	 * @param batchBuilder 批量的value生成函数，返回结果中没有的key表示不存在
+	 * @return 存在的key和value
+	 * @throws SQLException batchBuilder失败抛的异常
+	 */
+	public Map<K, V> getAll(Collection<K> keys, FunctionWithSQLException<Collection<K>, Map<K, V>> batchBuilder) throws SQLException {
+		Map<K, V> ret = new HashMap<>();
+		Map<K, CompletableFuture<V>> waiting = new HashMap<>();
+		Map<K, CompletableFuture<V>> mine = new HashMap<>();
+		for (K key : keys) {
+			if (ret.containsKey(key) || waiting.containsKey(key) || mine.containsKey(key)) {
+				continue;
+			}
+			V value = getIfPresent(key);
+			if (value != null) {
+				ret.put(key, value);
+				continue;
+			}
+			CompletableFuture<V> flight = new CompletableFuture<>();
+			CompletableFuture<V> inflight = loading.putIfAbsent(key, flight);
+			if (inflight != null) {
+				waiting.put(key, inflight);
+			} else {
+				mine.put(key, flight);
+			}
+		}
+		if (!mine.isEmpty()) {
+			Map<K, V> loaded;
 			try {
-				item = cache.compute(key, (k, old) -> {
-					if (MODE_NO_CACHE == mode || old == null || old.isExpire()) {
-						try {
-							V value = internalBuilder.apply(k);
-							if (value != null) {
-								return new Item(value);
-							} else {
-								return null;
-							}
-						} catch (SQLException throwables) {
-							throw new FunctionRuntimeException(throwables);
-						}
-					} else {
-						old.setAccessed(true);
-						return old;
-					}
-				});
-			} catch (FunctionRuntimeException e) {
-				Throwable cause = e.getCause();
-				if (cause instanceof SQLException) {
-					throw (SQLException) cause;
-				} else {
-					throw new SQLException(cause);
+				loaded = batchBuilder.apply(mine.keySet());
+			} catch (SQLException | RuntimeException e) {
+				for (Map.Entry<K, CompletableFuture<V>> entry : mine.entrySet()) {
+					loading.remove(entry.getKey(), entry.getValue());
+					entry.getValue().completeExceptionally(e);
+				}
+				throw e;
+			}
+			for (Map.Entry<K, CompletableFuture<V>> entry : mine.entrySet()) {
+				V value = loaded == null ? null : loaded.get(entry.getKey());
+				if (value != null) {
+					cache.put(entry.getKey(), new Item(value));
+					ret.put(entry.getKey(), value);
 				}
+				loading.remove(entry.getKey(), entry.getValue());
+				entry.getValue().complete(value);
 			}
 		}
-		if (item == null) {
-			return null;
-		} else {
+		for (Map.Entry<K, CompletableFuture<V>> entry : waiting.entrySet()) {
+			V value = waitResult(entry.getValue());
+			if (value != null) {
+				ret.put(entry.getKey(), value);
+			}
+		}
+		return ret;
+	}
+
+	private V getIfPresent(K key) {
+		Item item = cache.get(key);
+		if (item != null && !item.isExpire()) {
+			item.setAccessed(true);
 			return item.get();
 		}
+		return null;
+	}
+
+	private V waitResult(CompletableFuture<V> future) throws SQLException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("interrupted", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof SQLException) {
+				throw (SQLException) cause;
+			} else {
+				throw new SQLException(cause);
+			}
+		}
 	}
 
 	public void put(K key, V value) {
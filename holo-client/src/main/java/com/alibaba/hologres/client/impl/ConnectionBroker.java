@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM内所有ExecutionPool共享的物理连接配额.
+ * 按(jdbcUrl, user, 是否fixed)区分，同一个key下所有ConnectionHolder建立连接前必须先拿到一个配额，连接关闭时归还.
+ * 配额不足时通知空闲的ConnectionHolder尽快释放连接，并按申请顺序公平等待被释放的配额，因此连接数跟随实际负载而不是并发度增长.
+ * 所有连接都在使用中、没有可以回收的连接时不再等待，直接失败，由调用方按BUSY重试或者放弃.
+ */
+public class ConnectionBroker {
+	public static final Logger LOGGER = LoggerFactory.getLogger(ConnectionBroker.class);
+
+	private static final Map<String, ConnectionBroker> BROKER_MAP = new ConcurrentHashMap<>();
+
+	//等待配额时每隔多久尝试回收一次空闲连接
+	private static final long RECLAIM_INTERVAL_MS = 200L;
+	//空闲超过这个时间的连接才会被回收
+	static final long MIN_IDLE_MS_TO_RECLAIM = 1000L;
+
+	private final String key;
+	private final int maxConnections;
+	private final Semaphore permits;
+	private final Set<ConnectionHolder> holders = ConcurrentHashMap.newKeySet();
+
+	ConnectionBroker(String key, int maxConnections) {
+		this.key = key;
+		this.maxConnections = maxConnections;
+		this.permits = new Semaphore(maxConnections, true);
+	}
+
+	/**
+	 * 同一个key只会创建一个ConnectionBroker，maxConnections以第一次创建时为准，之后不一致的配置只打印warn日志.
+	 */
+	public static ConnectionBroker getOrCreate(String jdbcUrl, String user, boolean isFixed, int maxConnections) {
+		String key = jdbcUrl + "#" + user + "#" + isFixed;
+		ConnectionBroker broker = BROKER_MAP.computeIfAbsent(key, k -> {
+			LOGGER.info("create connection broker for {}, maxConnections {}", k, maxConnections);
+			return new ConnectionBroker(k, maxConnections);
+		});
+		if (broker.maxConnections != maxConnections) {
+			LOGGER.warn("connection broker for {} already exists with maxConnections {}, ignore maxConnections {}", key, broker.maxConnections, maxConnections);
+		}
+		return broker;
+	}
+
+	/**
+	 * 申请一个连接配额.
+	 * 只有存在正在释放或者可以回收的空闲连接时才会等待，否则立刻返回false.
+	 *
+	 * @param holder    申请者
+	 * @param timeoutMs 最长等待时间
+	 * @return 没有可以回收的连接或者超时返回false
+	 */
+	boolean acquire(ConnectionHolder holder, long timeoutMs) throws InterruptedException {
+		if (holders.contains(holder)) {
+			return true;
+		}
+		long deadline = System.currentTimeMillis() + timeoutMs;
+		while (true) {
+			if (permits.tryAcquire(RECLAIM_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+				holders.add(holder);
+				return true;
+			}
+			if (!reclaimIdle(holder)) {
+				LOGGER.warn("connection broker {} has no idle connection to reclaim, active {}", key, getActiveCount());
+				return false;
+			}
+			if (System.currentTimeMillis() > deadline) {
+				LOGGER.warn("acquire connection from broker {} timeout after {} ms, active {}", key, timeoutMs, getActiveCount());
+				return false;
+			}
+		}
+	}
+
+	void release(ConnectionHolder holder) {
+		if (holders.remove(holder)) {
+			permits.release();
+		}
+	}
+
+	/**
+	 * 通知空闲最久的连接释放配额，由它所在的worker线程关闭连接，这里不会阻塞.
+	 *
+	 * @return 有空闲连接正在释放或者这次通知了一个连接释放时返回true，继续等待才有意义
+	 */
+	private boolean reclaimIdle(ConnectionHolder requester) {
+		long now = System.currentTimeMillis();
+		ConnectionHolder candidate = null;
+		boolean releasing = false;
+		for (ConnectionHolder holder : holders) {
+			if (holder == requester) {
+				continue;
+			}
+			if (now - holder.getLastActiveTs() <= MIN_IDLE_MS_TO_RECLAIM) {
+				//连接重新被使用了，即使之前通知过释放也要等它再次空闲
+				continue;
+			}
+			if (holder.isReleaseRequested()) {
+				releasing = true;
+			} else if (candidate == null || holder.getLastActiveTs() < candidate.getLastActiveTs()) {
+				candidate = holder;
+			}
+		}
+		if (candidate != null) {
+			candidate.requestRelease();
+			releasing = true;
+		}
+		return releasing;
+	}
+
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+	public int getActiveCount() {
+		return maxConnections - permits.availablePermits();
+	}
+}
@@ -9,6 +9,9 @@ import com.alibaba.hologres.client.Version;
 import com.alibaba.hologres.client.exception.ExceptionCode;
 import com.alibaba.hologres.client.exception.HoloClientException;
 import com.alibaba.hologres.client.function.FunctionWithSQLException;
+import com.alibaba.hologres.client.impl.retry.CircuitBreaker;
+import com.alibaba.hologres.client.impl.retry.ExponentialBackoffRetryPolicy;
+import com.alibaba.hologres.client.impl.retry.RetryPolicy;
 import com.alibaba.hologres.client.impl.util.ConnectionUtil;
 import com.alibaba.hologres.client.model.HoloVersion;
 import org.postgresql.PGProperty;
@@ -19,12 +22,12 @@ import org.slf4j.LoggerFactory;
 import java.io.Closeable;
 import java.sql.Connection;
 import java.sql.DriverManager;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 /**
@@ -39,14 +42,27 @@ public class ConnectionHolder implements Closeable {
 	final boolean isFixed;
 
 	final int tryCount;
-	final long retrySleepStepMs;
-	final long retrySleepInitMs;
+	final RetryPolicy retryPolicy;
+	final int circuitBreakerFailureThreshold;
+	final long circuitBreakerOpenMs;
 	final int refreshMetaTimeout;
 	final boolean refreshMetaAfterConnectionCreated;
 	final boolean isEnableDirectConnection;
 	final boolean isEnableAffectedRows;
 
-	long lastActiveTs;
+	volatile long lastActiveTs;
+	//连接校验
+	private static final int VALIDATE_TIMEOUT_SECONDS = 5;
+	final long validateIntervalMs;
+	private long lastValidateTs;
+	private volatile boolean validateRequested = false;
+	//开启connectionBrokerMaxConnections时JVM内共享的连接配额，否则为null
+	final ConnectionBroker broker;
+	final long brokerAcquireTimeoutMs;
+	//broker通知释放连接，由worker线程在空闲时关闭
+	private volatile boolean releaseRequested = false;
+	//同一个ExecutionPool中所有连接共享的版本号，为null表示不共享
+	AtomicReference<HoloVersion> sharedVersion = null;
 	private static List<String> preSqlList;
 	private static byte[] lock = new byte[]{};
 	private static String optionProperty = "options=";
@@ -94,7 +110,12 @@ public class ConnectionHolder implements Closeable {
 	private Object owner;
 
 	public ConnectionHolder(HoloConfig config, Object owner, boolean shadingMode, boolean isFixed) {
-		this(config, owner, shadingMode, isFixed, null);
+		this(config, owner, shadingMode, isFixed, (Properties) null);
+	}
+
+	public ConnectionHolder(HoloConfig config, Object owner, boolean shadingMode, boolean isFixed, AtomicReference<HoloVersion> sharedVersion) {
+		this(config, owner, shadingMode, isFixed, (Properties) null);
+		this.sharedVersion = sharedVersion;
 	}
 
 	public ConnectionHolder(HoloConfig config, Object owner, boolean shadingMode, boolean isFixed, Properties userInfo) {
@@ -133,16 +154,45 @@ public class ConnectionHolder implements Closeable {
 		PGProperty.SOCKET_TIMEOUT.set(info, 360);
 
 		this.tryCount = config.getRetryCount();
-		this.retrySleepInitMs = config.getRetrySleepInitMs();
-		this.retrySleepStepMs = config.getRetrySleepStepMs();
+		this.retryPolicy = config.getRetryPolicy() != null ? config.getRetryPolicy()
+				: new ExponentialBackoffRetryPolicy(config.getRetrySleepInitMs(), config.getRetrySleepStepMs(), config.getRetryBudgetPercent());
+		this.circuitBreakerFailureThreshold = config.getCircuitBreakerFailureThreshold();
+		this.circuitBreakerOpenMs = config.getCircuitBreakerOpenMs();
 		this.refreshMetaTimeout = config.getRefreshMetaTimeout();
 		this.refreshMetaAfterConnectionCreated = config.isRefreshMetaAfterConnectionCreated();
 		this.isEnableDirectConnection = config.isEnableDirectConnection();
 		this.isEnableAffectedRows = config.isEnableAffectedRows();
 		lastActiveTs = System.currentTimeMillis();
+		lastValidateTs = lastActiveTs;
+		this.validateIntervalMs = config.getConnectionValidateIntervalMs();
 		this.owner = owner;
 		this.connWithVersion = new ConnectionWithVersion();
 		this.connWithVersion.jdbcUrl = originalJdbcUrl;
+		if (config.getConnectionBrokerMaxConnections() > 0) {
+			this.broker = ConnectionBroker.getOrCreate(originalJdbcUrl, config.getUsername(), isFixed, config.getConnectionBrokerMaxConnections());
+		} else {
+			this.broker = null;
+		}
+		this.brokerAcquireTimeoutMs = config.getConnectionBrokerAcquireTimeoutMs();
+	}
+
+	/**
+	 * 开启broker时先申请连接配额，所有连接都在使用中时快速失败，返回BUSY由doRetryExecute按退避策略重试.
+	 */
+	private void acquireBroker() throws HoloClientException {
+		if (broker != null) {
+			boolean acquired;
+			try {
+				acquired = broker.acquire(this, brokerAcquireTimeoutMs);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new HoloClientException(ExceptionCode.INTERRUPTED, "interrupted when acquire connection from broker", e);
+			}
+			if (!acquired) {
+				throw new HoloClientException(ExceptionCode.BUSY, "connection broker has no free connection, all " + broker.getMaxConnections() + " connections are in use");
+			}
+			releaseRequested = false;
+		}
 	}
 
 	private PgConnection buildConnection() throws SQLException {
@@ -160,14 +210,15 @@ public class ConnectionHolder implements Closeable {
 				if (!this.isEnableAffectedRows) {
 					pre.add("set hg_experimental_enable_fixed_dispatcher_affected_rows = off");
 				}
-				for (String sql : pre) {
-					try (Statement stat = conn.createStatement()) {
-						stat.execute(sql);
-					} catch (SQLException e) {
-						LOGGER.warn("execute preSql fail:{},emsg:{}", sql, e.getMessage());
+				executePreSql(conn, pre);
+				HoloVersion version = sharedVersion == null ? null : sharedVersion.get();
+				if (version == null) {
+					version = ConnectionUtil.getHoloVersion(conn);
+					if (sharedVersion != null) {
+						sharedVersion.set(version);
 					}
 				}
-				connWithVersion.version = ConnectionUtil.getHoloVersion(conn);
+				connWithVersion.version = version;
 			} else {
 				// TODO: fixed fe support get holo version, mock a version for now.
 				connWithVersion.version = new HoloVersion(1, 3, 1);
@@ -183,6 +234,7 @@ public class ConnectionHolder implements Closeable {
 				} catch (Exception ignore) {
 				}
 			}
+			releaseBroker();
 			throw e;
 		}
 
@@ -197,32 +249,108 @@ public class ConnectionHolder implements Closeable {
 
 
 	/**
-	 * 返回连接是否可用.
-	 * 两种情况算不可用，
-	 * 1 最近一次的异常是CONNECTION_ERROR(连接坏了)或者META_NOT_MATCH（DDL版本没跟上）或者TABLE_NOT_FOUND(可能DDL版本没跟上)
-	 * 2 select 1 运行失败
-	 *
-	 * @param conn          连接
-	 * @param lastException 最近一次的异常
-	 * @return true代表连接是可用的；false代表连接坏了需要重建
+	 * 所有preSql拼成一条语句一次发送，只需要一次网络往返；失败时(例如某个参数在当前版本不存在)退回到逐条执行，保证其他参数仍然生效.
 	 */
-	private boolean testConnection(Connection conn, HoloClientException lastException) {
-		if (lastException != null) {
-			switch (lastException.getCode()) {
-				case CONNECTION_ERROR:
-				case META_NOT_MATCH:
-					return false;
-				default:
-			}
+	private void executePreSql(PgConnection conn, List<String> pre) {
+		if (pre.isEmpty()) {
+			return;
 		}
 		try (Statement stat = conn.createStatement()) {
-			try (ResultSet rs = stat.executeQuery("select 1")) {
-				rs.next();
+			stat.execute(String.join(";", pre));
+			return;
+		} catch (SQLException e) {
+			LOGGER.debug("execute preSql in one round trip fail, fallback to one by one, emsg:{}", e.getMessage());
+		}
+		for (String sql : pre) {
+			try (Statement stat = conn.createStatement()) {
+				stat.execute(sql);
+			} catch (SQLException e) {
+				LOGGER.warn("execute preSql fail:{},emsg:{}", sql, e.getMessage());
 			}
+		}
+	}
+
+	/**
+	 * 提前建立连接，连接已经存在时什么都不做.
+	 *
+	 * @throws HoloClientException 重试后仍然无法建立连接
+	 */
+	public void warmUp() throws HoloClientException {
+		retryExecute(conn -> null);
+	}
+
+	/**
+	 * 连接的健康状态.
+	 */
+	enum Health {
+		HEALTHY,
+		//连接已经不可用，需要重建
+		BROKEN,
+		//无法从异常判断，交给后台校验
+		SUSPECT
+	}
+
+	/**
+	 * 根据异常类型和socket状态判断连接是否可用，不产生网络往返.
+	 * 1 CONNECTION_ERROR(连接坏了)或者META_NOT_MATCH（DDL版本没跟上）算不可用
+	 * 2 脏数据、语法、权限等SQL本身的错误说明服务端正常处理了请求，连接可用
+	 * 3 socket已经关闭算不可用，否则标记为SUSPECT，由worker空闲时校验
+	 *
+	 * @param conn 连接
+	 * @param e    最近一次的异常
+	 * @return 连接健康状态
+	 */
+	Health checkHealth(PgConnection conn, HoloClientException e) {
+		switch (e.getCode()) {
+			case CONNECTION_ERROR:
+			case META_NOT_MATCH:
+				return Health.BROKEN;
+			case SYNTAX_ERROR:
+			case PERMISSION_DENY:
+			case NOT_SUPPORTED:
+				return Health.HEALTHY;
+			default:
+				if (e.getCode().isDirtyDataException()) {
+					return Health.HEALTHY;
+				}
+		}
+		try {
+			if (conn.isClosed()) {
+				return Health.BROKEN;
+			}
+		} catch (SQLException ignore) {
+			return Health.BROKEN;
+		}
+		return Health.SUSPECT;
+	}
+
+	/**
+	 * 后台校验连接是否可用，不可用时关闭连接，下一次使用时重建.
+	 * 出现无法判断的异常之后的第一次调用一定校验；否则只在空闲并且距离上一次校验超过connectionValidateIntervalMs时校验.
+	 *
+	 * @param idle worker当前是否空闲
+	 */
+	public synchronized void validate(boolean idle) {
+		PgConnection conn = connWithVersion.conn;
+		if (conn == null) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		if (!validateRequested && !(idle && validateIntervalMs > 0 && now - lastValidateTs >= validateIntervalMs)) {
+			return;
+		}
+		validateRequested = false;
+		lastValidateTs = now;
+		boolean valid;
+		try {
+			valid = conn.isValid(VALIDATE_TIMEOUT_SECONDS);
 		} catch (SQLException e) {
-			return false;
+			valid = false;
+		}
+		if (!valid) {
+			LOGGER.warn("connection to {} is not valid, close it, owner:{}", connWithVersion.jdbcUrl, owner);
+			close();
 		}
-		return true;
 	}
 
 	public synchronized <T> T retryExecuteWithVersion(FunctionWithSQLException<ConnectionWithVersion, T> action) throws HoloClientException {
@@ -255,34 +383,72 @@ public class ConnectionHolder implements Closeable {
 		}
 		HoloClientException e = null;
 		for (int i = 0; i < tryCount; ++i) {
+			String endpoint = connWithVersion.jdbcUrl;
+			CircuitBreaker breaker = circuitBreakerFailureThreshold > 0 ? CircuitBreaker.getOrCreate(endpoint, circuitBreakerFailureThreshold, circuitBreakerOpenMs) : null;
+			if (breaker != null && !breaker.allowRequest()) {
+				throw new HoloClientException(ExceptionCode.BUSY, "circuit breaker of " + endpoint + " is open, fail fast", e);
+			}
 			try {
 				if (connWithVersion.conn == null || connWithVersion.conn.isClosed()) {
+					acquireBroker();
 					connWithVersion.conn = buildConnection();
 				}
 				lastActiveTs = System.currentTimeMillis();
-				return action.apply(supplier.get());
+				T ret = action.apply(supplier.get());
+				retryPolicy.onSuccess(endpoint);
+				if (breaker != null) {
+					breaker.onSuccess();
+				}
+				return ret;
 			} catch (SQLException exception) {
 				e = HoloClientException.fromSqlException(exception);
+				if (breaker != null) {
+					if (isEndpointFailure(e)) {
+						breaker.onFailure();
+					} else {
+						breaker.onSuccess();
+					}
+				}
+				Health health = connWithVersion.conn == null ? Health.BROKEN : checkHealth(connWithVersion.conn, e);
+				if (health == Health.SUSPECT) {
+					validateRequested = true;
+				}
 				try {
-					if (null != connWithVersion.conn && !testConnection(connWithVersion.conn, e)) {
+					if (null != connWithVersion.conn && health == Health.BROKEN) {
 						Connection tempConn = connWithVersion.conn;
 						connWithVersion.conn = null;
 						connWithVersion.version = null;
+						//连接坏了可能是实例重启升级，下一次建连重新获取版本
+						if (sharedVersion != null) {
+							sharedVersion.set(null);
+						}
+						releaseBroker();
 						tempConn.close();
 					}
 				} catch (Exception ignore) {
 				}
-				if (i == tryCount - 1 || !needRetry(e)) {
+				if (i == tryCount - 1 || !needRetry(e, health)) {
+					throw e;
+				}
+				long sleepTime = retryPolicy.nextBackoffMs(endpoint, i + 1, e);
+				if (sleepTime < 0) {
+					LOGGER.warn("execute sql fail, retry policy refuses to retry[" + (i + 1) + "/" + tryCount + "]");
 					throw e;
-				} else {
-					long sleepTime = retrySleepStepMs * i + retrySleepInitMs;
-					LOGGER.warn("execute sql fail, try again[" + (i + 1) + "/" + tryCount + "], sleepMs = " + sleepTime + " ms", exception);
-					try {
-						Thread.sleep(sleepTime);
-					} catch (InterruptedException ignore) {
-
-					}
 				}
+				LOGGER.warn("execute sql fail, try again[" + (i + 1) + "/" + tryCount + "], sleepMs = " + sleepTime + " ms", exception);
+				backoff(sleepTime, e);
+			} catch (HoloClientException exception) {
+				//只有acquireBroker会抛出，是本地的配额不足，不计入熔断器
+				e = exception;
+				if (i == tryCount - 1 || e.getCode() != ExceptionCode.BUSY) {
+					throw e;
+				}
+				long sleepTime = retryPolicy.nextBackoffMs(endpoint, i + 1, e);
+				if (sleepTime < 0) {
+					throw e;
+				}
+				LOGGER.warn("acquire connection from broker fail, try again[" + (i + 1) + "/" + tryCount + "], sleepMs = " + sleepTime + " ms");
+				backoff(sleepTime, e);
 			} catch (Exception exception) {
 				throw new HoloClientException(ExceptionCode.INTERNAL_ERROR, "execute fail", exception);
 			} finally {
@@ -292,8 +458,46 @@ public class ConnectionHolder implements Closeable {
 		throw e;
 	}
 
-	private boolean needRetry(HoloClientException e) {
-		if (connWithVersion.conn != null && testConnection(connWithVersion.conn, e)) {
+	/**
+	 * 等待期间释放holder的锁，其他线程可以使用或关闭这个连接，重试时连接已经关闭会重新建立.
+	 * 等待期间被中断时恢复中断标记并停止重试.
+	 *
+	 * @param sleepTime 等待时间
+	 * @param cause     本次失败的异常
+	 * @throws HoloClientException 等待期间被中断
+	 */
+	private void backoff(long sleepTime, HoloClientException cause) throws HoloClientException {
+		long deadline = System.currentTimeMillis() + sleepTime;
+		long remain = sleepTime;
+		while (remain > 0) {
+			try {
+				wait(remain);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new HoloClientException(ExceptionCode.INTERRUPTED, "interrupted when waiting for retry, last error: " + cause.getMessage(), cause);
+			}
+			remain = deadline - System.currentTimeMillis();
+		}
+	}
+
+	/**
+	 * 是否是endpoint本身不可用导致的失败，只有这类失败计入熔断器.
+	 */
+	private static boolean isEndpointFailure(HoloClientException e) {
+		switch (e.getCode()) {
+			case CONNECTION_ERROR:
+			case TOO_MANY_CONNECTIONS:
+			case BUSY:
+			case READ_ONLY:
+			case TIMEOUT:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	private boolean needRetry(HoloClientException e, Health health) {
+		if (connWithVersion.conn != null && health != Health.BROKEN) {
 			boolean ret = false;
 			switch (e.getCode()) {
 				case CONNECTION_ERROR:
@@ -318,6 +522,27 @@ public class ConnectionHolder implements Closeable {
 		return lastActiveTs;
 	}
 
+	private void releaseBroker() {
+		if (broker != null) {
+			broker.release(this);
+		}
+	}
+
+	void requestRelease() {
+		releaseRequested = true;
+	}
+
+	boolean isReleaseRequested() {
+		return releaseRequested;
+	}
+
+	/**
+	 * broker请求释放并且连接仍然空闲时返回true，worker线程据此关闭连接.
+	 */
+	public boolean shouldRelease() {
+		return releaseRequested && connWithVersion.conn != null && System.currentTimeMillis() - lastActiveTs > ConnectionBroker.MIN_IDLE_MS_TO_RECLAIM;
+	}
+
 	public HoloVersion getVersion() throws HoloClientException {
 		if (connWithVersion.version == null) {
 			connWithVersion.version = retryExecute(conn ->
@@ -350,5 +575,7 @@ public class ConnectionHolder implements Closeable {
 			} catch (SQLException ignore) {
 			}
 		}
+		releaseRequested = false;
+		releaseBroker();
 	}
 }
@@ -16,7 +16,9 @@ import com.alibaba.hologres.client.impl.action.PutAction;
 import com.alibaba.hologres.client.impl.action.ScanAction;
 import com.alibaba.hologres.client.impl.action.SqlAction;
 import com.alibaba.hologres.client.impl.collector.ActionCollector;
+import com.alibaba.hologres.client.impl.collector.WriteByteBudget;
 import com.alibaba.hologres.client.impl.util.ConnectionUtil;
+import com.alibaba.hologres.client.model.HoloVersion;
 import com.alibaba.hologres.client.model.Partition;
 import com.alibaba.hologres.client.model.TableName;
 import com.alibaba.hologres.client.model.TableSchema;
@@ -28,12 +30,16 @@ import java.io.Closeable;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
@@ -41,8 +47,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 执行资源池，维护请求和工作线程.
@@ -85,7 +90,8 @@ public class ExecutionPool implements Closeable {
 
 	private Tuple<String, HoloClientException> fatalException = null;
 	final ArrayBlockingQueue<Get> queue;
-	final ByteSizeCache byteSizeCache;
+	//所有client攒批占用的内存
+	final WriteByteBudget writeByteBudget;
 
 	private final MetaStore metaStore;
 
@@ -106,6 +112,11 @@ public class ExecutionPool implements Closeable {
 	final boolean isShardEnv;
 	final boolean isFixedPool; //当前ExecutionPool是不是fixed fe execution Pool
 
+	//所有worker的连接共享一次版本探测
+	final AtomicReference<HoloVersion> sharedVersion = new AtomicReference<>(null);
+	//connectionWarmUp时所有连接建立完成后complete，否则start后立刻complete
+	private volatile CompletableFuture<Void> readyFuture = new CompletableFuture<>();
+
 	public static ExecutionPool buildOrGet(String name, HoloConfig config) {
 		return buildOrGet(name, config, true);
 	}
@@ -178,12 +189,12 @@ public class ExecutionPool implements Closeable {
 			if (isFixedPool) {
 				workers[i] = new Worker(config, workerStated, i, isShardEnv, true);
 			} else {
-				workers[i] = new Worker(config, workerStated, i, isShardEnv);
+				workers[i] = new Worker(config, workerStated, i, isShardEnv, false, sharedVersion);
 			}
 		}
 
 		clientMap = new ConcurrentHashMap<>();
-		byteSizeCache = new ByteSizeCache(config.getWriteBatchTotalByteSize());
+		writeByteBudget = new WriteByteBudget(name, config.getWriteBatchTotalByteSize(), config.getWriteMaxBufferedByteSize(), config.getWriteBackPressureTimeoutMs());
 		backgroundJob = new BackgroundJob(config);
 		this.metaStore = new MetaStore(config.getMetaCacheTTL());
 	}
@@ -206,7 +217,70 @@ public class ExecutionPool implements Closeable {
 			backgroundExecutorService.execute(readActionWatcher);
 			this.writeSemaphore = new Semaphore(this.writeThreadSize);
 			this.readSemaphore = new Semaphore(this.readThreadSize);
+			if (readyFuture.isDone()) {
+				readyFuture = new CompletableFuture<>();
+			}
+			if (config.isConnectionWarmUp()) {
+				warmUp(readyFuture);
+			} else {
+				readyFuture.complete(null);
+			}
+		}
+	}
+
+	/**
+	 * 并行建立所有worker的连接.
+	 * 先建立第一个连接拿到版本号，其余连接共享这个版本号，以connectionWarmUpParallelism的并发建立.
+	 */
+	private void warmUp(CompletableFuture<Void> future) {
+		int parallelism = Math.max(1, Math.min(config.getConnectionWarmUpParallelism(), workers.length));
+		ExecutorService warmUpExecutor = Executors.newFixedThreadPool(parallelism, r -> {
+			Thread t = new Thread(r);
+			t.setName(ExecutionPool.this.name + "-warmup");
+			t.setDaemon(true);
+			return t;
+		});
+		long start = System.nanoTime();
+		CompletableFuture<Void> first = CompletableFuture.runAsync(() -> warmUp(workers[0]), warmUpExecutor);
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		futures.add(first);
+		for (int i = 1; i < workers.length; ++i) {
+			Worker worker = workers[i];
+			futures.add(first.handleAsync((v, e) -> {
+				warmUp(worker);
+				return null;
+			}, warmUpExecutor));
 		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).whenComplete((v, e) -> {
+			warmUpExecutor.shutdown();
+			if (e != null) {
+				Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+				LOGGER.warn("HoloClient ExecutionPool[{}] warm up connections fail", name, cause);
+				future.completeExceptionally(cause);
+			} else {
+				LOGGER.info("HoloClient ExecutionPool[{}] warm up {} connections cost {} ms", name, workers.length, (System.nanoTime() - start) / 1000000L);
+				future.complete(null);
+			}
+		});
+	}
+
+	private void warmUp(Worker worker) {
+		if (!started.get()) {
+			return;
+		}
+		try {
+			worker.warmUp();
+		} catch (HoloClientException e) {
+			throw new CompletionException(e);
+		}
+	}
+
+	/**
+	 * 开启connectionWarmUp时，所有连接建立完成后complete，有连接建立失败时exceptionally complete(失败的连接会在第一次使用时重建)；
+	 * 未开启时pool启动后立刻complete.
+	 */
+	public CompletableFuture<Void> getReadyFuture() {
+		return readyFuture;
 	}
 
 	Tuple<String, HoloClientException> closeStack = null;
@@ -321,6 +395,89 @@ public class ExecutionPool implements Closeable {
 		}
 	}
 
+	public Map<String, Partition> getOrSubmitPartitions(TableName tableName, Collection<String> partValues, boolean isStr) throws HoloClientException {
+		return getOrSubmitPartitions(tableName, partValues, isStr, false);
+	}
+
+	/**
+	 * 批量获取分区子表，缓存中没有的分区值通过一次catalog查询获取.
+	 * createIfNotExists为true时，不存在的分区在一个事务中批量创建，批量创建失败时退化为逐个创建.
+	 *
+	 * @return partValue -> 子表，不存在的分区值不在结果中
+	 */
+	public Map<String, Partition> getOrSubmitPartitions(TableName tableName, Collection<String> partValues, boolean isStr, boolean createIfNotExists) throws HoloClientException {
+		try {
+			return metaStore.partitionCache.get(tableName).getAll(partValues, values -> {
+				SqlAction<Map<String, Partition>> partitionAction = new SqlAction<>((conn) -> {
+					if (refreshMetaTimeout > 0) {
+						ConnectionUtil.refreshMeta(conn, refreshMetaTimeout);
+					}
+					Map<String, Partition> partitions = ConnectionUtil.getPartitions(conn, tableName.getSchemaName(), tableName.getTableName(), values, isStr);
+					if (!createIfNotExists || partitions.size() == values.size()) {
+						return partitions;
+					}
+					List<String> missing = new ArrayList<>();
+					for (String value : values) {
+						if (!partitions.containsKey(value)) {
+							missing.add(value);
+						}
+					}
+					SQLException createException = null;
+					try {
+						ConnectionUtil.createPartitionChildTables(conn, tableName.getSchemaName(), tableName.getTableName(), missing, isStr);
+					} catch (SQLException e) {
+						LOGGER.warn("create {} partitions of {} in one transaction fail, create one by one", missing.size(), tableName, e);
+						for (String value : missing) {
+							try {
+								ConnectionUtil.retryCreatePartitionChildTable(conn, tableName.getSchemaName(), tableName.getTableName(), value, isStr);
+							} catch (SQLException e1) {
+								//可能被其他client并发创建了，下面重新查一次
+								createException = e1;
+							}
+						}
+					}
+					partitions.putAll(ConnectionUtil.getPartitions(conn, tableName.getSchemaName(), tableName.getTableName(), missing, isStr));
+					for (String value : missing) {
+						if (!partitions.containsKey(value)) {
+							throw new SQLException("after create, partition child table is still not exists, tableName:" + tableName.getFullName() + ",partitionValue:" + value, createException);
+						}
+					}
+					return partitions;
+				});
+				try {
+					while (!submit(partitionAction)) {
+
+					}
+					return partitionAction.getResult();
+				} catch (HoloClientException e) {
+					throw new SQLException(e);
+				}
+			});
+		} catch (SQLException e) {
+			throw HoloClientException.fromSqlException(e);
+		} catch (Exception e) {
+			throw new HoloClientException(ExceptionCode.INTERNAL_ERROR, "getOrSubmitPartitions fail. tableName=" + tableName.getFullName(), e);
+		}
+	}
+
+	/**
+	 * 异步获取TableSchema，同一张表同时只有一个MetaAction，不会阻塞调用线程等待结果.
+	 */
+	public CompletableFuture<TableSchema> getOrSubmitTableSchemaAsync(TableName tableName, boolean noCache) {
+		return metaStore.tableCache.getAsync(tableName, this::submitMetaAction, noCache ? Cache.MODE_NO_CACHE : Cache.MODE_LOCAL_THEN_REMOTE);
+	}
+
+	private CompletableFuture<TableSchema> submitMetaAction(TableName tableName) {
+		MetaAction metaAction = new MetaAction(tableName);
+		try {
+			while (!submit(metaAction)) {
+			}
+		} catch (HoloClientException e) {
+			metaAction.getFuture().completeExceptionally(e);
+		}
+		return metaAction.getFuture();
+	}
+
 	public TableSchema getOrSubmitTableSchema(TableName tableName, boolean noCache) throws HoloClientException {
 
 		try {
@@ -480,32 +637,12 @@ public class ExecutionPool implements Closeable {
 	/**
 	 * 整个ExecutionPool的内存估算.
 	 */
-	class ByteSizeCache {
-		final long maxByteSize;
-		long value = 0L;
-		AtomicLong last = new AtomicLong(System.nanoTime());
-
-		public ByteSizeCache(long maxByteSize) {
-			this.maxByteSize = maxByteSize;
-		}
-
-		long getAvailableByteSize() {
-			return maxByteSize - getByteSize();
-		}
-
-		long getByteSize() {
-			long nano = last.get();
-			long current = System.nanoTime();
-			if (current - nano > 2 * 1000 * 1000000L && last.compareAndSet(nano, current)) {
-				long sum = clientMap.values().stream().collect(Collectors.summingLong(ActionCollector::getByteSize));
-				value = sum;
-			}
-			return value;
-		}
+	public long getAvailableByteSize() {
+		return writeByteBudget.getAvailableByteSize();
 	}
 
-	public long getAvailableByteSize() {
-		return byteSizeCache.getAvailableByteSize();
+	public WriteByteBudget getWriteByteBudget() {
+		return writeByteBudget;
 	}
 
 	class BackgroundJob implements Runnable {
@@ -563,23 +700,18 @@ public class ExecutionPool implements Closeable {
 								break;
 							case NEED_REFRESH:
 								try {
-									getOrSubmitTableSchema(tableName, true);
-									MetaAction metaAction = new MetaAction(tableName);
-									if (submit(metaAction)) {
-										LOGGER.info("refresh tableSchema for {}, because remain lifetime < {} ms", tableName, tableSchemaRemainLife);
-										pendingRefreshTableSchemaActionCount.incrementAndGet();
-										metaAction.getFuture().whenCompleteAsync((tableSchema, exception) -> {
-											pendingRefreshTableSchemaActionCount.decrementAndGet();
-											if (exception != null) {
-												LOGGER.warn("refreshTableSchema fail", exception);
-												if (exception.getMessage() != null && exception.getMessage().contains("can not found table")) {
-													metaStore.tableCache.remove(tableName);
-												}
-											} else {
-												metaStore.tableCache.put(tableName, tableSchema);
+									//refresh-ahead，异步提交MetaAction，刷新期间get仍然返回旧的TableSchema，不持有任何锁
+									LOGGER.info("refresh tableSchema for {}, because remain lifetime < {} ms", tableName, tableSchemaRemainLife);
+									pendingRefreshTableSchemaActionCount.incrementAndGet();
+									getOrSubmitTableSchemaAsync(tableName, true).whenCompleteAsync((tableSchema, exception) -> {
+										pendingRefreshTableSchemaActionCount.decrementAndGet();
+										if (exception != null) {
+											LOGGER.warn("refreshTableSchema fail", exception);
+											if (exception.getMessage() != null && exception.getMessage().contains("can not found table")) {
+												metaStore.tableCache.remove(tableName);
 											}
-										});
-									}
+										}
+									});
 								} catch (Exception e) {
 									LOGGER.warn("refreshTableSchema fail", e);
 								}
@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.impl;
+
+import com.alibaba.hologres.client.Put;
+import com.alibaba.hologres.client.exception.HoloClientException;
+import com.alibaba.hologres.client.model.Partition;
+import com.alibaba.hologres.client.model.Record;
+import com.alibaba.hologres.client.model.TableName;
+import com.alibaba.hologres.client.model.TableSchema;
+import com.alibaba.hologres.client.utils.IdentifierUtil;
+
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * 分区父表的写入路由，缓存 分区值 -> 分区子表TableSchema.
+ * 整数和日期类型的分区值直接以long为key，其他类型以分区值字符串为key，命中时只需要一次hash查找.
+ * 没有命中的分区值按父表分组后通过ExecutionPool批量查询，需要时在一个事务中批量创建.
+ * 父表的TableSchema刷新(schemaVersion变化)后该父表所有的路由失效，过期的路由在下一次写入路由时清理.
+ */
+public class PartitionRouter {
+
+	private final long ttl;
+	private final Map<TableName, TableRoute> routeMap = new ConcurrentHashMap<>();
+
+	/**
+	 * @param ttl 路由的有效时间，小于1表示不过期
+	 */
+	public PartitionRouter(long ttl) {
+		this.ttl = ttl;
+	}
+
+	/**
+	 * 分区值在DDL和pg_get_expr中是否需要加引号.
+	 */
+	public static boolean isStrPartition(TableSchema parent) {
+		int type = parent.getColumn(parent.getPartitionIndex()).getType();
+		return Types.VARCHAR == type || Types.DATE == type;
+	}
+
+	/**
+	 * 查询路由缓存.
+	 *
+	 * @param parent 分区父表
+	 * @param value  分区列的值
+	 * @return 分区子表，没有命中或者已经过期返回null
+	 */
+	public TableSchema route(TableSchema parent, Object value) {
+		TableRoute tableRoute = routeMap.get(parent.getTableNameObj());
+		if (tableRoute == null) {
+			return null;
+		}
+		if (!tableRoute.parent.equals(parent)) {
+			routeMap.remove(parent.getTableNameObj(), tableRoute);
+			return null;
+		}
+		Route route;
+		if (isLongKey(value)) {
+			route = tableRoute.longRoutes.get(toLongKey(value));
+		} else {
+			route = tableRoute.strRoutes.get(String.valueOf(value));
+		}
+		if (route == null || route.isExpired(System.currentTimeMillis())) {
+			return null;
+		}
+		return route.schema;
+	}
+
+	/**
+	 * 批量解析分区子表并写入路由缓存，所有分区值只触发一次catalog查询和最多一次建表事务.
+	 *
+	 * @param pool              用于查询meta的pool
+	 * @param parent            分区父表
+	 * @param values            分区列的值
+	 * @param createIfNotExists 分区不存在时是否创建
+	 * @return 分区列的值 -> 分区子表，不存在的分区不在结果中
+	 * @throws HoloClientException 查询或者创建分区失败
+	 */
+	public Map<Object, TableSchema> resolve(ExecutionPool pool, TableSchema parent, Collection<Object> values, boolean createIfNotExists) throws HoloClientException {
+		Map<String, List<Object>> partValueMap = new LinkedHashMap<>();
+		for (Object value : values) {
+			partValueMap.computeIfAbsent(String.valueOf(value), k -> new ArrayList<>()).add(value);
+		}
+		Map<String, Partition> partitions = pool.getOrSubmitPartitions(parent.getTableNameObj(), partValueMap.keySet(), isStrPartition(parent), createIfNotExists);
+		Map<String, TableSchema> children = new HashMap<>();
+		for (Map.Entry<String, Partition> entry : partitions.entrySet()) {
+			Partition partition = entry.getValue();
+			children.put(entry.getKey(), pool.getOrSubmitTableSchema(TableName.valueOf(IdentifierUtil.quoteIdentifier(partition.getSchemaName(), true), IdentifierUtil.quoteIdentifier(partition.getTableName(), true)), false));
+		}
+		return addRoutes(parent, partValueMap, children);
+	}
+
+	/**
+	 * 写入路由缓存，同时清理这个父表过期的路由.
+	 *
+	 * @param parent       分区父表
+	 * @param partValueMap 分区值字符串 -> 分区列的值
+	 * @param children     分区值字符串 -> 分区子表
+	 * @return 分区列的值 -> 分区子表
+	 */
+	Map<Object, TableSchema> addRoutes(TableSchema parent, Map<String, List<Object>> partValueMap, Map<String, TableSchema> children) {
+		Map<Object, TableSchema> ret = new HashMap<>();
+		Map<Long, Route> longRoutes = new HashMap<>();
+		TableRoute tableRoute = routeMap.compute(parent.getTableNameObj(), (k, old) -> old == null || !old.parent.equals(parent) ? new TableRoute(parent) : old);
+		long now = System.currentTimeMillis();
+		long expireTs = now + ttl;
+		tableRoute.strRoutes.values().removeIf(route -> route.isExpired(now));
+		for (Map.Entry<String, TableSchema> entry : children.entrySet()) {
+			TableSchema child = entry.getValue();
+			Route route = new Route(child, expireTs);
+			tableRoute.strRoutes.put(entry.getKey(), route);
+			for (Object value : partValueMap.get(entry.getKey())) {
+				ret.put(value, child);
+				if (isLongKey(value)) {
+					longRoutes.put(toLongKey(value), route);
+				}
+			}
+		}
+		synchronized (tableRoute) {
+			tableRoute.longRoutes = tableRoute.longRoutes.with(longRoutes, route -> !route.isExpired(now));
+		}
+		return ret;
+	}
+
+	/**
+	 * 把一批Put中路由缓存没有命中的分区值按父表分组，批量解析.
+	 * 调用方需要先校验Put，这里跳过为null的Put和为null的分区值，由逐条写入时报错.
+	 *
+	 * @param pool             用于查询meta的pool
+	 * @param puts             即将写入的Put
+	 * @param dynamicPartition 非DELETE的Put是否自动创建分区
+	 * @throws HoloClientException 查询或者创建分区失败
+	 */
+	public void prefetch(ExecutionPool pool, List<Put> puts, boolean dynamicPartition) throws HoloClientException {
+		Map<TableName, TableSchema> parentMap = null;
+		Map<TableName, Set<Object>> createMap = null;
+		Map<TableName, Set<Object>> lookupMap = null;
+		for (Put put : puts) {
+			if (put == null) {
+				continue;
+			}
+			Record record = put.getRecord();
+			TableSchema schema = record.getSchema();
+			if (!schema.isPartitionParentTable() || !record.isSet(schema.getPartitionIndex())) {
+				continue;
+			}
+			Object value = record.getObject(schema.getPartitionIndex());
+			if (value == null || route(schema, value) != null) {
+				continue;
+			}
+			if (parentMap == null) {
+				parentMap = new HashMap<>();
+				createMap = new HashMap<>();
+				lookupMap = new HashMap<>();
+			}
+			parentMap.putIfAbsent(schema.getTableNameObj(), schema);
+			boolean create = dynamicPartition && !Put.MutationType.DELETE.equals(record.getType());
+			(create ? createMap : lookupMap).computeIfAbsent(schema.getTableNameObj(), k -> new LinkedHashSet<>()).add(value);
+		}
+		if (parentMap == null) {
+			return;
+		}
+		for (Map.Entry<TableName, Set<Object>> entry : createMap.entrySet()) {
+			resolve(pool, parentMap.get(entry.getKey()), entry.getValue(), true);
+		}
+		for (Map.Entry<TableName, Set<Object>> entry : lookupMap.entrySet()) {
+			resolve(pool, parentMap.get(entry.getKey()), entry.getValue(), false);
+		}
+	}
+
+	public void clear() {
+		routeMap.clear();
+	}
+
+	private static boolean isLongKey(Object value) {
+		return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+				|| value instanceof java.sql.Date || value instanceof LocalDate;
+	}
+
+	/**
+	 * 整数直接作为key，日期转为epoch day.
+	 * 同一个分区的整数值和日期值不会冲突，因为一张父表的分区列只有一种类型.
+	 */
+	private static long toLongKey(Object value) {
+		if (value instanceof java.sql.Date) {
+			return ((java.sql.Date) value).toLocalDate().toEpochDay();
+		} else if (value instanceof LocalDate) {
+			return ((LocalDate) value).toEpochDay();
+		} else {
+			return ((Number) value).longValue();
+		}
+	}
+
+	private class Route {
+		final TableSchema schema;
+		final long expireTs;
+
+		Route(TableSchema schema, long expireTs) {
+			this.schema = schema;
+			this.expireTs = expireTs;
+		}
+
+		boolean isExpired(long now) {
+			return ttl > 0 && expireTs < now;
+		}
+	}
+
+	private class TableRoute {
+		//解析路由时使用的父表，父表TableSchema刷新后整个TableRoute失效
+		final TableSchema parent;
+		//写入很少，读取无锁；写入时复制整个map
+		volatile LongKeyMap<Route> longRoutes = new LongKeyMap<>(8);
+		final Map<String, Route> strRoutes = new ConcurrentHashMap<>();
+
+		TableRoute(TableSchema parent) {
+			this.parent = parent;
+		}
+	}
+
+	/**
+	 * long为key的开放寻址hash表，创建后不再修改.
+	 */
+	static class LongKeyMap<V> {
+		private final long[] keys;
+		private final Object[] values;
+		private final int mask;
+		private int size;
+
+		LongKeyMap(int capacity) {
+			int n = 8;
+			while (n < capacity * 2) {
+				n <<= 1;
+			}
+			keys = new long[n];
+			values = new Object[n];
+			mask = n - 1;
+		}
+
+		@SuppressWarnings("unchecked")
+		V get(long key) {
+			int i = index(key);
+			while (true) {
+				Object value = values[i];
+				if (value == null) {
+					return null;
+				}
+				if (keys[i] == key) {
+					return (V) value;
+				}
+				i = (i + 1) & mask;
+			}
+		}
+
+		int size() {
+			return size;
+		}
+
+		/**
+		 * 返回包含当前所有entry以及entries的新map，key相同时以entries为准.
+		 */
+		LongKeyMap<V> with(Map<Long, V> entries) {
+			return with(entries, value -> true);
+		}
+
+		/**
+		 * 同with(entries)，当前的entry中只保留keep返回true的.
+		 */
+		@SuppressWarnings("unchecked")
+		LongKeyMap<V> with(Map<Long, V> entries, Predicate<V> keep) {
+			LongKeyMap<V> ret = new LongKeyMap<>(size + entries.size());
+			for (int i = 0; i < values.length; ++i) {
+				if (values[i] != null && keep.test((V) values[i])) {
+					ret.put(keys[i], (V) values[i]);
+				}
+			}
+			for (Map.Entry<Long, V> entry : entries.entrySet()) {
+				ret.put(entry.getKey(), entry.getValue());
+			}
+			return ret;
+		}
+
+		private void put(long key, V value) {
+			int i = index(key);
+			while (values[i] != null && keys[i] != key) {
+				i = (i + 1) & mask;
+			}
+			if (values[i] == null) {
+				++size;
+			}
+			keys[i] = key;
+			values[i] = value;
+		}
+
+		private int index(long key) {
+			long h = key * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ (h >>> 32)) & mask;
+		}
+	}
+}
@@ -18,7 +18,7 @@ import com.alibaba.hologres.client.type.PGroaringbitmap;
 import com.alibaba.hologres.client.utils.IdentifierUtil;
 import com.alibaba.hologres.client.utils.Tuple;
 import com.alibaba.hologres.client.utils.Tuple3;
-import org.postgresql.jdbc.PgConnection;
+import org.postgresql.core.BaseConnection;
 import org.postgresql.util.PSQLState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -485,7 +485,7 @@ public class UnnestUpsertStatementBuilder extends UpsertStatementBuilder {
 			int index = it.next();
 			Column column = schema.getColumn(index);
 			++arrayIndex;
-			arrayList[arrayIndex] = JdbcColumnValuesBuilder.build(conn.unwrap(PgConnection.class), rows, column.getType(), column.getTypeName(), config);
+			arrayList[arrayIndex] = JdbcColumnValuesBuilder.build(conn.unwrap(BaseConnection.class), rows, column.getType(), column.getTypeName(), config);
 		}
 	}
 
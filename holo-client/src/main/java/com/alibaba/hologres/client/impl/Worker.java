@@ -25,6 +25,7 @@ import com.alibaba.hologres.client.impl.handler.MetaActionHandler;
 import com.alibaba.hologres.client.impl.handler.PutActionHandler;
 import com.alibaba.hologres.client.impl.handler.ScanActionHandler;
 import com.alibaba.hologres.client.impl.handler.SqlActionHandler;
+import com.alibaba.hologres.client.model.HoloVersion;
 import com.alibaba.hologres.client.utils.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,8 +55,12 @@ public class Worker implements Runnable {
 	}
 
 	public Worker(HoloConfig config, AtomicBoolean started, int index, boolean isShardEnv, boolean isFixed) {
+		this(config, started, index, isShardEnv, isFixed, null);
+	}
+
+	public Worker(HoloConfig config, AtomicBoolean started, int index, boolean isShardEnv, boolean isFixed, AtomicReference<HoloVersion> sharedVersion) {
 		this.config = config;
-		connectionHolder = new ConnectionHolder(config, this, isShardEnv, isFixed);
+		connectionHolder = new ConnectionHolder(config, this, isShardEnv, isFixed, sharedVersion);
 		this.started = started;
 		this.name = (isFixed ? "Fixed-" : "") + "Worker-" + index;
 		handlerMap.put(EmptyAction.class, new EmptyActionHandler(config));
@@ -68,6 +73,13 @@ public class Worker implements Runnable {
 		handlerMap.put(BinlogAction.class, new BinlogActionHandler(started, config, isShardEnv));
 	}
 
+	/**
+	 * 提前建立worker的连接，见ConnectionHolder.warmUp.
+	 */
+	public void warmUp() throws HoloClientException {
+		connectionHolder.warmUp();
+	}
+
 	public boolean offer(AbstractAction action) throws HoloClientException {
 		if (fatal.get() != null) {
 			throw new HoloClientException(ExceptionCode.INTERNAL_ERROR, "fatal", fatal.get());
@@ -116,7 +128,7 @@ public class Worker implements Runnable {
 				/*
 				 * 每个循环做2件事情：
 				 * 1 有action就执行action
-				 * 2 根据connectionMaxIdleMs释放空闲connection
+				 * 2 根据connectionMaxIdleMs释放空闲connection，或者校验connection是否可用
 				 * */
 				if (null != action) {
 					try {
@@ -129,8 +141,10 @@ public class Worker implements Runnable {
 
 					}
 				}
-				if (System.currentTimeMillis() - connectionHolder.getLastActiveTs() > config.getConnectionMaxIdleMs()) {
+				if (System.currentTimeMillis() - connectionHolder.getLastActiveTs() > config.getConnectionMaxIdleMs() || connectionHolder.shouldRelease()) {
 					connectionHolder.close();
+				} else {
+					connectionHolder.validate(null == action);
 				}
 			} catch (Throwable e) {
 				LOGGER.error("should not happen", e);
@@ -31,6 +31,7 @@ public class CopyAction extends AbstractAction<Long> {
 	//mode = IN时的成员变量
 	private InputStream is;
 	private int bufferSize = -1; // in的时候需要一个buffer从InputStream中获取bytes后写入socket的OutputStream
+	private boolean binary = false; // in的时候InputStream中是否是binary格式的数据
 
 	/**
 	 * Copy类型.
@@ -81,6 +82,14 @@ public class CopyAction extends AbstractAction<Long> {
 		this.bufferSize = bufferSize;
 	}
 
+	public boolean isBinary() {
+		return binary;
+	}
+
+	public void setBinary(boolean binary) {
+		this.binary = binary;
+	}
+
 	public CompletableFuture<CopyContext> getReadyToStart() {
 		return readyToStart;
 	}
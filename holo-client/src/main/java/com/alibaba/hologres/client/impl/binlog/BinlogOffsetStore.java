@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.impl.binlog;
+
+import com.alibaba.hologres.client.exception.HoloClientException;
+import com.alibaba.hologres.client.model.TableName;
+
+import java.io.Closeable;
+import java.util.Map;
+
+/**
+ * binlog消费位点的本地存储.
+ * BinlogShardGroupReader会把已经处理完的record的lsn和timestamp写进来，重启时HoloClient.binlogSubscribe从这里恢复每个shard的起始位点.
+ * record处理完成到位点写入之间崩溃时这条record会被再次消费，恢复的语义是at-least-once.
+ */
+public interface BinlogOffsetStore extends Closeable {
+
+	/**
+	 * 读取某张表某个slot保存的消费位点.
+	 *
+	 * @param tableName  表名
+	 * @param slotName   slot名
+	 * @param shardCount 表的shard数
+	 * @return shardId -> 最后一条处理完成的record的位点，没有保存过的shard不在结果中
+	 * @throws HoloClientException 读取失败
+	 */
+	Map<Integer, BinlogOffset> load(TableName tableName, String slotName, int shardCount) throws HoloClientException;
+
+	/**
+	 * 记录某个shard最后一条处理完成的record的位点.
+	 * 每条record都会调用一次，实现需要足够轻量；同一个shard的update总是由同一个线程调用.
+	 *
+	 * @param tableName 表名
+	 * @param slotName  slot名
+	 * @param shardId   shard
+	 * @param lsn       hg_binlog_lsn
+	 * @param timestamp hg_binlog_timestamp_us
+	 * @throws HoloClientException 写入失败
+	 */
+	void update(TableName tableName, String slotName, int shardId, long lsn, long timestamp) throws HoloClientException;
+
+	/**
+	 * 将之前所有update持久化.
+	 *
+	 * @throws HoloClientException 持久化失败
+	 */
+	void flush() throws HoloClientException;
+
+	@Override
+	void close();
+}
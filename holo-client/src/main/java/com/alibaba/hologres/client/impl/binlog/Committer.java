@@ -4,53 +4,240 @@
 
 package com.alibaba.hologres.client.impl.binlog;
 
-import com.alibaba.hologres.client.utils.Tuple;
+import com.codahale.metrics.Meter;
+import org.postgresql.replication.LogSequenceNumber;
+import org.postgresql.replication.PGReplicationStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.BlockingQueue;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 
 /**
  * 用来提交lsn的.
+ * commitLsnAsync在worker已经attach了stream时直接在调用线程setFlushedLSN(pgjdbc中是volatile字段)，不需要唤醒阻塞在read上的worker，
+ * lsn由stream定时的status update同步到服务端；stream不可用时登记下来，由worker在重建stream后处理.
+ * commitLsn需要forceUpdateStatus，而pgjdbc在阻塞read期间持有连接的锁，只能由worker在read返回后执行.
+ * 多次提交在worker取走之前会被合并，只有最大的lsn会被flush，所有等待的future在这个lsn flush成功后一起complete.
  */
 public class Committer {
 	public static final Logger LOGGER = LoggerFactory.getLogger(Committer.class);
 
-	final BlockingQueue<Tuple<CompletableFuture<Void>, Long>> queue;
+	/**
+	 * 一次合并后的提交请求.
+	 */
+	public static class CommitJob {
+		final long lsn;
+		//true表示需要调用forceUpdateStatus立刻把lsn同步到服务端，false则交给stream定时的status update
+		final boolean force;
+		final List<CompletableFuture<Void>> futures;
 
-	long lastReadLsn = -1;
+		CommitJob(long lsn, boolean force, List<CompletableFuture<Void>> futures) {
+			this.lsn = lsn;
+			this.force = force;
+			this.futures = futures;
+		}
+
+		public long getLsn() {
+			return lsn;
+		}
+
+		public boolean isForce() {
+			return force;
+		}
+
+		public void complete() {
+			for (CompletableFuture<Void> future : futures) {
+				future.complete(null);
+			}
+		}
 
-	public Committer(BlockingQueue<Tuple<CompletableFuture<Void>, Long>> queue) {
-		this.queue = queue;
+		public void completeExceptionally(Throwable e) {
+			for (CompletableFuture<Void> future : futures) {
+				future.completeExceptionally(e);
+			}
+		}
+
+		public boolean isDone() {
+			for (CompletableFuture<Void> future : futures) {
+				if (!future.isDone()) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private final Object lock = new Object();
+
+	volatile long lastReadLsn = -1;
+
+	//最后一条被消费的record的hg_binlog_timestamp_us
+	volatile long lastReadTimestampUs = -1;
+
+	//已经setFlushedLSN成功的最大lsn
+	volatile long committedLsn = -1;
+
+	//尚未被worker取走的提交请求，lock保护
+	private long pendingLsn = -1;
+	private boolean pendingForce = false;
+	private List<CompletableFuture<Void>> pendingFutures = new ArrayList<>();
+
+	//worker当前正在读取的stream，lock保护写入
+	private volatile PGReplicationStream stream = null;
+
+	//shard级别的解析record数和读取字节数，由reader注册到Metrics.registry()
+	private final Meter decodeRps = new Meter();
+	private final Meter readBps = new Meter();
+
+	public Committer() {
 	}
 
 	public void updateLastReadLsn(long lastReadLsn) {
 		this.lastReadLsn = lastReadLsn;
 	}
 
-	public CompletableFuture<Void> commit(long timeout) throws InterruptedException, TimeoutException {
-		return commit(lastReadLsn, timeout);
+	public void updateLastRead(long lastReadLsn, long lastReadTimestampUs) {
+		this.lastReadLsn = lastReadLsn;
+		this.lastReadTimestampUs = lastReadTimestampUs;
 	}
 
-	public CompletableFuture<Void> commit(long lsn, long timeout) throws InterruptedException, TimeoutException {
+	/**
+	 * 提交最后读取到的lsn，同commitLsn(getLastReadLsn()).
+	 */
+	public CompletableFuture<Void> commit() {
+		return commitLsn(lastReadLsn);
+	}
+
+	/**
+	 * 提交lsn，返回的future在lsn通过forceUpdateStatus同步到服务端后complete.
+	 * 不再接受超时参数，等待的超时由调用方通过future控制.
+	 *
+	 * @param lsn lsn
+	 * @return future
+	 */
+	public CompletableFuture<Void> commitLsn(long lsn) {
+		return doCommit(lsn, true);
+	}
+
+	/**
+	 * 提交lsn，返回的future在setFlushedLSN成功后立刻complete，lsn由stream定时的status update同步到服务端.
+	 *
+	 * @param lsn lsn
+	 * @return future
+	 */
+	public CompletableFuture<Void> commitLsnAsync(long lsn) {
+		return doCommit(lsn, false);
+	}
+
+	private CompletableFuture<Void> doCommit(long lsn, boolean force) {
 		CompletableFuture<Void> future = new CompletableFuture<>();
 		if (lsn < 0) {
-			LOGGER.info("last read lsn {} < 0, skip commit it",  lsn);
+			LOGGER.info("last read lsn {} < 0, skip commit it", lsn);
 			future.complete(null);
 			return future;
 		}
-		boolean ret = queue.offer(new Tuple<>(future, lsn), timeout, TimeUnit.MILLISECONDS);
-		if (!ret) {
-			throw new TimeoutException();
-		} else {
-			return future;
+		boolean applied = false;
+		synchronized (lock) {
+			PGReplicationStream current = stream;
+			if (!force && current != null) {
+				applyFlushedLsn(current, lsn);
+				applied = true;
+			} else {
+				pendingLsn = Math.max(pendingLsn, lsn);
+				pendingForce = pendingForce || force;
+				pendingFutures.add(future);
+			}
+		}
+		if (applied) {
+			future.complete(null);
+		}
+		return future;
+	}
+
+	/**
+	 * worker建好stream之后调用，之后的commitLsnAsync直接设置到这个stream上.
+	 */
+	public void attach(PGReplicationStream stream) {
+		synchronized (lock) {
+			this.stream = stream;
+		}
+	}
+
+	/**
+	 * worker关闭stream之前调用.
+	 */
+	public void detach() {
+		synchronized (lock) {
+			this.stream = null;
+		}
+	}
+
+	/**
+	 * 把lsn设置到stream上，flushed lsn不会回退.
+	 *
+	 * @return 实际设置的lsn
+	 */
+	public long flush(PGReplicationStream stream, long lsn) {
+		synchronized (lock) {
+			return applyFlushedLsn(stream, lsn);
+		}
+	}
+
+	private long applyFlushedLsn(PGReplicationStream stream, long lsn) {
+		long target = Math.max(lsn, committedLsn);
+		stream.setFlushedLSN(LogSequenceNumber.valueOf(target));
+		committedLsn = target;
+		return target;
+	}
+
+	/**
+	 * 取走合并后的提交请求，由worker线程调用.
+	 *
+	 * @return 没有待提交的请求时返回null
+	 */
+	public CommitJob poll() {
+		synchronized (lock) {
+			if (pendingFutures.isEmpty()) {
+				return null;
+			}
+			CommitJob job = new CommitJob(pendingLsn, pendingForce, pendingFutures);
+			pendingLsn = -1;
+			pendingForce = false;
+			pendingFutures = new ArrayList<>();
+			return job;
 		}
 	}
 
 	public long getLastReadLsn() {
 		return lastReadLsn;
 	}
+
+	public long getCommittedLsn() {
+		return committedLsn;
+	}
+
+	public Meter getDecodeRps() {
+		return decodeRps;
+	}
+
+	public Meter getReadBps() {
+		return readBps;
+	}
+
+	public long getLastReadTimestampUs() {
+		return lastReadTimestampUs;
+	}
+
+	/**
+	 * 消费延迟，当前时间减去最后一条被消费的record的binlog时间.
+	 * 开启binlogHeartBeatIntervalMs后，shard上没有新数据时延迟也会随心跳更新.
+	 *
+	 * @return 毫秒，还没有消费过数据时返回-1
+	 */
+	public long getLagMs() {
+		long ts = lastReadTimestampUs;
+		return ts < 0 ? -1L : Math.max(0L, System.currentTimeMillis() - ts / 1000L);
+	}
 }
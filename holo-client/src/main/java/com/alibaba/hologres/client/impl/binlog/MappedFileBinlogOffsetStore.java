@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.impl.binlog;
+
+import com.alibaba.hologres.client.exception.ExceptionCode;
+import com.alibaba.hologres.client.exception.HoloClientException;
+import com.alibaba.hologres.client.model.TableName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于内存映射文件的BinlogOffsetStore.
+ * 每个(表, slot)对应目录下的一个文件，每个shard在文件中有固定的槽位，update只是对映射内存的几次写入；
+ * 进程崩溃时数据仍在page cache中不会丢失，后台线程每flushIntervalMs调用一次force把脏页刷到磁盘.
+ *
+ * <p>文件格式：16字节header(magic, version, shardCount, reserved)，之后每个shard 64字节，由两个32字节的副本组成。
+ * 每个副本为(seq, lsn, timestamp, checksum)，update轮流写两个副本，load时取checksum合法且seq最大的副本，
+ * 因此即使掉电时某个副本只写了一半，也能退回到上一次的位点.
+ * 位点是调用方处理完record之后才写入的，处理完成和写入之间崩溃时这条record会被再次消费，即at-least-once.
+ */
+public class MappedFileBinlogOffsetStore implements BinlogOffsetStore {
+	public static final Logger LOGGER = LoggerFactory.getLogger(MappedFileBinlogOffsetStore.class);
+
+	private static final int MAGIC = 0x48424f53;
+	private static final int VERSION = 1;
+	private static final long CHECKSUM_SALT = 0x9E3779B97F4A7C15L;
+	private static final int HEADER_SIZE = 16;
+	private static final int COPY_SIZE = 32;
+	private static final int SHARD_SLOT_SIZE = COPY_SIZE * 2;
+	private static final String FILE_SUFFIX = ".offset";
+
+	private final File dir;
+	//表 -> slot -> 文件，update时不需要拼接文件名
+	private final Map<TableName, Map<String, OffsetFile>> files = new ConcurrentHashMap<>();
+	private final ScheduledExecutorService flushExecutor;
+
+	/**
+	 * 一个(表, slot)的映射文件.
+	 * shard数变大时重新映射一段更大的区域替换buffer，旧的映射不会被释放，和新映射共享同一份page cache，
+	 * 其他线程通过旧buffer的写入依然有效；每个副本的seq从映射内存中读取，不依赖某一个buffer的本地状态.
+	 */
+	static class OffsetFile {
+		final File file;
+		final RandomAccessFile raf;
+		volatile MappedByteBuffer buffer;
+		volatile int shardCount;
+		volatile boolean dirty = false;
+
+		OffsetFile(File file, int shardCount) throws IOException {
+			this.file = file;
+			this.raf = new RandomAccessFile(file, "rw");
+			int fileShardCount = 0;
+			if (raf.length() >= HEADER_SIZE) {
+				if (raf.readInt() == MAGIC && raf.readInt() == VERSION) {
+					fileShardCount = raf.readInt();
+				} else {
+					raf.close();
+					throw new IOException("invalid binlog offset file " + file.getAbsolutePath());
+				}
+			}
+			map(Math.max(shardCount, fileShardCount));
+		}
+
+		private void map(int newShardCount) throws IOException {
+			MappedByteBuffer newBuffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) newShardCount * SHARD_SLOT_SIZE);
+			newBuffer.putInt(0, MAGIC);
+			newBuffer.putInt(4, VERSION);
+			newBuffer.putInt(8, newShardCount);
+			this.buffer = newBuffer;
+			this.shardCount = newShardCount;
+		}
+
+		/**
+		 * 保证文件至少能容纳shardCount个shard.
+		 */
+		synchronized void ensureCapacity(int shardCount) throws IOException {
+			if (this.shardCount < shardCount) {
+				map(shardCount);
+			}
+		}
+
+		private static int position(int shardId, int copy) {
+			return HEADER_SIZE + shardId * SHARD_SLOT_SIZE + copy * COPY_SIZE;
+		}
+
+		private static long readSeq(MappedByteBuffer buffer, int shardId, int copy) {
+			int pos = position(shardId, copy);
+			long seq = buffer.getLong(pos);
+			long lsn = buffer.getLong(pos + 8);
+			long timestamp = buffer.getLong(pos + 16);
+			long checksum = buffer.getLong(pos + 24);
+			if (seq > 0 && checksum == checksum(seq, lsn, timestamp)) {
+				return seq;
+			}
+			return 0L;
+		}
+
+		BinlogOffset read(int shardId) {
+			MappedByteBuffer buffer = this.buffer;
+			long seq0 = readSeq(buffer, shardId, 0);
+			long seq1 = readSeq(buffer, shardId, 1);
+			if (seq0 == 0L && seq1 == 0L) {
+				return null;
+			}
+			int pos = position(shardId, seq0 > seq1 ? 0 : 1);
+			return new BinlogOffset(buffer.getLong(pos + 8), buffer.getLong(pos + 16));
+		}
+
+		void write(int shardId, long lsn, long timestamp) {
+			MappedByteBuffer buffer = this.buffer;
+			long seq = Math.max(readSeq(buffer, shardId, 0), readSeq(buffer, shardId, 1)) + 1;
+			int pos = position(shardId, (int) (seq & 1L));
+			buffer.putLong(pos + 8, lsn);
+			buffer.putLong(pos + 16, timestamp);
+			buffer.putLong(pos + 24, checksum(seq, lsn, timestamp));
+			buffer.putLong(pos, seq);
+			dirty = true;
+		}
+
+		void force() {
+			if (dirty) {
+				dirty = false;
+				//新映射覆盖了旧映射的全部区域
+				buffer.force();
+			}
+		}
+
+		void close() {
+			force();
+			try {
+				raf.close();
+			} catch (IOException e) {
+				LOGGER.warn("close binlog offset file {} fail", file.getAbsolutePath(), e);
+			}
+		}
+
+		private static long checksum(long seq, long lsn, long timestamp) {
+			long h = seq * CHECKSUM_SALT;
+			h = (h ^ lsn) * CHECKSUM_SALT;
+			h = (h ^ timestamp) * CHECKSUM_SALT;
+			return h ^ (h >>> 32);
+		}
+	}
+
+	/**
+	 * @param dir             存放位点文件的目录，不存在时会自动创建
+	 * @param flushIntervalMs 后台fsync的间隔，<=0表示只在flush和close时fsync
+	 */
+	public MappedFileBinlogOffsetStore(String dir, long flushIntervalMs) throws HoloClientException {
+		this.dir = new File(dir);
+		if (!this.dir.exists() && !this.dir.mkdirs()) {
+			throw new HoloClientException(ExceptionCode.INVALID_Config, "cannot create binlog offset store dir " + dir);
+		}
+		if (flushIntervalMs > 0) {
+			flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread t = new Thread(r);
+				t.setName("binlog-offset-store-flush");
+				t.setDaemon(true);
+				return t;
+			});
+			flushExecutor.scheduleWithFixedDelay(() -> {
+				try {
+					flush();
+				} catch (Throwable e) {
+					LOGGER.warn("flush binlog offset store fail", e);
+				}
+			}, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+		} else {
+			flushExecutor = null;
+		}
+	}
+
+	private OffsetFile getOrOpen(TableName tableName, String slotName, int shardCount) throws HoloClientException {
+		Map<String, OffsetFile> slotFiles = files.get(tableName);
+		OffsetFile offsetFile = slotFiles == null ? null : slotFiles.get(slotName);
+		if (offsetFile == null) {
+			synchronized (files) {
+				slotFiles = files.computeIfAbsent(tableName, k -> new ConcurrentHashMap<>());
+				offsetFile = slotFiles.get(slotName);
+				if (offsetFile == null) {
+					String key = tableName.getFullName() + "#" + slotName;
+					try {
+						offsetFile = new OffsetFile(new File(dir, URLEncoder.encode(key, "UTF-8") + FILE_SUFFIX), shardCount);
+					} catch (UnsupportedEncodingException e) {
+						throw new HoloClientException(ExceptionCode.INTERNAL_ERROR, "should not happen", e);
+					} catch (IOException e) {
+						throw new HoloClientException(ExceptionCode.INTERNAL_ERROR, "open binlog offset file fail for " + key, e);
+					}
+					slotFiles.put(slotName, offsetFile);
+				}
+			}
+		}
+		if (offsetFile.shardCount < shardCount) {
+			try {
+				offsetFile.ensureCapacity(shardCount);
+			} catch (IOException e) {
+				throw new HoloClientException(ExceptionCode.INTERNAL_ERROR, "remap binlog offset file fail for " + offsetFile.file.getAbsolutePath(), e);
+			}
+		}
+		return offsetFile;
+	}
+
+	@Override
+	public Map<Integer, BinlogOffset> load(TableName tableName, String slotName, int shardCount) throws HoloClientException {
+		OffsetFile offsetFile = getOrOpen(tableName, slotName, shardCount);
+		Map<Integer, BinlogOffset> ret = new HashMap<>();
+		for (int i = 0; i < shardCount; ++i) {
+			BinlogOffset offset = offsetFile.read(i);
+			if (offset != null) {
+				ret.put(i, offset);
+			}
+		}
+		LOGGER.info("load binlog offset of {} slot {} from {}: {}", tableName.getFullName(), slotName, offsetFile.file.getAbsolutePath(), ret);
+		return ret;
+	}
+
+	@Override
+	public void update(TableName tableName, String slotName, int shardId, long lsn, long timestamp) throws HoloClientException {
+		getOrOpen(tableName, slotName, shardId + 1).write(shardId, lsn, timestamp);
+	}
+
+	@Override
+	public void flush() throws HoloClientException {
+		for (Map<String, OffsetFile> slotFiles : files.values()) {
+			for (OffsetFile offsetFile : slotFiles.values()) {
+				offsetFile.force();
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		if (flushExecutor != null) {
+			flushExecutor.shutdownNow();
+		}
+		synchronized (files) {
+			for (Map<String, OffsetFile> slotFiles : files.values()) {
+				for (OffsetFile offsetFile : slotFiles.values()) {
+					offsetFile.close();
+				}
+			}
+			files.clear();
+		}
+	}
+}
@@ -6,11 +6,8 @@ package com.alibaba.hologres.client.impl.binlog.action;
 
 import com.alibaba.hologres.client.impl.action.AbstractAction;
 import com.alibaba.hologres.client.impl.binlog.BinlogRecordCollector;
+import com.alibaba.hologres.client.impl.binlog.Committer;
 import com.alibaba.hologres.client.impl.binlog.TableSchemaSupplier;
-import com.alibaba.hologres.client.utils.Tuple;
-
-import java.util.Queue;
-import java.util.concurrent.CompletableFuture;
 
 /**
  * Binlog消费请求.
@@ -23,10 +20,10 @@ public class BinlogAction extends AbstractAction<Void> {
 	final BinlogRecordCollector collector;
 	final String slotName;
 	final TableSchemaSupplier supplier;
-	//Reader通过这个queue把flush请求发过去，worker搞定了以后通过future通知reader
-	final Queue<Tuple<CompletableFuture<Void>, Long>> commitJob;
+	//Reader通过committer把flush请求发过去，worker搞定了以后通过future通知reader
+	final Committer committer;
 
-	public BinlogAction(String tableName, String slotName, int shardId, long lsn, String timestamp, BinlogRecordCollector collector, TableSchemaSupplier supplier, Queue<Tuple<CompletableFuture<Void>, Long>> commitJob) {
+	public BinlogAction(String tableName, String slotName, int shardId, long lsn, String timestamp, BinlogRecordCollector collector, TableSchemaSupplier supplier, Committer committer) {
 		this.tableName = tableName;
 		this.slotName = slotName;
 		this.shardId = shardId;
@@ -34,7 +31,7 @@ public class BinlogAction extends AbstractAction<Void> {
 		this.timestamp = timestamp;
 		this.collector = collector;
 		this.supplier = supplier;
-		this.commitJob = commitJob;
+		this.committer = committer;
 	}
 
 	public String getTableName() {
@@ -65,7 +62,7 @@ public class BinlogAction extends AbstractAction<Void> {
 		return supplier;
 	}
 
-	public Queue<Tuple<CompletableFuture<Void>, Long>> getCommitJob() {
-		return commitJob;
+	public Committer getCommitter() {
+		return committer;
 	}
 }
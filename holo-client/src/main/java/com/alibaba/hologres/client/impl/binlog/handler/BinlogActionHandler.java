@@ -10,13 +10,13 @@ import com.alibaba.hologres.client.exception.HoloClientException;
 import com.alibaba.hologres.client.impl.binlog.ArrayBuffer;
 import com.alibaba.hologres.client.impl.binlog.BinlogEventType;
 import com.alibaba.hologres.client.impl.binlog.BinlogRecordCollector;
+import com.alibaba.hologres.client.impl.binlog.Committer;
 import com.alibaba.hologres.client.impl.binlog.HoloBinlogDecoder;
 import com.alibaba.hologres.client.impl.binlog.action.BinlogAction;
 import com.alibaba.hologres.client.impl.handler.ActionHandler;
 import com.alibaba.hologres.client.impl.util.ConnectionUtil;
 import com.alibaba.hologres.client.model.binlog.BinlogHeartBeatRecord;
 import com.alibaba.hologres.client.model.binlog.BinlogRecord;
-import com.alibaba.hologres.client.utils.Tuple;
 import org.postgresql.PGProperty;
 import org.postgresql.jdbc.PgConnection;
 import org.postgresql.replication.LogSequenceNumber;
@@ -29,8 +29,6 @@ import java.nio.ByteBuffer;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
-import java.util.Queue;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -50,6 +48,7 @@ public class BinlogActionHandler extends ActionHandler<BinlogAction> {
 	final boolean binlogIgnoreDelete;
 	final boolean isEnableDirectConnection;
 	final long binlogHeartBeatIntervalMs;
+	final long binlogStatusUpdateIntervalMs;
 	final AtomicBoolean started;
 	final ArrayBuffer<BinlogRecord> binlogRecordArray;
 	int retryCount;
@@ -76,6 +75,7 @@ public class BinlogActionHandler extends ActionHandler<BinlogAction> {
 		this.binlogIgnoreBeforeUpdate = config.getBinlogIgnoreBeforeUpdate();
 		this.binlogIgnoreDelete = config.getBinlogIgnoreDelete();
 		this.binlogHeartBeatIntervalMs = config.getBinlogHeartBeatIntervalMs();
+		this.binlogStatusUpdateIntervalMs = config.getBinlogStatusUpdateIntervalMs();
 		this.binlogRecordArray = new ArrayBuffer<>(binlogReadBatchSize, BinlogRecord[].class);
 		this.isEnableDirectConnection = config.isEnableDirectConnection();
 	}
@@ -128,7 +128,7 @@ public class BinlogActionHandler extends ActionHandler<BinlogAction> {
 						.withSlotName(action.getSlotName())
 						.withSlotOption("parallel_index", action.getShardId())
 						.withSlotOption("batch_size", binlogReadBatchSize)
-						.withStatusInterval(10, TimeUnit.SECONDS);
+						.withStatusInterval((int) binlogStatusUpdateIntervalMs, TimeUnit.MILLISECONDS);
 				if (startLsn > -1) {
 					logicalStreamBuilder.withSlotOption("start_lsn", String.valueOf(startLsn));
 				}
@@ -137,6 +137,14 @@ public class BinlogActionHandler extends ActionHandler<BinlogAction> {
 				}
 				LOG.info("shard {} start, start_lsn={}, start_time={}", action.getShardId(), startLsn, startTime);
 				this.pgReplicationStream = logicalStreamBuilder.start();
+				//阻塞read期间pgjdbc只在收到消息或socket超时时发送status update，超时设为status间隔，空闲的shard也能按时上报flushed lsn
+				this.conn.setNetworkTimeout(null, (int) binlogStatusUpdateIntervalMs);
+				//重建连接后，已经提交过的lsn需要重新设置，否则新stream的status update会带上旧的flushed lsn
+				long committedLsn = action.getCommitter().getCommittedLsn();
+				if (committedLsn > -1) {
+					this.pgReplicationStream.setFlushedLSN(LogSequenceNumber.valueOf(committedLsn));
+				}
+				action.getCommitter().attach(this.pgReplicationStream);
 			} catch (SQLException e) {
 				close();
 				throw e;
@@ -148,6 +156,7 @@ public class BinlogActionHandler extends ActionHandler<BinlogAction> {
 		}
 
 		public void close() {
+			action.getCommitter().detach();
 			if (conn != null) {
 				try {
 					conn.close();
@@ -178,7 +187,7 @@ public class BinlogActionHandler extends ActionHandler<BinlogAction> {
 		while (started.get()) {
 			try {
 				connContext.init();
-				fetch(action.getShardId(), action.getCollector(), connContext, decoder, action.getCommitJob());
+				fetch(action.getShardId(), action.getCollector(), connContext, decoder, action.getCommitter());
 			} catch (SQLException e) {
 				if (--retryCount < 1) {
 					//失败太多了，结束
@@ -201,20 +210,23 @@ public class BinlogActionHandler extends ActionHandler<BinlogAction> {
 		}
 	}
 
-	private void fetch(int shardId, BinlogRecordCollector collector, ConnectionContext connContext, HoloBinlogDecoder decoder, Queue<Tuple<CompletableFuture<Void>, Long>> commitJob) throws SQLException, HoloClientException, InterruptedException {
+	private void fetch(int shardId, BinlogRecordCollector collector, ConnectionContext connContext, HoloBinlogDecoder decoder, Committer committer) throws SQLException, HoloClientException, InterruptedException {
 		// Replication Connection 不能执行其他sql，因此单独创建 Replication Connection.
 		while (started.get()) {
-			tryFlush(connContext, commitJob);
+			tryFlush(connContext, committer);
 			if (binlogRecordArray.isReadable()) {
 				while (started.get() && binlogRecordArray.remain() > 0) {
-					tryFlush(connContext, commitJob);
+					tryFlush(connContext, committer);
 					collector.emit(shardId, binlogRecordArray);
 				}
 			}
+			// 阻塞到有新数据，commitLsnAsync不需要唤醒worker，commitLsn的forceUpdateStatus在read返回后处理
 			ByteBuffer byteBuffer = connContext.pgReplicationStream.read();
+			committer.getReadBps().mark(byteBuffer.remaining());
 			binlogRecordArray.beginWrite();
 			decoder.decode(shardId, byteBuffer, binlogRecordArray);
 			binlogRecordArray.beginRead();
+			committer.getDecodeRps().mark(binlogRecordArray.remain());
 			//如果成功消费了重置重试次数
 			resetRetryCount();
 			if (binlogRecordArray.remain() == 0) {
@@ -234,16 +246,21 @@ public class BinlogActionHandler extends ActionHandler<BinlogAction> {
 				connContext.setEmittedLsn(lastRecord.getBinlogLsn(), lastRecord.getBinlogTimestamp() / 1000L);
 			}
 			while (started.get() && binlogRecordArray.remain() > 0) {
-				tryFlush(connContext, commitJob);
+				tryFlush(connContext, committer);
 				collector.emit(shardId, binlogRecordArray);
 			}
 
 		}
 	}
 
-	private void tryFlush(ConnectionContext connContext, Queue<Tuple<CompletableFuture<Void>, Long>> commitJob) throws SQLException {
+	/**
+	 * 处理合并后的commit请求，stream可用时commitLsnAsync已经在调用线程处理，这里主要是commitLsn和重连期间登记的请求.
+	 * setFlushedLSN只修改stream的本地状态，非force的请求在此之后就可以返回，由stream按binlogStatusUpdateIntervalMs定时上报；
+	 * force的请求需要forceUpdateStatus成功后才返回.
+	 */
+	private void tryFlush(ConnectionContext connContext, Committer committer) throws SQLException {
 
-		Tuple<CompletableFuture<Void>, Long> job = commitJob.poll();
+		Committer.CommitJob job = committer.poll();
 		if (job == null) {
 			return;
 		}
@@ -255,9 +272,11 @@ public class BinlogActionHandler extends ActionHandler<BinlogAction> {
 					if (!connContext.isInit()) {
 						connContext.init();
 					}
-					connContext.pgReplicationStream.setFlushedLSN(LogSequenceNumber.valueOf(job.r));
-					connContext.pgReplicationStream.forceUpdateStatus();
-					job.l.complete(null);
+					committer.flush(connContext.pgReplicationStream, job.getLsn());
+					if (job.isForce()) {
+						connContext.pgReplicationStream.forceUpdateStatus();
+					}
+					job.complete();
 					done = true;
 				} catch (SQLException e) {
 					if (flushRetryCount > 0) {
@@ -268,11 +287,11 @@ public class BinlogActionHandler extends ActionHandler<BinlogAction> {
 				}
 			}
 		} catch (SQLException e) {
-			job.l.completeExceptionally(e);
+			job.completeExceptionally(e);
 			throw e;
 		} finally {
-			if (!job.l.isDone()) {
-				job.l.completeExceptionally(new HoloClientException(ExceptionCode.INTERNAL_ERROR, "unknown exception when flush binlog lsn"));
+			if (!job.isDone()) {
+				job.completeExceptionally(new HoloClientException(ExceptionCode.INTERNAL_ERROR, "unknown exception when flush binlog lsn"));
 			}
 		}
 	}
@@ -14,6 +14,8 @@ import com.alibaba.hologres.client.model.TableName;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -51,7 +53,7 @@ public class ActionCollector {
 		this.config = config;
 		this.pool = pool;
 		this.queue = queue;
-		this.resizePolicy = new DefaultResizePolicy();
+		this.resizePolicy = config.getWriteLatencySloMs() > 0 ? new AdaptiveResizePolicy() : new DefaultResizePolicy();
 		resizePolicy.init(config);
 		this.writerShardCountResizeIntervalNano = config.getWriterShardCountResizeIntervalMs() * 1000000L;
 
@@ -62,6 +64,8 @@ public class ActionCollector {
 	}
 
 	public void append(Record record) throws HoloClientException {
+		//攒批内存超过writeMaxBufferedByteSize时阻塞，不持有flushLock，避免阻塞后台flush
+		pool.getWriteByteBudget().admit(this::flushLargest);
 		flushLock.readLock().lock();
 		try {
 			TableCollector pairArray = map.computeIfAbsent(record.getTableName(), (tableName) -> new TableCollector(config, pool));
@@ -130,6 +134,47 @@ public class ActionCollector {
 		}
 	}
 
+	/**
+	 * 准入控制阻塞时调用，按buffer占用的内存从大到小强制提交，直到提交的内存足够通过准入控制.
+	 * tryFlush只提交达到攒批阈值的buffer，writeMaxBufferedByteSize小于攒批阈值时不会提交任何buffer.
+	 * 异常和tryFlush一样在后续的flush、append时抛出.
+	 */
+	void flushLargest() {
+		long excess = pool.getWriteByteBudget().getExcessByteSize();
+		if (excess <= 0) {
+			return;
+		}
+		flushLock.readLock().lock();
+		try {
+			List<Map.Entry<Long, TableShardCollector>> shards = new ArrayList<>();
+			for (TableCollector tableCollector : map.values()) {
+				for (TableShardCollector shard : tableCollector.getShardCollectors()) {
+					long byteSize = shard.getBufferedByteSize();
+					if (byteSize > 0) {
+						shards.add(new AbstractMap.SimpleImmutableEntry<>(byteSize, shard));
+					}
+				}
+			}
+			shards.sort(Map.Entry.<Long, TableShardCollector>comparingByKey().reversed());
+			long committed = 0L;
+			for (Map.Entry<Long, TableShardCollector> entry : shards) {
+				if (committed >= excess) {
+					break;
+				}
+				try {
+					//同步等待上一个action完成，保证buffer一定被提交
+					entry.getValue().flush(true, false, null);
+				} catch (HoloClientException e) {
+					LOGGER.error("force flush fail", e);
+					lastException.accumulateAndGet(e, (lastOne, newOne) -> ExceptionUtil.merge(lastOne, newOne));
+				}
+				committed += entry.getKey();
+			}
+		} finally {
+			flushLock.readLock().unlock();
+		}
+	}
+
 	public void flush(boolean internal) throws HoloClientException {
 		flushLock.writeLock().lock();
 		try {
@@ -186,7 +231,9 @@ public class ActionCollector {
 					LOGGER.info("resize table {} shard size , {} -> {}", tableName, currentSize, size);
 					tableCollector.resize(size);
 				}
-				tableCollector.getStat().clear();
+				CollectorStatistics stat = tableCollector.getStat();
+				stat.setBatchSize(resizePolicy.calculateBatchSize(tableName, stat, stat.getBatchSize(), currentNano));
+				stat.clear();
 			}
 		}
 	}
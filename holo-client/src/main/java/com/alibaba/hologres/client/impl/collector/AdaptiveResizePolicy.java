@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.impl.collector;
+
+import com.alibaba.hologres.client.HoloConfig;
+import com.alibaba.hologres.client.model.TableName;
+import com.alibaba.hologres.client.utils.Metrics;
+import com.codahale.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 根据每个表观测到的PutAction平均延迟和写入行数自动调整攒批条数和shard数的Resize策略(AIMD).
+ * 1 平均延迟超过writeLatencySloMs时，攒批条数减半；攒批条数已经最小时，shard数减半
+ * 2 延迟达标并且有满批时，攒批条数每轮增加writeBatchSize的1/16，直到writeBatchSize；shard数每轮加1，直到上限
+ * 3 增加shard数后吞吐提升不到5%说明服务端已经饱和，退回并保持若干轮后再尝试
+ */
+public class AdaptiveResizePolicy implements ResizePolicy {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveResizePolicy.class);
+
+	static final int MIN_BATCH_SIZE = 16;
+	//扩容后吞吐提升不到5%视为没有收益
+	private static final int GAIN_PERCENT = 5;
+	//退回后保持的轮数
+	static final int HOLD_ROUNDS = 3;
+
+	private long latencySloMs;
+	private int maxShardCount;
+	private int maxBatchSize;
+	private int minBatchSize;
+	private int batchSizeStep;
+
+	private final Map<TableName, TableState> stateMap = new ConcurrentHashMap<>();
+
+	@Override
+	public void init(HoloConfig config) {
+		this.latencySloMs = config.getWriteLatencySloMs();
+		this.maxShardCount = config.getMaxShardCount();
+		this.maxBatchSize = config.getWriteBatchSize();
+		this.minBatchSize = Math.min(MIN_BATCH_SIZE, maxBatchSize);
+		this.batchSizeStep = Math.max(1, maxBatchSize / 16);
+	}
+
+	@Override
+	public int calculate(TableName tableName, CollectorStatistics stat, int currentSize, int workerCount, long currentNano) {
+		TableState state = stateMap.computeIfAbsent(tableName, k -> new TableState());
+		int maxSize = maxShardCount > 0 ? maxShardCount : workerCount * 2;
+		long latencyMs = stat.getAvgCostMs();
+		long intervalNano = Math.max(1L, currentNano - stat.getNanoTime());
+		long rps = stat.getRowCount() * 1000000000L / intervalNano;
+
+		int newSize = currentSize;
+		int direction = 0;
+		if (latencyMs > latencySloMs) {
+			//先减小攒批条数，攒批条数已经最小还超时才减少并发
+			if (stat.getBatchSize() <= minBatchSize) {
+				newSize = Math.max(1, currentSize / 2);
+			}
+		} else if (stat.getFullBatchCount() == 0) {
+			//没有满批说明写入量不大，减少shard让每批更大
+			newSize = Math.max(1, currentSize - 1);
+		} else if (state.lastDirection > 0 && rps * 100 < state.lastRps * (100 + GAIN_PERCENT)) {
+			newSize = Math.max(1, currentSize - 1);
+			state.holdRounds = HOLD_ROUNDS;
+		} else if (state.holdRounds > 0) {
+			--state.holdRounds;
+		} else if (currentSize < maxSize) {
+			newSize = currentSize + 1;
+			direction = 1;
+		}
+		state.lastDirection = direction;
+		state.lastRps = rps;
+
+		MetricRegistry registry = Metrics.registry();
+		registry.histogram(Metrics.METRICS_WRITE_ADAPTIVE_SHARD_COUNT + tableName.getFullName()).update(newSize);
+		if (latencyMs >= 0) {
+			registry.histogram(Metrics.METRICS_WRITE_ADAPTIVE_LATENCY_MS + tableName.getFullName()).update(latencyMs);
+		}
+		registry.histogram(Metrics.METRICS_WRITE_ADAPTIVE_RPS + tableName.getFullName()).update(rps);
+		if (newSize != currentSize) {
+			LOGGER.info("table {} size change {}->{}, latencyMs = {}, rps = {}, fullCount = {}, notFullCount = {}", tableName, currentSize, newSize, latencyMs, rps, stat.getFullBatchCount(), stat.getNotFullBatchCount());
+		}
+		return newSize;
+	}
+
+	@Override
+	public int calculateBatchSize(TableName tableName, CollectorStatistics stat, int currentBatchSize, long currentNano) {
+		long latencyMs = stat.getAvgCostMs();
+		int newBatchSize = currentBatchSize;
+		if (latencyMs > latencySloMs) {
+			newBatchSize = Math.max(minBatchSize, currentBatchSize / 2);
+		} else if (latencyMs >= 0 && stat.getFullBatchCount() > 0) {
+			newBatchSize = Math.min(maxBatchSize, currentBatchSize + batchSizeStep);
+		}
+		Metrics.registry().histogram(Metrics.METRICS_WRITE_ADAPTIVE_BATCH_SIZE + tableName.getFullName()).update(newBatchSize);
+		if (newBatchSize != currentBatchSize) {
+			LOGGER.info("table {} batch size change {}->{}, latencyMs = {}, sloMs = {}", tableName, currentBatchSize, newBatchSize, latencyMs, latencySloMs);
+		}
+		return newBatchSize;
+	}
+
+	private static class TableState {
+		long lastRps = 0L;
+		int lastDirection = 0;
+		int holdRounds = 0;
+	}
+}
@@ -5,6 +5,7 @@
 package com.alibaba.hologres.client.impl.collector;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 攒批的统计信息.
@@ -22,11 +23,31 @@ public class CollectorStatistics {
 	 */
 	AtomicInteger notFullBatchCount = new AtomicInteger(0);
 
+	/**
+	 * 写入成功的PutAction数、行数以及总耗时.
+	 */
+	LongAdder actionCount = new LongAdder();
+	LongAdder rowCount = new LongAdder();
+	LongAdder costNano = new LongAdder();
+
 	/**
 	 * 每轮统计的开始时间.
 	 */
 	long nanoTime = System.nanoTime();
 
+	/**
+	 * 当前每批最多的行数，由ResizePolicy调整，不随clear重置.
+	 */
+	volatile int batchSize;
+
+	public CollectorStatistics() {
+		this(-1);
+	}
+
+	public CollectorStatistics(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
 	public void add(BatchState state) {
 		switch (state) {
 			case SizeEnough:
@@ -41,6 +62,42 @@ public class CollectorStatistics {
 		}
 	}
 
+	/**
+	 * 记录一个写入成功的PutAction.
+	 *
+	 * @param rows     行数
+	 * @param costNano 从提交到完成的耗时
+	 */
+	public void addAction(int rows, long costNano) {
+		actionCount.increment();
+		rowCount.add(rows);
+		this.costNano.add(costNano);
+	}
+
+	public long getActionCount() {
+		return actionCount.sum();
+	}
+
+	public long getRowCount() {
+		return rowCount.sum();
+	}
+
+	/**
+	 * @return 本轮PutAction的平均耗时，没有PutAction时返回-1
+	 */
+	public long getAvgCostMs() {
+		long count = actionCount.sum();
+		return count == 0 ? -1L : costNano.sum() / count / 1000000L;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
 	public int getFullBatchCount() {
 		return fullBatchCount.get();
 	}
@@ -56,6 +113,9 @@ public class CollectorStatistics {
 	public void clear() {
 		fullBatchCount.set(0);
 		notFullBatchCount.set(0);
+		actionCount.reset();
+		rowCount.reset();
+		costNano.reset();
 		nanoTime = System.nanoTime();
 	}
 }
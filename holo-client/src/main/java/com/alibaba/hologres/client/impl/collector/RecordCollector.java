@@ -32,14 +32,23 @@ public class RecordCollector {
 
 	private final int shardCount;
 	private ExecutionPool pool;
+	private final CollectorStatistics stat;
 
 	public RecordCollector(HoloConfig config, ExecutionPool pool, int shardCount) {
+		this(config, pool, shardCount, null);
+	}
+
+	/**
+	 * @param stat 表级别的统计信息，其中的batchSize会覆盖writeBatchSize，null表示只使用writeBatchSize
+	 */
+	public RecordCollector(HoloConfig config, ExecutionPool pool, int shardCount, CollectorStatistics stat) {
 		this.mode = config.getWriteMode();
 		this.maxRecords = config.getWriteBatchSize();
 		this.maxByteSize = config.getWriteBatchByteSize();
 		this.maxWaitTime = config.getWriteMaxIntervalMs();
 		this.pool = pool;
 		this.shardCount = shardCount;
+		this.stat = stat;
 	}
 
 	Map<RecordKey, Record> deleteRecords = new HashMap<>();
@@ -151,6 +160,13 @@ public class RecordCollector {
 	 * */
 	public BatchState getBatchState() {
 		long afterLastCommit = System.currentTimeMillis() - startTimeMs;
+		// 攒批条数被ResizePolicy调小时，byte大小的阈值按比例调小
+		int maxRecords = this.maxRecords;
+		long maxByteSize = this.maxByteSize;
+		if (stat != null && stat.getBatchSize() > 0 && stat.getBatchSize() < maxRecords) {
+			maxByteSize = Math.max(1L, maxByteSize * stat.getBatchSize() / maxRecords);
+			maxRecords = stat.getBatchSize();
+		}
 		// 行数够多少条
 		boolean isSizeEnough = size >= maxRecords;
 		if (isSizeEnough) {
@@ -24,4 +24,16 @@ public interface ResizePolicy {
 	 * @return 新的shard数
 	 */
 	int calculate(TableName tableName, CollectorStatistics stat, int currentSize, int workerCount, long currentNano);
+
+	/**
+	 * 计算一个表新的攒批条数，在calculate之后调用，默认保持不变.
+	 * @param tableName 表名
+	 * @param stat collector统计信息
+	 * @param currentBatchSize 当前的攒批条数
+	 * @param currentNano 当前JVM纳秒数
+	 * @return 新的攒批条数
+	 */
+	default int calculateBatchSize(TableName tableName, CollectorStatistics stat, int currentBatchSize, long currentNano) {
+		return currentBatchSize;
+	}
 }
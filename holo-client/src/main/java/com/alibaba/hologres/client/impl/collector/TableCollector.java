@@ -40,7 +40,7 @@ public class TableCollector {
 	public TableCollector(HoloConfig config, ExecutionPool pool) {
 		this.config = config;
 		this.pool = pool;
-		stat = new CollectorStatistics();
+		stat = new CollectorStatistics(config.getWriteBatchSize());
 		this.shardPolicy = new DistributionKeyShardPolicy();
 		this.recordSampleInterval = config.getRecordSampleInterval() * 1000000L;
 		initTableShardCollector(config.getWriteThreadSize());
@@ -114,6 +114,10 @@ public class TableCollector {
 		return doneCount == pairArray.length;
 	}
 
+	TableShardCollector[] getShardCollectors() {
+		return pairArray;
+	}
+
 	public int getShardCount() {
 		return pairArray.length;
 	}
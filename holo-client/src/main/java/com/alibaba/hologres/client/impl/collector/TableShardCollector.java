@@ -42,7 +42,7 @@ public class TableShardCollector {
 	private final CollectorStatistics stat;
 
 	public TableShardCollector(HoloConfig config, ExecutionPool pool, CollectorStatistics stat, int size) {
-		buffer = new RecordCollector(config, pool, size);
+		buffer = new RecordCollector(config, pool, size, stat);
 		activeAction = null;
 		this.pool = pool;
 		this.stat = stat;
@@ -59,7 +59,9 @@ public class TableShardCollector {
 				exception = e;
 			}
 		}
+		long byteSize = buffer.getByteSize();
 		boolean full = buffer.append(record);
+		pool.getWriteByteBudget().add(buffer.getByteSize() - byteSize);
 		if (full) {
 			try {
 				waitActionDone();
@@ -95,6 +97,16 @@ public class TableShardCollector {
 	private void commit(BatchState state) throws HoloClientException {
 		stat.add(state);
 		activeAction = new PutAction(buffer.getRecords(), buffer.getByteSize(), buffer.getMode(), state);
+		//buffer占用的内存转移给activeAction，action结束(包括失败)时归还
+		long byteSize = buffer.getByteSize();
+		int rows = buffer.size();
+		long startNano = System.nanoTime();
+		activeAction.getFuture().whenComplete((r, e) -> {
+			pool.getWriteByteBudget().add(-byteSize);
+			if (e == null) {
+				stat.addAction(rows, System.nanoTime() - startNano);
+			}
+		});
 		try {
 			while (!pool.submit(activeAction)) {
 			}
@@ -228,4 +240,11 @@ public class TableShardCollector {
 	public long getByteSize() {
 		return activeActionByteSize + buffer.getByteSize();
 	}
+
+	/**
+	 * @return 还没有提交的buffer占用的内存
+	 */
+	public long getBufferedByteSize() {
+		return buffer.getByteSize();
+	}
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.impl.collector;
+
+import com.alibaba.hologres.client.exception.ExceptionCode;
+import com.alibaba.hologres.client.exception.HoloClientException;
+import com.alibaba.hologres.client.utils.Metrics;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个ExecutionPool内所有HoloClient攒批占用的内存，包括已经提交但还没有写完的PutAction.
+ * TableShardCollector按增量更新(LongAdder，多线程写入没有竞争)，PutAction完成时归还.
+ * 开启准入控制(maxByteSize大于0)时，超过maxByteSize后put先强制提交攒批，再阻塞直到有内存归还，超时或者timeoutMs为0时直接失败.
+ */
+public class WriteByteBudget {
+	//等待期间定期重新检查，防止极端情况下错过通知
+	private static final long RECHECK_INTERVAL_MS = 100L;
+
+	private final LongAdder used = new LongAdder();
+	private final long totalByteSize;
+	private final long maxByteSize;
+	private final long timeoutMs;
+	private final String metricsName;
+	private final Object lock = new Object();
+	private final AtomicInteger waiters = new AtomicInteger(0);
+
+	/**
+	 * @param name          pool名，用于metrics
+	 * @param totalByteSize 攒批提前提交的参考值，即writeBatchTotalByteSize
+	 * @param maxByteSize   准入控制的上限，小于1表示不做准入控制
+	 * @param timeoutMs     准入控制最长等待时间，0表示直接失败
+	 */
+	public WriteByteBudget(String name, long totalByteSize, long maxByteSize, long timeoutMs) {
+		this.totalByteSize = totalByteSize;
+		this.maxByteSize = maxByteSize;
+		this.timeoutMs = timeoutMs;
+		this.metricsName = name;
+		MetricRegistry registry = Metrics.registry();
+		registry.remove(Metrics.METRICS_WRITE_BUFFERED_BYTES + name);
+		registry.register(Metrics.METRICS_WRITE_BUFFERED_BYTES + name, (Gauge<Long>) this::getByteSize);
+	}
+
+	public void add(long delta) {
+		if (delta == 0L) {
+			return;
+		}
+		used.add(delta);
+		if (delta < 0L && waiters.get() > 0) {
+			synchronized (lock) {
+				lock.notifyAll();
+			}
+		}
+	}
+
+	public long getByteSize() {
+		return used.sum();
+	}
+
+	public long getAvailableByteSize() {
+		return totalByteSize - used.sum();
+	}
+
+	/**
+	 * @return 至少还要归还多少内存才能通过准入控制，不需要时返回0
+	 */
+	public long getExcessByteSize() {
+		if (maxByteSize < 1) {
+			return 0L;
+		}
+		return Math.max(0L, used.sum() - maxByteSize + 1);
+	}
+
+	/**
+	 * 准入控制，内存不足时阻塞.
+	 *
+	 * @param onBlock 内存不足时先调用一次，用于强制提交攒批；writeMaxBufferedByteSize小于攒批阈值时只有强制提交才能归还内存
+	 * @throws HoloClientException 等待超时(BUSY)或者被中断
+	 */
+	public void admit(Runnable onBlock) throws HoloClientException {
+		if (maxByteSize < 1 || used.sum() < maxByteSize) {
+			return;
+		}
+		MetricRegistry registry = Metrics.registry();
+		onBlock.run();
+		if (timeoutMs <= 0) {
+			registry.meter(Metrics.METRICS_WRITE_BACK_PRESSURE_REJECT + metricsName).mark();
+			throw new HoloClientException(ExceptionCode.BUSY, "buffered write bytes " + used.sum() + " exceed writeMaxBufferedByteSize " + maxByteSize);
+		}
+		long start = System.currentTimeMillis();
+		long deadline = start + timeoutMs;
+		waiters.incrementAndGet();
+		try {
+			synchronized (lock) {
+				while (used.sum() >= maxByteSize) {
+					long remain = deadline - System.currentTimeMillis();
+					if (remain <= 0) {
+						registry.meter(Metrics.METRICS_WRITE_BACK_PRESSURE_REJECT + metricsName).mark();
+						throw new HoloClientException(ExceptionCode.BUSY, "buffered write bytes " + used.sum() + " exceed writeMaxBufferedByteSize " + maxByteSize + " after wait " + timeoutMs + " ms");
+					}
+					lock.wait(Math.min(remain, RECHECK_INTERVAL_MS));
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new HoloClientException(ExceptionCode.INTERRUPTED, "interrupted when waiting for write buffer", e);
+		} finally {
+			waiters.decrementAndGet();
+			registry.meter(Metrics.METRICS_WRITE_BACK_PRESSURE_MS + metricsName).mark(System.currentTimeMillis() - start);
+		}
+	}
+}
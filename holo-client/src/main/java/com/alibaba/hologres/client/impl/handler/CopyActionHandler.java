@@ -173,7 +173,11 @@ public class CopyActionHandler extends ActionHandler<CopyAction> {
 
 								StringBuilder sb = new StringBuilder();
 								sb.append("COPY ").append(schema.getTableNameObj().getFullName());
-								sb.append(" FROM STDIN DELIMITER ',' ESCAPE '\\' CSV QUOTE '\"' NULL AS 'N'");
+								if (action.isBinary()) {
+									sb.append(" FROM STDIN WITH (FORMAT BINARY)");
+								} else {
+									sb.append(" FROM STDIN DELIMITER ',' ESCAPE '\\' CSV QUOTE '\"' NULL AS 'N'");
+								}
 								String sql = sb.toString();
 								LOGGER.info("copy sql:{}", sql);
 								CopyIn copyIn = manager.copyIn(sql);
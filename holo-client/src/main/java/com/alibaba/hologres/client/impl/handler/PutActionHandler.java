@@ -135,6 +135,17 @@ public class PutActionHandler extends ActionHandler<PutAction> {
 						useDefaultStrategy = false;
 					}
 					break;
+				case TRY_BISECT:
+					LOGGER.warn("write data fail, current WriteFailStrategy is TRY_BISECT", e);
+					if (e.getCode() != ExceptionCode.TABLE_NOT_FOUND) {
+						HoloClientWithDetailsException fails = new HoloClientWithDetailsException(e);
+						exception = bisect(recordList, mode, fails, e);
+						if (exception == null && fails.size() > 0) {
+							exception = fails;
+						}
+						useDefaultStrategy = false;
+					}
+					break;
 				default:
 			}
 			if (useDefaultStrategy) {
@@ -161,6 +172,56 @@ public class PutActionHandler extends ActionHandler<PutAction> {
 		}
 	}
 
+	/**
+	 * 二分定位脏数据.
+	 * 前一半写入成功时后一半一定包含脏数据，不需要整体再提交一次；只剩一条时一定单独提交过，失败原因和TRY_ONE_BY_ONE一致.
+	 *
+	 * @param list           待写入的record
+	 * @param mode           写入模式
+	 * @param fails          收集脏数据
+	 * @param knownException list整体写入时的异常，为null表示还没有整体写入过
+	 * @return 非脏数据类的异常，没有则返回null
+	 */
+	private HoloClientException bisect(List<Record> list, WriteMode mode, HoloClientWithDetailsException fails, HoloClientException knownException) {
+		HoloClientException listException = knownException;
+		if (listException == null) {
+			try {
+				doHandlePutAction(list, mode);
+				for (Record record : list) {
+					markRecordPutSuccess(record);
+				}
+				return null;
+			} catch (HoloClientException subE) {
+				if (!isDirtyDataException(subE)) {
+					for (Record record : list) {
+						markRecordPutFail(record, subE);
+					}
+					return subE;
+				}
+				listException = subE;
+			} catch (Exception subE) {
+				//如果是致命错误最后就抛这种类型的错
+				HoloClientException fatal = new HoloClientException(ExceptionCode.INTERNAL_ERROR, "", subE);
+				for (Record record : list) {
+					markRecordPutFail(record, fatal);
+				}
+				return fatal;
+			}
+		}
+		if (list.size() == 1) {
+			fails.add(list.get(0), listException);
+			markRecordPutFail(list.get(0), listException);
+			return null;
+		}
+		int mid = list.size() / 2;
+		List<Record> right = list.subList(mid, list.size());
+		int failCount = fails.size();
+		HoloClientException fatal = bisect(list.subList(0, mid), mode, fails, null);
+		boolean leftSuccess = fatal == null && fails.size() == failCount;
+		HoloClientException rightFatal = bisect(right, mode, fails, leftSuccess && right.size() > 1 ? listException : null);
+		return rightFatal != null ? rightFatal : fatal;
+	}
+
 	protected void doHandlePutAction(List<Record> list, WriteMode mode) throws HoloClientException {
 		connectionHolder.retryExecuteWithVersion((connWithVersion) -> {
 			Connection conn = connWithVersion.getConn();
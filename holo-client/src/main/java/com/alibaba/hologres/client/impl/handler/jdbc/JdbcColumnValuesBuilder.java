@@ -5,7 +5,7 @@
 package com.alibaba.hologres.client.impl.handler.jdbc;
 
 import com.alibaba.hologres.client.HoloConfig;
-import org.postgresql.jdbc.PgConnection;
+import org.postgresql.core.BaseConnection;
 import org.postgresql.jdbc.TimestampUtils;
 import org.postgresql.util.GT;
 import org.postgresql.util.PSQLException;
@@ -19,7 +19,7 @@ import java.sql.Types;
  */
 public class JdbcColumnValuesBuilder {
 
-	public static JdbcColumnValues build(PgConnection connection, int rowCount, int targetSqlType, String typeName, HoloConfig config) throws SQLException {
+	public static JdbcColumnValues build(BaseConnection connection, int rowCount, int targetSqlType, String typeName, HoloConfig config) throws SQLException {
 		TimestampUtils timestampUtils = connection.getTimestampUtils();
 		switch (targetSqlType) {
 			case Types.INTEGER:
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.impl.retry;
+
+import com.alibaba.hologres.client.utils.Metrics;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 每个endpoint(jdbcUrl)一个的熔断器，JVM内共享.
+ * 连续失败failureThreshold次后进入OPEN状态，openMs内所有请求直接失败；
+ * openMs之后进入HALF_OPEN，只放行一个探测请求，成功则恢复CLOSED，失败则重新OPEN.
+ * 只有连接类的失败(连接断开、FE繁忙、连接数满等)计入失败次数，SQL本身的错误不影响熔断器.
+ */
+public class CircuitBreaker {
+	public static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class);
+
+	private static final Map<String, CircuitBreaker> BREAKER_MAP = new ConcurrentHashMap<>();
+
+	/**
+	 * 熔断器状态，code用于metrics.
+	 */
+	public enum State {
+		CLOSED(0),
+		OPEN(1),
+		HALF_OPEN(2);
+
+		private final int code;
+
+		State(int code) {
+			this.code = code;
+		}
+
+		public int getCode() {
+			return code;
+		}
+	}
+
+	private final String endpoint;
+	private final int failureThreshold;
+	private final long openMs;
+
+	private State state = State.CLOSED;
+	private int consecutiveFailures = 0;
+	//OPEN状态的开始时间，或者HALF_OPEN状态下探测请求的开始时间
+	private long stateTs = 0L;
+
+	CircuitBreaker(String endpoint, int failureThreshold, long openMs) {
+		this.endpoint = endpoint;
+		this.failureThreshold = failureThreshold;
+		this.openMs = openMs;
+	}
+
+	/**
+	 * 同一个endpoint只会创建一个CircuitBreaker，参数以第一次创建时为准.
+	 */
+	public static CircuitBreaker getOrCreate(String endpoint, int failureThreshold, long openMs) {
+		return BREAKER_MAP.computeIfAbsent(endpoint, k -> {
+			CircuitBreaker breaker = new CircuitBreaker(k, failureThreshold, openMs);
+			MetricRegistry registry = Metrics.registry();
+			registry.remove(Metrics.METRICS_CIRCUIT_BREAKER_STATE + k);
+			registry.register(Metrics.METRICS_CIRCUIT_BREAKER_STATE + k, (Gauge<Integer>) () -> breaker.getState().getCode());
+			return breaker;
+		});
+	}
+
+	/**
+	 * 是否允许发起请求.
+	 * OPEN超过openMs后第一个调用者作为探测请求被放行，探测请求在openMs内没有结果时再放行下一个.
+	 *
+	 * @return false表示应该直接失败
+	 */
+	public synchronized boolean allowRequest() {
+		long now = System.currentTimeMillis();
+		switch (state) {
+			case CLOSED:
+				return true;
+			case OPEN:
+				if (now - stateTs >= openMs) {
+					LOGGER.info("circuit breaker of {} half open, send a probe request", endpoint);
+					state = State.HALF_OPEN;
+					stateTs = now;
+					return true;
+				}
+				break;
+			case HALF_OPEN:
+				if (now - stateTs >= openMs) {
+					stateTs = now;
+					return true;
+				}
+				break;
+			default:
+		}
+		Metrics.registry().meter(Metrics.METRICS_CIRCUIT_BREAKER_REJECT + endpoint).mark();
+		return false;
+	}
+
+	public synchronized void onSuccess() {
+		consecutiveFailures = 0;
+		if (state != State.CLOSED) {
+			LOGGER.info("circuit breaker of {} closed", endpoint);
+			state = State.CLOSED;
+		}
+	}
+
+	public synchronized void onFailure() {
+		++consecutiveFailures;
+		if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+			LOGGER.warn("circuit breaker of {} open for {} ms after {} consecutive failures", endpoint, openMs, consecutiveFailures);
+			state = State.OPEN;
+			stateTs = System.currentTimeMillis();
+		}
+	}
+
+	public synchronized State getState() {
+		return state;
+	}
+
+	public String getEndpoint() {
+		return endpoint;
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.impl.retry;
+
+import com.alibaba.hologres.client.exception.HoloClientException;
+import com.alibaba.hologres.client.utils.Metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 默认的重试策略，指数退避加随机抖动，可选按endpoint的重试预算.
+ * 第i次重试(从0开始)的等待时间在 [min(initMs * 2^i / 2, ceil), ceil] 中随机，ceil = initMs + i * stepMs，
+ * 因此最长等待时间和之前的线性策略一致，但是同时失败的连接不会在同一时刻重试.
+ * 开启重试预算时，每个endpoint(JVM内共享)的每次成功积累budgetPercent/100个重试机会，每次重试消耗一个，预算耗尽时直接失败不再重试.
+ */
+public class ExponentialBackoffRetryPolicy implements RetryPolicy {
+
+	private static final long serialVersionUID = 1L;
+
+	//预算的上限，也是初始值
+	static final double MAX_BUDGET = 100D;
+
+	//endpoint -> 重试预算，JVM内共享
+	private static final Map<String, RetryBudget> BUDGET_MAP = new ConcurrentHashMap<>();
+
+	private final long initMs;
+	private final long stepMs;
+	private final int budgetPercent;
+
+	/**
+	 * @param initMs        第一次重试的最长等待时间
+	 * @param stepMs        每多重试一次，最长等待时间增加的值
+	 * @param budgetPercent 重试次数占成功次数的最大百分比，小于0表示不限制
+	 */
+	public ExponentialBackoffRetryPolicy(long initMs, long stepMs, int budgetPercent) {
+		this.initMs = initMs;
+		this.stepMs = stepMs;
+		this.budgetPercent = budgetPercent;
+	}
+
+	@Override
+	public long nextBackoffMs(String endpoint, int attempt, HoloClientException e) {
+		if (budgetPercent >= 0 && !getBudget(endpoint).tryAcquire()) {
+			Metrics.registry().meter(Metrics.METRICS_RETRY_BUDGET_EXHAUSTED + endpoint).mark();
+			return -1L;
+		}
+		Metrics.registry().meter(Metrics.METRICS_RETRY + endpoint).mark();
+		int i = attempt - 1;
+		long ceil = initMs + stepMs * i;
+		long floor = Math.min(ceil, (initMs << Math.min(i, 30)) / 2);
+		if (ceil <= floor) {
+			return ceil;
+		}
+		return ThreadLocalRandom.current().nextLong(floor, ceil + 1);
+	}
+
+	@Override
+	public void onSuccess(String endpoint) {
+		if (budgetPercent >= 0) {
+			getBudget(endpoint).deposit(budgetPercent / 100D);
+		}
+	}
+
+	static RetryBudget getBudget(String endpoint) {
+		return BUDGET_MAP.computeIfAbsent(endpoint, k -> new RetryBudget(MAX_BUDGET));
+	}
+
+	/**
+	 * 一个endpoint的重试预算.
+	 */
+	static class RetryBudget {
+		private final double max;
+		private double tokens;
+
+		RetryBudget(double max) {
+			this.max = max;
+			this.tokens = max;
+		}
+
+		synchronized void deposit(double count) {
+			tokens = Math.min(max, tokens + count);
+		}
+
+		synchronized boolean tryAcquire() {
+			if (tokens >= 1D) {
+				tokens -= 1D;
+				return true;
+			}
+			return false;
+		}
+
+		synchronized double getTokens() {
+			return tokens;
+		}
+	}
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.impl.retry;
+
+import com.alibaba.hologres.client.exception.HoloClientException;
+
+import java.io.Serializable;
+
+/**
+ * 重试策略.
+ * ConnectionHolder判断异常可以重试并且没有超过retryCount之后，由RetryPolicy决定是否真的重试以及重试前等待多久.
+ * 同一个HoloConfig创建的所有连接共享一个RetryPolicy实例，实现需要线程安全.
+ */
+public interface RetryPolicy extends Serializable {
+
+	/**
+	 * 一次执行失败后，决定下一次重试前的等待时间.
+	 *
+	 * @param endpoint 连接的jdbcUrl
+	 * @param attempt  已经失败的次数，从1开始
+	 * @param e        本次失败的异常
+	 * @return 等待的毫秒数，小于0表示不再重试
+	 */
+	long nextBackoffMs(String endpoint, int attempt, HoloClientException e);
+
+	/**
+	 * 一次执行成功.
+	 *
+	 * @param endpoint 连接的jdbcUrl
+	 */
+	default void onSuccess(String endpoint) {
+	}
+}
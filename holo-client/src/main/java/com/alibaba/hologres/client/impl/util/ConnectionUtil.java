@@ -23,6 +23,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -282,6 +283,61 @@ public class ConnectionUtil {
 
 	}
 
+	/**
+	 * 一次查询获取多个分区值对应的子表.
+	 *
+	 * @return partValue -> 子表，不存在的分区值不在结果中
+	 */
+	public static Map<String, Partition> getPartitions(Connection conn, String schemaName, String tableName, Collection<String> partValues, boolean isStr) throws SQLException {
+		Map<String, String> exprToValue = new HashMap<>();
+		for (String partValue : partValues) {
+			exprToValue.put("FOR VALUES IN (" + (isStr ? "'" : "") + partValue + (isStr ? "'" : "") + ")", partValue);
+		}
+		StringBuilder sb = new StringBuilder(512);
+		sb.append("with inh as ( \n");
+		sb.append("    SELECT i.inhrelid, i.inhparent \n");
+		sb.append("    FROM pg_catalog.pg_class c \n");
+		sb.append("    LEFT JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace \n");
+		sb.append("    LEFT JOIN pg_catalog.pg_inherits i on c.oid=i.inhparent \n");
+		sb.append("    where n.nspname=? and c.relname=? \n");
+		sb.append(") \n");
+		sb.append("select \n");
+		sb.append("    n.nspname as schema_name, \n");
+		sb.append("    c.relname as table_name, \n");
+		sb.append("    p.partstrat, \n");
+		sb.append("    pg_get_expr(c.relpartbound, c.oid, true) as part_expr \n");
+		sb.append("from inh \n");
+		sb.append("join pg_catalog.pg_class c on inh.inhrelid = c.oid \n");
+		sb.append("join pg_catalog.pg_namespace n on c.relnamespace = n.oid \n");
+		sb.append("join pg_partitioned_table p on p.partrelid = inh.inhparent where pg_get_expr(c.relpartbound, c.oid, true) = any(?) \n");
+
+		Map<String, Partition> ret = new HashMap<>();
+		try (PreparedStatement stmt = conn.prepareStatement(sb.toString())) {
+			stmt.setString(1, schemaName);
+			stmt.setString(2, tableName);
+			stmt.setArray(3, conn.createArrayOf("text", exprToValue.keySet().toArray()));
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					if (!"l".equals(rs.getString("partstrat"))) {
+						throw new SQLException("Only LIST partition is supported in holo.");
+					}
+					String partValue = exprToValue.get(rs.getString("part_expr"));
+					if (partValue == null || ret.containsKey(partValue)) {
+						continue;
+					}
+					Partition partition = new Partition();
+					partition.setParentSchemaName(schemaName);
+					partition.setParentTableName(tableName);
+					partition.setSchemaName(rs.getString("schema_name"));
+					partition.setTableName(rs.getString("table_name"));
+					partition.setPartitionValue(partValue);
+					ret.put(partValue, partition);
+				}
+			}
+		}
+		return ret;
+	}
+
 	public static Partition retryCreatePartitionChildTable(Connection conn, String schemaName, String tableName, String partValue, boolean isStr) throws SQLException {
 
 		int retry = 0;
@@ -334,6 +390,33 @@ public class ConnectionUtil {
 		}
 	}
 
+	/**
+	 * 在一个事务中创建多个分区子表，子表名为 父表名_分区值；任何一个失败整个事务回滚.
+	 */
+	public static void createPartitionChildTables(Connection conn, String schemaName, String tableName, Collection<String> partValues, boolean isStr) throws SQLException {
+		boolean autoCommit = conn.getAutoCommit();
+		conn.setAutoCommit(false);
+		try (Statement stmt = conn.createStatement()) {
+			for (String partValue : partValues) {
+				String valueStr = isStr ? String.format("'%s'", partValue) : partValue;
+				stmt.addBatch(String.format("create table %s.%s partition of %s.%s for values in (%s)",
+						IdentifierUtil.quoteIdentifier(schemaName, true), IdentifierUtil.quoteIdentifier(String.format("%s_%s", tableName, partValue), true),
+						IdentifierUtil.quoteIdentifier(schemaName, true), IdentifierUtil.quoteIdentifier(tableName, true),
+						valueStr));
+			}
+			stmt.executeBatch();
+			conn.commit();
+		} catch (SQLException e) {
+			try {
+				conn.rollback();
+			} catch (SQLException ignore) {
+			}
+			throw e;
+		} finally {
+			conn.setAutoCommit(autoCommit);
+		}
+	}
+
 	public static TableSchema getTableSchema(Connection conn, TableName tableName) throws SQLException {
 		String[] columns = null;
 		int[] types = null;
@@ -4,6 +4,8 @@
 
 package com.alibaba.hologres.client.model;
 
+import com.alibaba.hologres.client.copy.CopySegment;
+import com.alibaba.hologres.client.copy.RecordBinaryOutputStream;
 import com.alibaba.hologres.client.exception.HoloClientException;
 import com.alibaba.hologres.client.impl.copy.CopyContext;
 import org.postgresql.jdbc.TimestampUtils;
@@ -25,8 +27,19 @@ public class ImportContext {
 	private OutputStream[] ostreams;
 	private CopyContext[] copyContexts;
 	private int shardCount;
+	private boolean binary;
+	/**
+	 * binary格式时每个OutputStream是否已经写过header.
+	 */
+	private boolean[] headerWritten;
 
 	public ImportContext(NavigableMap<Integer, Integer> shardMap, CompletableFuture<Long>[] rowCounts, CopyContext[] copyContexts, OutputStream[] ostreams, int shardCount) {
+		this(shardMap, rowCounts, copyContexts, ostreams, shardCount, false);
+	}
+
+	public ImportContext(NavigableMap<Integer, Integer> shardMap, CompletableFuture<Long>[] rowCounts, CopyContext[] copyContexts, OutputStream[] ostreams, int shardCount, boolean binary) {
+		this.binary = binary;
+		this.headerWritten = new boolean[ostreams.length];
 		this.shardMap = shardMap;
 		this.rowCounts = rowCounts;
 		this.ostreams = ostreams;
@@ -43,6 +56,29 @@ public class ImportContext {
 		return ostreams[shardMap.floorEntry(shardId).getValue()];
 	}
 
+	/**
+	 * 把生产者线程编码好的CopySegment写入对应shard的copy连接，可以被多个线程同时调用.
+	 * 同一个copy连接的写入是互斥的，保证segment不会交错；第一次写入时先写header.
+	 */
+	public void writeSegment(CopySegment segment) throws IOException {
+		if (!binary) {
+			throw new IOException("writeSegment requires Importer with binary=true");
+		}
+		int index = shardMap.floorEntry(segment.getShardId()).getValue();
+		OutputStream os = ostreams[index];
+		synchronized (os) {
+			if (!headerWritten[index]) {
+				RecordBinaryOutputStream.writeHeader(os);
+				headerWritten[index] = true;
+			}
+			os.write(segment.getBytes());
+		}
+	}
+
+	public boolean isBinary() {
+		return binary;
+	}
+
 	public void cancel() throws HoloClientException {
 		try {
 			for (CopyContext copyContext : copyContexts) {
@@ -61,8 +97,21 @@ public class ImportContext {
 		return this.shardCount;
 	}
 
+	/**
+	 * 关闭所有copy连接的OutputStream.
+	 * binary格式时没有收到任何segment的连接也要先写header，否则服务端会因为空的binary数据拒绝这次copy.
+	 */
 	public void closeOstreams() throws IOException {
-		for (OutputStream os : ostreams) {
+		for (int i = 0; i < ostreams.length; ++i) {
+			OutputStream os = ostreams[i];
+			if (binary) {
+				synchronized (os) {
+					if (!headerWritten[i]) {
+						RecordBinaryOutputStream.writeHeader(os);
+						headerWritten[i] = true;
+					}
+				}
+			}
 			os.close();
 		}
 	}
@@ -6,13 +6,10 @@ package com.alibaba.hologres.client.model;
 
 import com.alibaba.hologres.client.Put;
 import com.alibaba.hologres.client.Trace;
-import org.postgresql.jdbc.ArrayUtil;
-import org.postgresql.jdbc.PgArray;
-import org.postgresql.util.PGobject;
+import com.alibaba.hologres.client.utils.MemorySizeUtil;
 
 import java.io.Serializable;
 import java.security.InvalidParameterException;
-import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
@@ -41,6 +38,9 @@ public class Record implements Serializable {
 	Put.MutationType type = Put.MutationType.INSERT;
 	int shardId = -1;
 
+	/**
+	 * 估算的堆内存占用，包括Record本身、所有列值以及putFutures，见MemorySizeUtil.
+	 */
 	long byteSize = 0;
 
 	/**
@@ -129,6 +129,7 @@ public class Record implements Serializable {
 		bitSet = new BitSet(schema.getColumnSchema().length);
 		onlyInsertColumnSet = new BitSet(schema.getColumnSchema().length);
 		values = new Object[schema.getColumnSchema().length];
+		byteSize = getBaseByteSize(values.length);
 	}
 
 	public boolean isSet(int index) {
@@ -139,77 +140,11 @@ public class Record implements Serializable {
 		return byteSize;
 	}
 
-	private long getObjByteSize(int index, Object obj) {
-		if (obj == null) {
-			return 4;
-		}
-		long ret = 0;
-		Column column = schema.getColumnSchema()[index];
-		switch (column.getType()) {
-			case Types.BOOLEAN:
-			case Types.TINYINT:
-			case Types.BIT:
-				ret = 1;
-				break;
-			case Types.SMALLINT:
-				ret = 2;
-				break;
-			case Types.BIGINT:
-			case Types.DOUBLE:
-				ret = 8;
-				break;
-			case Types.TIMESTAMP:
-			case Types.TIME_WITH_TIMEZONE:
-				ret = 12;
-				break;
-			case Types.NUMERIC:
-			case Types.DECIMAL:
-				ret = 24;
-				break;
-			case Types.CHAR:
-			case Types.VARCHAR:
-				ret = String.valueOf(obj).length();
-				break;
-			case Types.ARRAY:
-				if (obj instanceof int[]) {
-					ret = ((int[]) obj).length * 4L;
-				} else if (obj instanceof long[]) {
-					ret = ((long[]) obj).length * 8L;
-				} else if (obj instanceof float[]) {
-					ret = ((float[]) obj).length * 4L;
-				} else if (obj instanceof double[]) {
-					ret = ((double[]) obj).length * 8L;
-				} else if (obj instanceof boolean[]) {
-					ret = ((boolean[]) obj).length;
-				} else if (obj instanceof String[]) {
-					ret = ArrayUtil.getArrayLength((String[]) obj);
-				} else if (obj instanceof Object[]) {
-					ret = ArrayUtil.getArrayLength((Object[]) obj, column.getTypeName());
-				} else if (obj instanceof List) {
-					ret = ArrayUtil.getArrayLength((List<?>) obj, column.getTypeName());
-				} else if (obj instanceof PgArray) {
-					ret = ArrayUtil.getArrayLength((PgArray) obj);
-				} else {
-					ret = 1024;
-				}
-				break;
-			default:
-				if ("json".equalsIgnoreCase(column.getTypeName()) || "jsonb".equalsIgnoreCase(column.getTypeName())) { // json, jsonb 等类型
-					ret = String.valueOf(obj).length();
-					break;
-				}
-				if (obj instanceof PGobject) { // PGmoney 等类型
-					PGobject pObj = (PGobject) obj;
-					if (pObj.getValue() != null) {
-						ret = pObj.getValue().length();
-					}
-				} else if (obj instanceof byte[]) { // RoaringBitmap, bytea 等类型
-					ret = ((byte[]) obj).length;
-				} else {
-					ret = 4;
-				}
-		}
-		return ret;
+	/**
+	 * Record本身、values数组和两个BitSet占用的内存.
+	 */
+	private static long getBaseByteSize(int columnCount) {
+		return MemorySizeUtil.shallowSize(Record.class) + MemorySizeUtil.arraySize(columnCount, MemorySizeUtil.REFERENCE) + 2 * MemorySizeUtil.bitSetSize(columnCount);
 	}
 
 	public TableName getTableName() {
@@ -220,9 +155,9 @@ public class Record implements Serializable {
 		Object old = values[index];
 		long minus = 0L;
 		if (isSet(index)) {
-			minus = getObjByteSize(index, old);
+			minus = MemorySizeUtil.sizeOf(old);
 		}
-		long add = getObjByteSize(index, obj);
+		long add = MemorySizeUtil.sizeOf(obj);
 		byteSize = byteSize + add - minus;
 		values[index] = obj;
 		bitSet.set(index);
@@ -267,6 +202,7 @@ public class Record implements Serializable {
 		}
 		putFutures = new ArrayList<>(2);
 		putFutures.add(future);
+		byteSize += MemorySizeUtil.shallowSize(ArrayList.class) + MemorySizeUtil.arraySize(2, MemorySizeUtil.REFERENCE) + MemorySizeUtil.PUT_FUTURE_SIZE;
 	}
 
 	/**
@@ -288,6 +224,9 @@ public class Record implements Serializable {
 		this.addAttachmentList(record.attachmentList);
 
 		//merge putFutures
+		if (record.putFutures != null) {
+			byteSize += record.putFutures.size() * MemorySizeUtil.PUT_FUTURE_SIZE;
+		}
 		if (putFutures == null) {
 			if (record.putFutures != null) {
 				this.putFutures = new ArrayList<>(record.putFutures);
@@ -319,6 +258,7 @@ public class Record implements Serializable {
 		}
 		//cover putFutures
 		if (record.putFutures != null) {
+			byteSize += record.putFutures.size() * MemorySizeUtil.PUT_FUTURE_SIZE;
 			List<CompletableFuture<Void>> origins = record.putFutures;
 			if (this.putFutures != null) {
 				origins.addAll(this.putFutures);
@@ -7,9 +7,11 @@ package com.alibaba.hologres.client.model;
 /**
  * 写入失败时的策略.
  * TRY_ONE_BY_ONE，会将攒批提交退化为逐条提交
+ * TRY_BISECT，把失败的批次递归二分后重新提交，k条脏数据大约需要k*log(n)次提交
  * NONE，抛异常，什么都不做
  */
 public enum WriteFailStrategy {
 	TRY_ONE_BY_ONE,
+	TRY_BISECT,
 	NONE
 }
@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.utils;
+
+import org.postgresql.jdbc.PgArray;
+import org.postgresql.util.PGobject;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 对象堆内存大小的估算.
+ * 按64位JVM开启压缩指针(堆小于32G)计算：对象头12字节，数组头16字节，引用4字节，按8字节对齐.
+ * sizeOf只处理写入时常见的值类型，不反射，开销和值的大小成正比；retainedSize通过反射遍历对象图，只用于诊断和测试.
+ */
+public class MemorySizeUtil {
+	public static final int OBJECT_HEADER = 12;
+	public static final int ARRAY_HEADER = 16;
+	public static final int REFERENCE = 4;
+
+	/**
+	 * JDK9以后，只包含latin1字符的String每个字符只占1字节.
+	 */
+	private static final boolean COMPACT_STRINGS = !System.getProperty("java.specification.version", "1.8").startsWith("1.");
+
+	private static final Map<Class<?>, Long> SHALLOW_SIZE_MAP = new ConcurrentHashMap<>();
+
+	private static final long STRING_SIZE = shallowSize(String.class);
+	private static final long BIG_DECIMAL_SIZE = shallowSize(BigDecimal.class);
+	private static final long BIG_INTEGER_SIZE = shallowSize(BigInteger.class);
+	private static final long ARRAY_LIST_SIZE = shallowSize(ArrayList.class);
+	private static final long BIT_SET_SIZE = shallowSize(BitSet.class);
+	private static final long PG_OBJECT_SIZE = shallowSize(PGobject.class);
+	private static final long LOCAL_DATE_TIME_SIZE = shallowSize(LocalDateTime.class) + shallowSize(LocalDate.class) + shallowSize(LocalTime.class);
+
+	/**
+	 * 一个put对应的CompletableFuture以及它在putFutures列表中的引用.
+	 */
+	public static final long PUT_FUTURE_SIZE = shallowSize(CompletableFuture.class) + REFERENCE;
+
+	private MemorySizeUtil() {
+	}
+
+	public static long align(long size) {
+		return (size + 7L) & ~7L;
+	}
+
+	public static long arraySize(int length, int elementSize) {
+		return align(ARRAY_HEADER + (long) length * elementSize);
+	}
+
+	/**
+	 * 长度为nbits的BitSet占用的内存.
+	 */
+	public static long bitSetSize(int nbits) {
+		return BIT_SET_SIZE + arraySize((nbits + 63) >>> 6, 8);
+	}
+
+	/**
+	 * UTF-8编码后的字节数，不需要真的编码.
+	 * 先按ASCII快速扫描，遇到非ASCII字符再按码点计算；不成对的代理字符按'?'计1字节，和String.getBytes一致.
+	 */
+	public static int utf8Length(CharSequence s) {
+		int len = s.length();
+		int i = 0;
+		while (i < len && s.charAt(i) < 0x80) {
+			++i;
+		}
+		int ret = i;
+		for (; i < len; ++i) {
+			char c = s.charAt(i);
+			if (c < 0x80) {
+				ret += 1;
+			} else if (c < 0x800) {
+				ret += 2;
+			} else if (Character.isSurrogate(c)) {
+				if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+					ret += 4;
+					++i;
+				} else {
+					ret += 1;
+				}
+			} else {
+				ret += 3;
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * String占用的内存.
+	 * 写入时字符串会被编码成UTF-8，因此内容部分取堆上大小和UTF-8大小中较大的一个.
+	 */
+	public static long stringSize(String s) {
+		int len = s.length();
+		int utf8 = utf8Length(s);
+		long heap = COMPACT_STRINGS && utf8 == len ? len : len * 2L;
+		return STRING_SIZE + align(ARRAY_HEADER + Math.max(heap, utf8));
+	}
+
+	/**
+	 * 一个列值占用的内存，null返回0.
+	 *
+	 * @param obj 列值
+	 * @return 字节数
+	 */
+	public static long sizeOf(Object obj) {
+		if (obj == null) {
+			return 0L;
+		}
+		if (obj instanceof String) {
+			return stringSize((String) obj);
+		} else if (obj instanceof Integer || obj instanceof Short || obj instanceof Byte || obj instanceof Boolean
+				|| obj instanceof Float || obj instanceof Character) {
+			return 16L;
+		} else if (obj instanceof Long || obj instanceof Double) {
+			return 24L;
+		} else if (obj instanceof BigDecimal) {
+			BigDecimal decimal = (BigDecimal) obj;
+			// 超过long范围时unscaledValue保存在BigInteger中，log2(10)/32约等于0.104
+			int precision = decimal.precision();
+			return precision > 18 ? BIG_DECIMAL_SIZE + BIG_INTEGER_SIZE + arraySize(precision * 107 / 1024 + 1, 4) : BIG_DECIMAL_SIZE;
+		} else if (obj instanceof BigInteger) {
+			return BIG_INTEGER_SIZE + arraySize((((BigInteger) obj).bitLength() >>> 5) + 1, 4);
+		} else if (obj instanceof byte[]) {
+			return arraySize(((byte[]) obj).length, 1);
+		} else if (obj instanceof int[]) {
+			return arraySize(((int[]) obj).length, 4);
+		} else if (obj instanceof long[]) {
+			return arraySize(((long[]) obj).length, 8);
+		} else if (obj instanceof float[]) {
+			return arraySize(((float[]) obj).length, 4);
+		} else if (obj instanceof double[]) {
+			return arraySize(((double[]) obj).length, 8);
+		} else if (obj instanceof boolean[]) {
+			return arraySize(((boolean[]) obj).length, 1);
+		} else if (obj instanceof short[]) {
+			return arraySize(((short[]) obj).length, 2);
+		} else if (obj instanceof char[]) {
+			return arraySize(((char[]) obj).length, 2);
+		} else if (obj instanceof Object[]) {
+			Object[] array = (Object[]) obj;
+			long ret = arraySize(array.length, REFERENCE);
+			for (Object element : array) {
+				ret += sizeOf(element);
+			}
+			return ret;
+		} else if (obj instanceof Collection) {
+			Collection<?> collection = (Collection<?>) obj;
+			long ret = ARRAY_LIST_SIZE + arraySize(collection.size(), REFERENCE);
+			for (Object element : collection) {
+				ret += sizeOf(element);
+			}
+			return ret;
+		} else if (obj instanceof LocalDateTime) {
+			return LOCAL_DATE_TIME_SIZE;
+		} else if (obj instanceof OffsetDateTime || obj instanceof ZonedDateTime) {
+			//offset和zone一般是共享的
+			return shallowSize(obj.getClass()) + LOCAL_DATE_TIME_SIZE;
+		} else if (obj instanceof PGobject) {
+			PGobject pgObject = (PGobject) obj;
+			return PG_OBJECT_SIZE + (pgObject.getValue() == null ? 0L : stringSize(pgObject.getValue()));
+		} else if (obj instanceof PgArray) {
+			String text = obj.toString();
+			return shallowSize(obj.getClass()) + (text == null ? 1024L : stringSize(text));
+		} else {
+			// Date、Timestamp、LocalDate等没有引用其他对象的类型
+			return shallowSize(obj.getClass());
+		}
+	}
+
+	/**
+	 * 一个类的实例本身占用的内存(不包括引用的对象)，按字段类型累加，结果会缓存.
+	 */
+	public static long shallowSize(Class<?> clazz) {
+		Long size = SHALLOW_SIZE_MAP.get(clazz);
+		if (size == null) {
+			long ret = OBJECT_HEADER;
+			for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+				for (Field field : c.getDeclaredFields()) {
+					if (!Modifier.isStatic(field.getModifiers())) {
+						ret += fieldSize(field.getType());
+					}
+				}
+			}
+			size = align(ret);
+			SHALLOW_SIZE_MAP.put(clazz, size);
+		}
+		return size;
+	}
+
+	/**
+	 * 通过反射遍历对象图，计算root可达的所有对象占用的内存，同一个对象只算一次.
+	 * JDK9以后无法访问的JDK内部字段只计算对象本身，String直接按stringSize计算.
+	 * 开销很大，只用于诊断和测试.
+	 *
+	 * @param root 根对象
+	 * @return 字节数
+	 */
+	public static long retainedSize(Object root) {
+		if (root == null) {
+			return 0L;
+		}
+		Map<Object, Boolean> visited = new IdentityHashMap<>();
+		Deque<Object> stack = new ArrayDeque<>();
+		stack.push(root);
+		long ret = 0L;
+		while (!stack.isEmpty()) {
+			Object obj = stack.pop();
+			if (visited.put(obj, Boolean.TRUE) != null) {
+				continue;
+			}
+			Class<?> clazz = obj.getClass();
+			if (obj instanceof String) {
+				ret += stringSize((String) obj);
+			} else if (clazz.isArray()) {
+				Class<?> componentType = clazz.getComponentType();
+				int length = java.lang.reflect.Array.getLength(obj);
+				if (componentType.isPrimitive()) {
+					ret += arraySize(length, fieldSize(componentType));
+				} else {
+					ret += arraySize(length, REFERENCE);
+					for (Object element : (Object[]) obj) {
+						if (element != null) {
+							stack.push(element);
+						}
+					}
+				}
+			} else {
+				ret += shallowSize(clazz);
+				for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+					for (Field field : c.getDeclaredFields()) {
+						if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+							continue;
+						}
+						try {
+							field.setAccessible(true);
+							Object value = field.get(obj);
+							if (value != null) {
+								stack.push(value);
+							}
+						} catch (RuntimeException | IllegalAccessException e) {
+							//JDK内部字段不可访问时跳过
+						}
+					}
+				}
+			}
+		}
+		return ret;
+	}
+
+	private static int fieldSize(Class<?> type) {
+		if (type == long.class || type == double.class) {
+			return 8;
+		} else if (type == int.class || type == float.class) {
+			return 4;
+		} else if (type == short.class || type == char.class) {
+			return 2;
+		} else if (type == byte.class || type == boolean.class) {
+			return 1;
+		} else {
+			return REFERENCE;
+		}
+	}
+}
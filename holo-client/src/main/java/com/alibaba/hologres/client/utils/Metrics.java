@@ -26,6 +26,13 @@ public class Metrics {
 	public static final String METRICS_WRITE_RPS = "write_rps";
 	public static final String METRICS_WRITE_SQL_PER_BATCH = "write_sql_per_batch";
 	public static final String METRICS_WRITE_LATENCY = "write_latency";
+	public static final String METRICS_WRITE_BUFFERED_BYTES = "write_buffered_bytes_";
+	public static final String METRICS_WRITE_BACK_PRESSURE_MS = "write_back_pressure_ms_";
+	public static final String METRICS_WRITE_BACK_PRESSURE_REJECT = "write_back_pressure_reject_";
+	public static final String METRICS_WRITE_ADAPTIVE_BATCH_SIZE = "write_adaptive_batch_size_";
+	public static final String METRICS_WRITE_ADAPTIVE_SHARD_COUNT = "write_adaptive_shard_count_";
+	public static final String METRICS_WRITE_ADAPTIVE_LATENCY_MS = "write_adaptive_latency_ms_";
+	public static final String METRICS_WRITE_ADAPTIVE_RPS = "write_adaptive_rps_";
 
 	public static final String METRICS_WRITE_COST_MS_ALL = "write_cost_ms";
 	public static final String METRICS_SCAN_COST_MS_ALL = "scan_cost_ms";
@@ -43,6 +50,23 @@ public class Metrics {
 	public static final String METRICS_DIMLOOKUP_LATENCY = "dimlookup_latency_";
 	public static final String METRICS_DIMLOOKUP_RPS_ALL = "dimlookup_all_rps";
 
+	public static final String METRICS_BINLOG_READ_LSN = "binlog_read_lsn_";
+	public static final String METRICS_BINLOG_COMMITTED_LSN = "binlog_committed_lsn_";
+	public static final String METRICS_BINLOG_LAG_MS = "binlog_lag_ms_";
+	public static final String METRICS_BINLOG_QUEUE_SIZE = "binlog_queue_size_";
+	public static final String METRICS_BINLOG_DECODE_RPS = "binlog_decode_rps_";
+	public static final String METRICS_BINLOG_READ_BPS = "binlog_read_bps_";
+
+	public static final String METRICS_BINLOG_REPLICATE_RPS = "binlog_replicate_rps_";
+	public static final String METRICS_BINLOG_REPLICATE_APPLY_RPS = "binlog_replicate_apply_rps_";
+	public static final String METRICS_BINLOG_REPLICATE_APPLY_LATENCY = "binlog_replicate_apply_latency_";
+	public static final String METRICS_BINLOG_REPLICATE_LAG_MS = "binlog_replicate_lag_ms_";
+
+	public static final String METRICS_RETRY = "retry_";
+	public static final String METRICS_RETRY_BUDGET_EXHAUSTED = "retry_budget_exhausted_";
+	public static final String METRICS_CIRCUIT_BREAKER_STATE = "circuit_breaker_state_";
+	public static final String METRICS_CIRCUIT_BREAKER_REJECT = "circuit_breaker_reject_";
+
 	private static final Logger log = LoggerFactory.getLogger(Metrics.class);
 	private static final MetricRegistry registry;
 	private static final Slf4jReporter reporter;
@@ -15,17 +15,222 @@ import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * check Input Value is valid.
  * - CONSTRAINT VIOLATION
+ * 每个TableSchema编译一次，每一列按列类型生成校验函数，常见的类型只做一次instanceof和边界判断；
+ * 快速校验不通过时再走原来按值类型分发的checkObject，报错信息保持不变.
  */
 public class RecordChecker {
+
+	/**
+	 * 超过这么多条的batch在并行校验时才拆分.
+	 */
+	static final int PARALLEL_CHUNK_SIZE = 1024;
+
+	/**
+	 * 每个线程缓存最近一次编译的结果，供静态的check方法使用.
+	 */
+	private static final ThreadLocal<RecordChecker> LAST_CHECKER = new ThreadLocal<>();
+
+	/**
+	 * 一列的快速校验.
+	 */
+	interface ColumnValidator {
+		/**
+		 * @return true表示合法；false表示需要走checkObject，可能合法也可能报错
+		 */
+		boolean accept(Object value);
+	}
+
+	private final TableSchema schema;
+	private final Column[] columns;
+	private final ColumnValidator[] validators;
+
+	private RecordChecker(TableSchema schema) {
+		this.schema = schema;
+		this.columns = schema.getColumnSchema();
+		this.validators = new ColumnValidator[columns.length];
+		for (int i = 0; i < columns.length; ++i) {
+			validators[i] = compile(columns[i]);
+		}
+	}
+
+	/**
+	 * 为TableSchema编译校验函数，结果可以在多个线程中复用.
+	 */
+	public static RecordChecker compile(TableSchema schema) {
+		return new RecordChecker(schema);
+	}
+
 	public static void check(Record record) throws HoloClientException {
 		TableSchema schema = record.getSchema();
-		for (int i = 0; i < schema.getColumnSchema().length; ++i) {
-			checkObject(schema, schema.getColumn(i), record.getObject(i));
+		RecordChecker checker = LAST_CHECKER.get();
+		if (checker == null || checker.schema != schema) {
+			checker = compile(schema);
+			LAST_CHECKER.set(checker);
+		}
+		checker.validate(record);
+	}
+
+	public TableSchema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * 校验一条record，record的schema和编译时不同时按record的schema重新编译.
+	 */
+	public void validate(Record record) throws HoloClientException {
+		if (record.getSchema() != schema) {
+			compile(record.getSchema()).validate(record);
+			return;
+		}
+		Object[] values = record.getValues();
+		for (int i = 0; i < validators.length; ++i) {
+			Object value = values[i];
+			if (!validators[i].accept(value)) {
+				checkObject(schema, columns[i], value);
+			}
+		}
+	}
+
+	/**
+	 * 按顺序校验一批record，遇到第一条不合法的record时抛出异常.
+	 */
+	public void validate(List<Record> records) throws HoloClientException {
+		validate(records, false);
+	}
+
+	/**
+	 * 校验一批record，抛出的总是下标最小的不合法record的异常.
+	 *
+	 * @param parallel 为true且record数超过PARALLEL_CHUNK_SIZE时，按PARALLEL_CHUNK_SIZE拆分后在ForkJoinPool.commonPool中并行校验
+	 */
+	public void validate(List<Record> records, boolean parallel) throws HoloClientException {
+		int size = records.size();
+		if (!parallel || size <= PARALLEL_CHUNK_SIZE) {
+			for (Record record : records) {
+				validate(record);
+			}
+			return;
+		}
+		int chunks = (size + PARALLEL_CHUNK_SIZE - 1) / PARALLEL_CHUNK_SIZE;
+		int invalid = IntStream.range(0, chunks).parallel()
+				.map(chunk -> firstInvalid(records, chunk * PARALLEL_CHUNK_SIZE, Math.min(size, (chunk + 1) * PARALLEL_CHUNK_SIZE)))
+				.filter(index -> index >= 0)
+				.min()
+				.orElse(-1);
+		if (invalid >= 0) {
+			validate(records.get(invalid));
+		}
+	}
+
+	private int firstInvalid(List<Record> records, int from, int to) {
+		for (int i = from; i < to; ++i) {
+			try {
+				validate(records.get(i));
+			} catch (HoloClientException | RuntimeException e) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static ColumnValidator compile(Column column) {
+		ColumnValidator notNull = compileNotNull(column);
+		boolean nullable = Boolean.TRUE.equals(column.getAllowNull()) || column.getDefaultValue() != null;
+		return value -> value == null ? nullable : notNull.accept(value);
+	}
+
+	/**
+	 * 和checkObject中不会报错的分支保持一致，其余的都返回false.
+	 */
+	private static ColumnValidator compileNotNull(Column column) {
+		String typeName = column.getTypeName();
+		switch (column.getType()) {
+			case Types.SMALLINT:
+				return value -> value instanceof Short;
+			case Types.INTEGER:
+				return value -> value instanceof Integer || value instanceof Short;
+			case Types.BIGINT:
+				return value -> value instanceof Long || value instanceof Integer || value instanceof Short;
+			case Types.NUMERIC:
+				if (column.getPrecision() > 0 && column.getPrecision() >= column.getScale()) {
+					int integerDigits = column.getPrecision() - column.getScale();
+					return value -> value instanceof BigDecimal && ((BigDecimal) value).precision() - ((BigDecimal) value).scale() <= integerDigits;
+				}
+				return value -> value instanceof BigDecimal;
+			case Types.REAL:
+				return value -> value instanceof Float;
+			case Types.DOUBLE:
+				return value -> value instanceof Double;
+			case Types.BIT:
+				if (!"bool".equals(typeName)) {
+					return value -> false;
+				}
+				return value -> value instanceof Boolean;
+			case Types.BOOLEAN:
+				return value -> value instanceof Boolean;
+			case Types.DATE:
+				return value -> value instanceof Date && !(value instanceof Timestamp);
+			case Types.TIMESTAMP:
+			case Types.TIMESTAMP_WITH_TIMEZONE:
+				return value -> value instanceof Timestamp;
+			case Types.VARCHAR:
+			case Types.CHAR:
+				if (column.getPrecision() > 0) {
+					int precision = column.getPrecision();
+					return value -> value instanceof String && ((String) value).length() <= precision && ((String) value).indexOf('\u0000') < 0;
+				}
+				return value -> value instanceof String && ((String) value).indexOf('\u0000') < 0;
+			case Types.BINARY:
+				return value -> value instanceof byte[];
+			case Types.OTHER:
+				if ("json".equals(typeName) || "jsonb".equals(typeName)) {
+					return value -> value instanceof String && ((String) value).indexOf('\u0000') < 0 && !((String) value).contains("\\u0000");
+				} else if ("roaringbitmap".equals(typeName)) {
+					return value -> value instanceof byte[];
+				}
+				return value -> false;
+			case Types.ARRAY:
+				return compileArray(column);
+			default:
+				return value -> false;
+		}
+	}
+
+	private static ColumnValidator compileArray(Column column) {
+		switch (column.getTypeName()) {
+			case "_int4":
+				return value -> value instanceof int[];
+			case "_int8":
+				return value -> value instanceof long[];
+			case "_float4":
+				return value -> value instanceof float[];
+			case "_float8":
+				return value -> value instanceof double[];
+			case "_bool":
+				return value -> value instanceof boolean[];
+			case "_text":
+				return value -> value instanceof String[] && acceptStrings((String[]) value, -1);
+			case "_varchar":
+				int precision = column.getPrecision() > 0 ? column.getPrecision() : -1;
+				return value -> value instanceof String[] && acceptStrings((String[]) value, precision);
+			default:
+				return value -> false;
+		}
+	}
+
+	private static boolean acceptStrings(String[] values, int precision) {
+		for (String str : values) {
+			if (str == null || str.indexOf('\u0000') >= 0 || (precision > 0 && str.length() > precision)) {
+				return false;
+			}
 		}
+		return true;
 	}
 
 	private static void throwConstraintViolationException(TableSchema schema, Column column, Object value, String msg, Exception e) throws HoloClientException {
@@ -30,6 +30,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -1819,6 +1820,96 @@ public class BinlogReaderTest extends HoloClientTestBase {
 		}
 	}
 
+	/**
+	 * binlogGroupShardReader.
+	 * 一个reader同时消费多张表，并按表commit
+	 */
+	@Test
+	public void binlogReader038() throws Exception {
+		if (properties == null || holoVersion.compareTo(needVersion) < 0) {
+			return;
+		}
+		HoloConfig config = buildConfig();
+		config.setWriteMode(WriteMode.INSERT_OR_REPLACE);
+		config.setWriteThreadSize(5);
+
+		try (Connection conn = buildConnection(); HoloClient client = new HoloClient(config)) {
+			int tableCount = 3;
+			int rowCount = 1000;
+			String[] tableNames = new String[tableCount];
+			String[] slotNames = new String[tableCount];
+			String[] dropSqls = new String[tableCount * 3];
+			for (int t = 0; t < tableCount; ++t) {
+				String tableName = "holo_client_binlog_reader_038_" + t;
+				String publicationName = "holo_client_binlog_reader_038_" + t + "_publication_test";
+				String slotName = "holo_client_binlog_reader_038_" + t + "_slot_1";
+				tableNames[t] = tableName;
+				slotNames[t] = slotName;
+
+				String dropSql1 = "drop table if exists " + tableName + "; drop publication if exists " + publicationName + ";\n";
+				String dropSql2 = "delete from hologres.hg_replication_progress where slot_name='" + slotName + "';\n";
+				String dropSql3 = "call hg_drop_logical_replication_slot('" + slotName + "');";
+				String createSql2 = "create table " + tableName
+						+ "(id int not null, t text, primary key(id));\n "
+						+ "call set_table_property('" + tableName + "', 'binlog.level', 'replica');\n"
+						+ "call set_table_property('" + tableName + "', 'shard_count', '" + (t + 1) + "');\n";
+				String createSql3 = "create publication " + publicationName + " for table " + tableName + ";\n";
+				String createSql4 = "call hg_create_logical_replication_slot('" + slotName + "', 'hgoutput', '" + publicationName + "');\n";
+				dropSqls[t * 3] = dropSql1;
+				dropSqls[t * 3 + 1] = dropSql2;
+				dropSqls[t * 3 + 2] = dropSql3;
+
+				execute(conn, new String[]{CREATE_EXTENSION_SQL, dropSql1});
+				tryExecute(conn, new String[]{dropSql2, dropSql3});
+				execute(conn, new String[]{"begin;", createSql2, "commit;", createSql3});
+				execute(conn, new String[]{createSql4});
+			}
+
+			BinlogShardGroupReader reader = null;
+
+			try {
+				List<Subscribe> subscribes = new ArrayList<>();
+				for (int t = 0; t < tableCount; ++t) {
+					TableSchema schema = client.getTableSchema(tableNames[t], true);
+					for (int i = 0; i < rowCount; ++i) {
+						Put put = new Put(schema);
+						put.setObject("id", i);
+						put.setObject("t", tableNames[t]);
+						client.put(put);
+					}
+					subscribes.add(Subscribe.newStartTimeBuilder(tableNames[t], slotNames[t]).build());
+				}
+				client.flush();
+
+				reader = client.binlogSubscribe(subscribes);
+
+				Map<String, Integer> countByTable = new HashMap<>();
+				int count = 0;
+				BinlogRecord record;
+				while ((record = reader.getBinlogRecord()) != null) {
+					String tableName = record.getSchema().getTableNameObj().getTableName();
+					Assert.assertEquals(record.getObject("t"), tableName);
+					countByTable.merge(tableName, 1, Integer::sum);
+					if (++count == rowCount * tableCount) {
+						for (int t = 0; t < tableCount; ++t) {
+							reader.commit(tableNames[t], 5000L);
+						}
+						reader.cancel();
+						break;
+					}
+				}
+				for (int t = 0; t < tableCount; ++t) {
+					Assert.assertEquals(countByTable.get(tableNames[t]).intValue(), rowCount);
+				}
+			} finally {
+				if (reader != null) {
+					reader.cancel();
+				}
+				execute(conn, dropSqls);
+			}
+		}
+	}
+
 	@DataProvider(name = "typeCaseDataWithRecord")
 	public Object[][] createDataForReadBinlog() {
 		HoloConfig config = buildConfig();
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client;
+
+import com.alibaba.hologres.client.impl.binlog.BinlogEventType;
+import com.alibaba.hologres.client.model.Column;
+import com.alibaba.hologres.client.model.Record;
+import com.alibaba.hologres.client.model.TableName;
+import com.alibaba.hologres.client.model.TableSchema;
+import com.alibaba.hologres.client.model.binlog.BinlogRecord;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BinlogReplicator单元测试用例.
+ */
+public class BinlogReplicatorTest {
+
+	private static TableSchema buildSchema() {
+		return buildSchema("test_replicate");
+	}
+
+	private static TableSchema buildSchema(String tableName) {
+		TableSchema.Builder builder = new TableSchema.Builder();
+		builder.setTableName(TableName.valueOf(tableName));
+		List<Column> columns = new ArrayList<>();
+		Column id = new Column();
+		id.setName("id");
+		id.setType(Types.INTEGER);
+		id.setTypeName("int4");
+		id.setPrimaryKey(true);
+		columns.add(id);
+		Column name = new Column();
+		name.setName("name");
+		name.setType(Types.VARCHAR);
+		name.setTypeName("text");
+		name.setPrimaryKey(false);
+		columns.add(name);
+		builder.setColumns(columns);
+		builder.setDistributionKeys(new String[]{"id"});
+		TableSchema schema = builder.build();
+		schema.calculateProperties();
+		return schema;
+	}
+
+	private static BinlogRecord binlog(TableSchema schema, long lsn, BinlogEventType type, int id, String name) {
+		BinlogRecord r = new BinlogRecord(schema, lsn, type, lsn * 1000L);
+		r.setObject(0, id);
+		r.setObject(1, name);
+		return r;
+	}
+
+	/**
+	 * 同一主键的多次变更合并为最终状态.
+	 */
+	@Test
+	public void testCollapse() {
+		TableSchema schema = buildSchema();
+		List<BinlogRecord> window = new ArrayList<>();
+		window.add(binlog(schema, 1, BinlogEventType.INSERT, 1, "a"));
+		window.add(binlog(schema, 2, BinlogEventType.BEFORE_UPDATE, 1, "a"));
+		window.add(binlog(schema, 3, BinlogEventType.AFTER_UPDATE, 1, "b"));
+		window.add(binlog(schema, 4, BinlogEventType.INSERT, 2, "c"));
+		window.add(binlog(schema, 5, BinlogEventType.DELETE, 2, "c"));
+		window.add(binlog(schema, 6, BinlogEventType.DELETE, 3, "d"));
+		window.add(binlog(schema, 7, BinlogEventType.INSERT, 3, "e"));
+
+		List<Record> changes = BinlogReplicator.collapse(window);
+		Assert.assertEquals(changes.size(), 3);
+		Assert.assertEquals(changes.get(0).getObject(0), 1);
+		Assert.assertEquals(changes.get(0).getObject(1), "b");
+		Assert.assertEquals(changes.get(0).getType(), Put.MutationType.INSERT);
+		Assert.assertEquals(changes.get(1).getObject(0), 2);
+		Assert.assertEquals(changes.get(1).getType(), Put.MutationType.DELETE);
+		Assert.assertEquals(changes.get(2).getObject(0), 3);
+		Assert.assertEquals(changes.get(2).getObject(1), "e");
+		Assert.assertEquals(changes.get(2).getType(), Put.MutationType.INSERT);
+	}
+
+	/**
+	 * 主键被修改时旧主键被删除.
+	 */
+	@Test
+	public void testKeyChange() {
+		TableSchema schema = buildSchema();
+		List<BinlogRecord> window = new ArrayList<>();
+		window.add(binlog(schema, 1, BinlogEventType.BEFORE_UPDATE, 1, "a"));
+		window.add(binlog(schema, 2, BinlogEventType.AFTER_UPDATE, 2, "a"));
+
+		List<Record> changes = BinlogReplicator.collapse(window);
+		Assert.assertEquals(changes.size(), 2);
+		Assert.assertEquals(changes.get(0).getObject(0), 1);
+		Assert.assertEquals(changes.get(0).getType(), Put.MutationType.DELETE);
+		Assert.assertEquals(changes.get(1).getObject(0), 2);
+		Assert.assertEquals(changes.get(1).getType(), Put.MutationType.INSERT);
+	}
+
+	/**
+	 * 不同表主键相同的行不会被合并.
+	 */
+	@Test
+	public void testCollapseMultiTable() {
+		TableSchema schema0 = buildSchema("test_replicate_0");
+		TableSchema schema1 = buildSchema("test_replicate_1");
+		List<BinlogRecord> window = new ArrayList<>();
+		window.add(binlog(schema0, 1, BinlogEventType.INSERT, 1, "a"));
+		window.add(binlog(schema1, 2, BinlogEventType.INSERT, 1, "b"));
+		window.add(binlog(schema0, 3, BinlogEventType.DELETE, 1, "a"));
+
+		List<Record> changes = BinlogReplicator.collapse(window);
+		Assert.assertEquals(changes.size(), 2);
+		Assert.assertEquals(changes.get(0).getTableName(), schema0.getTableNameObj());
+		Assert.assertEquals(changes.get(0).getType(), Put.MutationType.DELETE);
+		Assert.assertEquals(changes.get(1).getTableName(), schema1.getTableNameObj());
+		Assert.assertEquals(changes.get(1).getObject(1), "b");
+		Assert.assertEquals(changes.get(1).getType(), Put.MutationType.INSERT);
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client;
+
+import com.alibaba.hologres.client.impl.binlog.Committer;
+import com.alibaba.hologres.client.model.TableName;
+import com.alibaba.hologres.client.utils.Metrics;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * BinlogShardGroupReader单元测试用例.
+ */
+public class BinlogShardGroupReaderTest {
+
+	private static BinlogShardGroupReader buildReader(TableName tableName, String slotName) {
+		Map<Integer, Committer> shardCommitters = new HashMap<>();
+		shardCommitters.put(0, new Committer());
+		shardCommitters.put(1, new Committer());
+		Map<TableName, Map<Integer, Committer>> committerMap = new HashMap<>();
+		committerMap.put(tableName, shardCommitters);
+		BinlogShardGroupReader reader = new BinlogShardGroupReader(new HoloConfig(), Collections.emptyList(), 2, committerMap, new AtomicBoolean(true));
+		reader.registerMetrics(Collections.singletonMap(tableName, slotName));
+		return reader;
+	}
+
+	/**
+	 * 吞吐指标按shard注册，同一个slot的两个reader互不覆盖，close时只删除自己的指标.
+	 */
+	@Test
+	public void testMetricsPerShard() {
+		TableName tableName = TableName.valueOf("test_reader_metrics");
+		String prefix = tableName.getFullName() + "_slot_";
+		MetricRegistry registry = Metrics.registry();
+
+		BinlogShardGroupReader reader0 = buildReader(tableName, "slot");
+		BinlogShardGroupReader reader1 = buildReader(tableName, "slot");
+		try {
+			Meter shard0 = (Meter) registry.getMetrics().get(Metrics.METRICS_BINLOG_DECODE_RPS + prefix + 0);
+			Meter shard1 = (Meter) registry.getMetrics().get(Metrics.METRICS_BINLOG_DECODE_RPS + prefix + 1);
+			Assert.assertNotNull(shard0);
+			Assert.assertNotNull(shard1);
+			Assert.assertNotSame(shard0, shard1);
+			Assert.assertNotNull(registry.getMetrics().get(Metrics.METRICS_BINLOG_READ_BPS + prefix + 0));
+			Assert.assertNotNull(registry.getMetrics().get(Metrics.METRICS_BINLOG_DECODE_RPS + prefix + 0 + "#1"));
+
+			reader1.close();
+			Assert.assertSame(registry.getMetrics().get(Metrics.METRICS_BINLOG_DECODE_RPS + prefix + 0), shard0);
+			Assert.assertNull(registry.getMetrics().get(Metrics.METRICS_BINLOG_DECODE_RPS + prefix + 0 + "#1"));
+		} finally {
+			reader0.close();
+			reader1.close();
+		}
+		Assert.assertNull(registry.getMetrics().get(Metrics.METRICS_BINLOG_DECODE_RPS + prefix + 0));
+		Assert.assertNull(registry.getMetrics().get(Metrics.METRICS_BINLOG_LAG_MS + prefix + 1));
+	}
+}
@@ -6,6 +6,7 @@ package com.alibaba.hologres.client;
 
 import com.alibaba.hologres.client.model.TableSchema;
 import com.alibaba.hologres.client.model.WriteMode;
+import com.alibaba.hologres.client.utils.MemorySizeUtil;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -15,7 +16,7 @@ import java.util.List;
 
 /**
  * ByteSize计算测试.
- * 保证比较大的字段会计算，不保证完全精确
+ * 每个字段按MemorySizeUtil估算的堆内存累加
  */
 public class HoloClientByteSizeTest extends HoloClientTestBase {
 
@@ -57,49 +58,50 @@ public class HoloClientByteSizeTest extends HoloClientTestBase {
 					"primary key(a))";
 
 			execute(conn, new String[]{dropSql, createSql});
-			long byteSize = 0;
 			TableSchema schema = client.getTableSchema(tableName);
 			Put put = new Put(schema);
+			// Record本身、values数组以及BitSet的大小
+			long byteSize = put.getRecord().getByteSize();
 			put.setObject(0, 1);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 4);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(0)));
 			put.setObject(1, 2L);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 8);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(1)));
 			put.setObject(2, 3);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 2);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(2)));
 			put.setObject(3, 12.34);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 4);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(3)));
 			put.setObject(4, 123.456);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 8);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(4)));
 			put.setObject(5, true);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 1);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(5)));
 			put.setObject(6, "abcdefghijk");
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 11);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(6)));
 			put.setObject(7, 1234.5678);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 24);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(7)));
 			put.setObject(8, "2021-10-19");
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 4);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(8)));
 			put.setObject(9, "2021-10-19 08:08:08");
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 12);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(9)));
 			put.setObject(10, "2021-10-19 08:08:08");
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 12);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(10)));
 			put.setObject(11, "{\"a\":\"cccc\"}");
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 12);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(11)));
 			put.setObject(12, "{\"a\":\"ccccdddd\"}");
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 16);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(12)));
 			put.setObject(13, new byte[]{58, 48, 0, 0, 1, 0, 0, 0, 0, 0, 2, 0, 16, 0, 0, 0, 1, 0, 4, 0, 5, 0});
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 22);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(13)));
 			put.setObject(14, new int[]{58, 48, 38});
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 4 * 3);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(14)));
 			put.setObject(15, new long[]{58L, 48L});
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 8 * 2);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(15)));
 			put.setObject(16, new float[]{1.1f, 2.2f});
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 4 * 2);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(16)));
 			put.setObject(17, new double[]{1.1d, 2.2d, 3.3d});
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 8 * 3);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(17)));
 			put.setObject(18, new boolean[]{true, false, true});
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 3);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(18)));
 			put.setObject(19, new String[]{"aaaaa", "bbbbbb", "ccccccc"});
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += (5 + 6 + 7));
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(19)));
 
 			client.put(put);
 			System.out.println(put.getRecord().getByteSize());
@@ -149,49 +151,50 @@ public class HoloClientByteSizeTest extends HoloClientTestBase {
 					"primary key(a))";
 
 			execute(conn, new String[]{dropSql, createSql});
-			long byteSize = 0;
 			TableSchema schema = client.getTableSchema(tableName);
 			Put put = new Put(schema);
+			// Record本身、values数组以及BitSet的大小
+			long byteSize = put.getRecord().getByteSize();
 			put.setObject(0, 1);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 4);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(0)));
 			put.setObject(1, 2L);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 8);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(1)));
 			put.setObject(2, 3);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 2);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(2)));
 			put.setObject(3, 12.34);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 4);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(3)));
 			put.setObject(4, 123.456);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 8);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(4)));
 			put.setObject(5, true);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 1);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(5)));
 			put.setObject(6, "abcdefghijk");
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 11);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(6)));
 			put.setObject(7, 1234.5678);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 24);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(7)));
 			put.setObject(8, "2021-10-19");
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 4);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(8)));
 			put.setObject(9, "2021-10-19 08:08:08");
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 12);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(9)));
 			put.setObject(10, "2021-10-19 08:08:08");
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 12);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(10)));
 			put.setObject(11, "{\"a\":\"cccc\"}");
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 12);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(11)));
 			put.setObject(12, "{\"a\":\"ccccdddd\"}");
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 16);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(12)));
 			put.setObject(13, new byte[]{58, 48, 0, 0, 1, 0, 0, 0, 0, 0, 2, 0, 16, 0, 0, 0, 1, 0, 4, 0, 5, 0});
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 22);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(13)));
 			put.setObject(14, new Object[]{58, 48, 38});
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 4 * 3);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(14)));
 			put.setObject(15, new Object[]{58L, 48L});
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 8 * 2);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(15)));
 			put.setObject(16, new Object[]{1.1f, 2.2f});
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 4 * 2);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(16)));
 			put.setObject(17, new Object[]{1.1d, 2.2d, 3.3d});
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 8 * 3);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(17)));
 			put.setObject(18, new Object[]{true, false, true});
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 3);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(18)));
 			put.setObject(19, new Object[]{"aaaaa", "bbbbbb", "ccccccc"});
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += (5 + 6 + 7));
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(19)));
 
 			client.put(put);
 			System.out.println(put.getRecord().getByteSize());
@@ -242,71 +245,72 @@ public class HoloClientByteSizeTest extends HoloClientTestBase {
 					"primary key(a))";
 
 			execute(conn, new String[]{dropSql, createSql});
-			long byteSize = 0;
 			TableSchema schema = client.getTableSchema(tableName);
 			Put put = new Put(schema);
+			// Record本身、values数组以及BitSet的大小
+			long byteSize = put.getRecord().getByteSize();
 			put.setObject(0, 1);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 4);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(0)));
 			put.setObject(1, 2L);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 8);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(1)));
 			put.setObject(2, 3);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 2);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(2)));
 			put.setObject(3, 12.34);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 4);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(3)));
 			put.setObject(4, 123.456);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 8);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(4)));
 			put.setObject(5, true);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 1);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(5)));
 			put.setObject(6, "abcdefghijk");
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 11);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(6)));
 			put.setObject(7, 1234.5678);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 24);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(7)));
 			put.setObject(8, "2021-10-19");
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 4);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(8)));
 			put.setObject(9, "2021-10-19 08:08:08");
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 12);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(9)));
 			put.setObject(10, "2021-10-19 08:08:08");
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 12);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(10)));
 			put.setObject(11, "{\"a\":\"cccc\"}");
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 12);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(11)));
 			put.setObject(12, "{\"a\":\"ccccdddd\"}");
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 16);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(12)));
 			put.setObject(13, new byte[]{58, 48, 0, 0, 1, 0, 0, 0, 0, 0, 2, 0, 16, 0, 0, 0, 1, 0, 4, 0, 5, 0});
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 22);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(13)));
 			List<Object> intArray = new ArrayList<>();
 			intArray.add(58);
 			intArray.add(48);
 			intArray.add(38);
 			put.setObject(14, intArray);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 4 * 3);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(14)));
 			List<Object> longArray = new ArrayList<>();
 			longArray.add(58L);
 			longArray.add(48L);
 			put.setObject(15, longArray);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 8 * 2);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(15)));
 			List<Object> floatArray = new ArrayList<>();
 			floatArray.add(1.1f);
 			floatArray.add(2.2f);
 			put.setObject(16, floatArray);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 4 * 2);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(16)));
 			List<Object> doubleArray = new ArrayList<>();
 			doubleArray.add(1.1d);
 			doubleArray.add(2.2d);
 			doubleArray.add(3.3d);
 			put.setObject(17, doubleArray);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 8 * 3);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(17)));
 			List<Object> boolArray = new ArrayList<>();
 			boolArray.add(true);
 			boolArray.add(false);
 			boolArray.add(true);
 			put.setObject(18, boolArray);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += 3);
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(18)));
 			List<Object> textArray = new ArrayList<>();
 			textArray.add("aaaaa");
 			textArray.add("bbbbbb");
 			textArray.add("ccccccc");
 			put.setObject(19, textArray);
-			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += (5 + 6 + 7));
+			Assert.assertEquals(put.getRecord().getByteSize(), byteSize += MemorySizeUtil.sizeOf(put.getRecord().getObject(19)));
 
 			client.put(put);
 			System.out.println(put.getRecord().getByteSize());
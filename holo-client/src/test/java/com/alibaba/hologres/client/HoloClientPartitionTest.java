@@ -13,6 +13,8 @@ import org.testng.annotations.Test;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 分区表测试用例.
@@ -122,4 +124,53 @@ public class HoloClientPartitionTest extends HoloClientTestBase {
 			}
 		}
 	}
+
+	/**
+	 * 一批写入涉及多个不存在的分区，批量创建所有分区
+	 * Method: put(List puts).
+	 */
+	@Test
+	public void testPartition003() throws Exception {
+		if (properties == null) {
+			return;
+		}
+		HoloConfig config = buildConfig();
+		config.setWriteMode(WriteMode.INSERT_OR_REPLACE);
+		config.setDynamicPartition(true);
+		try (Connection conn = buildConnection(); HoloClient client = new HoloClient(config)) {
+			String tableName = "\"holo_client_partition_003\"";
+			String dropSql = "drop table if exists " + tableName;
+			String createSql = "create table " + tableName
+				+ "(id int not null, ds int not null, name text, primary key(id,ds)) partition by list(ds)";
+
+			execute(conn, new String[] {dropSql, createSql});
+
+			try {
+				TableSchema schema = client.getTableSchema(tableName, true);
+				List<Put> puts = new ArrayList<>();
+				for (int i = 0; i < 100; ++i) {
+					Put put = new Put(schema);
+					put.setObject("id", i);
+					put.setObject("ds", 20230100 + i % 10);
+					put.setObject("name", "name" + i);
+					puts.add(put);
+				}
+				client.put(puts);
+				client.flush();
+
+				try (Statement stat = conn.createStatement()) {
+					try (ResultSet rs = stat.executeQuery("select count(*) from pg_inherits where inhparent = '" + tableName + "'::regclass")) {
+						Assert.assertTrue(rs.next());
+						Assert.assertEquals(10, rs.getInt(1));
+					}
+					try (ResultSet rs = stat.executeQuery("select count(*) from " + tableName)) {
+						Assert.assertTrue(rs.next());
+						Assert.assertEquals(100, rs.getInt(1));
+					}
+				}
+			} finally {
+				execute(conn, new String[] {dropSql});
+			}
+		}
+	}
 }
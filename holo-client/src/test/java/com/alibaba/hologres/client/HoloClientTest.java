@@ -3658,4 +3658,30 @@ public class HoloClientTest extends HoloClientTestBase {
 		}
 
 	}
+
+	/**
+	 * HoloConfig 的connectionWarmUp参数设置测试，preSql合并成一次发送后仍然生效.
+	 */
+	@Test
+	public void testConnectionWarmUp() throws Exception {
+		if (properties == null) {
+			return;
+		}
+		HoloConfig config = buildConfig();
+		config.setConnectionWarmUp(true);
+		config.setConnectionWarmUpParallelism(2);
+		config.setWriteThreadSize(5);
+		try (HoloClient client = new HoloClient(config)) {
+			client.getPoolReadyFuture().get(60, TimeUnit.SECONDS);
+			client.sql(conn -> {
+				try (Statement st = conn.createStatement()) {
+					try (ResultSet rs = st.executeQuery("show hg_experimental_enable_fixed_dispatcher_affected_rows")) {
+						rs.next();
+						Assert.assertEquals(rs.getBoolean(1), false);
+					}
+				}
+				return true;
+			}).get();
+		}
+	}
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.copy;
+
+import com.alibaba.hologres.client.model.Column;
+import com.alibaba.hologres.client.model.Record;
+import com.alibaba.hologres.client.model.TableName;
+import com.alibaba.hologres.client.model.TableSchema;
+import org.postgresql.core.BaseConnection;
+import org.postgresql.core.Encoding;
+import org.postgresql.jdbc.ArrayUtil;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ArrayEncoder单元测试用例.
+ * 和driver的ArrayEncoding编码结果按字节比较，driver只需要BaseConnection的getEncoding，用Proxy模拟.
+ */
+public class ArrayEncoderTest {
+
+	private static final String[] TYPE_NAMES = new String[]{"_int4", "_int8", "_float4", "_float8", "_bool", "_text", "_varchar"};
+
+	private static final BaseConnection CONN = (BaseConnection) Proxy.newProxyInstance(
+			ArrayEncoderTest.class.getClassLoader(), new Class<?>[]{BaseConnection.class}, (proxy, method, args) -> {
+				if ("getEncoding".equals(method.getName())) {
+					return Encoding.getJVMEncoding("UTF-8");
+				} else if ("getTimestampUtils".equals(method.getName())) {
+					return null;
+				}
+				throw new UnsupportedOperationException(method.getName());
+			});
+
+	private static TableSchema buildSchema() {
+		List<Column> columns = new ArrayList<>();
+		for (int i = 0; i < TYPE_NAMES.length; ++i) {
+			Column column = new Column();
+			column.setName("c" + i);
+			column.setType(Types.ARRAY);
+			column.setTypeName(TYPE_NAMES[i]);
+			column.setPrimaryKey(i == 0);
+			columns.add(column);
+		}
+		TableSchema.Builder builder = new TableSchema.Builder();
+		builder.setTableName(TableName.valueOf("test_array_copy"));
+		builder.setColumns(columns);
+		TableSchema schema = builder.build();
+		schema.calculateProperties();
+		return schema;
+	}
+
+	/**
+	 * 编码一行只有index列有值的record，返回该列的值(不包括长度).
+	 */
+	private static byte[] encode(TableSchema schema, int index, Object value, BaseConnection conn) throws IOException {
+		Record record = Record.build(schema);
+		record.setObject(index, value);
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		try (RecordBinaryOutputStream stream = new RecordBinaryOutputStream(os, schema, conn, 1024 * 1024)) {
+			stream.putRecord(record);
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(os.toByteArray());
+		buffer.position(19);
+		Assert.assertEquals(buffer.getShort(), 1);
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		Assert.assertFalse(buffer.hasRemaining());
+		return bytes;
+	}
+
+	private static void check(TableSchema schema, int index, Object value) throws Exception {
+		byte[] expect = ArrayUtil.arrayToBinary(CONN, value, TYPE_NAMES[index]);
+		Assert.assertEquals(encode(schema, index, value, null), expect, TYPE_NAMES[index]);
+	}
+
+	@Test
+	public void testPrimitive() throws Exception {
+		TableSchema schema = buildSchema();
+		check(schema, 0, new int[]{1, -2, Integer.MAX_VALUE});
+		check(schema, 0, new int[0]);
+		check(schema, 1, new long[]{1L, Long.MIN_VALUE});
+		check(schema, 2, new float[]{1.5f, Float.NaN});
+		check(schema, 3, new double[]{-0.25, Double.MAX_VALUE});
+		check(schema, 4, new boolean[]{true, false});
+	}
+
+	@Test
+	public void testObjectArray() throws Exception {
+		TableSchema schema = buildSchema();
+		check(schema, 0, new Integer[]{1, null, 3});
+		check(schema, 1, new Long[]{null});
+		check(schema, 3, new Double[]{1.0, 2.0});
+		check(schema, 4, new Boolean[]{true, null});
+		check(schema, 5, new String[]{"a", null, "中文", "emoji😀", ""});
+		check(schema, 6, new String[]{"varchar"});
+		check(schema, 5, new String[0]);
+	}
+
+	/**
+	 * List和类型不一致的数组按元素转换.
+	 */
+	@Test
+	public void testConvert() throws Exception {
+		TableSchema schema = buildSchema();
+		Assert.assertEquals(encode(schema, 0, Arrays.asList(1, null, 3), null), ArrayUtil.arrayToBinary(CONN, new Integer[]{1, null, 3}, "_int4"));
+		Assert.assertEquals(encode(schema, 1, new int[]{1, 2}, null), ArrayUtil.arrayToBinary(CONN, new long[]{1L, 2L}, "_int8"));
+		Assert.assertEquals(encode(schema, 3, Collections.singletonList(1.5f), null), ArrayUtil.arrayToBinary(CONN, new double[]{1.5}, "_float8"));
+		Assert.assertEquals(encode(schema, 5, Arrays.asList("x", "y"), null), ArrayUtil.arrayToBinary(CONN, new String[]{"x", "y"}, "_text"));
+		Assert.expectThrows(IOException.class, () -> encode(schema, 0, new String[]{"1"}, null));
+	}
+
+	/**
+	 * 多维数组需要BaseConnection，交给driver编码.
+	 */
+	@Test
+	public void testMultiDimension() throws Exception {
+		TableSchema schema = buildSchema();
+		int[][] value = new int[][]{{1, 2}, {3, 4}};
+		Assert.expectThrows(IOException.class, () -> encode(schema, 0, value, null));
+		Assert.assertEquals(encode(schema, 0, value, CONN), ArrayUtil.arrayToBinary(CONN, value, "_int4"));
+	}
+}
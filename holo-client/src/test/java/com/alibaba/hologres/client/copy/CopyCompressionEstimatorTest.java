@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.copy;
+
+import com.alibaba.hologres.client.model.Column;
+import com.alibaba.hologres.client.model.Record;
+import com.alibaba.hologres.client.model.TableName;
+import com.alibaba.hologres.client.model.TableSchema;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * CopyCompressionEstimator单元测试用例.
+ */
+public class CopyCompressionEstimatorTest {
+
+	private static TableSchema buildSchema() {
+		List<Column> columns = new ArrayList<>();
+		String[] names = new String[]{"id", "name"};
+		int[] types = new int[]{Types.BIGINT, Types.VARCHAR};
+		String[] typeNames = new String[]{"int8", "text"};
+		for (int i = 0; i < names.length; ++i) {
+			Column column = new Column();
+			column.setName(names[i]);
+			column.setType(types[i]);
+			column.setTypeName(typeNames[i]);
+			column.setPrimaryKey(i == 0);
+			columns.add(column);
+		}
+		TableSchema.Builder builder = new TableSchema.Builder();
+		builder.setTableName(TableName.valueOf("test_copy_compression"));
+		builder.setColumns(columns);
+		TableSchema schema = builder.build();
+		schema.calculateProperties();
+		return schema;
+	}
+
+	private static List<Record> buildRecords(TableSchema schema) {
+		List<Record> records = new ArrayList<>();
+		for (int i = 0; i < 1000; ++i) {
+			Record record = Record.build(schema);
+			record.setObject(0, (long) i);
+			record.setObject(1, "repeated_category_value_" + (i % 10));
+			records.add(record);
+		}
+		return records;
+	}
+
+	@Test
+	public void testEstimate() throws IOException {
+		TableSchema schema = buildSchema();
+		List<Record> records = buildRecords(schema);
+		for (boolean binary : new boolean[]{true, false}) {
+			ByteArrayOutputStream os = new ByteArrayOutputStream();
+			try (RecordOutputStream stream = binary ? new RecordBinaryOutputStream(os, schema, null, 1024 * 1024) : new RecordTextOutputStream(os, schema, null, 1024 * 1024)) {
+				for (Record record : records) {
+					stream.putRecord(record);
+				}
+			}
+
+			CopyCompressionEstimator.Result result = CopyCompressionEstimator.estimate(schema, records, null, binary, Deflater.BEST_SPEED, 3);
+			Assert.assertEquals(result.getRowCount(), records.size());
+			Assert.assertEquals(result.getRawBytes(), os.size());
+			Assert.assertTrue(result.getCompressionRatio() < 0.5, result.toString());
+			Assert.assertTrue(result.getEncodeNanos() > 0 && result.getCompressNanos() > 0, result.toString());
+			//带宽无限大时压缩没有意义，带宽极小时总是值得压缩
+			Assert.assertFalse(result.isWorthCompressing(Long.MAX_VALUE), result.toString());
+			Assert.assertTrue(result.isWorthCompressing(1L), result.toString());
+
+			CopyCompressionEstimator.Result none = CopyCompressionEstimator.estimate(schema, records, null, binary, Deflater.NO_COMPRESSION, 1);
+			Assert.assertTrue(none.getCompressionRatio() >= 1.0, none.toString());
+		}
+	}
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.copy;
+
+import com.alibaba.hologres.client.impl.collector.shard.DistributionKeyShardPolicy;
+import com.alibaba.hologres.client.impl.copy.CopyContext;
+import com.alibaba.hologres.client.model.Column;
+import com.alibaba.hologres.client.model.ImportContext;
+import com.alibaba.hologres.client.model.Record;
+import com.alibaba.hologres.client.model.TableName;
+import com.alibaba.hologres.client.model.TableSchema;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * CopySegmentEncoder单元测试用例.
+ */
+public class CopySegmentEncoderTest {
+
+	private static final int SHARD_COUNT = 4;
+	private static final int HEADER_LENGTH = 19;
+
+	private static TableSchema buildSchema() {
+		List<Column> columns = new ArrayList<>();
+		String[] names = new String[]{"id", "name", "d"};
+		int[] types = new int[]{Types.BIGINT, Types.VARCHAR, Types.DATE};
+		String[] typeNames = new String[]{"int8", "text", "date"};
+		for (int i = 0; i < names.length; ++i) {
+			Column column = new Column();
+			column.setName(names[i]);
+			column.setType(types[i]);
+			column.setTypeName(typeNames[i]);
+			column.setPrimaryKey(i == 0);
+			columns.add(column);
+		}
+		TableSchema.Builder builder = new TableSchema.Builder();
+		builder.setTableName(TableName.valueOf("test_copy_segment"));
+		builder.setColumns(columns);
+		builder.setDistributionKeys(new String[]{"id"});
+		TableSchema schema = builder.build();
+		schema.calculateProperties();
+		return schema;
+	}
+
+	private static List<Record> buildRecords(TableSchema schema, int count) {
+		List<Record> records = new ArrayList<>();
+		for (int i = 0; i < count; ++i) {
+			Record record = Record.build(schema);
+			record.setObject(0, (long) i);
+			//name列有时不set，按null写入
+			if (i % 3 != 0) {
+				record.setObject(1, "name_" + i);
+			}
+			record.setObject(2, Date.valueOf(LocalDate.of(2000, 1, 1).plusDays(i)));
+			records.add(record);
+		}
+		return records;
+	}
+
+	/**
+	 * 每个shard的segment拼起来和单独编码这个shard的record结果一致，每一行都包含所有列.
+	 */
+	@Test
+	public void testEncode() throws IOException {
+		TableSchema schema = buildSchema();
+		List<Record> records = buildRecords(schema, 1000);
+		List<CopySegment> segments = new ArrayList<>();
+		int segmentSize = 256;
+		try (CopySegmentEncoder encoder = new CopySegmentEncoder(schema, SHARD_COUNT, segmentSize, segments::add)) {
+			for (Record record : records) {
+				encoder.putRecord(record);
+			}
+		}
+
+		DistributionKeyShardPolicy policy = new DistributionKeyShardPolicy();
+		policy.init(SHARD_COUNT);
+		for (int shardId = 0; shardId < SHARD_COUNT; ++shardId) {
+			ByteArrayOutputStream expect = new ByteArrayOutputStream();
+			int rowCount = 0;
+			try (RecordBinaryOutputStream stream = new RecordBinaryOutputStream(expect, schema, null, 1024 * 1024, false, true)) {
+				for (Record record : records) {
+					if (policy.locate(record) == shardId) {
+						stream.putRecord(record);
+						++rowCount;
+					}
+				}
+			}
+			Assert.assertTrue(rowCount > 0);
+
+			ByteArrayOutputStream actual = new ByteArrayOutputStream();
+			int actualRowCount = 0;
+			List<CopySegment> shardSegments = new ArrayList<>();
+			for (CopySegment segment : segments) {
+				if (segment.getShardId() == shardId) {
+					shardSegments.add(segment);
+					actual.write(segment.getBytes());
+					actualRowCount += segment.getRowCount();
+				}
+			}
+			for (int i = 0; i < shardSegments.size() - 1; ++i) {
+				Assert.assertTrue(shardSegments.get(i).getBytes().length >= segmentSize);
+			}
+			Assert.assertEquals(actualRowCount, rowCount);
+			Assert.assertEquals(actual.toByteArray(), expect.toByteArray());
+		}
+
+		//第一行: 3列，id=0，name为null，date=0
+		CopySegment first = null;
+		for (CopySegment segment : segments) {
+			if (segment.getShardId() == policy.locate(records.get(0))) {
+				first = segment;
+				break;
+			}
+		}
+		ByteBuffer row = ByteBuffer.wrap(first.getBytes());
+		Assert.assertEquals(row.getShort(), 3);
+		Assert.assertEquals(row.getInt(), 8);
+		Assert.assertEquals(row.getLong(), 0L);
+		Assert.assertEquals(row.getInt(), -1);
+		Assert.assertEquals(row.getInt(), 4);
+		Assert.assertEquals(row.getInt(), 0);
+	}
+
+	/**
+	 * writeSegment按shard写入对应的OutputStream，每个OutputStream只写一次header.
+	 */
+	@Test
+	public void testWriteSegment() throws IOException {
+		NavigableMap<Integer, Integer> shardMap = new TreeMap<>();
+		shardMap.put(0, 0);
+		shardMap.put(2, 1);
+		ByteArrayOutputStream[] streams = new ByteArrayOutputStream[]{new ByteArrayOutputStream(), new ByteArrayOutputStream()};
+		CompletableFuture<Long>[] futures = completedRowCounts(2);
+		ImportContext context = new ImportContext(shardMap, futures, new CopyContext[0], streams, SHARD_COUNT, true);
+
+		context.writeSegment(new CopySegment(0, new byte[]{1}, 1));
+		context.writeSegment(new CopySegment(3, new byte[]{2, 3}, 1));
+		context.writeSegment(new CopySegment(1, new byte[]{4}, 1));
+
+		ByteArrayOutputStream header = new ByteArrayOutputStream();
+		RecordBinaryOutputStream.writeHeader(header);
+		Assert.assertEquals(header.size(), HEADER_LENGTH);
+		Assert.assertEquals(streams[0].toByteArray(), concat(header.toByteArray(), new byte[]{1, 4}));
+		Assert.assertEquals(streams[1].toByteArray(), concat(header.toByteArray(), new byte[]{2, 3}));
+
+		ImportContext csv = new ImportContext(shardMap, futures, new CopyContext[0], new OutputStream[2], SHARD_COUNT);
+		Assert.expectThrows(IOException.class, () -> csv.writeSegment(new CopySegment(0, new byte[]{1}, 1)));
+	}
+
+	/**
+	 * binary格式关闭时，没有收到segment的OutputStream只写header.
+	 */
+	@Test
+	public void testCloseWithoutSegment() throws IOException {
+		NavigableMap<Integer, Integer> shardMap = new TreeMap<>();
+		shardMap.put(0, 0);
+		shardMap.put(2, 1);
+		ByteArrayOutputStream[] streams = new ByteArrayOutputStream[]{new ByteArrayOutputStream(), new ByteArrayOutputStream()};
+		CompletableFuture<Long>[] futures = completedRowCounts(2);
+		ImportContext context = new ImportContext(shardMap, futures, new CopyContext[0], streams, SHARD_COUNT, true);
+
+		context.writeSegment(new CopySegment(0, new byte[]{1}, 1));
+		context.closeOstreams();
+
+		ByteArrayOutputStream header = new ByteArrayOutputStream();
+		RecordBinaryOutputStream.writeHeader(header);
+		Assert.assertEquals(streams[0].toByteArray(), concat(header.toByteArray(), new byte[]{1}));
+		Assert.assertEquals(streams[1].toByteArray(), header.toByteArray());
+
+		//csv格式不写header
+		ByteArrayOutputStream[] csvStreams = new ByteArrayOutputStream[]{new ByteArrayOutputStream(), new ByteArrayOutputStream()};
+		new ImportContext(shardMap, futures, new CopyContext[0], csvStreams, SHARD_COUNT).closeOstreams();
+		Assert.assertEquals(csvStreams[0].size(), 0);
+		Assert.assertEquals(csvStreams[1].size(), 0);
+	}
+
+	/**
+	 * count个已经完成的行数future，泛型数组只能通过unchecked转换创建.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static CompletableFuture<Long>[] completedRowCounts(int count) {
+		CompletableFuture<Long>[] futures = new CompletableFuture[count];
+		for (int i = 0; i < count; ++i) {
+			futures[i] = CompletableFuture.completedFuture(0L);
+		}
+		return futures;
+	}
+
+	private static byte[] concat(byte[] a, byte[] b) {
+		byte[] ret = new byte[a.length + b.length];
+		System.arraycopy(a, 0, ret, 0, a.length);
+		System.arraycopy(b, 0, ret, a.length, b.length);
+		return ret;
+	}
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.copy;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * NumericEncoder单元测试用例.
+ * 和原来基于toPlainString的编码结果解码后比较，原实现会保留首尾为0的digit，所以不按字节比较.
+ */
+public class NumericEncoderTest {
+
+	/**
+	 * 解码后的numeric.
+	 */
+	static class Decoded {
+		short[] digits;
+		short weight;
+		short sign;
+		short dscale;
+
+		BigDecimal toBigDecimal() {
+			BigInteger value = BigInteger.ZERO;
+			for (short digit : digits) {
+				value = value.multiply(BigInteger.valueOf(10000)).add(BigInteger.valueOf(digit));
+			}
+			BigDecimal decimal = new BigDecimal(value).scaleByPowerOfTen((weight - digits.length + 1) * 4);
+			if (sign == 0x4000) {
+				decimal = decimal.negate();
+			}
+			return decimal.setScale(dscale, RoundingMode.UNNECESSARY);
+		}
+	}
+
+	private static Decoded decode(byte[] bytes) {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		int length = buffer.getInt();
+		Assert.assertEquals(length, bytes.length - 4);
+		Decoded decoded = new Decoded();
+		decoded.digits = new short[buffer.getShort()];
+		decoded.weight = buffer.getShort();
+		decoded.sign = buffer.getShort();
+		decoded.dscale = buffer.getShort();
+		for (int i = 0; i < decoded.digits.length; ++i) {
+			decoded.digits[i] = buffer.getShort();
+			Assert.assertTrue(decoded.digits[i] >= 0 && decoded.digits[i] < 10000);
+		}
+		Assert.assertFalse(buffer.hasRemaining());
+		return decoded;
+	}
+
+	private static byte[] encode(NumericEncoder encoder, ByteArrayOutputStream os, RecordBinaryOutputStream stream, Object value) throws IOException {
+		encoder.encode(value);
+		stream.flush();
+		byte[] bytes = os.toByteArray();
+		os.reset();
+		return bytes;
+	}
+
+	private static byte[] legacyEncode(Object obj, int scale) {
+		BigDecimal decimal = obj instanceof BigDecimal ? (BigDecimal) obj : new BigDecimal(obj.toString());
+		decimal = decimal.setScale(scale, RoundingMode.HALF_UP);
+		short[] info = new short[3];
+		short[] digits = encodeFromString(decimal.toPlainString(), info);
+		ByteBuffer buffer = ByteBuffer.allocate(4 + (4 + digits.length) * 2);
+		buffer.putInt((4 + digits.length) * 2);
+		buffer.putShort((short) digits.length);
+		buffer.putShort(info[0]);
+		buffer.putShort(info[1]);
+		buffer.putShort(info[2]);
+		for (short digit : digits) {
+			buffer.putShort(digit);
+		}
+		return buffer.array();
+	}
+
+	private static void check(int scale, Object value) throws IOException {
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		try (RecordBinaryOutputStream stream = new RecordBinaryOutputStream(os, null, null, 1024 * 1024)) {
+			NumericEncoder encoder = new NumericEncoder(stream, scale);
+			//同一个encoder连续编码两次，digit缓冲区复用不影响结果
+			byte[] first = encode(encoder, os, stream, value);
+			byte[] second = encode(encoder, os, stream, value);
+			Assert.assertEquals(second, first);
+
+			Decoded actual = decode(first);
+			Decoded expect = decode(legacyEncode(value, scale));
+			String msg = value + " scale " + scale;
+			Assert.assertEquals(actual.dscale, expect.dscale, msg);
+			Assert.assertEquals(actual.toBigDecimal(), expect.toBigDecimal(), msg);
+			Assert.assertEquals(actual.toBigDecimal(), new BigDecimal(value.toString()).setScale(scale, RoundingMode.HALF_UP), msg);
+			//和numeric_send一样去掉首尾为0的digit
+			if (actual.digits.length > 0) {
+				Assert.assertNotEquals(actual.digits[0], (short) 0, msg);
+				Assert.assertNotEquals(actual.digits[actual.digits.length - 1], (short) 0, msg);
+			} else {
+				Assert.assertEquals(actual.weight, 0, msg);
+				Assert.assertEquals(actual.sign, 0, msg);
+			}
+		}
+	}
+
+	@Test
+	public void testBytes() throws IOException {
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		try (RecordBinaryOutputStream stream = new RecordBinaryOutputStream(os, null, null, 1024)) {
+			NumericEncoder encoder = new NumericEncoder(stream, 2);
+			// 12.50 -> weight 0, digits [12, 5000], dscale 2
+			ByteBuffer expect = ByteBuffer.allocate(16);
+			expect.putInt(12).putShort((short) 2).putShort((short) 0).putShort((short) 0).putShort((short) 2)
+					.putShort((short) 12).putShort((short) 5000);
+			Assert.assertEquals(encode(encoder, os, stream, new BigDecimal("12.499")), expect.array());
+
+			// -100000000 -> weight 2, digits [1], dscale 2
+			expect = ByteBuffer.allocate(14);
+			expect.putInt(10).putShort((short) 1).putShort((short) 2).putShort((short) 0x4000).putShort((short) 2)
+					.putShort((short) 1);
+			Assert.assertEquals(encode(encoder, os, stream, -100000000L), expect.array());
+
+			// 0 -> no digits
+			expect = ByteBuffer.allocate(12);
+			expect.putInt(8).putShort((short) 0).putShort((short) 0).putShort((short) 0).putShort((short) 2);
+			Assert.assertEquals(encode(encoder, os, stream, "-0.001"), expect.array());
+		}
+	}
+
+	@Test
+	public void testEdge() throws IOException {
+		Object[] values = new Object[]{0, 1, -1, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE,
+				"0.00005", "-0.5", "9999.9999", "10000", "0.0001", "123456789012345678", "1234567890123456789",
+				"-99999999999999999999999999999999.123456789", "1E+20", "1E-20", new BigDecimal("4611686018427387903"),
+				new BigDecimal("4611686018427387904"), new BigDecimal("-9223372036854775808")};
+		for (int scale = 0; scale <= 20; ++scale) {
+			for (Object value : values) {
+				check(scale, value);
+			}
+		}
+	}
+
+	/**
+	 * 随机生成不同精度、scale、符号的值，和原实现比较.
+	 */
+	@Test
+	public void testRandom() throws IOException {
+		Random random = new Random(0);
+		for (int i = 0; i < 20000; ++i) {
+			int precision = 1 + random.nextInt(i % 4 == 0 ? 60 : 19);
+			BigInteger unscaled = new BigInteger(precision * 4, random).mod(BigInteger.TEN.pow(precision));
+			if (random.nextBoolean()) {
+				unscaled = unscaled.negate();
+			}
+			BigDecimal value = new BigDecimal(unscaled, random.nextInt(30) - 5);
+			int scale = random.nextInt(24);
+			Object input;
+			switch (random.nextInt(4)) {
+				case 0:
+					input = value.toPlainString();
+					break;
+				case 1:
+					input = unscaled.bitLength() < 32 ? (Object) unscaled.intValue() : value;
+					break;
+				case 2:
+					input = unscaled.bitLength() < 64 ? (Object) unscaled.longValue() : value;
+					break;
+				default:
+					input = value;
+			}
+			check(scale, input);
+		}
+	}
+
+	private static final short NUMERIC_POS = (short) 0x0000;
+	private static final short NUMERIC_NEG = (short) 0x4000;
+	private static final short DEC_DIGITS = 4;
+
+	private static short[] encodeFromString(String num, short[] info) {
+
+		char[] numChars = num.toCharArray();
+		byte[] numDigs = new byte[numChars.length - 1 + DEC_DIGITS * 2];
+		int ch = 0;
+		int digs = DEC_DIGITS;
+		boolean haveDP = false;
+
+		//Swallow leading zeros
+		while (ch < numChars.length && numChars[ch] == '0') {
+			ch++;
+		}
+
+		short sign = NUMERIC_POS;
+		short displayWeight = -1;
+		short displayScale = 0;
+
+		if (ch < numChars.length && numChars[ch] == '-') {
+			sign = NUMERIC_NEG;
+			++ch;
+		}
+
+		/*
+		 * Copy to array of single byte digits
+		 */
+
+		while (ch < numChars.length) {
+
+			if (numChars[ch] == '.') {
+
+				haveDP = true;
+				ch++;
+			} else {
+
+				numDigs[digs++] = (byte) (numChars[ch++] - '0');
+				if (!haveDP) {
+					displayWeight++;
+				} else {
+					displayScale++;
+				}
+			}
+
+		}
+
+		digs -= DEC_DIGITS;
+
+		/*
+		 * Pack into NBASE format
+		 */
+
+		short weight;
+
+		if (displayWeight >= 0) {
+			weight = (short) ((displayWeight + 1 + DEC_DIGITS - 1) / DEC_DIGITS - 1);
+		} else {
+			weight = (short) -((-displayWeight - 1) / DEC_DIGITS + 1);
+		}
+
+		int offset = (weight + 1) * DEC_DIGITS - (displayWeight + 1);
+		int digitCount = (digs + offset + DEC_DIGITS - 1) / DEC_DIGITS;
+
+		int i = DEC_DIGITS - offset;
+		short[] digits = new short[digitCount];
+		int d = 0;
+
+		while (digitCount-- > 0) {
+			digits[d++] = (short) (((numDigs[i] * 10 + numDigs[i + 1]) * 10 + numDigs[i + 2]) * 10 + numDigs[i + 3]);
+			i += DEC_DIGITS;
+		}
+
+		info[0] = weight;
+		info[1] = sign;
+		info[2] = displayScale;
+		return digits;
+	}
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.copy;
+
+import com.alibaba.hologres.client.model.Column;
+import com.alibaba.hologres.client.model.Record;
+import com.alibaba.hologres.client.model.TableName;
+import com.alibaba.hologres.client.model.TableSchema;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * RecordBinaryOutputStream单元测试用例.
+ */
+public class RecordBinaryOutputStreamTest {
+
+	private static final int HEADER_LENGTH = 19;
+
+	private static Column column(String name, int type, String typeName) {
+		Column column = new Column();
+		column.setName(name);
+		column.setType(type);
+		column.setTypeName(typeName);
+		column.setScale(2);
+		return column;
+	}
+
+	private static TableSchema buildSchema() {
+		List<Column> columns = new ArrayList<>();
+		Column id = column("id", Types.INTEGER, "int4");
+		id.setPrimaryKey(true);
+		columns.add(id);
+		columns.add(column("name", Types.VARCHAR, "text"));
+		columns.add(column("flag", Types.BIT, "bool"));
+		columns.add(column("amount", Types.NUMERIC, "numeric"));
+		columns.add(column("big", Types.BIGINT, "int8"));
+		columns.add(column("geo", Types.OTHER, "geometry"));
+		TableSchema.Builder builder = new TableSchema.Builder();
+		builder.setTableName(TableName.valueOf("test_binary_copy"));
+		builder.setColumns(columns);
+		TableSchema schema = builder.build();
+		schema.calculateProperties();
+		return schema;
+	}
+
+	private static byte[] encode(TableSchema schema, Record record) throws IOException {
+		return encode(schema, record, 1024);
+	}
+
+	private static byte[] encode(TableSchema schema, Record record, int maxCellBufferSize) throws IOException {
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		try (RecordBinaryOutputStream stream = new RecordBinaryOutputStream(os, schema, null, maxCellBufferSize)) {
+			stream.putRecord(record);
+		}
+		byte[] bytes = os.toByteArray();
+		return Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length);
+	}
+
+	/**
+	 * 只编码set过的列，null写-1，Integer写入int8列时转成long.
+	 */
+	@Test
+	public void testEncode() throws IOException {
+		TableSchema schema = buildSchema();
+		Record record = Record.build(schema);
+		record.setObject(0, 1);
+		record.setObject(1, "ab");
+		record.setObject(2, true);
+		record.setObject(3, null);
+		record.setObject(4, 7);
+
+		ByteBuffer expect = ByteBuffer.allocate(2 + 8 + 6 + 5 + 4 + 12);
+		expect.putShort((short) 5);
+		expect.putInt(4).putInt(1);
+		expect.putInt(2).put((byte) 'a').put((byte) 'b');
+		expect.putInt(1).put((byte) 1);
+		expect.putInt(-1);
+		expect.putInt(8).putLong(7L);
+		Assert.assertEquals(encode(schema, record), expect.array());
+	}
+
+	/**
+	 * numeric按列的scale四舍五入后编码成NBASE.
+	 */
+	@Test
+	public void testNumeric() throws IOException {
+		TableSchema schema = buildSchema();
+		Record record = Record.build(schema);
+		record.setObject(0, 1);
+		record.setObject(3, new BigDecimal("12.499"));
+
+		ByteBuffer expect = ByteBuffer.allocate(2 + 8 + 16);
+		expect.putShort((short) 2);
+		expect.putInt(4).putInt(1);
+		// 12.50 -> weight 0, digits [12, 5000], dscale 2
+		expect.putInt(12).putShort((short) 2).putShort((short) 0).putShort((short) 0).putShort((short) 2)
+				.putShort((short) 12).putShort((short) 5000);
+		Assert.assertEquals(encode(schema, record), expect.array());
+	}
+
+	/**
+	 * 不支持的类型只在有值时才报错，报错信息包含列名.
+	 */
+	@Test
+	public void testUnsupported() throws IOException {
+		TableSchema schema = buildSchema();
+		Record record = Record.build(schema);
+		record.setObject(0, 1);
+		record.setObject(5, null);
+		encode(schema, record);
+
+		record.setObject(5, "POINT(1 1)");
+		try {
+			encode(schema, record);
+			Assert.fail("should fail");
+		} catch (IOException e) {
+			Assert.assertTrue(e.getMessage().contains("geo"), e.getMessage());
+			Assert.assertTrue(e.getCause().getMessage().contains("unsupported type:geometry"), e.getCause().getMessage());
+		}
+
+		record.setObject(5, null);
+		record.setObject(0, "1");
+		try {
+			encode(schema, record);
+			Assert.fail("should fail");
+		} catch (IOException e) {
+			Assert.assertTrue(e.getCause().getMessage().contains("unsupported class for int4"), e.getCause().getMessage());
+		}
+	}
+
+	/**
+	 * 没有连接时date列按距2000-01-01的天数编码.
+	 */
+	@Test
+	public void testDateWithoutConnection() throws IOException {
+		List<Column> columns = new ArrayList<>();
+		columns.add(column("d", Types.DATE, "date"));
+		TableSchema.Builder builder = new TableSchema.Builder();
+		builder.setTableName(TableName.valueOf("test_binary_copy_date"));
+		builder.setColumns(columns);
+		TableSchema schema = builder.build();
+		schema.calculateProperties();
+
+		Record record = Record.build(schema);
+		record.setObject(0, Date.valueOf(LocalDate.of(2000, 1, 11)));
+		ByteBuffer expect = ByteBuffer.allocate(2 + 8);
+		expect.putShort((short) 1);
+		expect.putInt(4).putInt(10);
+		Assert.assertEquals(encode(schema, record), expect.array());
+
+		record.setObject(0, "1999-12-31");
+		expect.clear();
+		expect.putShort((short) 1);
+		expect.putInt(4).putInt(-1);
+		Assert.assertEquals(encode(schema, record), expect.array());
+	}
+
+	/**
+	 * 多行攒在buffer中分段写出，buffer满时移动当前行，单行超过buffer时扩容，结果和逐行编码一致.
+	 */
+	@Test
+	public void testSegment() throws IOException {
+		TableSchema schema = buildSchema();
+		List<Record> records = new ArrayList<>();
+		ByteArrayOutputStream expect = new ByteArrayOutputStream();
+		for (int i = 0; i < 2000; ++i) {
+			Record record = Record.build(schema);
+			record.setObject(0, i);
+			StringBuilder sb = new StringBuilder();
+			//偶尔有一行超过初始buffer大小
+			int len = i % 500 == 7 ? 300 * 1024 : i % 97;
+			for (int j = 0; j < len; ++j) {
+				sb.append(j % 3 == 0 ? '中' : 'a');
+			}
+			record.setObject(1, sb.toString());
+			records.add(record);
+			byte[] row = encode(schema, record, 1024 * 1024 * 4);
+			if (i == 0) {
+				expect.write(encodeHeader(schema));
+			}
+			expect.write(row);
+		}
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		try (RecordBinaryOutputStream stream = new RecordBinaryOutputStream(os, schema, null, 1024 * 1024 * 4)) {
+			for (Record record : records) {
+				stream.putRecord(record);
+			}
+		}
+		Assert.assertEquals(os.toByteArray(), expect.toByteArray());
+	}
+
+	/**
+	 * 编码失败的行不会写出.
+	 */
+	@Test
+	public void testDiscardFailedRow() throws IOException {
+		TableSchema schema = buildSchema();
+		Record good = Record.build(schema);
+		good.setObject(0, 1);
+		good.setObject(1, "ok");
+		Record bad = Record.build(schema);
+		bad.setObject(0, 2);
+		bad.setObject(1, "partial");
+		bad.setObject(5, "POINT(1 1)");
+
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		try (RecordBinaryOutputStream stream = new RecordBinaryOutputStream(os, schema, null, 1024)) {
+			Assert.expectThrows(IOException.class, () -> stream.putRecord(bad));
+			stream.putRecord(good);
+		}
+		ByteArrayOutputStream expect = new ByteArrayOutputStream();
+		expect.write(encodeHeader(schema));
+		expect.write(encode(schema, good));
+		Assert.assertEquals(os.toByteArray(), expect.toByteArray());
+	}
+
+	private static byte[] encodeHeader(TableSchema schema) throws IOException {
+		Record record = Record.build(schema);
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		try (RecordBinaryOutputStream stream = new RecordBinaryOutputStream(os, schema, null, 1024)) {
+			stream.putRecord(record);
+		}
+		return Arrays.copyOf(os.toByteArray(), HEADER_LENGTH);
+	}
+}
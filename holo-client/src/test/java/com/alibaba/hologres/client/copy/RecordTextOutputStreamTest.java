@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.copy;
+
+import com.alibaba.hologres.client.model.Column;
+import com.alibaba.hologres.client.model.Record;
+import com.alibaba.hologres.client.model.TableName;
+import com.alibaba.hologres.client.model.TableSchema;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * RecordTextOutputStream单元测试用例.
+ */
+public class RecordTextOutputStreamTest {
+
+	private static TableSchema buildSchema() {
+		List<Column> columns = new ArrayList<>();
+		String[] names = new String[]{"id", "name", "data", "j"};
+		int[] types = new int[]{Types.INTEGER, Types.VARCHAR, Types.BINARY, Types.OTHER};
+		String[] typeNames = new String[]{"int4", "text", "bytea", "json"};
+		for (int i = 0; i < names.length; ++i) {
+			Column column = new Column();
+			column.setName(names[i]);
+			column.setType(types[i]);
+			column.setTypeName(typeNames[i]);
+			column.setPrimaryKey(i == 0);
+			columns.add(column);
+		}
+		TableSchema.Builder builder = new TableSchema.Builder();
+		builder.setTableName(TableName.valueOf("test_text_copy"));
+		builder.setColumns(columns);
+		TableSchema schema = builder.build();
+		schema.calculateProperties();
+		return schema;
+	}
+
+	private static String encode(TableSchema schema, Record record, int maxCellBufferSize) throws IOException {
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		try (RecordTextOutputStream stream = new RecordTextOutputStream(os, schema, null, maxCellBufferSize)) {
+			stream.putRecord(record);
+		}
+		return new String(os.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * 和原来基于正则替换的实现结果一致.
+	 */
+	private static String expectQuoted(String text) {
+		return "\"" + text.replaceAll("\\\\", "\\\\\\\\").replaceAll("\"", "\\\\\"") + "\"";
+	}
+
+	@Test
+	public void testEscape() throws IOException {
+		TableSchema schema = buildSchema();
+		String[] values = new String[]{"", "abc", "a\"b", "a\\b", "\\\"\\\"", "中文\"引号\"", "emoji😀\\", "bad\uD83D", "{\"k\":\"v\\n\"}"};
+		for (String value : values) {
+			Record record = Record.build(schema);
+			record.setObject(0, 1);
+			record.setObject(1, value);
+			record.setObject(3, value);
+			String expect = "1," + expectQuoted(value) + "," + expectQuoted(value) + "\n";
+			Assert.assertEquals(encode(schema, record, 1024), new String(expect.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8), value);
+		}
+	}
+
+	@Test
+	public void testRandom() throws IOException {
+		TableSchema schema = buildSchema();
+		Random random = new Random(0);
+		char[] alphabet = new char[]{'a', 'Z', '0', '"', '\\', ',', '\n', 'é', '中', '\uD83D', '\uDE00'};
+		for (int i = 0; i < 1000; ++i) {
+			StringBuilder sb = new StringBuilder();
+			int len = random.nextInt(64);
+			for (int j = 0; j < len; ++j) {
+				sb.append(alphabet[random.nextInt(alphabet.length)]);
+			}
+			String value = sb.toString();
+			Record record = Record.build(schema);
+			record.setObject(1, value);
+			String expect = new String((expectQuoted(value) + "\n").getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+			Assert.assertEquals(encode(schema, record, 1024 * 1024), expect, value);
+		}
+	}
+
+	@Test
+	public void testBinary() throws IOException {
+		TableSchema schema = buildSchema();
+		Record record = Record.build(schema);
+		record.setObject(2, new byte[]{0, 15, 16, (byte) 0xff});
+		Assert.assertEquals(encode(schema, record, 1024), "\\x000f10ff\n");
+	}
+
+	/**
+	 * 接近cellBuffer上限时按精确长度申请，超过上限时报错.
+	 */
+	@Test
+	public void testMaxCellBufferSize() throws IOException {
+		TableSchema schema = buildSchema();
+		Record record = Record.build(schema);
+		record.setObject(1, "abcdefgh");
+		Assert.assertEquals(encode(schema, record, 16), "\"abcdefgh\"\n");
+		record.setObject(1, "abcdefghijklmnopqrstuvwxyz");
+		Assert.expectThrows(IOException.class, () -> encode(schema, record, 16));
+	}
+}
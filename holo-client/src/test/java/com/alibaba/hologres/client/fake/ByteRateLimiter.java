@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.fake;
+
+/**
+ * 按字节数限速，所有连接共享，用来模拟客户端到服务端的带宽.
+ */
+class ByteRateLimiter {
+
+	private final long bytesPerSecond;
+	private long nextFreeNanos;
+
+	ByteRateLimiter(long bytesPerSecond) {
+		this.bytesPerSecond = bytesPerSecond;
+		this.nextFreeNanos = System.nanoTime();
+	}
+
+	/**
+	 * 占用bytes字节的带宽，带宽不足时sleep.
+	 */
+	void acquire(int bytes) throws InterruptedException {
+		long waitNanos;
+		synchronized (this) {
+			long now = System.nanoTime();
+			if (nextFreeNanos < now) {
+				nextFreeNanos = now;
+			}
+			waitNanos = nextFreeNanos - now;
+			nextFreeNanos += bytes * 1_000_000_000L / bytesPerSecond;
+		}
+		if (waitNanos > 0) {
+			Thread.sleep(waitNanos / 1_000_000L, (int) (waitNanos % 1_000_000L));
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.fake;
+
+/**
+ * 按CopyData流式统计COPY FROM STDIN的行数，数据可以在任意位置被切分.
+ * text/csv格式按换行符计数；binary格式跳过header后逐个tuple解析，遇到-1的字段数结束.
+ */
+class CopyRowCounter {
+
+	private static final int BINARY_HEADER_FIXED_LENGTH = 19;
+
+	private enum State {
+		HEADER,
+		HEADER_EXTENSION,
+		FIELD_COUNT,
+		FIELD_LENGTH,
+		FIELD_DATA,
+		END
+	}
+
+	private final boolean binary;
+	private long rowCount;
+
+	private State state = State.HEADER;
+	//当前正在读取的定长部分
+	private final byte[] pending = new byte[BINARY_HEADER_FIXED_LENGTH];
+	private int pendingLength;
+	private long skip;
+	private int fieldsLeft;
+
+	CopyRowCounter(boolean binary) {
+		this.binary = binary;
+	}
+
+	void feed(byte[] data, int offset, int length) {
+		if (!binary) {
+			for (int i = offset; i < offset + length; ++i) {
+				if (data[i] == '\n') {
+					++rowCount;
+				}
+			}
+			return;
+		}
+		int pos = offset;
+		int end = offset + length;
+		while (pos < end && state != State.END) {
+			switch (state) {
+				case HEADER:
+					pos = fill(data, pos, end, BINARY_HEADER_FIXED_LENGTH);
+					if (pendingLength == BINARY_HEADER_FIXED_LENGTH) {
+						skip = readInt(15) & 0xFFFFFFFFL;
+						pendingLength = 0;
+						state = State.HEADER_EXTENSION;
+					}
+					break;
+				case HEADER_EXTENSION:
+				case FIELD_DATA:
+					int n = (int) Math.min(skip, end - pos);
+					pos += n;
+					skip -= n;
+					if (skip == 0) {
+						state = state == State.HEADER_EXTENSION || --fieldsLeft == 0 ? State.FIELD_COUNT : State.FIELD_LENGTH;
+					}
+					break;
+				case FIELD_COUNT:
+					pos = fill(data, pos, end, 2);
+					if (pendingLength == 2) {
+						pendingLength = 0;
+						fieldsLeft = (short) (((pending[0] & 0xFF) << 8) | (pending[1] & 0xFF));
+						if (fieldsLeft < 0) {
+							state = State.END;
+						} else {
+							++rowCount;
+							state = fieldsLeft == 0 ? State.FIELD_COUNT : State.FIELD_LENGTH;
+						}
+					}
+					break;
+				case FIELD_LENGTH:
+					pos = fill(data, pos, end, 4);
+					if (pendingLength == 4) {
+						pendingLength = 0;
+						int fieldLength = readInt(0);
+						if (fieldLength > 0) {
+							skip = fieldLength;
+							state = State.FIELD_DATA;
+						} else if (--fieldsLeft == 0) {
+							state = State.FIELD_COUNT;
+						}
+					}
+					break;
+				default:
+					pos = end;
+			}
+		}
+	}
+
+	long getRowCount() {
+		return rowCount;
+	}
+
+	private int fill(byte[] data, int pos, int end, int target) {
+		int n = Math.min(target - pendingLength, end - pos);
+		System.arraycopy(data, pos, pending, pendingLength, n);
+		pendingLength += n;
+		return pos + n;
+	}
+
+	private int readInt(int offset) {
+		return ((pending[offset] & 0xFF) << 24) | ((pending[offset + 1] & 0xFF) << 16) | ((pending[offset + 2] & 0xFF) << 8) | (pending[offset + 3] & 0xFF);
+	}
+}
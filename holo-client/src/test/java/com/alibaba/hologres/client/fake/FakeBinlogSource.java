@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.fake;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * FakeHoloServer在START_REPLICATION之后按顺序发送的binlog数据，每个元素是一次XLogData的payload.
+ * payload的格式和HoloBinlogDecoder.decode的输入一致，可以用holo-client-benchmarks中的BinlogPayloadCapture从真实实例抓取，或者用envelope封装BinaryRow.
+ */
+public interface FakeBinlogSource {
+
+	/**
+	 * @param slotName START_REPLICATION的slot
+	 * @param shardId  slot option中的parallel_index
+	 */
+	List<byte[]> read(String slotName, int shardId);
+
+	/**
+	 * 按Hologres binlog格式封装多行BinaryRow.
+	 * header 16字节大端：binlog协议版本(0)，表版本；data小端：binlog版本，行数，每一行的offset，然后是每一行的数据.
+	 *
+	 * @param tableVersion 需要和TableSchema.getSchemaVersion一致
+	 * @param rows         每一行序列化后的BinaryRow
+	 */
+	static byte[] envelope(long tableVersion, List<byte[]> rows) {
+		int dataHeaderLength = 8 + 4 * rows.size();
+		int length = 16 + dataHeaderLength;
+		for (byte[] row : rows) {
+			length += row.length;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		buffer.order(ByteOrder.BIG_ENDIAN);
+		buffer.putLong(0L);
+		buffer.putLong(tableVersion);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(0);
+		buffer.putInt(rows.size());
+		int offset = dataHeaderLength;
+		for (byte[] row : rows) {
+			buffer.putInt(offset);
+			offset += row.length;
+		}
+		for (byte[] row : rows) {
+			buffer.put(row);
+		}
+		return buffer.array();
+	}
+}
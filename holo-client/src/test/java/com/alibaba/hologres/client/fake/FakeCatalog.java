@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.fake;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 按FakeTable回答HoloClient.getTableSchema查询的系统表.
+ * 主键和列信息来自pgjdbc的DatabaseMetaData.getPrimaryKeys/getColumns，表名以字面量拼在sql中；分区列和表属性来自ConnectionUtil，表名是参数.
+ * FakeTable没有缓存，hg_internal_check_table_meta总是返回成功.
+ */
+class FakeCatalog {
+
+	static final String[] PRIMARY_KEY_COLUMNS = new String[]{"table_cat", "table_schem", "table_name", "column_name", "key_seq", "pk_name"};
+	static final String[] COLUMN_COLUMNS = new String[]{"nspname", "relname", "attname", "atttypid", "attnotnull", "atttypmod", "attlen", "typtypmod",
+			"attnum", "attidentity", "adsrc", "description", "typbasetype", "typtype"};
+	static final String[] PARTITION_COLUMNS = new String[]{"schema", "name", "partstrat", "partnatts", "partattrs"};
+	static final String[] PROPERTY_COLUMNS = new String[]{"property_key", "property_value"};
+
+	private static final Pattern PRIMARY_KEY_SCHEMA = Pattern.compile("n\\.nspname\\s*=\\s*(E?)'((?:[^']|'')*)'");
+	private static final Pattern PRIMARY_KEY_TABLE = Pattern.compile("ct\\.relname\\s*=\\s*(E?)'((?:[^']|'')*)'");
+	private static final Pattern COLUMN_SCHEMA = Pattern.compile("n\\.nspname\\s+LIKE\\s+(E?)'((?:[^']|'')*)'");
+	private static final Pattern COLUMN_TABLE = Pattern.compile("c\\.relname\\s+LIKE\\s+(E?)'((?:[^']|'')*)'");
+
+	private final List<FakeTable> tables;
+
+	FakeCatalog(List<FakeTable> tables) {
+		this.tables = new ArrayList<>(tables);
+	}
+
+	/**
+	 * @return 不是getTableSchema的查询或者没有注册任何表时返回null
+	 */
+	FakeResult handle(FakeQuery query) {
+		if (tables.isEmpty()) {
+			return null;
+		}
+		String sql = query.getSql();
+		if (sql.contains("hologres.hg_internal_check_table_meta(")) {
+			return FakeResult.value("hg_internal_check_table_meta", "Check meta succeeded");
+		}
+		if (sql.contains("hologres.hg_internal_refresh_meta(")) {
+			return FakeResult.value("hg_internal_refresh_meta", "");
+		}
+		if (sql.contains("i.indisprimary")) {
+			return primaryKeys(sql);
+		}
+		if (sql.contains("pg_catalog.pg_attrdef")) {
+			return columns(sql);
+		}
+		if (sql.contains("hologres.hg_table_properties")) {
+			return properties(query);
+		}
+		if (sql.contains("pg_catalog.pg_partitioned_table part") && !sql.contains("pg_inherits")) {
+			return partition(query);
+		}
+		return null;
+	}
+
+	private FakeResult primaryKeys(String sql) {
+		FakeTable table = find(literal(PRIMARY_KEY_SCHEMA, sql), literal(PRIMARY_KEY_TABLE, sql));
+		List<Object[]> rows = new ArrayList<>();
+		if (table != null) {
+			List<String> primaryKeys = table.getPrimaryKeys();
+			for (int i = 0; i < primaryKeys.size(); ++i) {
+				rows.add(new Object[]{null, table.getSchemaName(), table.getTableName(), primaryKeys.get(i), i + 1, table.getTableName() + "_pkey"});
+			}
+		}
+		return FakeResult.rows(PRIMARY_KEY_COLUMNS, rows);
+	}
+
+	private FakeResult columns(String sql) {
+		String schemaPattern = literal(COLUMN_SCHEMA, sql);
+		String tablePattern = literal(COLUMN_TABLE, sql);
+		List<Object[]> rows = new ArrayList<>();
+		for (FakeTable table : tables) {
+			if (!like(table.getSchemaName(), schemaPattern) || !like(table.getTableName(), tablePattern)) {
+				continue;
+			}
+			List<FakeTable.FakeColumn> columns = table.getColumns();
+			for (int i = 0; i < columns.size(); ++i) {
+				FakeTable.FakeColumn column = columns.get(i);
+				rows.add(new Object[]{table.getSchemaName(), table.getTableName(), column.name, column.oid, table.isNotNull(column) ? "t" : "f",
+						-1, -1, -1, i + 1, null, null, null, 0, "b"});
+			}
+		}
+		return FakeResult.rows(COLUMN_COLUMNS, rows);
+	}
+
+	private FakeResult partition(FakeQuery query) {
+		FakeTable table = findByParams(query);
+		if (table == null || table.getPartitionColumnIndex() < 0) {
+			return FakeResult.empty(PARTITION_COLUMNS);
+		}
+		List<Object[]> rows = new ArrayList<>();
+		rows.add(new Object[]{table.getSchemaName(), table.getTableName(), "l", 1, table.getPartitionColumnIndex() + 1});
+		return FakeResult.rows(PARTITION_COLUMNS, rows);
+	}
+
+	private FakeResult properties(FakeQuery query) {
+		FakeTable table = findByParams(query);
+		List<Object[]> rows = new ArrayList<>();
+		if (table != null) {
+			for (Map.Entry<String, String> entry : table.getProperties().entrySet()) {
+				rows.add(new Object[]{entry.getKey(), entry.getValue()});
+			}
+		}
+		return FakeResult.rows(PROPERTY_COLUMNS, rows);
+	}
+
+	/**
+	 * 第一个参数是schema，第二个参数是表名；只Describe时参数都是null，返回null.
+	 */
+	private FakeTable findByParams(FakeQuery query) {
+		if (query.getParamCount() < 2) {
+			return null;
+		}
+		return find(query.getParamText(0), query.getParamText(1));
+	}
+
+	private FakeTable find(String schemaName, String tableName) {
+		for (FakeTable table : tables) {
+			if (table.getSchemaName().equals(schemaName) && table.getTableName().equals(tableName)) {
+				return table;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * pgjdbc把参数转义成'...'，standard_conforming_strings为off时为E'...'.
+	 */
+	private static String literal(Pattern pattern, String sql) {
+		Matcher matcher = pattern.matcher(sql);
+		if (!matcher.find()) {
+			return null;
+		}
+		String value = matcher.group(2).replace("''", "'");
+		if (!matcher.group(1).isEmpty()) {
+			value = value.replace("\\\\", "\\");
+		}
+		return value;
+	}
+
+	/**
+	 * sql的LIKE匹配，pattern为null表示不过滤.
+	 */
+	static boolean like(String value, String pattern) {
+		if (pattern == null) {
+			return true;
+		}
+		StringBuilder regex = new StringBuilder();
+		for (int i = 0; i < pattern.length(); ++i) {
+			char c = pattern.charAt(i);
+			if (c == '\\' && i + 1 < pattern.length()) {
+				regex.append(Pattern.quote(String.valueOf(pattern.charAt(++i))));
+			} else if (c == '%') {
+				regex.append(".*");
+			} else if (c == '_') {
+				regex.append('.');
+			} else {
+				regex.append(Pattern.quote(String.valueOf(c)));
+			}
+		}
+		return Pattern.compile(regex.toString(), Pattern.DOTALL).matcher(value).matches();
+	}
+}
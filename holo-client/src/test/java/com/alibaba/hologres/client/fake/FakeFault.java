@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.fake;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * FakeHoloServer注入的故障，sql匹配时生效，生效times次后失效.
+ */
+public class FakeFault {
+
+	final Pattern pattern;
+	final AtomicInteger remaining;
+	final boolean disconnect;
+	final String sqlState;
+	final String message;
+
+	private FakeFault(String regex, int times, boolean disconnect, String sqlState, String message) {
+		this.pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+		this.remaining = new AtomicInteger(times);
+		this.disconnect = disconnect;
+		this.sqlState = sqlState;
+		this.message = message;
+	}
+
+	/**
+	 * 返回ErrorResponse.
+	 *
+	 * @param regex 在sql中查找，忽略大小写
+	 * @param times 生效次数，小于0表示一直生效
+	 */
+	public static FakeFault error(String regex, int times, String sqlState, String message) {
+		return new FakeFault(regex, times, false, sqlState, message);
+	}
+
+	/**
+	 * 不返回任何数据直接关闭连接.
+	 *
+	 * @param regex 在sql中查找，忽略大小写
+	 * @param times 生效次数，小于0表示一直生效
+	 */
+	public static FakeFault disconnect(String regex, int times) {
+		return new FakeFault(regex, times, true, null, null);
+	}
+
+	/**
+	 * sql匹配并且还有剩余次数时返回true，同时扣减一次.
+	 */
+	boolean tryApply(String sql) {
+		if (!pattern.matcher(sql).find()) {
+			return false;
+		}
+		while (true) {
+			int current = remaining.get();
+			if (current == 0) {
+				return false;
+			}
+			if (current < 0 || remaining.compareAndSet(current, current - 1)) {
+				return true;
+			}
+		}
+	}
+
+	public int getRemaining() {
+		return remaining.get();
+	}
+}
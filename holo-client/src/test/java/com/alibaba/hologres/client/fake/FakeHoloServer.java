@@ -0,0 +1,419 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.fake;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 本地的PostgreSQL协议服务端，用于在没有Hologres实例时测试客户端的吞吐、反压和重试.
+ * 支持simple query、extended query、COPY FROM STDIN/TO STDOUT和按FakeBinlogSource发送的logical replication；不校验密码，不支持SSL.
+ * sql按注册顺序匹配on(regex, handler)，都不匹配时使用内置的默认处理：SET/RESET/BEGIN/COMMIT/ROLLBACK、hg_version()、version()、current_database()、
+ * INSERT/UPDATE/DELETE和COPY FROM STDIN，其他sql返回错误.
+ * addTable注册的表在on(regex, handler)之后、默认处理之前回答HoloClient.getTableSchema查询的系统表.
+ * 用法：
+ * <pre>
+ * try (FakeHoloServer server = FakeHoloServer.newBuilder()
+ *         .on("select count", q -> FakeResult.value("count", 10))
+ *         .addTable(new FakeTable("public", "test_table").addColumn("id", Oid.INT8).setPrimaryKeys("id"))
+ *         .addFault(FakeFault.error("insert", 2, "53000", "Resource busy"))
+ *         .setLatencyMs(5)
+ *         .build().start()) {
+ *     HoloConfig config = new HoloConfig();
+ *     config.setJdbcUrl(server.getJdbcUrl());
+ *     ...
+ * }
+ * </pre>
+ */
+public class FakeHoloServer implements Closeable {
+
+	public static final Logger LOGGER = LoggerFactory.getLogger(FakeHoloServer.class);
+
+	public static final String DATABASE = "fake_db";
+	public static final String HOLO_VERSION = "2.1.0";
+
+	/**
+	 * 处理一条sql.
+	 */
+	public interface QueryHandler {
+		FakeResult handle(FakeQuery query) throws Exception;
+	}
+
+	/**
+	 * 一条路由规则.
+	 */
+	private static class Rule {
+		final Pattern pattern;
+		final QueryHandler handler;
+
+		Rule(Pattern pattern, QueryHandler handler) {
+			this.pattern = pattern;
+			this.handler = handler;
+		}
+	}
+
+	private static final Pattern COPY_IN = Pattern.compile("^\\s*copy\\s.*\\sfrom\\s+stdin", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+	private static final Pattern COPY_OUT = Pattern.compile("^\\s*copy\\s.*\\sto\\s+stdout", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+	private static final Pattern COPY_BINARY = Pattern.compile("format\\s+binary|\\sbinary\\s*$", Pattern.CASE_INSENSITIVE);
+	private static final Pattern START_REPLICATION = Pattern.compile("^\\s*start_replication\\s+slot\\s+\"?([^\\s\"]+)\"?", Pattern.CASE_INSENSITIVE);
+
+	private final List<Rule> rules;
+	private final List<FakeFault> faults;
+	private final FakeCatalog catalog;
+	private final long latencyMs;
+	final ByteRateLimiter limiter;
+	final FakeBinlogSource binlogSource;
+	final boolean retainCopyData;
+	final long replicationKeepAliveMs;
+
+	private ServerSocket serverSocket;
+	private ExecutorService executor;
+	private volatile boolean closed = false;
+	private final Set<FakeSession> sessions = Collections.newSetFromMap(new ConcurrentHashMap<>());
+	private final AtomicInteger connectionCount = new AtomicInteger(0);
+	private final AtomicLong copyInRowCount = new AtomicLong(0L);
+	private final AtomicLong bytesReceived = new AtomicLong(0L);
+	private final ConcurrentLinkedQueue<String> executedSql = new ConcurrentLinkedQueue<>();
+	private final Map<String, Long> flushedLsn = new ConcurrentHashMap<>();
+
+	private FakeHoloServer(Builder builder) {
+		this.rules = new ArrayList<>(builder.rules);
+		this.faults = new ArrayList<>(builder.faults);
+		this.catalog = new FakeCatalog(builder.tables);
+		this.latencyMs = builder.latencyMs;
+		this.limiter = builder.bytesPerSecond > 0 ? new ByteRateLimiter(builder.bytesPerSecond) : null;
+		this.binlogSource = builder.binlogSource;
+		this.retainCopyData = builder.retainCopyData;
+		this.replicationKeepAliveMs = builder.replicationKeepAliveMs;
+	}
+
+	public static Builder newBuilder() {
+		return new Builder();
+	}
+
+	/**
+	 * 在127.0.0.1的随机端口上监听，每个连接一个线程.
+	 */
+	public synchronized FakeHoloServer start() throws IOException {
+		if (serverSocket != null) {
+			return this;
+		}
+		serverSocket = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+		executor = Executors.newCachedThreadPool(r -> {
+			Thread t = new Thread(r);
+			t.setName("fake-holo-server-" + serverSocket.getLocalPort());
+			t.setDaemon(true);
+			return t;
+		});
+		executor.execute(() -> {
+			while (!closed) {
+				try {
+					Socket socket = serverSocket.accept();
+					FakeSession session = new FakeSession(this, socket, connectionCount.incrementAndGet());
+					sessions.add(session);
+					executor.execute(() -> {
+						try {
+							session.run();
+						} finally {
+							sessions.remove(session);
+						}
+					});
+				} catch (IOException e) {
+					if (!closed) {
+						LOGGER.warn("accept fail", e);
+					}
+				}
+			}
+		});
+		return this;
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	public String getJdbcUrl() {
+		return "jdbc:postgresql://127.0.0.1:" + getPort() + "/" + DATABASE;
+	}
+
+	/**
+	 * @return 累计建立过的连接数
+	 */
+	public int getConnectionCount() {
+		return connectionCount.get();
+	}
+
+	/**
+	 * @return 当前没有关闭的连接数
+	 */
+	public int getActiveConnectionCount() {
+		return sessions.size();
+	}
+
+	/**
+	 * @return 按执行顺序的所有sql，不包括只Describe的sql
+	 */
+	public List<String> getExecutedSql() {
+		return new ArrayList<>(executedSql);
+	}
+
+	/**
+	 * @return 所有COPY FROM STDIN收到的行数
+	 */
+	public long getCopyInRowCount() {
+		return copyInRowCount.get();
+	}
+
+	/**
+	 * @return 从客户端收到的字节数
+	 */
+	public long getBytesReceived() {
+		return bytesReceived.get();
+	}
+
+	/**
+	 * @return 客户端通过standby status update提交的flushed lsn，没有提交过返回-1
+	 */
+	public long getFlushedLsn(String slotName, int shardId) {
+		Long lsn = flushedLsn.get(slotName + "/" + shardId);
+		return lsn == null ? -1L : lsn;
+	}
+
+	/**
+	 * 关闭所有连接，模拟服务端重启或网络中断.
+	 */
+	public void closeAllConnections() {
+		for (FakeSession session : sessions) {
+			session.closeSocket();
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			if (serverSocket != null) {
+				serverSocket.close();
+			}
+		} catch (IOException ignore) {
+		}
+		closeAllConnections();
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	boolean isCopyIn(String sql) {
+		return COPY_IN.matcher(sql).find();
+	}
+
+	boolean isCopyOut(String sql) {
+		return COPY_OUT.matcher(sql).find();
+	}
+
+	boolean isCopyBinary(String sql) {
+		return COPY_BINARY.matcher(sql).find();
+	}
+
+	/**
+	 * @return START_REPLICATION的slot，不是START_REPLICATION返回null
+	 */
+	String parseReplicationSlot(String sql) {
+		Matcher matcher = START_REPLICATION.matcher(sql);
+		return matcher.find() ? matcher.group(1) : null;
+	}
+
+	/**
+	 * 查找需要注入的故障，没有返回null.
+	 */
+	FakeFault findFault(String sql) {
+		for (FakeFault fault : faults) {
+			if (fault.tryApply(sql)) {
+				return fault;
+			}
+		}
+		return null;
+	}
+
+	void sleepLatency() throws InterruptedException {
+		if (latencyMs > 0) {
+			Thread.sleep(latencyMs);
+		}
+	}
+
+	void recordExecuted(String sql) {
+		executedSql.add(sql);
+	}
+
+	void recordBytesReceived(int bytes) {
+		bytesReceived.addAndGet(bytes);
+	}
+
+	void recordCopyIn(long rows) {
+		copyInRowCount.addAndGet(rows);
+	}
+
+	void recordFlushedLsn(String slotName, int shardId, long lsn) {
+		flushedLsn.put(slotName + "/" + shardId, lsn);
+	}
+
+	/**
+	 * 按规则执行一条sql，handler抛出的异常转换为错误.
+	 */
+	FakeResult execute(FakeQuery query) {
+		String sql = query.getSql();
+		try {
+			for (Rule rule : rules) {
+				if (rule.pattern.matcher(sql).find()) {
+					return rule.handler.handle(query);
+				}
+			}
+			FakeResult result = catalog.handle(query);
+			if (result != null) {
+				return result;
+			}
+			return executeDefault(query);
+		} catch (Exception e) {
+			return FakeResult.error("XX000", "fake server handler fail: " + e.getMessage());
+		}
+	}
+
+	private FakeResult executeDefault(FakeQuery query) {
+		String sql = query.getSql().trim();
+		String lower = sql.toLowerCase();
+		String keyword = lower.split("\\s+", 2)[0];
+		switch (keyword) {
+			case "set":
+			case "reset":
+			case "begin":
+			case "commit":
+			case "rollback":
+				return FakeResult.command(keyword.toUpperCase());
+			case "insert":
+				return FakeResult.command("INSERT 0 1");
+			case "update":
+				return FakeResult.command("UPDATE 1");
+			case "delete":
+				return FakeResult.command("DELETE 1");
+			case "copy":
+				if (isCopyIn(sql)) {
+					return FakeResult.command("COPY " + query.getCopyRowCount());
+				}
+				break;
+			default:
+		}
+		if (lower.contains("hg_version()")) {
+			return FakeResult.value("hg_version", "Hologres " + HOLO_VERSION + " (tag: release-" + HOLO_VERSION + " build: Release)");
+		}
+		if (lower.contains("version()")) {
+			return FakeResult.value("version", "PostgreSQL 11.3 (Release-build@fake on origin/release-" + HOLO_VERSION + ") on x86_64-pc-linux-gnu");
+		}
+		if (lower.contains("current_database()")) {
+			return FakeResult.value("current_database", DATABASE);
+		}
+		return FakeResult.error("0A000", "fake server does not support: " + sql);
+	}
+
+	/**
+	 * FakeHoloServer构造器.
+	 */
+	public static class Builder {
+		private final List<Rule> rules = new ArrayList<>();
+		private final List<FakeFault> faults = new ArrayList<>();
+		private final List<FakeTable> tables = new ArrayList<>();
+		private long latencyMs = 0L;
+		private long bytesPerSecond = -1L;
+		private FakeBinlogSource binlogSource = null;
+		private boolean retainCopyData = true;
+		private long replicationKeepAliveMs = 200L;
+
+		/**
+		 * 注册sql的处理，regex在sql中查找，忽略大小写；先注册的先匹配.
+		 */
+		public Builder on(String regex, QueryHandler handler) {
+			rules.add(new Rule(Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.DOTALL), handler));
+			return this;
+		}
+
+		/**
+		 * 注入故障，在handler之前生效.
+		 */
+		public Builder addFault(FakeFault fault) {
+			faults.add(fault);
+			return this;
+		}
+
+		/**
+		 * 注册一张表，用于HoloClient.getTableSchema.
+		 */
+		public Builder addTable(FakeTable table) {
+			tables.add(table);
+			return this;
+		}
+
+		/**
+		 * 每条sql返回结果前的延迟.
+		 */
+		public Builder setLatencyMs(long latencyMs) {
+			this.latencyMs = latencyMs;
+			return this;
+		}
+
+		/**
+		 * 所有连接共享的收发带宽，小于等于0表示不限速.
+		 */
+		public Builder setBytesPerSecond(long bytesPerSecond) {
+			this.bytesPerSecond = bytesPerSecond;
+			return this;
+		}
+
+		public Builder setBinlogSource(FakeBinlogSource binlogSource) {
+			this.binlogSource = binlogSource;
+			return this;
+		}
+
+		/**
+		 * 是否保存COPY FROM STDIN的数据交给handler，压测时设为false避免占用内存.
+		 */
+		public Builder setRetainCopyData(boolean retainCopyData) {
+			this.retainCopyData = retainCopyData;
+			return this;
+		}
+
+		/**
+		 * binlog数据发送完之后发送keepalive的间隔.
+		 */
+		public Builder setReplicationKeepAliveMs(long replicationKeepAliveMs) {
+			this.replicationKeepAliveMs = replicationKeepAliveMs;
+			return this;
+		}
+
+		public FakeHoloServer build() {
+			return new FakeHoloServer(this);
+		}
+	}
+}
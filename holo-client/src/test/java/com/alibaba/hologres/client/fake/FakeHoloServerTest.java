@@ -0,0 +1,530 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.fake;
+
+import com.alibaba.hologres.client.HoloClient;
+import com.alibaba.hologres.client.HoloConfig;
+import com.alibaba.hologres.client.Put;
+import com.alibaba.hologres.client.exception.HoloClientException;
+import com.alibaba.hologres.client.impl.ExecutionPool;
+import com.alibaba.hologres.client.impl.binlog.BinlogLevel;
+import com.alibaba.hologres.client.model.TableSchema;
+import org.postgresql.PGConnection;
+import org.postgresql.PGProperty;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.Oid;
+import org.postgresql.replication.LogSequenceNumber;
+import org.postgresql.replication.PGReplicationStream;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * FakeHoloServer单元测试用例.
+ */
+public class FakeHoloServerTest {
+
+	private static Connection connect(FakeHoloServer server) throws SQLException {
+		Properties info = new Properties();
+		PGProperty.USER.set(info, "fake_user");
+		PGProperty.PASSWORD.set(info, "fake_password");
+		return DriverManager.getConnection(server.getJdbcUrl(), info);
+	}
+
+	private static HoloConfig buildConfig(FakeHoloServer server) {
+		HoloConfig config = new HoloConfig();
+		config.setJdbcUrl(server.getJdbcUrl());
+		config.setUsername("fake_user");
+		config.setPassword("fake_password");
+		config.setRetryCount(3);
+		config.setRetrySleepInitMs(10L);
+		config.setRetrySleepStepMs(10L);
+		config.setReadThreadSize(1);
+		config.setWriteThreadSize(1);
+		return config;
+	}
+
+	/**
+	 * 两个字段(int4, text)的binary COPY数据.
+	 */
+	private static byte[] buildBinaryCopy(int rowCount) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bos);
+		out.write("PGCOPY\n\377\r\n\0".getBytes(StandardCharsets.ISO_8859_1));
+		out.writeInt(0);
+		out.writeInt(0);
+		for (int i = 0; i < rowCount; ++i) {
+			out.writeShort(2);
+			out.writeInt(4);
+			out.writeInt(i);
+			if (i % 2 == 0) {
+				out.writeInt(-1);
+			} else {
+				byte[] name = ("name_" + i).getBytes(StandardCharsets.UTF_8);
+				out.writeInt(name.length);
+				out.write(name);
+			}
+		}
+		out.writeShort(-1);
+		out.flush();
+		return bos.toByteArray();
+	}
+
+	@Test
+	public void testSimpleAndExtendedQuery() throws Exception {
+		try (FakeHoloServer server = FakeHoloServer.newBuilder()
+				.on("^select id, name from t", q -> FakeResult.rows(new String[]{"id", "name"}, new int[]{Oid.INT8, Oid.TEXT},
+						Arrays.asList(new Object[]{1L, "a"}, new Object[]{2L, null})))
+				.on("^select \\$1", q -> FakeResult.value("v", q.getParamText(0)))
+				.build().start();
+			Connection conn = connect(server)) {
+			try (Statement stat = conn.createStatement()) {
+				stat.execute("set a = 1;set b = 2");
+				try (ResultSet rs = stat.executeQuery("select id, name from t")) {
+					Assert.assertTrue(rs.next());
+					Assert.assertEquals(rs.getLong(1), 1L);
+					Assert.assertEquals(rs.getString(2), "a");
+					Assert.assertTrue(rs.next());
+					Assert.assertEquals(rs.getLong(1), 2L);
+					Assert.assertNull(rs.getString(2));
+					Assert.assertFalse(rs.next());
+				}
+				try (ResultSet rs = stat.executeQuery("select hg_version()")) {
+					Assert.assertTrue(rs.next());
+					Assert.assertTrue(rs.getString(1).contains("Hologres " + FakeHoloServer.HOLO_VERSION));
+				}
+			}
+			//超过prepareThreshold之后pgjdbc会使用named statement和binary结果
+			for (int i = 0; i < 8; ++i) {
+				try (PreparedStatement ps = conn.prepareStatement("select ?")) {
+					ps.setString(1, "hello_" + i);
+					try (ResultSet rs = ps.executeQuery()) {
+						Assert.assertTrue(rs.next());
+						Assert.assertEquals(rs.getString(1), "hello_" + i);
+					}
+				}
+			}
+			try (PreparedStatement ps = conn.prepareStatement("insert into t values (?, ?)")) {
+				for (int i = 0; i < 10; ++i) {
+					ps.setLong(1, i);
+					ps.setString(2, "name_" + i);
+					ps.addBatch();
+				}
+				int[] counts = ps.executeBatch();
+				Assert.assertEquals(counts.length, 10);
+			}
+			conn.setAutoCommit(false);
+			try (Statement stat = conn.createStatement()) {
+				Assert.assertEquals(stat.executeUpdate("delete from t where id = 1"), 1);
+			}
+			conn.commit();
+			conn.setAutoCommit(true);
+
+			Assert.assertTrue(server.getExecutedSql().contains("select id, name from t"));
+			Assert.assertEquals(server.getConnectionCount(), 1);
+		}
+	}
+
+	@Test
+	public void testUnsupportedSql() throws Exception {
+		try (FakeHoloServer server = FakeHoloServer.newBuilder().build().start();
+			Connection conn = connect(server);
+			Statement stat = conn.createStatement()) {
+			try {
+				stat.executeQuery("select * from not_exists");
+				Assert.fail("unsupported sql should fail");
+			} catch (SQLException e) {
+				Assert.assertEquals(e.getSQLState(), "0A000");
+			}
+			//出错之后连接仍然可用
+			try (ResultSet rs = stat.executeQuery("select current_database()")) {
+				Assert.assertTrue(rs.next());
+				Assert.assertEquals(rs.getString(1), FakeHoloServer.DATABASE);
+			}
+		}
+	}
+
+	@Test
+	public void testCopyIn() throws Exception {
+		List<FakeQuery> copies = Collections.synchronizedList(new ArrayList<>());
+		try (FakeHoloServer server = FakeHoloServer.newBuilder()
+				.on("^copy ", q -> {
+					copies.add(q);
+					return FakeResult.command("COPY " + q.getCopyRowCount());
+				})
+				.build().start();
+			Connection conn = connect(server)) {
+			CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+			long rows = copyManager.copyIn("copy t(id, name) from stdin", new ByteArrayInputStream("1\ta\n2\tb\n".getBytes(StandardCharsets.UTF_8)));
+			Assert.assertEquals(rows, 2L);
+
+			byte[] binary = buildBinaryCopy(1000);
+			rows = copyManager.copyIn("copy t(id, name) from stdin with (format binary)", new ByteArrayInputStream(binary), 100);
+			Assert.assertEquals(rows, 1000L);
+			Assert.assertEquals(copies.size(), 2);
+			Assert.assertEquals(copies.get(1).getCopyData(), binary);
+			Assert.assertEquals(server.getCopyInRowCount(), 1002L);
+			Assert.assertTrue(server.getBytesReceived() >= binary.length);
+		}
+	}
+
+	@Test
+	public void testCopyRowCounter() throws Exception {
+		byte[] binary = buildBinaryCopy(37);
+		CopyRowCounter counter = new CopyRowCounter(true);
+		for (int i = 0; i < binary.length; ++i) {
+			counter.feed(binary, i, 1);
+		}
+		Assert.assertEquals(counter.getRowCount(), 37L);
+
+		counter = new CopyRowCounter(true);
+		counter.feed(binary, 0, binary.length);
+		Assert.assertEquals(counter.getRowCount(), 37L);
+	}
+
+	@Test
+	public void testCopyOut() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 10000; ++i) {
+			sb.append(i).append('\t').append("name_").append(i).append('\n');
+		}
+		byte[] data = sb.toString().getBytes(StandardCharsets.UTF_8);
+		try (FakeHoloServer server = FakeHoloServer.newBuilder()
+				.on("^copy ", q -> FakeResult.copyOut(data, 10000))
+				.build().start();
+			Connection conn = connect(server)) {
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			long rows = conn.unwrap(PGConnection.class).getCopyAPI().copyOut("copy t to stdout", bos);
+			Assert.assertEquals(rows, 10000L);
+			Assert.assertEquals(bos.toByteArray(), data);
+		}
+	}
+
+	@Test
+	public void testFault() throws Exception {
+		FakeFault busy = FakeFault.error("insert into t", 2, "53400", "Resource busy");
+		try (FakeHoloServer server = FakeHoloServer.newBuilder()
+				.addFault(busy)
+				.addFault(FakeFault.disconnect("delete from t", 1))
+				.build().start();
+			Connection conn = connect(server);
+			Statement stat = conn.createStatement()) {
+			for (int i = 0; i < 2; ++i) {
+				try {
+					stat.executeUpdate("insert into t values (1)");
+					Assert.fail("fault should be applied");
+				} catch (SQLException e) {
+					Assert.assertTrue(e.getMessage().contains("Resource busy"));
+				}
+			}
+			Assert.assertEquals(busy.getRemaining(), 0);
+			Assert.assertEquals(stat.executeUpdate("insert into t values (1)"), 1);
+
+			try {
+				stat.executeUpdate("delete from t");
+				Assert.fail("connection should be closed");
+			} catch (SQLException e) {
+				Assert.assertTrue(e.getSQLState().startsWith("08"), e.getSQLState());
+			}
+		}
+	}
+
+	@Test
+	public void testHoloClientRetry() throws Exception {
+		try (FakeHoloServer server = FakeHoloServer.newBuilder()
+				.addFault(FakeFault.error("insert into t", 1, "53400", "Resource busy"))
+				.addFault(FakeFault.disconnect("delete from t", 1))
+				.build().start()) {
+			try (HoloClient client = new HoloClient(buildConfig(server))) {
+				int ret = client.sql(conn -> {
+					try (Statement stat = conn.createStatement()) {
+						return stat.executeUpdate("insert into t values (1)");
+					}
+				}).get();
+				Assert.assertEquals(ret, 1);
+				Assert.assertEquals(server.getConnectionCount(), 1);
+
+				//连接断开之后HoloClient重新建连并重试
+				ret = client.sql(conn -> {
+					try (Statement stat = conn.createStatement()) {
+						return stat.executeUpdate("delete from t");
+					}
+				}).get();
+				Assert.assertEquals(ret, 1);
+				Assert.assertEquals(server.getConnectionCount(), 2, server.getExecutedSql().toString());
+			}
+			long hgVersionCount = server.getExecutedSql().stream().filter(sql -> sql.contains("hg_version()")).count();
+			Assert.assertTrue(hgVersionCount >= 1L);
+		}
+	}
+
+	@Test
+	public void testHoloClientNotRetryable() throws Exception {
+		try (FakeHoloServer server = FakeHoloServer.newBuilder()
+				.addFault(FakeFault.error("insert into t", -1, "42601", "syntax error at or near \"t\""))
+				.build().start();
+			HoloClient client = new HoloClient(buildConfig(server))) {
+			try {
+				client.sql(conn -> {
+					try (Statement stat = conn.createStatement()) {
+						return stat.executeUpdate("insert into t values (1)");
+					}
+				}).get();
+				Assert.fail("syntax error should not be retried");
+			} catch (ExecutionException e) {
+				long count = server.getExecutedSql().stream().filter(sql -> sql.startsWith("insert into t")).count();
+				Assert.assertEquals(count, 1L);
+			}
+		}
+	}
+
+	@Test
+	public void testTableSchema() throws Exception {
+		FakeTable table = new FakeTable("public", "test_table")
+				.addColumn("id", Oid.INT8)
+				.addColumn("name", Oid.TEXT)
+				.addColumn("tags", Oid.INT4_ARRAY)
+				.addColumn("ds", Oid.INT4)
+				.setPrimaryKeys("id", "ds")
+				.setPartitionColumn("ds")
+				.setProperty("binlog.level", "replica");
+		try (FakeHoloServer server = FakeHoloServer.newBuilder()
+				.addTable(table)
+				.addTable(new FakeTable("public", "test_put").addColumn("id", Oid.INT8).addColumn("name", Oid.TEXT).setPrimaryKeys("id"))
+				.build().start();
+			HoloClient client = new HoloClient(buildConfig(server))) {
+			TableSchema schema = client.getTableSchema("public.test_table");
+			Assert.assertEquals(schema.getColumnSchema().length, 4);
+			Assert.assertEquals(schema.getColumn(0).getType(), Types.BIGINT);
+			Assert.assertEquals(schema.getColumn(1).getTypeName(), "text");
+			Assert.assertTrue(schema.getColumn(1).getAllowNull());
+			Assert.assertTrue(schema.getColumn(2).getArrayType());
+			Assert.assertFalse(schema.getColumn(3).getAllowNull());
+			Assert.assertEquals(schema.getPrimaryKeys(), new String[]{"id", "ds"});
+			Assert.assertEquals(schema.getDistributionKeys(), new String[]{"id", "ds"});
+			Assert.assertEquals(schema.getPartitionIndex(), 3);
+			Assert.assertEquals(schema.getOrientation(), "column");
+			Assert.assertEquals(schema.getBinlogLevel(), BinlogLevel.REPLICA);
+
+			Put put = new Put(client.getTableSchema("public.test_put"));
+			put.setObject("id", 1L);
+			put.setObject("name", "a");
+			client.put(put);
+			client.flush();
+			Assert.assertTrue(server.getExecutedSql().stream().anyMatch(sql -> sql.startsWith("insert into \"public\".\"test_put\"")), server.getExecutedSql().toString());
+
+			try {
+				client.getTableSchema("public.not_exist");
+				Assert.fail("table not exist");
+			} catch (HoloClientException e) {
+				Assert.assertTrue(e.getMessage().contains("can not found table"), e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * 与holo-e2e-performance-tool的INSERT模式相同：建表，多个线程各自的HoloClient共用一个ExecutionPool写入，最后删表.
+	 */
+	@Test
+	public void testInsertScenario() throws Exception {
+		FakeTable table = new FakeTable("public", "holo_perf")
+				.addColumn("id", Oid.INT4)
+				.addColumn("name0", Oid.TEXT)
+				.addColumn("name1", Oid.TEXT)
+				.addColumn("ts", Oid.TIMESTAMPTZ, false)
+				.setPrimaryKeys("id");
+		int threadSize = 2;
+		int rowNumber = 1000;
+		try (FakeHoloServer server = FakeHoloServer.newBuilder()
+				.on("^\\s*(drop|create|call|end)\\b", q -> FakeResult.command(q.getSql().trim().split("\\s+", 2)[0].toUpperCase()))
+				.addTable(table)
+				.build().start()) {
+			HoloConfig config = buildConfig(server);
+			try (HoloClient client = new HoloClient(config)) {
+				client.sql(conn -> {
+					try (Statement stat = conn.createStatement()) {
+						stat.execute("begin;\ndrop table if exists holo_perf;\n"
+								+ "create table holo_perf(id int,name0 text,name1 text,ts timestamptz not null,primary key(id));\n"
+								+ "call set_table_property('holo_perf','orientation','column');\nend;");
+					}
+					return null;
+				}).get();
+			}
+
+			ExecutionPool pool = ExecutionPool.buildOrGet("fake_insert_scenario", config, false, false);
+			AtomicLong tic = new AtomicLong(0L);
+			AtomicLong totalCount = new AtomicLong(0L);
+			List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+			Thread[] threads = new Thread[threadSize];
+			try {
+				for (int i = 0; i < threadSize; ++i) {
+					threads[i] = new Thread(() -> {
+						try (HoloClient client = new HoloClient(config)) {
+							client.setPool(pool);
+							TableSchema schema = client.getTableSchema("holo_perf");
+							long pk;
+							while ((pk = tic.incrementAndGet()) <= rowNumber) {
+								Put put = new Put(schema);
+								put.setObject("id", (int) pk);
+								put.setObject("name0", "aaaaaaaaaa" + pk);
+								put.setObject("name1", "aaaaaaaaaa" + pk);
+								put.setObject("ts", new Timestamp(System.currentTimeMillis()));
+								client.put(put);
+								totalCount.incrementAndGet();
+							}
+							client.flush();
+						} catch (Throwable e) {
+							errors.add(e);
+						}
+					});
+					threads[i].start();
+				}
+				for (Thread thread : threads) {
+					thread.join();
+				}
+			} finally {
+				pool.close();
+			}
+			Assert.assertTrue(errors.isEmpty(), errors.toString());
+			Assert.assertEquals(totalCount.get(), rowNumber);
+
+			try (HoloClient client = new HoloClient(config)) {
+				client.sql(conn -> {
+					try (Statement stat = conn.createStatement()) {
+						stat.execute("drop table if exists holo_perf");
+					}
+					return null;
+				}).get();
+			}
+			List<String> executedSql = server.getExecutedSql();
+			Assert.assertTrue(executedSql.stream().anyMatch(sql -> sql.trim().startsWith("create table holo_perf")), executedSql.toString());
+			Assert.assertTrue(executedSql.stream().anyMatch(sql -> sql.startsWith("insert into \"public\".\"holo_perf\"")), executedSql.toString());
+			Assert.assertTrue(executedSql.get(executedSql.size() - 1).startsWith("drop table if exists holo_perf"), executedSql.toString());
+		}
+	}
+
+	@Test
+	public void testLatency() throws Exception {
+		try (FakeHoloServer server = FakeHoloServer.newBuilder().setLatencyMs(50L).build().start();
+			Connection conn = connect(server);
+			Statement stat = conn.createStatement()) {
+			long start = System.nanoTime();
+			for (int i = 0; i < 4; ++i) {
+				stat.executeUpdate("insert into t values (1)");
+			}
+			long costMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			Assert.assertTrue(costMs >= 200L, "cost " + costMs + " ms");
+		}
+	}
+
+	@Test
+	public void testBandwidth() throws Exception {
+		try (FakeHoloServer server = FakeHoloServer.newBuilder().setBytesPerSecond(1024L * 1024L).setRetainCopyData(false).build().start();
+			Connection conn = connect(server)) {
+			byte[] data = new byte[512 * 1024];
+			Arrays.fill(data, (byte) 'a');
+			for (int i = 1023; i < data.length; i += 1024) {
+				data[i] = '\n';
+			}
+			CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+			long start = System.nanoTime();
+			long rows = copyManager.copyIn("copy t from stdin", new ByteArrayInputStream(data));
+			long costMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			Assert.assertEquals(rows, 512L);
+			//512KB在1MB/s下至少需要约500ms
+			Assert.assertTrue(costMs >= 400L, "cost " + costMs + " ms");
+		}
+	}
+
+	@Test
+	public void testEnvelope() {
+		byte[] row0 = new byte[]{1, 2, 3};
+		byte[] row1 = new byte[]{4, 5};
+		byte[] payload = FakeBinlogSource.envelope(7L, Arrays.asList(row0, row1));
+		ByteBuffer buffer = ByteBuffer.wrap(payload);
+		Assert.assertEquals(buffer.getLong(), 0L);
+		Assert.assertEquals(buffer.getLong(), 7L);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		Assert.assertEquals(buffer.getInt(), 0);
+		Assert.assertEquals(buffer.getInt(), 2);
+		Assert.assertEquals(buffer.getInt(), 16);
+		Assert.assertEquals(buffer.getInt(), 19);
+		Assert.assertEquals(payload.length, 16 + 16 + 5);
+		Assert.assertEquals(payload[16 + 16], 1);
+		Assert.assertEquals(payload[16 + 19], 4);
+	}
+
+	@Test
+	public void testReplication() throws Exception {
+		List<byte[]> payloads = Arrays.asList(
+				FakeBinlogSource.envelope(1L, Collections.singletonList(new byte[]{1, 2, 3})),
+				FakeBinlogSource.envelope(1L, Collections.singletonList(new byte[]{4, 5, 6})));
+		try (FakeHoloServer server = FakeHoloServer.newBuilder()
+				.setBinlogSource((slot, shardId) -> "test_slot".equals(slot) && shardId == 1 ? payloads : Collections.emptyList())
+				.setReplicationKeepAliveMs(50L)
+				.build().start()) {
+			Properties info = new Properties();
+			PGProperty.USER.set(info, "fake_user");
+			PGProperty.PASSWORD.set(info, "fake_password");
+			PGProperty.REPLICATION.set(info, "database");
+			PGProperty.ASSUME_MIN_SERVER_VERSION.set(info, "9.4");
+			PGProperty.PREFER_QUERY_MODE.set(info, "simple");
+			try (Connection conn = DriverManager.getConnection(server.getJdbcUrl(), info)) {
+				PGReplicationStream stream = conn.unwrap(PGConnection.class).getReplicationAPI()
+						.replicationStream()
+						.logical()
+						.withSlotName("test_slot")
+						.withSlotOption("parallel_index", 1)
+						.withStartPosition(LogSequenceNumber.valueOf(0L))
+						.start();
+				for (byte[] expect : payloads) {
+					ByteBuffer buffer = null;
+					long deadline = System.currentTimeMillis() + 5000L;
+					while (buffer == null && System.currentTimeMillis() < deadline) {
+						buffer = stream.readPending();
+						if (buffer == null) {
+							Thread.sleep(10L);
+						}
+					}
+					Assert.assertNotNull(buffer);
+					byte[] actual = new byte[buffer.remaining()];
+					buffer.get(actual);
+					Assert.assertEquals(actual, expect);
+				}
+				stream.setFlushedLSN(LogSequenceNumber.valueOf(2L));
+				stream.forceUpdateStatus();
+				long deadline = System.currentTimeMillis() + 5000L;
+				while (server.getFlushedLsn("test_slot", 1) != 2L && System.currentTimeMillis() < deadline) {
+					Thread.sleep(10L);
+				}
+				Assert.assertEquals(server.getFlushedLsn("test_slot", 1), 2L);
+				stream.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.fake;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * FakeHoloServer收到的一条sql.
+ */
+public class FakeQuery {
+
+	private final int connectionId;
+	private final String sql;
+	private final List<byte[]> params;
+	private final short[] paramFormats;
+	private final boolean describeOnly;
+	private final byte[] copyData;
+	private final long copyRowCount;
+
+	FakeQuery(int connectionId, String sql, List<byte[]> params, short[] paramFormats, boolean describeOnly, byte[] copyData, long copyRowCount) {
+		this.connectionId = connectionId;
+		this.sql = sql;
+		this.params = params == null ? Collections.emptyList() : params;
+		this.paramFormats = paramFormats;
+		this.describeOnly = describeOnly;
+		this.copyData = copyData;
+		this.copyRowCount = copyRowCount;
+	}
+
+	public int getConnectionId() {
+		return connectionId;
+	}
+
+	public String getSql() {
+		return sql;
+	}
+
+	public int getParamCount() {
+		return params.size();
+	}
+
+	/**
+	 * @return 参数的原始字节，NULL返回null
+	 */
+	public byte[] getParam(int index) {
+		return params.get(index);
+	}
+
+	/**
+	 * @return 参数是否为binary格式
+	 */
+	public boolean isBinaryParam(int index) {
+		if (paramFormats == null || paramFormats.length == 0) {
+			return false;
+		}
+		return (paramFormats.length == 1 ? paramFormats[0] : paramFormats[index]) == 1;
+	}
+
+	/**
+	 * @return text格式参数的值，NULL返回null
+	 */
+	public String getParamText(int index) {
+		byte[] value = params.get(index);
+		if (value == null) {
+			return null;
+		}
+		if (isBinaryParam(index)) {
+			throw new IllegalStateException("param " + index + " is binary");
+		}
+		return new String(value, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * 客户端Describe一个还没有绑定参数的statement时为true，此时参数都为null，只需要返回结果的列信息.
+	 */
+	public boolean isDescribeOnly() {
+		return describeOnly;
+	}
+
+	/**
+	 * @return COPY FROM STDIN收到的数据；不是COPY或者FakeHoloServer没有保存copy数据时返回null
+	 */
+	public byte[] getCopyData() {
+		return copyData;
+	}
+
+	/**
+	 * @return COPY FROM STDIN收到的行数
+	 */
+	public long getCopyRowCount() {
+		return copyRowCount;
+	}
+
+	@Override
+	public String toString() {
+		return "FakeQuery{connectionId=" + connectionId + ", sql='" + sql + "', paramCount=" + params.size() + '}';
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.fake;
+
+import org.postgresql.core.Oid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * FakeHoloServer对一条sql的返回.
+ */
+public class FakeResult {
+
+	enum Kind {
+		COMMAND,
+		ROWS,
+		ERROR,
+		COPY_OUT
+	}
+
+	final Kind kind;
+	final String tag;
+	final String[] columnNames;
+	final int[] columnOids;
+	final List<Object[]> rows;
+	final String sqlState;
+	final String message;
+	final byte[] copyData;
+
+	private FakeResult(Kind kind, String tag, String[] columnNames, int[] columnOids, List<Object[]> rows, String sqlState, String message, byte[] copyData) {
+		this.kind = kind;
+		this.tag = tag;
+		this.columnNames = columnNames;
+		this.columnOids = columnOids;
+		this.rows = rows;
+		this.sqlState = sqlState;
+		this.message = message;
+		this.copyData = copyData;
+	}
+
+	/**
+	 * 不返回结果集的sql，例如 INSERT 0 1.
+	 */
+	public static FakeResult command(String tag) {
+		return new FakeResult(Kind.COMMAND, tag, null, null, null, null, null, null);
+	}
+
+	/**
+	 * 结果集，所有列都是text类型.
+	 */
+	public static FakeResult rows(String[] columnNames, List<Object[]> rows) {
+		int[] oids = new int[columnNames.length];
+		Arrays.fill(oids, Oid.TEXT);
+		return rows(columnNames, oids, rows);
+	}
+
+	/**
+	 * 结果集，值按String.valueOf转成text，binary格式只支持bool, int2, int4, int8, float4, float8和text类型.
+	 *
+	 * @param columnOids 列类型，见org.postgresql.core.Oid
+	 */
+	public static FakeResult rows(String[] columnNames, int[] columnOids, List<Object[]> rows) {
+		if (columnNames.length != columnOids.length) {
+			throw new IllegalArgumentException("columnNames and columnOids length mismatch");
+		}
+		return new FakeResult(Kind.ROWS, "SELECT " + rows.size(), columnNames, columnOids, rows, null, null, null);
+	}
+
+	/**
+	 * 一行一列的结果集.
+	 */
+	public static FakeResult value(String columnName, Object value) {
+		List<Object[]> rows = new ArrayList<>();
+		rows.add(new Object[]{value});
+		return rows(new String[]{columnName}, rows);
+	}
+
+	/**
+	 * 空结果集.
+	 */
+	public static FakeResult empty(String... columnNames) {
+		return rows(columnNames, Collections.emptyList());
+	}
+
+	/**
+	 * 返回ErrorResponse，客户端收到PSQLException.
+	 */
+	public static FakeResult error(String sqlState, String message) {
+		return new FakeResult(Kind.ERROR, null, null, null, null, sqlState, message, null);
+	}
+
+	/**
+	 * COPY TO STDOUT返回的数据.
+	 */
+	public static FakeResult copyOut(byte[] data, long rowCount) {
+		return new FakeResult(Kind.COPY_OUT, "COPY " + rowCount, null, null, null, null, null, data);
+	}
+}
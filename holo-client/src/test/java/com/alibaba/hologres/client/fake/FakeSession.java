@@ -0,0 +1,877 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.fake;
+
+import org.postgresql.core.Oid;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * FakeHoloServer的一个连接，实现PostgreSQL v3协议的服务端.
+ */
+class FakeSession implements Runnable {
+
+	private static final int PROTOCOL_V3 = 196608;
+	private static final int CANCEL_REQUEST = 80877102;
+	private static final int SSL_REQUEST = 80877103;
+	private static final int GSS_REQUEST = 80877104;
+	private static final long PG_EPOCH_MILLIS = 946684800000L;
+	private static final int COPY_OUT_CHUNK_SIZE = 64 * 1024;
+	private static final Pattern PARAM_PLACEHOLDER = Pattern.compile("\\$(\\d+)");
+	private static final Pattern SLOT_OPTION = Pattern.compile("\"([^\"]+)\"\\s+'([^']*)'");
+
+	/**
+	 * 注入的断连故障，直接关闭socket.
+	 */
+	private static class DisconnectException extends IOException {
+		private static final long serialVersionUID = 1L;
+
+		DisconnectException(String sql) {
+			super("inject disconnect for " + sql);
+		}
+	}
+
+	/**
+	 * Parse之后的statement.
+	 */
+	private static class ParsedSql {
+		final String sql;
+		final int[] paramOids;
+
+		ParsedSql(String sql, int[] paramOids) {
+			this.sql = sql;
+			this.paramOids = paramOids;
+		}
+	}
+
+	/**
+	 * Bind之后的portal，结果在第一次Describe或者Execute时计算.
+	 */
+	private static class Portal {
+		final ParsedSql statement;
+		final List<byte[]> params;
+		final short[] paramFormats;
+		final short[] resultFormats;
+		FakeResult result;
+		int rowIndex;
+
+		Portal(ParsedSql statement, List<byte[]> params, short[] paramFormats, short[] resultFormats) {
+			this.statement = statement;
+			this.params = params;
+			this.paramFormats = paramFormats;
+			this.resultFormats = resultFormats;
+		}
+	}
+
+	private final FakeHoloServer server;
+	private final Socket socket;
+	private final int id;
+	private DataInputStream in;
+	private DataOutputStream out;
+	private final ByteArrayOutputStream msgBuffer = new ByteArrayOutputStream();
+	private final DataOutputStream msg = new DataOutputStream(msgBuffer);
+	private final Map<String, ParsedSql> statements = new HashMap<>();
+	private final Map<String, Portal> portals = new HashMap<>();
+	private char transactionStatus = 'I';
+	//extended query出错之后忽略所有消息直到Sync
+	private boolean skipUntilSync = false;
+
+	FakeSession(FakeHoloServer server, Socket socket, int id) {
+		this.server = server;
+		this.socket = socket;
+		this.id = id;
+	}
+
+	@Override
+	public void run() {
+		try {
+			socket.setTcpNoDelay(true);
+			in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+			out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+			if (!startup()) {
+				return;
+			}
+			while (true) {
+				int type = in.read();
+				if (type == -1) {
+					break;
+				}
+				ByteBuffer body = readBody(type);
+				if (!handle((char) type, body)) {
+					break;
+				}
+			}
+		} catch (EOFException | SocketException | DisconnectException ignore) {
+			//客户端断开或者注入的断连
+		} catch (Exception e) {
+			FakeHoloServer.LOGGER.warn("fake session " + id + " fail", e);
+		} finally {
+			closeSocket();
+		}
+	}
+
+	void closeSocket() {
+		try {
+			socket.close();
+		} catch (IOException ignore) {
+		}
+	}
+
+	private boolean startup() throws IOException {
+		while (true) {
+			int length = in.readInt();
+			int code = in.readInt();
+			byte[] bytes = new byte[length - 8];
+			in.readFully(bytes);
+			server.recordBytesReceived(length);
+			if (code == SSL_REQUEST || code == GSS_REQUEST) {
+				out.write('N');
+				out.flush();
+				continue;
+			}
+			if (code == CANCEL_REQUEST) {
+				return false;
+			}
+			if (code != PROTOCOL_V3) {
+				sendError("08P01", "unsupported frontend protocol " + code);
+				out.flush();
+				return false;
+			}
+			ByteBuffer body = ByteBuffer.wrap(bytes);
+			Map<String, String> params = new HashMap<>();
+			while (body.hasRemaining()) {
+				String key = readCString(body);
+				if (key.isEmpty()) {
+					break;
+				}
+				params.put(key, readCString(body));
+			}
+			//AuthenticationOk，不校验密码
+			begin();
+			msg.writeInt(0);
+			send('R');
+			sendParameterStatus("server_version", "11.3");
+			sendParameterStatus("server_encoding", "UTF8");
+			sendParameterStatus("client_encoding", "UTF8");
+			sendParameterStatus("DateStyle", "ISO, MDY");
+			sendParameterStatus("integer_datetimes", "on");
+			sendParameterStatus("standard_conforming_strings", "on");
+			sendParameterStatus("TimeZone", "UTC");
+			sendParameterStatus("application_name", params.getOrDefault("application_name", ""));
+			sendParameterStatus("session_authorization", params.getOrDefault("user", ""));
+			begin();
+			msg.writeInt(id);
+			msg.writeInt(id * 31);
+			send('K');
+			sendReadyForQuery();
+			out.flush();
+			return true;
+		}
+	}
+
+	private ByteBuffer readBody(int type) throws IOException {
+		int length = in.readInt();
+		byte[] bytes = new byte[length - 4];
+		in.readFully(bytes);
+		throttle(length + 1);
+		server.recordBytesReceived(length + 1);
+		return ByteBuffer.wrap(bytes);
+	}
+
+	private boolean handle(char type, ByteBuffer body) throws IOException {
+		if (skipUntilSync && type != 'S' && type != 'X' && type != 'Q') {
+			return true;
+		}
+		switch (type) {
+			case 'Q':
+				simpleQuery(readCString(body));
+				break;
+			case 'P':
+				parse(body);
+				break;
+			case 'B':
+				bind(body);
+				break;
+			case 'D':
+				describe(body);
+				break;
+			case 'E':
+				execute(body);
+				break;
+			case 'C':
+				close(body);
+				break;
+			case 'S':
+				skipUntilSync = false;
+				sendReadyForQuery();
+				out.flush();
+				break;
+			case 'H':
+				out.flush();
+				break;
+			case 'X':
+				return false;
+			case 'd':
+			case 'c':
+			case 'f':
+				//不在COPY中时忽略
+				break;
+			default:
+				sendError("08P01", "unsupported message type " + type);
+				sendReadyForQuery();
+				out.flush();
+		}
+		return true;
+	}
+
+	// ------------------------------ simple query ------------------------------
+
+	private void simpleQuery(String query) throws IOException {
+		List<String> sqls = splitStatements(query);
+		if (sqls.isEmpty()) {
+			begin();
+			send('I');
+		}
+		for (String sql : sqls) {
+			String slot = server.parseReplicationSlot(sql);
+			if (slot != null) {
+				//replication之后连接上不会再有其他sql
+				replicate(slot, sql);
+				break;
+			}
+			boolean ok;
+			if (server.isCopyIn(sql)) {
+				ok = copyIn(sql);
+			} else {
+				FakeResult result = run(sql, null, null);
+				if (result.kind == FakeResult.Kind.ROWS) {
+					sendRowDescription(result, null);
+				}
+				ok = sendResult(result, null, 0, true);
+			}
+			if (!ok) {
+				break;
+			}
+		}
+		sendReadyForQuery();
+		out.flush();
+	}
+
+	/**
+	 * 执行一条sql：注入故障和延迟，然后交给FakeHoloServer.
+	 */
+	private FakeResult run(String sql, List<byte[]> params, short[] paramFormats) throws IOException {
+		FakeFault fault = server.findFault(sql);
+		sleepLatency();
+		server.recordExecuted(sql);
+		if (fault != null) {
+			if (fault.disconnect) {
+				throw new DisconnectException(sql);
+			}
+			return FakeResult.error(fault.sqlState, fault.message);
+		}
+		return server.execute(new FakeQuery(id, sql, params, paramFormats, false, null, 0L));
+	}
+
+	/**
+	 * 发送DataRow之后的部分.
+	 *
+	 * @param maxRows 大于0时最多发送这么多行，剩余的行发送PortalSuspended
+	 * @return 是否成功
+	 */
+	private boolean sendResult(FakeResult result, short[] resultFormats, int maxRows, boolean simple) throws IOException {
+		switch (result.kind) {
+			case ERROR:
+				sendError(result.sqlState, result.message);
+				if (transactionStatus == 'T') {
+					transactionStatus = 'E';
+				}
+				return false;
+			case ROWS:
+				return sendRows(result, resultFormats, maxRows, null);
+			case COPY_OUT:
+				if (!simple) {
+					sendError("0A000", "COPY TO STDOUT is only supported in simple query");
+					return false;
+				}
+				copyOut(result);
+				return true;
+			default:
+				updateTransactionStatus(result.tag);
+				sendCommandComplete(result.tag);
+				return true;
+		}
+	}
+
+	private boolean sendRows(FakeResult result, short[] resultFormats, int maxRows, Portal portal) throws IOException {
+		int start = portal == null ? 0 : portal.rowIndex;
+		int end = result.rows.size();
+		if (maxRows > 0 && start + maxRows < end) {
+			end = start + maxRows;
+		}
+		for (int i = start; i < end; ++i) {
+			Object[] row = result.rows.get(i);
+			begin();
+			msg.writeShort(row.length);
+			for (int c = 0; c < row.length; ++c) {
+				byte[] value = encodeValue(row[c], result.columnOids[c], format(resultFormats, c));
+				if (value == null) {
+					msg.writeInt(-1);
+				} else {
+					msg.writeInt(value.length);
+					msg.write(value);
+				}
+			}
+			send('D');
+		}
+		if (end < result.rows.size()) {
+			portal.rowIndex = end;
+			begin();
+			send('s');
+		} else {
+			sendCommandComplete(result.tag);
+		}
+		return true;
+	}
+
+	// ------------------------------ extended query ------------------------------
+
+	private void parse(ByteBuffer body) throws IOException {
+		String name = readCString(body);
+		String sql = readCString(body);
+		int count = body.getShort();
+		int[] oids = new int[count];
+		for (int i = 0; i < count; ++i) {
+			oids[i] = body.getInt();
+		}
+		statements.put(name, new ParsedSql(sql, oids));
+		begin();
+		send('1');
+	}
+
+	private void bind(ByteBuffer body) throws IOException {
+		String portalName = readCString(body);
+		String statementName = readCString(body);
+		short[] paramFormats = readShorts(body);
+		int count = body.getShort();
+		List<byte[]> params = new ArrayList<>(count);
+		for (int i = 0; i < count; ++i) {
+			int length = body.getInt();
+			if (length < 0) {
+				params.add(null);
+			} else {
+				byte[] value = new byte[length];
+				body.get(value);
+				params.add(value);
+			}
+		}
+		short[] resultFormats = readShorts(body);
+		ParsedSql statement = statements.get(statementName);
+		if (statement == null) {
+			extendedError("26000", "prepared statement \"" + statementName + "\" does not exist");
+			return;
+		}
+		portals.put(portalName, new Portal(statement, params, paramFormats, resultFormats));
+		begin();
+		send('2');
+	}
+
+	private void describe(ByteBuffer body) throws IOException {
+		byte kind = body.get();
+		String name = readCString(body);
+		if (kind == 'S') {
+			ParsedSql statement = statements.get(name);
+			if (statement == null) {
+				extendedError("26000", "prepared statement \"" + name + "\" does not exist");
+				return;
+			}
+			int count = Math.max(statement.paramOids.length, countPlaceholders(statement.sql));
+			begin();
+			msg.writeShort(count);
+			for (int i = 0; i < count; ++i) {
+				int oid = i < statement.paramOids.length ? statement.paramOids[i] : Oid.UNSPECIFIED;
+				msg.writeInt(oid == Oid.UNSPECIFIED ? Oid.TEXT : oid);
+			}
+			send('t');
+			FakeResult result = null;
+			if (!statement.sql.trim().isEmpty() && !server.isCopyIn(statement.sql) && !server.isCopyOut(statement.sql)) {
+				List<byte[]> params = new ArrayList<>();
+				for (int i = 0; i < count; ++i) {
+					params.add(null);
+				}
+				result = server.execute(new FakeQuery(id, statement.sql, params, null, true, null, 0L));
+			}
+			if (result != null && result.kind == FakeResult.Kind.ROWS) {
+				sendRowDescription(result, null);
+			} else {
+				begin();
+				send('n');
+			}
+		} else {
+			Portal portal = portals.get(name);
+			if (portal == null) {
+				extendedError("34000", "portal \"" + name + "\" does not exist");
+				return;
+			}
+			//空语句(例如Connection.isValid)没有结果集
+			FakeResult result = portal.statement.sql.trim().isEmpty() ? FakeResult.command("") : ensureResult(portal);
+			if (result.kind == FakeResult.Kind.ERROR) {
+				extendedError(result.sqlState, result.message);
+			} else if (result.kind == FakeResult.Kind.ROWS) {
+				sendRowDescription(result, portal.resultFormats);
+			} else {
+				begin();
+				send('n');
+			}
+		}
+	}
+
+	private void execute(ByteBuffer body) throws IOException {
+		String name = readCString(body);
+		int maxRows = body.getInt();
+		Portal portal = portals.get(name);
+		if (portal == null) {
+			extendedError("34000", "portal \"" + name + "\" does not exist");
+			return;
+		}
+		if (portal.statement.sql.trim().isEmpty()) {
+			begin();
+			send('I');
+			return;
+		}
+		if (server.isCopyIn(portal.statement.sql)) {
+			extendedError("0A000", "COPY FROM STDIN is only supported in simple query");
+			return;
+		}
+		FakeResult result = ensureResult(portal);
+		boolean ok = result.kind == FakeResult.Kind.ROWS
+				? sendRows(result, portal.resultFormats, maxRows, portal)
+				: sendResult(result, portal.resultFormats, maxRows, false);
+		if (!ok) {
+			skipUntilSync = true;
+		}
+	}
+
+	private FakeResult ensureResult(Portal portal) throws IOException {
+		if (portal.result == null) {
+			portal.result = run(portal.statement.sql, portal.params, portal.paramFormats);
+		}
+		return portal.result;
+	}
+
+	private void close(ByteBuffer body) throws IOException {
+		byte kind = body.get();
+		String name = readCString(body);
+		if (kind == 'S') {
+			statements.remove(name);
+		} else {
+			portals.remove(name);
+		}
+		begin();
+		send('3');
+	}
+
+	private void extendedError(String sqlState, String message) throws IOException {
+		sendError(sqlState, message);
+		if (transactionStatus == 'T') {
+			transactionStatus = 'E';
+		}
+		skipUntilSync = true;
+	}
+
+	// ------------------------------ copy ------------------------------
+
+	/**
+	 * COPY FROM STDIN，读取所有CopyData之后把数据交给FakeHoloServer.
+	 *
+	 * @return 是否成功
+	 */
+	private boolean copyIn(String sql) throws IOException {
+		FakeFault fault = server.findFault(sql);
+		if (fault != null) {
+			sleepLatency();
+			server.recordExecuted(sql);
+			if (fault.disconnect) {
+				throw new DisconnectException(sql);
+			}
+			sendError(fault.sqlState, fault.message);
+			return false;
+		}
+		boolean binary = server.isCopyBinary(sql);
+		begin();
+		msg.writeByte(binary ? 1 : 0);
+		msg.writeShort(0);
+		send('G');
+		out.flush();
+
+		CopyRowCounter counter = new CopyRowCounter(binary);
+		ByteArrayOutputStream data = server.retainCopyData ? new ByteArrayOutputStream() : null;
+		while (true) {
+			int type = in.read();
+			if (type == -1) {
+				throw new EOFException("client closed during COPY");
+			}
+			ByteBuffer body = readBody(type);
+			if (type == 'd') {
+				counter.feed(body.array(), 0, body.limit());
+				if (data != null) {
+					data.write(body.array(), 0, body.limit());
+				}
+			} else if (type == 'c') {
+				break;
+			} else if (type == 'f') {
+				sendError("57014", "COPY from stdin failed: " + readCString(body));
+				return false;
+			}
+			//COPY中的Flush和Sync忽略
+		}
+		sleepLatency();
+		server.recordExecuted(sql);
+		server.recordCopyIn(counter.getRowCount());
+		FakeResult result = server.execute(new FakeQuery(id, sql, null, null, false, data == null ? null : data.toByteArray(), counter.getRowCount()));
+		return sendResult(result, null, 0, true);
+	}
+
+	private void copyOut(FakeResult result) throws IOException {
+		begin();
+		msg.writeByte(0);
+		msg.writeShort(0);
+		send('H');
+		byte[] data = result.copyData;
+		for (int offset = 0; offset < data.length; offset += COPY_OUT_CHUNK_SIZE) {
+			begin();
+			msg.write(data, offset, Math.min(COPY_OUT_CHUNK_SIZE, data.length - offset));
+			send('d');
+		}
+		begin();
+		send('c');
+		sendCommandComplete(result.tag);
+	}
+
+	// ------------------------------ replication ------------------------------
+
+	/**
+	 * START_REPLICATION，按FakeBinlogSource发送XLogData，然后发送keepalive直到客户端CopyDone或者断开.
+	 *
+	 * @return 是否成功
+	 */
+	private boolean replicate(String slot, String sql) throws IOException {
+		FakeFault fault = server.findFault(sql);
+		sleepLatency();
+		server.recordExecuted(sql);
+		if (fault != null) {
+			if (fault.disconnect) {
+				throw new DisconnectException(sql);
+			}
+			sendError(fault.sqlState, fault.message);
+			return false;
+		}
+		Map<String, String> options = new HashMap<>();
+		Matcher matcher = SLOT_OPTION.matcher(sql);
+		while (matcher.find()) {
+			options.put(matcher.group(1), matcher.group(2));
+		}
+		int shardId = Integer.parseInt(options.getOrDefault("parallel_index", "0"));
+
+		//CopyBothResponse
+		begin();
+		msg.writeByte(0);
+		msg.writeShort(0);
+		send('W');
+		out.flush();
+
+		List<byte[]> payloads = server.binlogSource == null ? new ArrayList<>() : server.binlogSource.read(slot, shardId);
+		long lsn = 0L;
+		for (byte[] payload : payloads) {
+			++lsn;
+			begin();
+			msg.writeByte('w');
+			msg.writeLong(lsn);
+			msg.writeLong(lsn);
+			msg.writeLong(pgNowMicros());
+			msg.write(payload);
+			send('d');
+			out.flush();
+			if (pollReplicationMessages(slot, shardId)) {
+				return true;
+			}
+		}
+		long lastKeepAlive = 0L;
+		while (true) {
+			if (pollReplicationMessages(slot, shardId)) {
+				return true;
+			}
+			long now = System.currentTimeMillis();
+			if (now - lastKeepAlive >= server.replicationKeepAliveMs) {
+				lastKeepAlive = now;
+				begin();
+				msg.writeByte('k');
+				msg.writeLong(lsn);
+				msg.writeLong(pgNowMicros());
+				msg.writeByte(0);
+				send('d');
+				out.flush();
+			}
+			try {
+				Thread.sleep(10L);
+			} catch (InterruptedException e) {
+				throw new InterruptedIOException("interrupted");
+			}
+		}
+	}
+
+	/**
+	 * 非阻塞地处理客户端在replication中发送的消息.
+	 *
+	 * @return 客户端是否结束了replication
+	 */
+	private boolean pollReplicationMessages(String slot, int shardId) throws IOException {
+		while (in.available() > 0) {
+			int type = in.read();
+			if (type == -1) {
+				throw new EOFException("client closed during replication");
+			}
+			ByteBuffer body = readBody(type);
+			if (type == 'd' && body.remaining() > 0 && body.get(0) == 'r') {
+				body.get();
+				body.getLong();
+				long flushed = body.getLong();
+				server.recordFlushedLsn(slot, shardId, flushed);
+			} else if (type == 'c') {
+				begin();
+				send('c');
+				sendCommandComplete("START_REPLICATION");
+				return true;
+			} else if (type == 'X') {
+				throw new EOFException("client terminate during replication");
+			}
+		}
+		return false;
+	}
+
+	private static long pgNowMicros() {
+		return (System.currentTimeMillis() - PG_EPOCH_MILLIS) * 1000L;
+	}
+
+	// ------------------------------ messages ------------------------------
+
+	private void begin() {
+		msgBuffer.reset();
+	}
+
+	private void send(char type) throws IOException {
+		throttle(msgBuffer.size() + 5);
+		out.write(type);
+		out.writeInt(msgBuffer.size() + 4);
+		msgBuffer.writeTo(out);
+	}
+
+	private void sendParameterStatus(String key, String value) throws IOException {
+		begin();
+		writeCString(key);
+		writeCString(value);
+		send('S');
+	}
+
+	private void sendReadyForQuery() throws IOException {
+		begin();
+		msg.writeByte(transactionStatus);
+		send('Z');
+	}
+
+	private void sendCommandComplete(String tag) throws IOException {
+		begin();
+		writeCString(tag);
+		send('C');
+	}
+
+	private void sendError(String sqlState, String message) throws IOException {
+		begin();
+		msg.writeByte('S');
+		writeCString("ERROR");
+		msg.writeByte('V');
+		writeCString("ERROR");
+		msg.writeByte('C');
+		writeCString(sqlState);
+		msg.writeByte('M');
+		writeCString(message);
+		msg.writeByte(0);
+		send('E');
+	}
+
+	private void sendRowDescription(FakeResult result, short[] resultFormats) throws IOException {
+		begin();
+		msg.writeShort(result.columnNames.length);
+		for (int i = 0; i < result.columnNames.length; ++i) {
+			int oid = result.columnOids[i];
+			writeCString(result.columnNames[i]);
+			msg.writeInt(0);
+			msg.writeShort(0);
+			msg.writeInt(oid);
+			msg.writeShort(typeLength(oid));
+			msg.writeInt(-1);
+			msg.writeShort(format(resultFormats, i));
+		}
+		send('T');
+	}
+
+	private void updateTransactionStatus(String tag) {
+		if ("BEGIN".equals(tag)) {
+			transactionStatus = 'T';
+		} else if ("COMMIT".equals(tag) || "ROLLBACK".equals(tag)) {
+			transactionStatus = 'I';
+		}
+	}
+
+	private void throttle(int bytes) throws IOException {
+		if (server.limiter != null) {
+			try {
+				server.limiter.acquire(bytes);
+			} catch (InterruptedException e) {
+				throw new InterruptedIOException("interrupted");
+			}
+		}
+	}
+
+	private void sleepLatency() throws IOException {
+		try {
+			server.sleepLatency();
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException("interrupted");
+		}
+	}
+
+	private void writeCString(String value) throws IOException {
+		msg.write(value.getBytes(StandardCharsets.UTF_8));
+		msg.writeByte(0);
+	}
+
+	private static String readCString(ByteBuffer body) {
+		int start = body.position();
+		int end = start;
+		while (body.get(end) != 0) {
+			++end;
+		}
+		body.position(end + 1);
+		return new String(body.array(), start, end - start, StandardCharsets.UTF_8);
+	}
+
+	private static short[] readShorts(ByteBuffer body) {
+		int count = body.getShort();
+		short[] ret = new short[count];
+		for (int i = 0; i < count; ++i) {
+			ret[i] = body.getShort();
+		}
+		return ret;
+	}
+
+	private static int format(short[] formats, int index) {
+		if (formats == null || formats.length == 0) {
+			return 0;
+		}
+		return formats.length == 1 ? formats[0] : formats[index];
+	}
+
+	private static int typeLength(int oid) {
+		switch (oid) {
+			case Oid.BOOL:
+				return 1;
+			case Oid.INT2:
+				return 2;
+			case Oid.INT4:
+			case Oid.FLOAT4:
+				return 4;
+			case Oid.INT8:
+			case Oid.FLOAT8:
+				return 8;
+			default:
+				return -1;
+		}
+	}
+
+	private static byte[] encodeValue(Object value, int oid, int format) {
+		if (value == null) {
+			return null;
+		}
+		if (oid == Oid.BOOL && value instanceof Boolean) {
+			if (format == 1) {
+				return new byte[]{(byte) ((Boolean) value ? 1 : 0)};
+			}
+			return ((Boolean) value ? "t" : "f").getBytes(StandardCharsets.UTF_8);
+		}
+		if (format == 1) {
+			String text = String.valueOf(value);
+			switch (oid) {
+				case Oid.INT2:
+					return ByteBuffer.allocate(2).putShort(Short.parseShort(text)).array();
+				case Oid.INT4:
+					return ByteBuffer.allocate(4).putInt(Integer.parseInt(text)).array();
+				case Oid.INT8:
+					return ByteBuffer.allocate(8).putLong(Long.parseLong(text)).array();
+				case Oid.FLOAT4:
+					return ByteBuffer.allocate(4).putFloat(Float.parseFloat(text)).array();
+				case Oid.FLOAT8:
+					return ByteBuffer.allocate(8).putDouble(Double.parseDouble(text)).array();
+				default:
+			}
+		}
+		return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static int countPlaceholders(String sql) {
+		int max = 0;
+		Matcher matcher = PARAM_PLACEHOLDER.matcher(sql);
+		while (matcher.find()) {
+			max = Math.max(max, Integer.parseInt(matcher.group(1)));
+		}
+		return max;
+	}
+
+	/**
+	 * 按分号拆分simple query中的多条sql，忽略引号中的分号.
+	 */
+	static List<String> splitStatements(String query) {
+		List<String> ret = new ArrayList<>();
+		boolean inSingle = false;
+		boolean inDouble = false;
+		int start = 0;
+		for (int i = 0; i < query.length(); ++i) {
+			char c = query.charAt(i);
+			if (c == '\'' && !inDouble) {
+				inSingle = !inSingle;
+			} else if (c == '"' && !inSingle) {
+				inDouble = !inDouble;
+			} else if (c == ';' && !inSingle && !inDouble) {
+				addStatement(ret, query.substring(start, i));
+				start = i + 1;
+			}
+		}
+		addStatement(ret, query.substring(start));
+		return ret;
+	}
+
+	private static void addStatement(List<String> list, String sql) {
+		if (!sql.trim().isEmpty()) {
+			list.add(sql.trim());
+		}
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.fake;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FakeHoloServer上的一张表，用于回答HoloClient.getTableSchema查询的系统表，见FakeHoloServer.Builder.addTable.
+ * 默认table_id自增、schema_version为1、orientation为column，有主键时distribution_key为主键；其他属性通过setProperty设置.
+ * 只支持getTableSchema的查询，分区子表的查询不支持.
+ * 用法：
+ * <pre>
+ * FakeTable table = new FakeTable("public", "test_table")
+ *         .addColumn("id", Oid.INT8)
+ *         .addColumn("name", Oid.TEXT)
+ *         .setPrimaryKeys("id");
+ * </pre>
+ */
+public class FakeTable {
+
+	private static final AtomicInteger TABLE_ID = new AtomicInteger(10000);
+
+	/**
+	 * 表的一列.
+	 */
+	static class FakeColumn {
+		final String name;
+		final int oid;
+		final boolean allowNull;
+
+		FakeColumn(String name, int oid, boolean allowNull) {
+			this.name = name;
+			this.oid = oid;
+			this.allowNull = allowNull;
+		}
+	}
+
+	private final String schemaName;
+	private final String tableName;
+	private final List<FakeColumn> columns = new ArrayList<>();
+	private List<String> primaryKeys = Collections.emptyList();
+	private String partitionColumn = null;
+	private final Map<String, String> properties = new LinkedHashMap<>();
+
+	public FakeTable(String schemaName, String tableName) {
+		this.schemaName = schemaName;
+		this.tableName = tableName;
+		properties.put("table_id", String.valueOf(TABLE_ID.incrementAndGet()));
+		properties.put("schema_version", "1");
+		properties.put("orientation", "column");
+	}
+
+	/**
+	 * 增加一列，允许为null.
+	 *
+	 * @param oid 列类型，见org.postgresql.core.Oid
+	 */
+	public FakeTable addColumn(String name, int oid) {
+		return addColumn(name, oid, true);
+	}
+
+	/**
+	 * 增加一列，主键和分区列总是不允许为null.
+	 *
+	 * @param oid 列类型，见org.postgresql.core.Oid
+	 */
+	public FakeTable addColumn(String name, int oid, boolean allowNull) {
+		columns.add(new FakeColumn(name, oid, allowNull));
+		return this;
+	}
+
+	/**
+	 * 设置主键，没有通过setProperty设置distribution_key时也作为distribution_key.
+	 */
+	public FakeTable setPrimaryKeys(String... primaryKeys) {
+		for (String primaryKey : primaryKeys) {
+			indexOf(primaryKey);
+		}
+		this.primaryKeys = Arrays.asList(primaryKeys);
+		return this;
+	}
+
+	/**
+	 * 设置LIST分区的分区列.
+	 */
+	public FakeTable setPartitionColumn(String partitionColumn) {
+		indexOf(partitionColumn);
+		this.partitionColumn = partitionColumn;
+		return this;
+	}
+
+	/**
+	 * 设置hologres.hg_table_properties中的属性，例如binlog.level、clustering_key；value为null时删除该属性.
+	 */
+	public FakeTable setProperty(String key, String value) {
+		if (value == null) {
+			properties.remove(key);
+		} else {
+			properties.put(key, value);
+		}
+		return this;
+	}
+
+	public String getSchemaName() {
+		return schemaName;
+	}
+
+	public String getTableName() {
+		return tableName;
+	}
+
+	List<FakeColumn> getColumns() {
+		return columns;
+	}
+
+	List<String> getPrimaryKeys() {
+		return primaryKeys;
+	}
+
+	boolean isNotNull(FakeColumn column) {
+		return !column.allowNull || primaryKeys.contains(column.name) || column.name.equals(partitionColumn);
+	}
+
+	/**
+	 * @return 分区列在表中的位置，从0开始；不是分区表返回-1
+	 */
+	int getPartitionColumnIndex() {
+		return partitionColumn == null ? -1 : indexOf(partitionColumn);
+	}
+
+	Map<String, String> getProperties() {
+		Map<String, String> ret = new LinkedHashMap<>(properties);
+		if (!ret.containsKey("distribution_key") && primaryKeys.size() > 0) {
+			ret.put("distribution_key", String.join(",", primaryKeys));
+		}
+		return ret;
+	}
+
+	private int indexOf(String columnName) {
+		for (int i = 0; i < columns.size(); ++i) {
+			if (columns.get(i).name.equals(columnName)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("column " + columnName + " not found in " + schemaName + "." + tableName);
+	}
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.impl;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cache单元测试用例.
+ */
+public class CacheTest {
+
+	/**
+	 * 多个线程同时get同一个key，builder只调用一次.
+	 */
+	@Test
+	public void testSingleFlight() throws Exception {
+		AtomicInteger count = new AtomicInteger(0);
+		CountDownLatch latch = new CountDownLatch(1);
+		Cache<String, String> cache = new Cache<>(key -> {
+			count.incrementAndGet();
+			try {
+				latch.await();
+			} catch (InterruptedException e) {
+				throw new SQLException(e);
+			}
+			return key + "_v";
+		});
+		ExecutorService es = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String>> futures = new ArrayList<>();
+			for (int i = 0; i < 8; ++i) {
+				futures.add(es.submit(() -> cache.get("a")));
+			}
+			Thread.sleep(200L);
+			latch.countDown();
+			for (Future<String> future : futures) {
+				Assert.assertEquals(future.get(), "a_v");
+			}
+			Assert.assertEquals(count.get(), 1);
+			Assert.assertEquals(cache.get("a"), "a_v");
+			Assert.assertEquals(count.get(), 1);
+		} finally {
+			es.shutdownNow();
+		}
+	}
+
+	/**
+	 * 一个key加载很慢时不阻塞其他key.
+	 */
+	@Test
+	public void testSlowKeyNotBlockOthers() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1);
+		Cache<String, String> cache = new Cache<>(key -> {
+			if ("slow".equals(key)) {
+				try {
+					latch.await();
+				} catch (InterruptedException e) {
+					throw new SQLException(e);
+				}
+			}
+			return key + "_v";
+		});
+		ExecutorService es = Executors.newSingleThreadExecutor();
+		try {
+			Future<String> slow = es.submit(() -> cache.get("slow"));
+			Thread.sleep(100L);
+			CompletableFuture<String> fast = CompletableFuture.supplyAsync(() -> {
+				try {
+					return cache.get("fast");
+				} catch (SQLException e) {
+					throw new RuntimeException(e);
+				}
+			});
+			Assert.assertEquals(fast.get(1000L, TimeUnit.MILLISECONDS), "fast_v");
+			Assert.assertFalse(slow.isDone());
+			latch.countDown();
+			Assert.assertEquals(slow.get(), "slow_v");
+		} finally {
+			es.shutdownNow();
+		}
+	}
+
+	/**
+	 * 等待其他线程加载时被中断，抛出SQLException并保留中断标记.
+	 */
+	@Test
+	public void testWaitInterrupted() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1);
+		Cache<String, String> cache = new Cache<>(key -> {
+			try {
+				latch.await();
+			} catch (InterruptedException e) {
+				throw new SQLException(e);
+			}
+			return key + "_v";
+		});
+		ExecutorService es = Executors.newSingleThreadExecutor();
+		try {
+			Future<String> loader = es.submit(() -> cache.get("a"));
+			Thread.sleep(100L);
+			CompletableFuture<Boolean> interrupted = new CompletableFuture<>();
+			Thread waiter = new Thread(() -> {
+				try {
+					cache.get("a");
+					interrupted.complete(false);
+				} catch (SQLException e) {
+					interrupted.complete(Thread.currentThread().isInterrupted());
+				}
+			});
+			waiter.start();
+			Thread.sleep(100L);
+			waiter.interrupt();
+			Assert.assertTrue(interrupted.get(1000L, TimeUnit.MILLISECONDS));
+			latch.countDown();
+			Assert.assertEquals(loader.get(), "a_v");
+		} finally {
+			es.shutdownNow();
+		}
+	}
+
+	/**
+	 * getAll只加载缓存中没有的key，并且一次加载.
+	 */
+	@Test
+	public void testGetAll() throws Exception {
+		Cache<String, String> cache = new Cache<>();
+		cache.put("a", "a_v");
+		List<List<String>> batches = new ArrayList<>();
+		Map<String, String> ret = cache.getAll(Arrays.asList("a", "b", "c", "b"), keys -> {
+			batches.add(new ArrayList<>(keys));
+			Map<String, String> loaded = new HashMap<>();
+			for (String key : keys) {
+				if (!"c".equals(key)) {
+					loaded.put(key, key + "_v");
+				}
+			}
+			return loaded;
+		});
+		Assert.assertEquals(batches.size(), 1);
+		Assert.assertEquals(batches.get(0).size(), 2);
+		Assert.assertEquals(ret.size(), 2);
+		Assert.assertEquals(ret.get("a"), "a_v");
+		Assert.assertEquals(ret.get("b"), "b_v");
+		Assert.assertNull(ret.get("c"));
+		//不存在的key不会被缓存
+		Assert.assertEquals(cache.get("b", null, Cache.MODE_ONLY_CACHE), "b_v");
+		Assert.assertNull(cache.get("c", null, Cache.MODE_ONLY_CACHE));
+	}
+
+	/**
+	 * builder的异常抛给所有等待者，失败之后可以重新加载.
+	 */
+	@Test
+	public void testError() throws Exception {
+		AtomicInteger count = new AtomicInteger(0);
+		Cache<String, String> cache = new Cache<>(key -> {
+			if (count.incrementAndGet() == 1) {
+				throw new SQLException("mock error");
+			}
+			return key + "_v";
+		});
+		try {
+			cache.get("a");
+			Assert.fail("should throw");
+		} catch (SQLException e) {
+			Assert.assertEquals(e.getMessage(), "mock error");
+		}
+		Assert.assertEquals(cache.get("a"), "a_v");
+
+		CompletableFuture<String> future = cache.getAsync("b", key -> {
+			CompletableFuture<String> ret = new CompletableFuture<>();
+			ret.completeExceptionally(new SQLException("async error"));
+			return ret;
+		}, Cache.MODE_LOCAL_THEN_REMOTE);
+		Assert.assertTrue(future.isCompletedExceptionally());
+		Assert.assertNull(cache.get("b", null, Cache.MODE_ONLY_CACHE));
+	}
+}
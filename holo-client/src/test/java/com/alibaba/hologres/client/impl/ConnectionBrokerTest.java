@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.impl;
+
+import com.alibaba.hologres.client.HoloConfig;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * ConnectionBroker单元测试用例.
+ */
+public class ConnectionBrokerTest {
+
+	private static ConnectionHolder buildHolder(String url) {
+		HoloConfig config = new HoloConfig();
+		config.setJdbcUrl(url);
+		config.setUsername("user");
+		config.setPassword("pwd");
+		config.setConnectionBrokerMaxConnections(2);
+		return new ConnectionHolder(config, null, false, false);
+	}
+
+	/**
+	 * 同一个key共享配额，释放后可以重新申请.
+	 */
+	@Test
+	public void testAcquireRelease() throws Exception {
+		String url = "jdbc:postgresql://broker-test-1:80/db";
+		ConnectionHolder h1 = buildHolder(url);
+		ConnectionHolder h2 = buildHolder(url);
+		ConnectionHolder h3 = buildHolder(url);
+		ConnectionBroker broker = h1.broker;
+		Assert.assertSame(h2.broker, broker);
+		Assert.assertEquals(broker.getMaxConnections(), 2);
+
+		Assert.assertTrue(broker.acquire(h1, 100L));
+		//重复申请不会占用新的配额
+		Assert.assertTrue(broker.acquire(h1, 100L));
+		Assert.assertTrue(broker.acquire(h2, 100L));
+		Assert.assertEquals(broker.getActiveCount(), 2);
+
+		h1.lastActiveTs = System.currentTimeMillis();
+		h2.lastActiveTs = System.currentTimeMillis();
+		Assert.assertFalse(broker.acquire(h3, 300L));
+
+		broker.release(h1);
+		broker.release(h1);
+		Assert.assertEquals(broker.getActiveCount(), 1);
+		Assert.assertTrue(broker.acquire(h3, 100L));
+		broker.release(h2);
+		broker.release(h3);
+		Assert.assertEquals(broker.getActiveCount(), 0);
+	}
+
+	/**
+	 * 配额不足时通知空闲最久的holder释放连接.
+	 */
+	@Test
+	public void testReclaimIdle() throws Exception {
+		String url = "jdbc:postgresql://broker-test-2:80/db";
+		ConnectionHolder h1 = buildHolder(url);
+		ConnectionHolder h2 = buildHolder(url);
+		ConnectionHolder h3 = buildHolder(url);
+		ConnectionBroker broker = h1.broker;
+		Assert.assertTrue(broker.acquire(h1, 100L));
+		Assert.assertTrue(broker.acquire(h2, 100L));
+		h1.lastActiveTs = System.currentTimeMillis() - 10000L;
+		h2.lastActiveTs = System.currentTimeMillis() - 5000L;
+
+		Assert.assertFalse(broker.acquire(h3, 100L));
+		Assert.assertTrue(h1.isReleaseRequested());
+		Assert.assertFalse(h2.isReleaseRequested());
+
+		h1.close();
+		Assert.assertFalse(h1.isReleaseRequested());
+		Assert.assertTrue(broker.acquire(h3, 100L));
+		broker.release(h2);
+		broker.release(h3);
+	}
+
+	/**
+	 * 所有连接都在使用中时不等待超时，直接失败.
+	 */
+	@Test
+	public void testFailFastWhenAllBusy() throws Exception {
+		String url = "jdbc:postgresql://broker-test-5:80/db";
+		ConnectionHolder h1 = buildHolder(url);
+		ConnectionHolder h2 = buildHolder(url);
+		ConnectionHolder h3 = buildHolder(url);
+		ConnectionBroker broker = h1.broker;
+		Assert.assertTrue(broker.acquire(h1, 100L));
+		Assert.assertTrue(broker.acquire(h2, 100L));
+		h1.lastActiveTs = System.currentTimeMillis();
+		h2.lastActiveTs = System.currentTimeMillis();
+
+		long start = System.currentTimeMillis();
+		Assert.assertFalse(broker.acquire(h3, 60000L));
+		Assert.assertTrue(System.currentTimeMillis() - start < 10000L);
+		Assert.assertFalse(h1.isReleaseRequested());
+		Assert.assertFalse(h2.isReleaseRequested());
+
+		//有连接正在释放时等待它归还配额
+		h1.lastActiveTs = System.currentTimeMillis() - 10000L;
+		Thread releaser = new Thread(() -> {
+			try {
+				while (!h1.isReleaseRequested()) {
+					Thread.sleep(10L);
+				}
+			} catch (InterruptedException ignore) {
+			}
+			h1.close();
+		});
+		releaser.start();
+		Assert.assertTrue(broker.acquire(h3, 60000L));
+		releaser.join();
+		broker.release(h2);
+		broker.release(h3);
+	}
+
+	/**
+	 * 同一个key以第一次的maxConnections为准.
+	 */
+	@Test
+	public void testFirstConfigWins() {
+		String url = "jdbc:postgresql://broker-test-6:80/db";
+		ConnectionBroker broker = buildHolder(url).broker;
+		HoloConfig config = new HoloConfig();
+		config.setJdbcUrl(url);
+		config.setUsername("user");
+		config.setPassword("pwd");
+		config.setConnectionBrokerMaxConnections(5);
+		ConnectionHolder other = new ConnectionHolder(config, null, false, false);
+		Assert.assertSame(other.broker, broker);
+		Assert.assertEquals(other.broker.getMaxConnections(), 2);
+	}
+
+	/**
+	 * 不同的url使用不同的配额，未开启时没有broker.
+	 */
+	@Test
+	public void testKey() {
+		ConnectionHolder h1 = buildHolder("jdbc:postgresql://broker-test-3:80/db");
+		ConnectionHolder h2 = buildHolder("jdbc:postgresql://broker-test-4:80/db");
+		Assert.assertNotSame(h1.broker, h2.broker);
+
+		HoloConfig config = new HoloConfig();
+		config.setJdbcUrl("jdbc:postgresql://broker-test-3:80/db");
+		Assert.assertNull(new ConnectionHolder(config, null, false, false).broker);
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.impl;
+
+import com.alibaba.hologres.client.HoloConfig;
+import com.alibaba.hologres.client.exception.ExceptionCode;
+import com.alibaba.hologres.client.exception.HoloClientException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ConnectionHolder单元测试用例.
+ */
+public class ConnectionHolderTest {
+
+	/**
+	 * 脏数据和SQL错误不需要访问连接就判断为可用，连接类错误判断为不可用.
+	 */
+	@Test
+	public void testCheckHealth() {
+		HoloConfig config = new HoloConfig();
+		config.setJdbcUrl("jdbc:postgresql://holder-test:80/db");
+		ConnectionHolder holder = new ConnectionHolder(config, null, false, false);
+		//conn传null，如果访问了连接会抛NullPointerException
+		Assert.assertEquals(holder.checkHealth(null, new HoloClientException(ExceptionCode.CONSTRAINT_VIOLATION, "")), ConnectionHolder.Health.HEALTHY);
+		Assert.assertEquals(holder.checkHealth(null, new HoloClientException(ExceptionCode.DATA_VALUE_ERROR, "")), ConnectionHolder.Health.HEALTHY);
+		Assert.assertEquals(holder.checkHealth(null, new HoloClientException(ExceptionCode.DATA_TYPE_ERROR, "")), ConnectionHolder.Health.HEALTHY);
+		Assert.assertEquals(holder.checkHealth(null, new HoloClientException(ExceptionCode.SYNTAX_ERROR, "")), ConnectionHolder.Health.HEALTHY);
+		Assert.assertEquals(holder.checkHealth(null, new HoloClientException(ExceptionCode.CONNECTION_ERROR, "")), ConnectionHolder.Health.BROKEN);
+		Assert.assertEquals(holder.checkHealth(null, new HoloClientException(ExceptionCode.META_NOT_MATCH, "")), ConnectionHolder.Health.BROKEN);
+
+		//没有连接时校验什么都不做
+		holder.validate(true);
+	}
+
+	/**
+	 * 建连失败后每次重试前等待5s，端口1上没有服务，建连会立刻失败.
+	 */
+	private static ConnectionHolder buildRetryHolder(CountDownLatch backoffStarted) {
+		HoloConfig config = new HoloConfig();
+		config.setJdbcUrl("jdbc:postgresql://127.0.0.1:1/db");
+		config.setRetryCount(3);
+		config.setRetryPolicy((endpoint, attempt, e) -> {
+			backoffStarted.countDown();
+			return 5000L;
+		});
+		return new ConnectionHolder(config, null, false, false);
+	}
+
+	private static Thread startRetry(ConnectionHolder holder, AtomicReference<HoloClientException> error, AtomicReference<Boolean> interrupted) {
+		Thread thread = new Thread(() -> {
+			try {
+				holder.retryExecute(conn -> null);
+			} catch (HoloClientException e) {
+				error.set(e);
+			}
+			interrupted.set(Thread.currentThread().isInterrupted());
+		});
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * 退避等待期间被中断时保留中断标记，并且不再重试.
+	 */
+	@Test
+	public void testBackoffInterrupted() throws Exception {
+		CountDownLatch backoffStarted = new CountDownLatch(1);
+		ConnectionHolder holder = buildRetryHolder(backoffStarted);
+		AtomicReference<HoloClientException> error = new AtomicReference<>();
+		AtomicReference<Boolean> interrupted = new AtomicReference<>();
+		Thread thread = startRetry(holder, error, interrupted);
+		Assert.assertTrue(backoffStarted.await(10, TimeUnit.SECONDS));
+		long start = System.currentTimeMillis();
+		thread.interrupt();
+		thread.join(10000L);
+		Assert.assertFalse(thread.isAlive());
+		Assert.assertTrue(System.currentTimeMillis() - start < 4000L);
+		Assert.assertEquals(error.get().getCode(), ExceptionCode.INTERRUPTED);
+		Assert.assertTrue(interrupted.get());
+	}
+
+	/**
+	 * 退避等待期间释放holder的锁，其他线程可以使用或关闭这个holder.
+	 */
+	@Test
+	public void testBackoffReleasesLock() throws Exception {
+		CountDownLatch backoffStarted = new CountDownLatch(1);
+		ConnectionHolder holder = buildRetryHolder(backoffStarted);
+		AtomicReference<HoloClientException> error = new AtomicReference<>();
+		AtomicReference<Boolean> interrupted = new AtomicReference<>();
+		Thread thread = startRetry(holder, error, interrupted);
+		try {
+			Assert.assertTrue(backoffStarted.await(10, TimeUnit.SECONDS));
+			long start = System.currentTimeMillis();
+			//validate需要holder的锁，不需要等重试结束；close之后重试时会重新建连
+			holder.validate(true);
+			holder.close();
+			Assert.assertTrue(System.currentTimeMillis() - start < 4000L);
+			Assert.assertTrue(thread.isAlive());
+		} finally {
+			thread.interrupt();
+			thread.join(10000L);
+		}
+	}
+}
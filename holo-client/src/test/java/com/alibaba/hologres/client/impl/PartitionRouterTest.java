@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.impl;
+
+import com.alibaba.hologres.client.Put;
+import com.alibaba.hologres.client.model.Column;
+import com.alibaba.hologres.client.model.TableName;
+import com.alibaba.hologres.client.model.TableSchema;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PartitionRouter单元测试用例.
+ */
+public class PartitionRouterTest {
+
+	/**
+	 * LongKeyMap合并之后旧的entry仍然可见，相同的key被覆盖.
+	 */
+	@Test
+	public void testLongKeyMap() {
+		PartitionRouter.LongKeyMap<String> map = new PartitionRouter.LongKeyMap<>(8);
+		Assert.assertNull(map.get(1L));
+		for (int round = 0; round < 10; ++round) {
+			Map<Long, String> entries = new HashMap<>();
+			for (long i = 0; i < 100; ++i) {
+				long key = round * 100 + i - 500;
+				entries.put(key, "v" + key);
+			}
+			map = map.with(entries);
+		}
+		Assert.assertEquals(map.size(), 1000);
+		for (long key = -500; key < 500; ++key) {
+			Assert.assertEquals(map.get(key), "v" + key);
+		}
+		Assert.assertNull(map.get(500L));
+		Assert.assertNull(map.get(Long.MIN_VALUE));
+
+		Map<Long, String> entries = new HashMap<>();
+		entries.put(0L, "new");
+		map = map.with(entries);
+		Assert.assertEquals(map.size(), 1000);
+		Assert.assertEquals(map.get(0L), "new");
+	}
+
+	private static TableSchema buildSchema(String tableName, String schemaVersion, boolean isParent) {
+		TableSchema.Builder builder = new TableSchema.Builder(tableName, schemaVersion);
+		builder.setTableName(TableName.valueOf(tableName));
+		List<Column> columns = new ArrayList<>();
+		Column id = new Column();
+		id.setName("id");
+		id.setType(Types.INTEGER);
+		id.setTypeName("int4");
+		id.setPrimaryKey(true);
+		columns.add(id);
+		Column ds = new Column();
+		ds.setName("ds");
+		ds.setType(Types.INTEGER);
+		ds.setTypeName("int4");
+		ds.setPrimaryKey(true);
+		columns.add(ds);
+		builder.setColumns(columns);
+		if (isParent) {
+			builder.setPartitionColumnName("ds");
+		}
+		TableSchema schema = builder.build();
+		schema.calculateProperties();
+		return schema;
+	}
+
+	private static Map<Object, TableSchema> addRoute(PartitionRouter router, TableSchema parent, int value, TableSchema child) {
+		Map<String, List<Object>> partValueMap = new HashMap<>();
+		partValueMap.put(String.valueOf(value), Collections.singletonList(value));
+		return router.addRoutes(parent, partValueMap, Collections.singletonMap(String.valueOf(value), child));
+	}
+
+	/**
+	 * 父表schemaVersion变化后路由失效.
+	 */
+	@Test
+	public void testInvalidateOnSchemaChange() {
+		PartitionRouter router = new PartitionRouter(-1L);
+		TableSchema parent = buildSchema("test_router", "1", true);
+		TableSchema child = buildSchema("test_router_1", "1", false);
+		Assert.assertTrue(parent.isPartitionParentTable());
+		Assert.assertSame(addRoute(router, parent, 1, child).get(1), child);
+		Assert.assertSame(router.route(parent, 1), child);
+		Assert.assertSame(router.route(buildSchema("test_router", "1", true), "1"), child);
+
+		TableSchema newParent = buildSchema("test_router", "2", true);
+		Assert.assertNull(router.route(newParent, 1));
+		//旧的TableRoute已经被删除
+		Assert.assertNull(router.route(parent, 1));
+
+		TableSchema newChild = buildSchema("test_router_1", "2", false);
+		addRoute(router, newParent, 1, newChild);
+		Assert.assertSame(router.route(newParent, 1), newChild);
+	}
+
+	/**
+	 * 过期的路由不再命中，并在下一次写入路由时被清理.
+	 */
+	@Test
+	public void testExpire() throws Exception {
+		PartitionRouter router = new PartitionRouter(50L);
+		TableSchema parent = buildSchema("test_router_expire", "1", true);
+		TableSchema child1 = buildSchema("test_router_expire_1", "1", false);
+		TableSchema child2 = buildSchema("test_router_expire_2", "1", false);
+		addRoute(router, parent, 1, child1);
+		Assert.assertSame(router.route(parent, 1), child1);
+		Thread.sleep(100L);
+		Assert.assertNull(router.route(parent, 1));
+		addRoute(router, parent, 2, child2);
+		Assert.assertSame(router.route(parent, 2), child2);
+		Assert.assertNull(router.route(parent, 1));
+	}
+
+	/**
+	 * prefetch跳过为null的Put和分区值，全部跳过时不会访问pool.
+	 */
+	@Test
+	public void testPrefetchSkipInvalid() throws Exception {
+		PartitionRouter router = new PartitionRouter(-1L);
+		TableSchema parent = buildSchema("test_router_prefetch", "1", true);
+		Put nullPartition = new Put(parent);
+		nullPartition.setObject(0, 1);
+		nullPartition.setObject(1, null);
+		Put unsetPartition = new Put(parent);
+		unsetPartition.setObject(0, 2);
+		router.prefetch(null, Arrays.asList(null, nullPartition, unsetPartition), true);
+	}
+}
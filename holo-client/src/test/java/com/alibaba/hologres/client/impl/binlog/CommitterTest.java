@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.impl.binlog;
+
+import org.postgresql.replication.LogSequenceNumber;
+import org.postgresql.replication.PGReplicationStream;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Committer单元测试用例.
+ */
+public class CommitterTest {
+
+	/**
+	 * worker取走之前的多次提交合并为一次，只flush最大的lsn.
+	 */
+	@Test
+	public void testCoalesce() {
+		Committer committer = new Committer();
+		CompletableFuture<Void> f1 = committer.commitLsnAsync(10L);
+		CompletableFuture<Void> f2 = committer.commitLsnAsync(30L);
+		CompletableFuture<Void> f3 = committer.commitLsnAsync(20L);
+
+		Committer.CommitJob job = committer.poll();
+		Assert.assertNotNull(job);
+		Assert.assertEquals(job.getLsn(), 30L);
+		Assert.assertFalse(job.isForce());
+		Assert.assertNull(committer.poll());
+
+		Assert.assertFalse(f1.isDone());
+		committer.flush(new StubStream(), job.getLsn());
+		job.complete();
+		Assert.assertTrue(f1.isDone() && f2.isDone() && f3.isDone());
+		Assert.assertEquals(committer.getCommittedLsn(), 30L);
+	}
+
+	/**
+	 * 合并的请求中只要有一个需要force，就需要forceUpdateStatus.
+	 */
+	@Test
+	public void testForce() {
+		Committer committer = new Committer();
+		committer.commitLsnAsync(10L);
+		committer.commitLsn(5L);
+		Committer.CommitJob job = committer.poll();
+		Assert.assertEquals(job.getLsn(), 10L);
+		Assert.assertTrue(job.isForce());
+	}
+
+	/**
+	 * lsn小于0时不需要提交.
+	 */
+	@Test
+	public void testSkipInvalidLsn() throws Exception {
+		Committer committer = new Committer();
+		CompletableFuture<Void> future = committer.commitLsnAsync(-1L);
+		Assert.assertTrue(future.isDone());
+		Assert.assertNull(committer.poll());
+	}
+
+	/**
+	 * attach之后commitLsnAsync直接设置到stream上，不需要worker处理；commitLsn仍然交给worker，flushed lsn不会回退.
+	 */
+	@Test
+	public void testAttach() {
+		Committer committer = new Committer();
+		StubStream stream = new StubStream();
+		committer.attach(stream);
+
+		CompletableFuture<Void> f1 = committer.commitLsnAsync(30L);
+		Assert.assertTrue(f1.isDone());
+		Assert.assertEquals(stream.getLastFlushedLSN().asLong(), 30L);
+		Assert.assertEquals(committer.getCommittedLsn(), 30L);
+		Assert.assertNull(committer.poll());
+
+		committer.commitLsnAsync(20L);
+		Assert.assertEquals(stream.getLastFlushedLSN().asLong(), 30L);
+
+		CompletableFuture<Void> f2 = committer.commitLsn(40L);
+		Assert.assertFalse(f2.isDone());
+		Committer.CommitJob job = committer.poll();
+		Assert.assertTrue(job.isForce());
+		Assert.assertEquals(committer.flush(stream, job.getLsn()), 40L);
+		job.complete();
+		Assert.assertTrue(f2.isDone());
+
+		committer.detach();
+		CompletableFuture<Void> f3 = committer.commitLsnAsync(50L);
+		Assert.assertFalse(f3.isDone());
+		Assert.assertEquals(stream.getLastFlushedLSN().asLong(), 40L);
+		Assert.assertEquals(committer.poll().getLsn(), 50L);
+	}
+
+	/**
+	 * 延迟按最后消费的record的binlog时间计算.
+	 */
+	@Test
+	public void testLag() {
+		Committer committer = new Committer();
+		Assert.assertEquals(committer.getLagMs(), -1L);
+		committer.updateLastRead(100L, (System.currentTimeMillis() - 5000L) * 1000L);
+		Assert.assertEquals(committer.getLastReadLsn(), 100L);
+		Assert.assertTrue(committer.getLagMs() >= 5000L);
+		Assert.assertTrue(committer.getLagMs() < 60000L);
+	}
+
+	/**
+	 * 只记录flushed lsn的stream.
+	 */
+	private static class StubStream implements PGReplicationStream {
+		private volatile LogSequenceNumber flushed = LogSequenceNumber.INVALID_LSN;
+
+		@Override
+		public ByteBuffer read() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public ByteBuffer readPending() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public LogSequenceNumber getLastReceiveLSN() {
+			return LogSequenceNumber.INVALID_LSN;
+		}
+
+		@Override
+		public LogSequenceNumber getLastFlushedLSN() {
+			return flushed;
+		}
+
+		@Override
+		public LogSequenceNumber getLastAppliedLSN() {
+			return LogSequenceNumber.INVALID_LSN;
+		}
+
+		@Override
+		public void setFlushedLSN(LogSequenceNumber flushed) {
+			this.flushed = flushed;
+		}
+
+		@Override
+		public void setAppliedLSN(LogSequenceNumber applied) {
+		}
+
+		@Override
+		public void forceUpdateStatus() {
+		}
+
+		@Override
+		public boolean isClosed() {
+			return false;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.impl.binlog;
+
+import com.alibaba.hologres.client.model.TableName;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * MappedFileBinlogOffsetStore单元测试用例.
+ */
+public class MappedFileBinlogOffsetStoreTest {
+
+	private static void deleteDir(File dir) {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		dir.delete();
+	}
+
+	/**
+	 * update之后重新打开能读到每个shard最后一次写入的位点，没写过的shard不返回.
+	 */
+	@Test
+	public void testReopen() throws Exception {
+		File dir = Files.createTempDirectory("binlog_offset").toFile();
+		TableName tableName = TableName.valueOf("test_schema.\"Test_Table\"");
+		try {
+			try (MappedFileBinlogOffsetStore store = new MappedFileBinlogOffsetStore(dir.getAbsolutePath(), 10L)) {
+				Assert.assertTrue(store.load(tableName, "slot_1", 4).isEmpty());
+				for (long i = 1; i <= 1000; ++i) {
+					store.update(tableName, "slot_1", 0, i, i * 1000L);
+					store.update(tableName, "slot_1", 2, i * 2, i * 2000L);
+				}
+				store.update(tableName, "slot_2", 1, 7L, 7000L);
+			}
+			try (MappedFileBinlogOffsetStore store = new MappedFileBinlogOffsetStore(dir.getAbsolutePath(), 0L)) {
+				Map<Integer, BinlogOffset> offsetMap = store.load(tableName, "slot_1", 4);
+				Assert.assertEquals(offsetMap.size(), 2);
+				Assert.assertEquals(offsetMap.get(0).getSequence(), 1000L);
+				Assert.assertEquals(offsetMap.get(0).getTimestamp(), 1000000L);
+				Assert.assertEquals(offsetMap.get(2).getSequence(), 2000L);
+				Assert.assertEquals(offsetMap.get(2).getTimestamp(), 2000000L);
+
+				offsetMap = store.load(tableName, "slot_2", 4);
+				Assert.assertEquals(offsetMap.size(), 1);
+				Assert.assertEquals(offsetMap.get(1).getSequence(), 7L);
+			}
+		} finally {
+			deleteDir(dir);
+		}
+	}
+
+	/**
+	 * 最新的副本损坏时退回到上一次写入的位点.
+	 */
+	@Test
+	public void testTornWrite() throws Exception {
+		File dir = Files.createTempDirectory("binlog_offset").toFile();
+		TableName tableName = TableName.valueOf("test_table");
+		try {
+			try (MappedFileBinlogOffsetStore store = new MappedFileBinlogOffsetStore(dir.getAbsolutePath(), 0L)) {
+				store.update(tableName, "slot_1", 0, 100L, 1L);
+				store.update(tableName, "slot_1", 0, 200L, 2L);
+				store.flush();
+			}
+			File[] files = dir.listFiles();
+			Assert.assertNotNull(files);
+			Assert.assertEquals(files.length, 1);
+			//第2次写入seq=2，落在shard 0的第0个副本，破坏它的lsn
+			try (RandomAccessFile raf = new RandomAccessFile(files[0], "rw")) {
+				raf.seek(16 + 8);
+				raf.writeLong(-1L);
+			}
+			try (MappedFileBinlogOffsetStore store = new MappedFileBinlogOffsetStore(dir.getAbsolutePath(), 0L)) {
+				Map<Integer, BinlogOffset> offsetMap = store.load(tableName, "slot_1", 1);
+				Assert.assertEquals(offsetMap.get(0).getSequence(), 100L);
+				store.update(tableName, "slot_1", 0, 300L, 3L);
+				Assert.assertEquals(store.load(tableName, "slot_1", 1).get(0).getSequence(), 300L);
+			}
+		} finally {
+			deleteDir(dir);
+		}
+	}
+
+	/**
+	 * shard数变大时原地重新映射，其他线程同时写入的位点不会丢失.
+	 */
+	@Test
+	public void testGrowWhileWriting() throws Exception {
+		File dir = Files.createTempDirectory("binlog_offset").toFile();
+		TableName tableName = TableName.valueOf("test_table");
+		try {
+			try (MappedFileBinlogOffsetStore store = new MappedFileBinlogOffsetStore(dir.getAbsolutePath(), 0L)) {
+				store.load(tableName, "slot_1", 1);
+				AtomicReference<Throwable> error = new AtomicReference<>();
+				Thread writer = new Thread(() -> {
+					try {
+						for (long i = 1; i <= 100000; ++i) {
+							store.update(tableName, "slot_1", 0, i, i);
+						}
+					} catch (Throwable e) {
+						error.set(e);
+					}
+				});
+				writer.start();
+				for (int shardId = 1; shardId < 64; ++shardId) {
+					store.update(tableName, "slot_1", shardId, shardId, shardId);
+				}
+				writer.join();
+				Assert.assertNull(error.get());
+				Map<Integer, BinlogOffset> offsetMap = store.load(tableName, "slot_1", 64);
+				Assert.assertEquals(offsetMap.size(), 64);
+				Assert.assertEquals(offsetMap.get(0).getSequence(), 100000L);
+				Assert.assertEquals(offsetMap.get(63).getSequence(), 63L);
+			}
+			try (MappedFileBinlogOffsetStore store = new MappedFileBinlogOffsetStore(dir.getAbsolutePath(), 0L)) {
+				Map<Integer, BinlogOffset> offsetMap = store.load(tableName, "slot_1", 1);
+				Assert.assertEquals(offsetMap.get(0).getSequence(), 100000L);
+				Assert.assertEquals(store.load(tableName, "slot_1", 64).get(63).getSequence(), 63L);
+			}
+		} finally {
+			deleteDir(dir);
+		}
+	}
+}
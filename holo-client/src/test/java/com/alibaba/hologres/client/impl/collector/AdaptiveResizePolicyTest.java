@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.impl.collector;
+
+import com.alibaba.hologres.client.HoloConfig;
+import com.alibaba.hologres.client.model.TableName;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * AdaptiveResizePolicy单元测试用例.
+ */
+public class AdaptiveResizePolicyTest {
+
+	private static AdaptiveResizePolicy buildPolicy() {
+		HoloConfig config = new HoloConfig();
+		config.setWriteBatchSize(512);
+		config.setMaxShardCount(4);
+		config.setWriteLatencySloMs(100L);
+		AdaptiveResizePolicy policy = new AdaptiveResizePolicy();
+		policy.init(config);
+		return policy;
+	}
+
+	/**
+	 * 模拟一轮统计：rows行写入，每个PutAction耗时costMs，fullCount个满批.
+	 */
+	private static long round(CollectorStatistics stat, int actions, int rowsPerAction, long costMs, int fullCount) {
+		stat.clear();
+		for (int i = 0; i < actions; ++i) {
+			stat.addAction(rowsPerAction, costMs * 1000000L);
+		}
+		for (int i = 0; i < fullCount; ++i) {
+			stat.add(BatchState.SizeEnough);
+		}
+		return stat.getNanoTime() + 1000000000L;
+	}
+
+	/**
+	 * 延迟超标时先减小攒批条数，攒批条数到最小后才减少shard.
+	 */
+	@Test
+	public void testDecrease() {
+		AdaptiveResizePolicy policy = buildPolicy();
+		TableName tableName = TableName.valueOf("adaptive_decrease");
+		CollectorStatistics stat = new CollectorStatistics(512);
+		int shard = 4;
+		long nano = round(stat, 10, 512, 500L, 10);
+		Assert.assertEquals(policy.calculate(tableName, stat, shard, 4, nano), 4);
+		Assert.assertEquals(policy.calculateBatchSize(tableName, stat, stat.getBatchSize(), nano), 256);
+
+		stat.setBatchSize(AdaptiveResizePolicy.MIN_BATCH_SIZE);
+		nano = round(stat, 10, 16, 500L, 10);
+		Assert.assertEquals(policy.calculate(tableName, stat, shard, 4, nano), 2);
+		Assert.assertEquals(policy.calculateBatchSize(tableName, stat, stat.getBatchSize(), nano), AdaptiveResizePolicy.MIN_BATCH_SIZE);
+	}
+
+	/**
+	 * 延迟达标时加性增长，吞吐没有提升时退回并保持.
+	 */
+	@Test
+	public void testIncreaseAndBackOff() {
+		AdaptiveResizePolicy policy = buildPolicy();
+		TableName tableName = TableName.valueOf("adaptive_increase");
+		CollectorStatistics stat = new CollectorStatistics(128);
+
+		long nano = round(stat, 10, 128, 10L, 10);
+		Assert.assertEquals(policy.calculate(tableName, stat, 1, 4, nano), 2);
+		Assert.assertEquals(policy.calculateBatchSize(tableName, stat, 128, nano), 160);
+
+		//吞吐翻倍，继续扩
+		nano = round(stat, 20, 128, 10L, 10);
+		Assert.assertEquals(policy.calculate(tableName, stat, 2, 4, nano), 3);
+
+		//吞吐没有提升，退回
+		nano = round(stat, 20, 128, 10L, 10);
+		Assert.assertEquals(policy.calculate(tableName, stat, 3, 4, nano), 2);
+		for (int i = 0; i < AdaptiveResizePolicy.HOLD_ROUNDS; ++i) {
+			nano = round(stat, 20, 128, 10L, 10);
+			Assert.assertEquals(policy.calculate(tableName, stat, 2, 4, nano), 2);
+		}
+		nano = round(stat, 20, 128, 10L, 10);
+		Assert.assertEquals(policy.calculate(tableName, stat, 2, 4, nano), 3);
+
+		//攒批条数不超过writeBatchSize
+		Assert.assertEquals(policy.calculateBatchSize(tableName, stat, 500, nano), 512);
+	}
+
+	/**
+	 * 没有满批时减少shard，没有写入时攒批条数不变.
+	 */
+	@Test
+	public void testIdle() {
+		AdaptiveResizePolicy policy = buildPolicy();
+		TableName tableName = TableName.valueOf("adaptive_idle");
+		CollectorStatistics stat = new CollectorStatistics(512);
+		long nano = round(stat, 0, 0, 0L, 0);
+		Assert.assertEquals(policy.calculate(tableName, stat, 3, 4, nano), 2);
+		Assert.assertEquals(policy.calculateBatchSize(tableName, stat, 300, nano), 300);
+	}
+}
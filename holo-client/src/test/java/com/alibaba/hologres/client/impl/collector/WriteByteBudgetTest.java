@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.impl.collector;
+
+import com.alibaba.hologres.client.HoloClient;
+import com.alibaba.hologres.client.HoloConfig;
+import com.alibaba.hologres.client.Put;
+import com.alibaba.hologres.client.exception.ExceptionCode;
+import com.alibaba.hologres.client.exception.HoloClientException;
+import com.alibaba.hologres.client.fake.FakeHoloServer;
+import com.alibaba.hologres.client.model.Column;
+import com.alibaba.hologres.client.model.TableName;
+import com.alibaba.hologres.client.model.TableSchema;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WriteByteBudget单元测试用例.
+ */
+public class WriteByteBudgetTest {
+
+	/**
+	 * 不开启准入控制时只统计内存.
+	 */
+	@Test
+	public void testNoLimit() throws Exception {
+		WriteByteBudget budget = new WriteByteBudget("budget-test-1", 100L, -1L, 0L);
+		budget.add(1000L);
+		budget.admit(() -> Assert.fail("should not block"));
+		Assert.assertEquals(budget.getByteSize(), 1000L);
+		Assert.assertEquals(budget.getAvailableByteSize(), -900L);
+		budget.add(-1000L);
+		Assert.assertEquals(budget.getByteSize(), 0L);
+	}
+
+	/**
+	 * timeout为0时直接失败，失败前仍然强制提交攒批，让之后的put可以通过.
+	 */
+	@Test
+	public void testFailFast() throws Exception {
+		WriteByteBudget budget = new WriteByteBudget("budget-test-2", 100L, 100L, 0L);
+		budget.add(99L);
+		budget.admit(() -> Assert.fail("should not block"));
+		Assert.assertEquals(budget.getExcessByteSize(), 0L);
+		budget.add(1L);
+		Assert.assertEquals(budget.getExcessByteSize(), 1L);
+		AtomicInteger onBlockCount = new AtomicInteger(0);
+		try {
+			budget.admit(onBlockCount::incrementAndGet);
+			Assert.fail("should throw");
+		} catch (HoloClientException e) {
+			Assert.assertEquals(e.getCode(), ExceptionCode.BUSY);
+		}
+		Assert.assertEquals(onBlockCount.get(), 1);
+	}
+
+	/**
+	 * 内存不足时阻塞，归还后继续；超时抛出BUSY.
+	 */
+	@Test
+	public void testBlock() throws Exception {
+		WriteByteBudget budget = new WriteByteBudget("budget-test-3", 100L, 100L, 5000L);
+		budget.add(200L);
+		AtomicInteger onBlockCount = new AtomicInteger(0);
+		CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
+			try {
+				budget.admit(onBlockCount::incrementAndGet);
+			} catch (HoloClientException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		Thread.sleep(200L);
+		Assert.assertFalse(future.isDone());
+		budget.add(-50L);
+		Thread.sleep(200L);
+		Assert.assertFalse(future.isDone());
+		budget.add(-100L);
+		future.get(1000L, TimeUnit.MILLISECONDS);
+		Assert.assertEquals(onBlockCount.get(), 1);
+
+		WriteByteBudget timeoutBudget = new WriteByteBudget("budget-test-4", 100L, 100L, 200L);
+		timeoutBudget.add(100L);
+		long start = System.currentTimeMillis();
+		try {
+			timeoutBudget.admit(() -> {
+			});
+			Assert.fail("should throw");
+		} catch (HoloClientException e) {
+			Assert.assertEquals(e.getCode(), ExceptionCode.BUSY);
+		}
+		Assert.assertTrue(System.currentTimeMillis() - start >= 200L);
+	}
+
+	/**
+	 * writeMaxBufferedByteSize小于攒批阈值时，阻塞的put强制提交最大的buffer，而不是等到超时.
+	 */
+	@Test
+	public void testBudgetSmallerThanBatch() throws Exception {
+		try (FakeHoloServer server = FakeHoloServer.newBuilder().build().start()) {
+			HoloConfig config = new HoloConfig();
+			config.setJdbcUrl(server.getJdbcUrl());
+			config.setUsername("fake_user");
+			config.setPassword("fake_password");
+			config.setWriteThreadSize(2);
+			//行数和字节数都不会达到攒批阈值，只有强制提交才能归还内存
+			config.setWriteBatchSize(1000000);
+			config.setWriteMaxBufferedByteSize(4096L);
+			config.setWriteBackPressureTimeoutMs(10000L);
+			config.setAppName("budget-test-5");
+
+			TableSchema.Builder builder = new TableSchema.Builder();
+			builder.setTableName(TableName.valueOf("test_budget"));
+			List<Column> columns = new ArrayList<>();
+			Column id = new Column();
+			id.setName("id");
+			id.setType(Types.INTEGER);
+			id.setTypeName("int4");
+			id.setPrimaryKey(true);
+			columns.add(id);
+			Column name = new Column();
+			name.setName("name");
+			name.setType(Types.VARCHAR);
+			name.setTypeName("text");
+			name.setPrimaryKey(false);
+			columns.add(name);
+			builder.setColumns(columns);
+			builder.setDistributionKeys(new String[]{"id"});
+			TableSchema schema = builder.build();
+			schema.calculateProperties();
+
+			try (HoloClient client = new HoloClient(config)) {
+				long start = System.currentTimeMillis();
+				for (int i = 0; i < 2000; ++i) {
+					Put put = new Put(schema);
+					put.setObject(0, i);
+					put.setObject(1, "name_" + i);
+					client.put(put);
+				}
+				client.flush();
+				Assert.assertTrue(System.currentTimeMillis() - start < 10000L);
+			}
+			long insertCount = server.getExecutedSql().stream().filter(sql -> sql.startsWith("insert")).count();
+			Assert.assertTrue(insertCount > 1L, String.valueOf(insertCount));
+		}
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.impl.handler;
+
+import com.alibaba.hologres.client.HoloConfig;
+import com.alibaba.hologres.client.exception.ExceptionCode;
+import com.alibaba.hologres.client.exception.HoloClientException;
+import com.alibaba.hologres.client.exception.HoloClientWithDetailsException;
+import com.alibaba.hologres.client.impl.ConnectionHolder;
+import com.alibaba.hologres.client.impl.action.PutAction;
+import com.alibaba.hologres.client.impl.collector.BatchState;
+import com.alibaba.hologres.client.model.Column;
+import com.alibaba.hologres.client.model.Record;
+import com.alibaba.hologres.client.model.TableName;
+import com.alibaba.hologres.client.model.TableSchema;
+import com.alibaba.hologres.client.model.WriteFailStrategy;
+import com.alibaba.hologres.client.model.WriteMode;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * PutActionHandler单元测试用例.
+ */
+public class PutActionHandlerTest {
+
+	/**
+	 * id在badIds中的record写入失败，统计提交次数.
+	 */
+	private static class MockPutActionHandler extends PutActionHandler {
+		final Set<Integer> badIds;
+		int executeCount = 0;
+
+		MockPutActionHandler(HoloConfig config, Set<Integer> badIds) {
+			super(new ConnectionHolder(config, null, false, false), config);
+			this.badIds = badIds;
+		}
+
+		@Override
+		protected void doHandlePutAction(List<Record> list, WriteMode mode) throws HoloClientException {
+			++executeCount;
+			for (Record record : list) {
+				if (badIds.contains((Integer) record.getObject(0))) {
+					throw new HoloClientException(ExceptionCode.DATA_VALUE_ERROR, "bad id " + record.getObject(0));
+				}
+			}
+		}
+	}
+
+	private static List<Record> buildRecords(int count) {
+		TableSchema.Builder builder = new TableSchema.Builder();
+		builder.setTableName(TableName.valueOf("test_bisect"));
+		List<Column> columns = new ArrayList<>();
+		Column id = new Column();
+		id.setName("id");
+		id.setType(Types.INTEGER);
+		id.setTypeName("int4");
+		id.setPrimaryKey(true);
+		columns.add(id);
+		builder.setColumns(columns);
+		TableSchema schema = builder.build();
+		schema.calculateProperties();
+		List<Record> records = new ArrayList<>();
+		for (int i = 0; i < count; ++i) {
+			Record record = Record.build(schema);
+			record.setObject(0, i);
+			records.add(record);
+		}
+		return records;
+	}
+
+	private static HoloClientWithDetailsException run(MockPutActionHandler handler, List<Record> records) throws InterruptedException {
+		PutAction action = new PutAction(records, 0L, WriteMode.INSERT_OR_REPLACE, BatchState.SizeEnough);
+		handler.handle(action);
+		try {
+			action.getFuture().get();
+			return null;
+		} catch (ExecutionException e) {
+			return (HoloClientWithDetailsException) e.getCause();
+		}
+	}
+
+	/**
+	 * 二分定位到所有脏数据，提交次数约为k*log(n).
+	 */
+	@Test
+	public void testBisect() throws Exception {
+		HoloConfig config = new HoloConfig();
+		config.setJdbcUrl("jdbc:postgresql://bisect-test:80/db");
+		config.setWriteFailStrategy(WriteFailStrategy.TRY_BISECT);
+		Set<Integer> badIds = new HashSet<>();
+		badIds.add(7);
+		badIds.add(4000);
+		badIds.add(4001);
+		MockPutActionHandler handler = new MockPutActionHandler(config, badIds);
+		HoloClientWithDetailsException e = run(handler, buildRecords(5000));
+		Assert.assertNotNull(e);
+		Assert.assertEquals(e.size(), 3);
+		Set<Integer> failIds = new HashSet<>();
+		for (int i = 0; i < e.size(); ++i) {
+			failIds.add((Integer) e.getFailRecord(i).getObject(0));
+			Assert.assertEquals(e.getException(i).getCode(), ExceptionCode.DATA_VALUE_ERROR);
+			Assert.assertEquals(e.getException(i).getMessage(), "bad id " + e.getFailRecord(i).getObject(0));
+		}
+		Assert.assertEquals(failIds, badIds);
+		//第一次整批提交 + 二分
+		Assert.assertTrue(handler.executeCount < 3 * 2 * 13 + 1, String.valueOf(handler.executeCount));
+
+		config.setWriteFailStrategy(WriteFailStrategy.TRY_ONE_BY_ONE);
+		handler = new MockPutActionHandler(config, badIds);
+		e = run(handler, buildRecords(5000));
+		Assert.assertEquals(e.size(), 3);
+		Assert.assertEquals(handler.executeCount, 5001);
+	}
+
+	/**
+	 * 没有脏数据时只提交一次.
+	 */
+	@Test
+	public void testNoDirtyData() throws Exception {
+		HoloConfig config = new HoloConfig();
+		config.setJdbcUrl("jdbc:postgresql://bisect-test:80/db");
+		config.setWriteFailStrategy(WriteFailStrategy.TRY_BISECT);
+		MockPutActionHandler handler = new MockPutActionHandler(config, new HashSet<>());
+		Assert.assertNull(run(handler, buildRecords(100)));
+		Assert.assertEquals(handler.executeCount, 1);
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.impl.retry;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * CircuitBreaker单元测试用例.
+ */
+public class CircuitBreakerTest {
+
+	/**
+	 * 连续失败后熔断，只放行一个探测请求，探测成功后恢复.
+	 */
+	@Test
+	public void testStateTransition() throws Exception {
+		CircuitBreaker breaker = new CircuitBreaker("breaker-test-1", 3, 200L);
+		breaker.onFailure();
+		breaker.onFailure();
+		breaker.onSuccess();
+		breaker.onFailure();
+		breaker.onFailure();
+		Assert.assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+		breaker.onFailure();
+		Assert.assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+		Assert.assertFalse(breaker.allowRequest());
+
+		Thread.sleep(250L);
+		Assert.assertTrue(breaker.allowRequest());
+		Assert.assertEquals(breaker.getState(), CircuitBreaker.State.HALF_OPEN);
+		Assert.assertFalse(breaker.allowRequest());
+		breaker.onSuccess();
+		Assert.assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+		Assert.assertTrue(breaker.allowRequest());
+	}
+
+	/**
+	 * 探测失败重新熔断，探测请求没有结果时超时后放行下一个.
+	 */
+	@Test
+	public void testProbeFail() throws Exception {
+		CircuitBreaker breaker = new CircuitBreaker("breaker-test-2", 1, 200L);
+		breaker.onFailure();
+		Assert.assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+		Thread.sleep(250L);
+		Assert.assertTrue(breaker.allowRequest());
+		breaker.onFailure();
+		Assert.assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+		Assert.assertFalse(breaker.allowRequest());
+
+		Thread.sleep(250L);
+		Assert.assertTrue(breaker.allowRequest());
+		Assert.assertFalse(breaker.allowRequest());
+		Thread.sleep(250L);
+		Assert.assertTrue(breaker.allowRequest());
+		Assert.assertEquals(breaker.getState(), CircuitBreaker.State.HALF_OPEN);
+	}
+
+	/**
+	 * 同一个endpoint共享一个熔断器.
+	 */
+	@Test
+	public void testShared() {
+		CircuitBreaker b1 = CircuitBreaker.getOrCreate("breaker-test-3", 3, 1000L);
+		CircuitBreaker b2 = CircuitBreaker.getOrCreate("breaker-test-3", 5, 2000L);
+		Assert.assertSame(b1, b2);
+		Assert.assertNotSame(b1, CircuitBreaker.getOrCreate("breaker-test-4", 3, 1000L));
+	}
+}
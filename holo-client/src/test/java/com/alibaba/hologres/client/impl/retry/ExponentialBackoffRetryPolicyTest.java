@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.impl.retry;
+
+import com.alibaba.hologres.client.exception.ExceptionCode;
+import com.alibaba.hologres.client.exception.HoloClientException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * ExponentialBackoffRetryPolicy单元测试用例.
+ */
+public class ExponentialBackoffRetryPolicyTest {
+
+	private static final HoloClientException ERROR = new HoloClientException(ExceptionCode.CONNECTION_ERROR, "mock");
+
+	/**
+	 * 等待时间在指数下限和线性上限之间，并且有抖动.
+	 */
+	@Test
+	public void testBackoff() {
+		RetryPolicy policy = new ExponentialBackoffRetryPolicy(1000L, 10000L, -1);
+		Set<Long> distinct = new HashSet<>();
+		for (int round = 0; round < 100; ++round) {
+			long first = policy.nextBackoffMs("backoff-test", 1, ERROR);
+			Assert.assertTrue(first >= 500L && first <= 1000L, String.valueOf(first));
+			long second = policy.nextBackoffMs("backoff-test", 2, ERROR);
+			Assert.assertTrue(second >= 1000L && second <= 11000L, String.valueOf(second));
+			long third = policy.nextBackoffMs("backoff-test", 3, ERROR);
+			Assert.assertTrue(third >= 2000L && third <= 21000L, String.valueOf(third));
+			distinct.add(second);
+		}
+		Assert.assertTrue(distinct.size() > 1);
+
+		//stepMs为0时下限不超过上限
+		policy = new ExponentialBackoffRetryPolicy(1000L, 0L, -1);
+		Assert.assertEquals(policy.nextBackoffMs("backoff-test", 5, ERROR), 1000L);
+	}
+
+	/**
+	 * 预算耗尽后不再重试，成功之后恢复.
+	 */
+	@Test
+	public void testBudget() {
+		RetryPolicy policy = new ExponentialBackoffRetryPolicy(0L, 0L, 50);
+		String endpoint = "budget-test";
+		for (int i = 0; i < ExponentialBackoffRetryPolicy.MAX_BUDGET; ++i) {
+			Assert.assertEquals(policy.nextBackoffMs(endpoint, 1, ERROR), 0L);
+		}
+		Assert.assertEquals(policy.nextBackoffMs(endpoint, 1, ERROR), -1L);
+		policy.onSuccess(endpoint);
+		Assert.assertEquals(policy.nextBackoffMs(endpoint, 1, ERROR), -1L);
+		policy.onSuccess(endpoint);
+		Assert.assertEquals(policy.nextBackoffMs(endpoint, 1, ERROR), 0L);
+		Assert.assertEquals(policy.nextBackoffMs(endpoint, 1, ERROR), -1L);
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.utils;
+
+import com.alibaba.hologres.client.model.Column;
+import com.alibaba.hologres.client.model.Record;
+import com.alibaba.hologres.client.model.TableName;
+import com.alibaba.hologres.client.model.TableSchema;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * MemorySizeUtil单元测试用例.
+ */
+public class MemorySizeUtilTest {
+
+	/**
+	 * utf8Length和String.getBytes结果一致.
+	 */
+	@Test
+	public void testUtf8Length() {
+		String[] values = new String[]{"", "abc", "héllo", "中文字符", "emoji😀", "bad\uD83Dsurrogate", "\uDE00x", "{\"a\":\"值\"}"};
+		for (String value : values) {
+			Assert.assertEquals(MemorySizeUtil.utf8Length(value), value.getBytes(StandardCharsets.UTF_8).length, value);
+		}
+	}
+
+	/**
+	 * 字符串至少按UTF-8字节数计算，非ASCII的json不会被低估.
+	 */
+	@Test
+	public void testString() {
+		String ascii = "abcdefghijk";
+		String cjk = "中文中文中文中文中文中";
+		Assert.assertTrue(MemorySizeUtil.sizeOf(ascii) >= MemorySizeUtil.ARRAY_HEADER + ascii.length());
+		Assert.assertTrue(MemorySizeUtil.sizeOf(cjk) >= MemorySizeUtil.ARRAY_HEADER + cjk.getBytes(StandardCharsets.UTF_8).length);
+		Assert.assertTrue(MemorySizeUtil.sizeOf(cjk) > MemorySizeUtil.sizeOf(ascii));
+		Assert.assertEquals(MemorySizeUtil.sizeOf(ascii) % 8, 0);
+	}
+
+	/**
+	 * 对象数组和列表的估算和反射遍历的结果一致.
+	 */
+	@Test
+	public void testCompareWithRetainedSize() {
+		Object[] values = new Object[]{1, 2L, 3.0d, "abc", new BigDecimal("1234.5678"), new int[]{1, 2, 3}, new byte[22]};
+		Assert.assertEquals(MemorySizeUtil.sizeOf(values), MemorySizeUtil.retainedSize(values));
+		Assert.assertEquals(MemorySizeUtil.sizeOf(new Object[]{"a", "bb", "ccc"}), MemorySizeUtil.retainedSize(new Object[]{"a", "bb", "ccc"}));
+		List<Object> list = new ArrayList<>(Arrays.asList(1L, 2L));
+		Assert.assertTrue(MemorySizeUtil.sizeOf(list) >= 2 * MemorySizeUtil.sizeOf(1L));
+		Assert.assertTrue(MemorySizeUtil.sizeOf(new BigDecimal("123456789012345678901234567890.12345")) > MemorySizeUtil.sizeOf(new BigDecimal("1.5")));
+	}
+
+	/**
+	 * Record的byteSize包括Record本身、列值和putFutures.
+	 */
+	@Test
+	public void testRecord() {
+		TableSchema.Builder builder = new TableSchema.Builder();
+		builder.setTableName(TableName.valueOf("test_memory_size"));
+		List<Column> columns = new ArrayList<>();
+		Column id = new Column();
+		id.setName("id");
+		id.setType(Types.INTEGER);
+		id.setTypeName("int4");
+		id.setPrimaryKey(true);
+		columns.add(id);
+		Column json = new Column();
+		json.setName("j");
+		json.setType(Types.OTHER);
+		json.setTypeName("json");
+		columns.add(json);
+		builder.setColumns(columns);
+		TableSchema schema = builder.build();
+		schema.calculateProperties();
+
+		Record record = Record.build(schema);
+		long base = record.getByteSize();
+		Assert.assertTrue(base > 0);
+		record.setObject(0, 1);
+		String value = "{\"k\":\"中文中文中文中文\"}";
+		record.setObject(1, value);
+		Assert.assertEquals(record.getByteSize(), base + MemorySizeUtil.sizeOf(1) + MemorySizeUtil.sizeOf(value));
+		record.setObject(1, null);
+		Assert.assertEquals(record.getByteSize(), base + MemorySizeUtil.sizeOf(1));
+
+		long before = record.getByteSize();
+		record.setPutFuture(new CompletableFuture<>());
+		Assert.assertTrue(record.getByteSize() > before + MemorySizeUtil.PUT_FUTURE_SIZE);
+
+		Record other = Record.build(schema);
+		other.setObject(0, 1);
+		other.setPutFuture(new CompletableFuture<>());
+		before = record.getByteSize();
+		record.merge(other);
+		Assert.assertEquals(record.getByteSize(), before + MemorySizeUtil.PUT_FUTURE_SIZE);
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2023. Alibaba Group Holding Limited
+ */
+
+package com.alibaba.hologres.client.utils;
+
+import com.alibaba.hologres.client.exception.ExceptionCode;
+import com.alibaba.hologres.client.exception.HoloClientException;
+import com.alibaba.hologres.client.model.Column;
+import com.alibaba.hologres.client.model.Record;
+import com.alibaba.hologres.client.model.TableName;
+import com.alibaba.hologres.client.model.TableSchema;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * RecordChecker单元测试用例.
+ */
+public class RecordCheckerTest {
+
+	private static Column column(String name, int type, String typeName, int precision, int scale) {
+		Column column = new Column();
+		column.setName(name);
+		column.setType(type);
+		column.setTypeName(typeName);
+		column.setPrecision(precision);
+		column.setScale(scale);
+		column.setAllowNull(true);
+		return column;
+	}
+
+	private static TableSchema buildSchema() {
+		List<Column> columns = new ArrayList<>();
+		Column id = column("id", Types.BIGINT, "int8", 0, 0);
+		id.setPrimaryKey(true);
+		id.setAllowNull(false);
+		columns.add(id);
+		columns.add(column("i", Types.INTEGER, "int4", 0, 0));
+		columns.add(column("s", Types.SMALLINT, "int2", 0, 0));
+		columns.add(column("name", Types.VARCHAR, "varchar", 5, 0));
+		columns.add(column("amount", Types.NUMERIC, "numeric", 5, 2));
+		columns.add(column("flag", Types.BIT, "bool", 0, 0));
+		columns.add(column("d", Types.DATE, "date", 0, 0));
+		columns.add(column("ts", Types.TIMESTAMP, "timestamptz", 0, 0));
+		columns.add(column("j", Types.OTHER, "jsonb", 0, 0));
+		columns.add(column("tags", Types.ARRAY, "_varchar", 3, 0));
+		columns.add(column("ids", Types.ARRAY, "_int4", 0, 0));
+		TableSchema.Builder builder = new TableSchema.Builder();
+		builder.setTableName(TableName.valueOf("test_record_checker"));
+		builder.setColumns(columns);
+		TableSchema schema = builder.build();
+		schema.calculateProperties();
+		return schema;
+	}
+
+	private static Record record(TableSchema schema, long id) {
+		Record record = Record.build(schema);
+		record.setObject(0, id);
+		return record;
+	}
+
+	private static void assertValid(TableSchema schema, int index, Object value) throws HoloClientException {
+		Record record = record(schema, 1L);
+		record.setObject(index, value);
+		RecordChecker.check(record);
+		RecordChecker.compile(schema).validate(record);
+	}
+
+	private static void assertInvalid(TableSchema schema, int index, Object value, String reason) {
+		Record record = record(schema, 1L);
+		record.setObject(index, value);
+		HoloClientException e = Assert.expectThrows(HoloClientException.class, () -> RecordChecker.compile(schema).validate(record));
+		Assert.assertEquals(e.getCode(), ExceptionCode.CONSTRAINT_VIOLATION);
+		Assert.assertTrue(e.getMessage().contains(schema.getColumn(index).getName()), e.getMessage());
+		Assert.assertTrue(e.getMessage().contains(reason), e.getMessage());
+	}
+
+	@Test
+	public void testValid() throws HoloClientException {
+		TableSchema schema = buildSchema();
+		assertValid(schema, 1, 1);
+		assertValid(schema, 1, (short) 1);
+		assertValid(schema, 0, 1);
+		assertValid(schema, 2, (short) 1);
+		assertValid(schema, 3, "abcde");
+		assertValid(schema, 4, new BigDecimal("999.99"));
+		assertValid(schema, 5, true);
+		assertValid(schema, 6, new Date(0L));
+		assertValid(schema, 7, new Timestamp(0L));
+		assertValid(schema, 8, "{\"a\":1}");
+		assertValid(schema, 9, new String[]{"a", "abc"});
+		assertValid(schema, 10, new int[]{1});
+		for (int i = 1; i < schema.getColumnSchema().length; ++i) {
+			assertValid(schema, i, null);
+		}
+	}
+
+	/**
+	 * 快速校验不通过时报错信息和原来一致.
+	 */
+	@Test
+	public void testInvalid() {
+		TableSchema schema = buildSchema();
+		assertInvalid(schema, 0, null, "not allow null value");
+		assertInvalid(schema, 1, 1L, "for setLong method");
+		assertInvalid(schema, 2, 1, "for setInteger method");
+		assertInvalid(schema, 3, "abcdef", "value too long for type character varying(5)");
+		assertInvalid(schema, 3, "a\u0000", "0x00");
+		assertInvalid(schema, 4, new BigDecimal("1000.00"), "must round to an absolute value less than 10^3");
+		assertInvalid(schema, 6, new Timestamp(0L), "for setTimeStamp method");
+		assertInvalid(schema, 8, "{\"a\":\"\\u0000\"}", "0x00");
+		assertInvalid(schema, 9, new String[]{"abcd"}, "value too long for type character varying(3)");
+		assertInvalid(schema, 9, new String[]{null}, "Not support null value in array");
+		assertInvalid(schema, 10, new long[]{1L}, "for setLongArray method");
+	}
+
+	/**
+	 * 并行校验时抛出下标最小的不合法record的异常.
+	 */
+	@Test
+	public void testBatch() throws HoloClientException {
+		TableSchema schema = buildSchema();
+		List<Record> records = new ArrayList<>();
+		for (int i = 0; i < RecordChecker.PARALLEL_CHUNK_SIZE * 10; ++i) {
+			Record record = record(schema, i);
+			record.setObject(3, String.valueOf(i % 1000));
+			records.add(record);
+		}
+		RecordChecker checker = RecordChecker.compile(schema);
+		checker.validate(records);
+		checker.validate(records, true);
+		checker.validate(Collections.emptyList(), true);
+
+		records.get(7000).setObject(3, "invalid7000");
+		records.get(3001).setObject(3, "invalid3001");
+		for (boolean parallel : new boolean[]{false, true}) {
+			HoloClientException e = Assert.expectThrows(HoloClientException.class, () -> checker.validate(records, parallel));
+			Assert.assertTrue(e.getMessage().contains("invalid3001"), e.getMessage());
+		}
+	}
+}